@@ -0,0 +1,155 @@
+package com.webfuzzing.commons.auth;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of the "authTemplate" of auth configurations with an increasing number of users.
+ * The baseline is what fuzzers had to do so far: for each user, a deep copy of the template with Jackson,
+ * in which the fields defined by the user are merged, and then bound to {@link AuthenticationInfo}.
+ * This is compared with {@link AuthTemplateResolver}, including its compilation of the template.
+ * <p>
+ * Loading the whole configuration from JSON is also compared, between Jackson (tree, then binding, then
+ * template resolution) and the single pass of {@link AuthLoader}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthTemplateBenchmark {
+
+    @Param({"1000", "10000"})
+    public int users;
+
+    private ObjectMapper mapper;
+
+    private Auth auth;
+
+    private byte[] json;
+
+    abstract static class AdditionalPropertiesMixIn {
+
+        @JsonAnyGetter
+        abstract Map<String, Object> getAdditionalProperties();
+
+        @JsonAnySetter
+        abstract void setAdditionalProperty(String name, Object value);
+    }
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        // generated enums have the values in the schema as toString()
+        mapper.enable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING);
+        mapper.enable(DeserializationFeature.READ_ENUMS_USING_TO_STRING);
+        for (Class<?> k : Arrays.asList(Auth.class, AuthenticationInfo.class, Header.class, LoginEndpoint.class,
+                TokenHandling.class, PayloadUsernamePassword.class, CreateUsers.class, Generator.class)) {
+            mapper.addMixIn(k, AdditionalPropertiesMixIn.class);
+        }
+        auth = createConfig(users);
+        try {
+            json = mapper.writeValueAsBytes(auth);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A login endpoint fully specified in the template, apart from the credentials of each user
+     */
+    static Auth createConfig(int users) {
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("extractFrom", "body");
+        token.put("extractSelector", "/data/token");
+        token.put("sendIn", "header");
+        token.put("sendName", "Authorization");
+        token.put("sendTemplate", "Bearer {token}");
+
+        Map<String, Object> pwd = new LinkedHashMap<>();
+        pwd.put("usernameField", "username");
+        pwd.put("passwordField", "password");
+
+        Map<String, Object> login = new LinkedHashMap<>();
+        login.put("endpoint", "/api/login");
+        login.put("verb", "POST");
+        login.put("contentType", "application/json");
+        login.put("payloadUserPwd", pwd);
+        login.put("token", token);
+
+        Map<String, Object> template = new LinkedHashMap<>();
+        template.put("requireMockHandling", false);
+        template.put("loginEndpointAuth", login);
+
+        Auth auth = new Auth();
+        auth.setSchemaVersion("0.0.1");
+        auth.setAuthTemplate(template);
+        for (int i = 0; i < users; i++) {
+            PayloadUsernamePassword credentials = new PayloadUsernamePassword();
+            credentials.setUsername("user" + i);
+            credentials.setPassword("password" + i);
+            LoginEndpoint userLogin = new LoginEndpoint();
+            userLogin.setPayloadUserPwd(credentials);
+            AuthenticationInfo info = new AuthenticationInfo();
+            info.setName("user" + i);
+            info.setLoginEndpointAuth(userLogin);
+            auth.getAuth().add(info);
+        }
+        return auth;
+    }
+
+    private static void merge(ObjectNode target, ObjectNode source) {
+        Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> e = fields.next();
+            JsonNode current = target.get(e.getKey());
+            if (current != null && current.isObject() && e.getValue().isObject()) {
+                merge((ObjectNode) current, (ObjectNode) e.getValue());
+            } else {
+                target.set(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<AuthenticationInfo> jacksonDeepCopy() throws JsonProcessingException {
+        ObjectNode template = mapper.valueToTree(auth.getAuthTemplate());
+        List<AuthenticationInfo> resolved = new ArrayList<>(auth.getAuth().size());
+        for (AuthenticationInfo info : auth.getAuth()) {
+            ObjectNode copy = template.deepCopy();
+            merge(copy, mapper.valueToTree(info));
+            resolved.add(mapper.treeToValue(copy, AuthenticationInfo.class));
+        }
+        return resolved;
+    }
+
+    @Benchmark
+    public List<AuthenticationInfo> resolver() {
+        return new AuthTemplateResolver(auth.getAuthTemplate()).resolve(auth.getAuth());
+    }
+
+    @Benchmark
+    public List<AuthenticationInfo> loadJackson() throws IOException {
+        JsonNode tree = mapper.readTree(json);
+        return AuthTemplateResolver.resolve(mapper.treeToValue(tree, Auth.class));
+    }
+
+    @Benchmark
+    public List<AuthenticationInfo> load() throws IOException {
+        return AuthLoader.load(json);
+    }
+}
@@ -0,0 +1,115 @@
+package com.webfuzzing.commons.faults;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the precomputed lookups in {@link DefinedFaultCategory} with a linear scan
+ * over {@link DefinedFaultCategory#values()}, which is what had to be done before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FaultCategoryLookupBenchmark {
+
+    private static final int N = 1024;
+
+    private int[] codes;
+
+    private String[] labels;
+
+    private String[] testCaseLabels;
+
+    @Setup
+    public void setup() {
+        DefinedFaultCategory[] all = DefinedFaultCategory.values();
+        Random random = new Random(42);
+
+        codes = new int[N];
+        labels = new String[N];
+        testCaseLabels = new String[N];
+
+        for (int i = 0; i < N; i++) {
+            DefinedFaultCategory c = all[random.nextInt(all.length)];
+            codes[i] = c.getCode();
+            // new instances, to avoid benefiting from identity checks in String.equals()
+            labels[i] = new String(c.getLabel());
+            testCaseLabels[i] = new String(c.getTestCaseLabel());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void codeScan(Blackhole bh) {
+        for (int code : codes) {
+            DefinedFaultCategory found = null;
+            for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+                if (c.getCode() == code) {
+                    found = c;
+                    break;
+                }
+            }
+            bh.consume(found);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void codeLookup(Blackhole bh) {
+        for (int code : codes) {
+            bh.consume(DefinedFaultCategory.fromCode(code));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void labelScan(Blackhole bh) {
+        for (String label : labels) {
+            DefinedFaultCategory found = null;
+            for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+                if (c.getLabel().equals(label)) {
+                    found = c;
+                    break;
+                }
+            }
+            bh.consume(found);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void labelLookup(Blackhole bh) {
+        for (String label : labels) {
+            bh.consume(DefinedFaultCategory.fromLabel(label));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void testCaseLabelScan(Blackhole bh) {
+        for (String label : testCaseLabels) {
+            DefinedFaultCategory found = null;
+            for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+                if (c.getTestCaseLabel().equals(label)) {
+                    found = c;
+                    break;
+                }
+            }
+            bh.consume(found);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void testCaseLabelLookup(Blackhole bh) {
+        for (String label : testCaseLabels) {
+            bh.consume(DefinedFaultCategory.fromTestCaseLabel(label));
+        }
+    }
+}
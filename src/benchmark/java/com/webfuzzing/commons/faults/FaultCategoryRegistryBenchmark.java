@@ -0,0 +1,82 @@
+package com.webfuzzing.commons.faults;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in {@link FaultCategoryRegistry} from several threads at the same time.
+ * Throughput should scale with the number of threads, as reads are lock-free.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FaultCategoryRegistryBenchmark {
+
+    private FaultCategoryRegistry registry;
+
+    private int[] codes;
+
+    @Setup
+    public void setup() {
+        registry = new FaultCategoryRegistry();
+        for (int code = 900; code < 950; code++) {
+            final int k = code;
+            registry.register(new FaultCategory() {
+                @Override
+                public int getCode() {
+                    return k;
+                }
+
+                @Override
+                public String getDescriptiveName() {
+                    return "Custom " + k;
+                }
+
+                @Override
+                public String getTestCaseLabel() {
+                    return "custom" + k;
+                }
+
+                @Override
+                public String getFullDescription() {
+                    return "Custom category " + k;
+                }
+            });
+        }
+        List<FaultCategory> all = registry.getAll();
+        codes = new int[all.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = all.get(i).getCode();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void fromCode_1thread(Blackhole bh) {
+        lookups(bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fromCode_4threads(Blackhole bh) {
+        lookups(bh);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void fromCode_maxThreads(Blackhole bh) {
+        lookups(bh);
+    }
+
+    private void lookups(Blackhole bh) {
+        for (int code : codes) {
+            bh.consume(registry.fromCode(code));
+        }
+    }
+}
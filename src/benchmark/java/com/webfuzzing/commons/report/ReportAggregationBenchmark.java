@@ -0,0 +1,70 @@
+package com.webfuzzing.commons.report;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation of reports of increasing size (see {@link SyntheticReports}): merging the reports
+ * of several shards with {@link ReportMerger}, indexing faults with {@link FaultIndex}, computing
+ * all the summary statistics in parallel with {@link ReportStatistics}, and building the endpoint by status
+ * {@link CoverageMatrix}. {@link ReportDiff} compares the report of a single shard with the whole one,
+ * and {@link ReportIndex} indexes its test cases.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ReportAggregationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int testCases;
+
+    @Param({"4"})
+    public int shards;
+
+    private Report report;
+
+    private List<Report> split;
+
+    private final ReportMerger merger = new ReportMerger();
+
+    @Setup
+    public void setup() {
+        report = SyntheticReports.create(testCases);
+        split = SyntheticReports.split(report, shards);
+    }
+
+    @Benchmark
+    public Report merge() {
+        return merger.merge(split);
+    }
+
+    @Benchmark
+    public FaultIndex faultIndex() {
+        return FaultIndex.of(report);
+    }
+
+    @Benchmark
+    public ReportStatistics statistics() {
+        return ReportStatistics.of(report);
+    }
+
+    @Benchmark
+    public CoverageMatrix coverageMatrix() {
+        return CoverageMatrix.of(report);
+    }
+
+    @Benchmark
+    public ReportDiff diff() {
+        return ReportDiff.of(split.get(0), report);
+    }
+
+    @Benchmark
+    public ReportIndex reportIndex() {
+        return ReportIndex.of(report);
+    }
+}
@@ -0,0 +1,87 @@
+package com.webfuzzing.commons.report;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the e2e report.json (scaled up as in {@link ReportMemoryBenchmark}),
+ * as JSON with {@link ReportWriter}/{@link ReportReader} and as binary with
+ * {@link ReportBinaryWriter}/{@link ReportBinaryReader}.
+ * Sizes of the two encodings are reported as the "bytes" secondary metric of the write benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReportBinaryBenchmark {
+
+    private static final String E2E_REPORT = "web-report/src-e2e/static/report.json";
+
+    @Param({"100"})
+    public int scale;
+
+    private Report report;
+
+    private byte[] json;
+
+    private byte[] binary;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        Report original;
+        try (ByteArrayInputStream in = new ByteArrayInputStream(Files.readAllBytes(Paths.get(E2E_REPORT)))) {
+            original = ReportReader.readReport(in);
+        }
+        json = ReportMemoryBenchmark.scale(original, scale);
+        report = ReportReader.readReport(new ByteArrayInputStream(json));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportBinaryWriter.write(report, out);
+        binary = out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeJson(Size size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        ReportWriter.write(report, out);
+        size.bytes = out.size();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeBinary(Size size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(binary.length);
+        ReportBinaryWriter.write(report, out);
+        size.bytes = out.size();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Report readJson() throws IOException {
+        return ReportReader.readReport(new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public Report readBinary() throws IOException {
+        return ReportBinaryReader.read(new ByteArrayInputStream(binary));
+    }
+}
@@ -0,0 +1,120 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.StringDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the e2e report.json, scaled up by repeating its test cases (with new ids), faults and covered endpoints.
+ * Compares reading with and without a {@link StringDictionary}, both in time and in heap retained by the
+ * loaded report (reported as the "retainedBytes" secondary metric of {@link #retainedHeap}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReportMemoryBenchmark {
+
+    private static final String E2E_REPORT = "web-report/src-e2e/static/report.json";
+
+    @Param({"100"})
+    public int scale;
+
+    @Param({"true", "false"})
+    public boolean dictionary;
+
+    private byte[] data;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        Report report;
+        try (ByteArrayInputStream in = new ByteArrayInputStream(Files.readAllBytes(Paths.get(E2E_REPORT)))) {
+            report = ReportReader.readReport(in, null);
+        }
+        data = scale(report, scale);
+    }
+
+    /**
+     * Copies of all the entries, in which test case ids are made unique, but everything else is repeated
+     */
+    static byte[] scale(Report report, int times) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(out)) {
+            writer.setHeader(report);
+            for (int k = 0; k < times; k++) {
+                String suffix = "_" + k;
+                for (TestCase tc : report.getTestCases()) {
+                    TestCase copy = new TestCase();
+                    copy.setId(tc.getId() + suffix);
+                    copy.setFilePath(tc.getFilePath());
+                    copy.setName(tc.getName() + suffix);
+                    copy.setStartLine(tc.getStartLine());
+                    copy.setEndLine(tc.getEndLine());
+                    writer.writeTestCase(copy);
+                }
+                for (FoundFault ff : report.getFaults().getFoundFaults()) {
+                    FoundFault copy = new FoundFault();
+                    copy.setOperationId(ff.getOperationId());
+                    copy.setTestCaseId(ff.getTestCaseId() + suffix);
+                    copy.setFaultCategories(ff.getFaultCategories());
+                    writer.writeFoundFault(copy);
+                }
+                for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+                    CoveredEndpoint copy = new CoveredEndpoint();
+                    copy.setEndpointId(ce.getEndpointId());
+                    copy.setTestCaseId(ce.getTestCaseId() + suffix);
+                    copy.setHttpStatus(ce.getHttpStatus());
+                    writer.writeCoveredEndpoint(copy);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private Report read() throws IOException {
+        return ReportReader.readReport(new ByteArrayInputStream(data), dictionary ? new StringDictionary() : null);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public Report load() throws IOException {
+        return read();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 5)
+    public Report retainedHeap(Heap heap) throws IOException {
+        long before = usedHeapAfterGc();
+        Report report = read();
+        heap.retainedBytes = usedHeapAfterGc() - before;
+        return report;
+    }
+}
@@ -0,0 +1,86 @@
+package com.webfuzzing.commons.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading reports of increasing size (see {@link SyntheticReports}) as JSON,
+ * with {@link ReportWriter}/{@link ReportReader} and, as a baseline, with Jackson data-binding
+ * (configured as in {@link JacksonReports}).
+ * <p>
+ * The largest sizes need time and memory. To run only some of them, use for example:
+ * -Djmh.args="ReportSerialization -p testCases=1000,10000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ReportSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int testCases;
+
+    private final ObjectMapper mapper = JacksonReports.mapper();
+
+    private Report report;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        report = SyntheticReports.create(testCases);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter.write(report, out);
+        json = out.toByteArray();
+    }
+
+    /**
+     * Discard the output, so that only the encoding is measured
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ReportWriter.write(report, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long writeJackson() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        mapper.writeValue(out, report);
+        return out.count;
+    }
+
+    @Benchmark
+    public Report read() throws IOException {
+        return ReportReader.readReport(new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public Report readJackson() throws IOException {
+        return mapper.readValue(json, Report.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.webfuzzing.commons.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Reports of arbitrary size for benchmarks, created with {@link ReportGenerator}, with one endpoint
+ * every 10 tests (up to 2000) and one fault every 5 tests.
+ */
+public class SyntheticReports {
+
+    public static Report create(int testCases) {
+        ReportGenerator generator = new ReportGenerator();
+        generator.setTestCases(testCases);
+        generator.setEndpoints(Math.max(1, Math.min(2000, testCases / 10)));
+        generator.setCreationTime("2025-01-01T00:00:00.000Z");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            generator.generate(out, null);
+            return ReportReader.readReport(new ByteArrayInputStream(out.toByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Split the test cases of a report (and their faults and covered endpoints) into the given number of shards,
+     * as if coming from different runs of a fuzzer
+     */
+    public static List<Report> split(Report report, int shards) {
+        List<Report> result = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            Report shard = new Report();
+            shard.setSchemaVersion(report.getSchemaVersion());
+            shard.setToolName(report.getToolName());
+            shard.setToolVersion(report.getToolVersion());
+            shard.setCreationTime(report.getCreationTime());
+            shard.setTestFilePaths(report.getTestFilePaths());
+            shard.setFaults(new Faults());
+            RESTReport rest = new RESTReport();
+            rest.setEndpointIds(report.getProblemDetails().getRest().getEndpointIds());
+            shard.setProblemDetails(new ProblemDetails());
+            shard.getProblemDetails().setRest(rest);
+            result.add(shard);
+        }
+        Map<String, Integer> shardOf = new HashMap<>();
+        int k = 0;
+        for (TestCase tc : report.getTestCases()) {
+            int s = k++ % shards;
+            shardOf.put(tc.getId(), s);
+            result.get(s).getTestCases().add(tc);
+        }
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            result.get(shardOf.get(ff.getTestCaseId())).getFaults().getFoundFaults().add(ff);
+        }
+        for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+            result.get(shardOf.get(ce.getTestCaseId())).getProblemDetails().getRest().getCoveredHttpStatus().add(ce);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.webfuzzing.commons.report;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Extraction of the code of a test case from test files of increasing size, generated with {@link ReportGenerator}.
+ * The baseline is what the web report does: reading the whole file, and splitting it in lines.
+ * This is compared with {@link TestSuiteFiles}, both for the first access to a file (mapping and indexing it)
+ * and for the following ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TestCodeBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int testsPerFile;
+
+    private Path dir;
+
+    private Report report;
+
+    private TestSuiteFiles files;
+
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("wfc-benchmark");
+        ReportGenerator generator = new ReportGenerator();
+        generator.setTestCases(testsPerFile);
+        generator.setTestsPerFile(testsPerFile);
+        try (InputStream in = Files.newInputStream(generator.generate(dir))) {
+            report = ReportReader.readReport(in);
+        }
+        files = new TestSuiteFiles(report, dir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private TestCase nextTestCase() {
+        next = (next + 7919) % report.getTestCases().size();
+        return report.getTestCases().get(next);
+    }
+
+    @Benchmark
+    public String readAllLines() throws IOException {
+        TestCase tc = nextTestCase();
+        List<String> lines = Files.readAllLines(dir.resolve(tc.getFilePath()), StandardCharsets.UTF_8);
+        return String.join("\n", lines.subList(tc.getStartLine() - 1, tc.getEndLine()));
+    }
+
+    @Benchmark
+    public LineIndex lineIndex() throws IOException {
+        return LineIndex.of(dir.resolve(nextTestCase().getFilePath()));
+    }
+
+    @Benchmark
+    public ByteBuffer testSuiteFiles() throws IOException {
+        return files.getCode(nextTestCase());
+    }
+
+    @Benchmark
+    public String testSuiteFilesAsString() throws IOException {
+        return files.getCodeAsString(nextTestCase());
+    }
+}
@@ -0,0 +1,333 @@
+package com.webfuzzing.commons.auth;
+
+import com.webfuzzing.commons.auth.AuthModel.Property;
+import com.webfuzzing.commons.auth.AuthModel.Type;
+import com.webfuzzing.commons.auth.AuthTemplateResolver.Location;
+import com.webfuzzing.commons.json.JsonStreamReader;
+import com.webfuzzing.commons.json.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Load auth configurations in JSON, in a single pass over the document: values are bound directly into the
+ * generated classes while parsing, and checked against the constraints of auth.yaml at the same time, ie,
+ * types of properties, enumerations (eg, "extractFrom" and "sendIn"), non-negative lengths, and, after applying
+ * the "authTemplate" with {@link AuthTemplateResolver}, the "x-required" constraints.
+ * No intermediate tree of the document is built.
+ * <p>
+ * All the problems are reported together in an {@link AuthValidationException}, with the path and the line
+ * and column in the document where they are. For missing properties, that is the start of the object lacking them.
+ * Syntax errors are reported with a {@link com.webfuzzing.commons.json.JsonFormatException} instead.
+ * <p>
+ * This class is not thread-safe, but its static methods are.
+ */
+public final class AuthLoader {
+
+    private final JsonStreamReader json;
+
+    private final List<AuthViolation> violations = new ArrayList<>();
+
+    /**
+     * Start of each entry in "auth", as line and column, to locate the violations found after template resolution
+     */
+    private int[] entryLines = new int[16];
+
+    private int[] entryColumns = new int[16];
+
+    private int entryCount;
+
+    private int templateLine;
+
+    private int templateColumn;
+
+    /**
+     * Entries in "auth" which are not objects, and so are null
+     */
+    private final BitSet invalidEntries = new BitSet();
+
+    private AuthLoader(JsonStreamReader json) {
+        this.json = json;
+    }
+
+    /**
+     * Load a configuration, and resolve its template
+     *
+     * @return the resolved entries of "auth"
+     * @throws AuthValidationException if the configuration is not valid
+     */
+    public static List<AuthenticationInfo> load(InputStream in) throws IOException {
+        try (JsonStreamReader json = new JsonStreamReader(in)) {
+            return new AuthLoader(json).load();
+        }
+    }
+
+    public static List<AuthenticationInfo> load(byte[] data) throws IOException {
+        return new AuthLoader(new JsonStreamReader(data)).load();
+    }
+
+    public static List<AuthenticationInfo> load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * Read a configuration as it is, without resolving its template, nor checking "x-required" constraints.
+     * The template, if any, is read as an {@link AuthenticationInfo}.
+     *
+     * @throws AuthValidationException if any value is not valid, eg, of the wrong type
+     */
+    public static Auth read(InputStream in) throws IOException {
+        try (JsonStreamReader json = new JsonStreamReader(in)) {
+            AuthLoader loader = new AuthLoader(json);
+            Auth auth = loader.readDocument();
+            loader.check();
+            return auth;
+        }
+    }
+
+    public static Auth read(byte[] data) throws IOException {
+        AuthLoader loader = new AuthLoader(new JsonStreamReader(data));
+        Auth auth = loader.readDocument();
+        loader.check();
+        return auth;
+    }
+
+    private void check() {
+        if (!violations.isEmpty()) {
+            throw new AuthValidationException(violations);
+        }
+    }
+
+    private List<AuthenticationInfo> load() throws IOException {
+        Auth auth = readDocument();
+        if (auth == null) {
+            check();
+        }
+        List<AuthViolation> templateViolations = new ArrayList<>();
+        AuthTemplateResolver resolver = new AuthTemplateResolver(auth.getAuthTemplate());
+        if (auth.getAuth() == null) {
+            // not in the document
+            violations.add(new AuthViolation("auth", "missing required property", 1, 1));
+            check();
+        }
+        List<AuthenticationInfo> resolved = resolver.resolve(auth.getAuth(), templateViolations);
+        Set<String> invalid = new HashSet<>();
+        for (AuthViolation v : violations) {
+            invalid.add(v.getPath());
+        }
+        for (AuthViolation v : templateViolations) {
+            String missing = v.getMissingPropertyPath();
+            if (missing != null && invalid.contains(missing)) {
+                // already reported as invalid, and so skipped
+                continue;
+            }
+            int index = entryIndex(v.getPath());
+            if (index < 0) {
+                boolean inTemplate = v.getPath().startsWith("authTemplate");
+                violations.add(inTemplate && v.getLine() == 0
+                        ? v.at(templateLine, templateColumn) : v);
+            } else if (!(invalidEntries.get(index) && v.getPath().length() == ("auth[" + index + "]").length())) {
+                // the ones about invalid entries are already reported, with more details
+                violations.add(v.at(entryLines[index], entryColumns[index]));
+            }
+        }
+        check();
+        return resolved;
+    }
+
+    /**
+     * @return the index of the "auth" entry of the given path, or -1 if not in one
+     */
+    private int entryIndex(String path) {
+        if (!path.startsWith("auth[")) {
+            return -1;
+        }
+        int end = path.indexOf(']');
+        int index = Integer.parseInt(path.substring(5, end));
+        return index < entryCount ? index : -1;
+    }
+
+    private Auth readDocument() throws IOException {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            unexpected(new Location(null, "$", -1), "an object");
+            return null;
+        }
+        Auth auth = new Auth();
+        // to distinguish a missing "auth" from an empty one
+        auth.setAuth(null);
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "schemaVersion":
+                    auth.setSchemaVersion(string(new Location(null, name, -1)));
+                    break;
+                case "auth":
+                    auth.setAuth(entries());
+                    break;
+                case "authTemplate":
+                    json.peek();
+                    templateLine = json.getTokenLine();
+                    templateColumn = json.getTokenColumn();
+                    auth.setAuthTemplate(object(AuthModel.AUTHENTICATION_INFO, new Location(null, name, -1)));
+                    break;
+                case "configs":
+                    auth.setConfigs(configs());
+                    break;
+                default:
+                    auth.getAdditionalProperties().put(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        if (json.peek() != JsonToken.END_DOCUMENT) {
+            throw json.error("Expected end of document");
+        }
+        return auth;
+    }
+
+    private List<AuthenticationInfo> entries() throws IOException {
+        if (json.peek() != JsonToken.BEGIN_ARRAY) {
+            unexpected(new Location(null, "auth", -1), "an array");
+            return new ArrayList<>();
+        }
+        List<AuthenticationInfo> entries = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            int i = entryCount++;
+            if (i == entryLines.length) {
+                entryLines = Arrays.copyOf(entryLines, i * 2);
+                entryColumns = Arrays.copyOf(entryColumns, i * 2);
+            }
+            json.peek();
+            entryLines[i] = json.getTokenLine();
+            entryColumns[i] = json.getTokenColumn();
+            AuthenticationInfo entry = object(AuthModel.AUTHENTICATION_INFO, new Location(null, "auth", i));
+            if (entry == null) {
+                invalidEntries.set(i);
+            }
+            // kept even if null, so that indices in the list are the same as in the document
+            entries.add(entry);
+        }
+        json.endArray();
+        return entries;
+    }
+
+    private Configs configs() throws IOException {
+        Location location = new Location(null, "configs", -1);
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            unexpected(location, "an object");
+            return null;
+        }
+        Configs configs = new Configs();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            String value = string(new Location(location, name, -1));
+            if (value != null) {
+                configs.getAdditionalProperties().put(name, value);
+            }
+        }
+        json.endObject();
+        return configs;
+    }
+
+    private String string(Location location) throws IOException {
+        if (json.peek() == JsonToken.STRING) {
+            return json.nextString();
+        }
+        unexpected(location, "a string");
+        return null;
+    }
+
+    /**
+     * Read an object of the given type, reporting violations for values of the wrong type, which are skipped.
+     * Unknown properties are kept as "additionalProperties".
+     *
+     * @return the object, or {@code null} if the value is not an object
+     */
+    private <T> T object(Type<T> type, Location location) throws IOException {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            unexpected(location, "an object");
+            return null;
+        }
+        T target = type.factory.get();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            Property<T, ?> p = type.byName.get(name);
+            if (p == null) {
+                type.additionalProperties.apply(target).put(name, json.nextAny());
+            } else if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+            } else {
+                property(p, target, location);
+            }
+        }
+        json.endObject();
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, V> void property(Property<T, V> p, T target, Location parent) throws IOException {
+        Location location = new Location(parent, p.name, -1);
+        switch (p.kind) {
+            case SCALAR:
+                int line = json.getTokenLine();
+                int column = json.getTokenColumn();
+                Object value = json.nextAny();
+                try {
+                    p.setter.accept(target, p.convert(value));
+                } catch (IllegalArgumentException e) {
+                    violations.add(new AuthViolation(location.toString(), e.getMessage(), line, column));
+                }
+                break;
+            case OBJECT:
+                Object bound = object(p.type, location);
+                if (bound != null) {
+                    p.setter.accept(target, (V) bound);
+                }
+                break;
+            case LIST:
+                if (json.peek() != JsonToken.BEGIN_ARRAY) {
+                    unexpected(location, "an array");
+                    break;
+                }
+                List<Object> list = new ArrayList<>();
+                json.beginArray();
+                for (int i = 0; json.hasNext(); i++) {
+                    Object element = object(p.type, new Location(parent, p.name, i));
+                    if (element != null) {
+                        list.add(element);
+                    }
+                }
+                json.endArray();
+                p.setter.accept(target, (V) list);
+                break;
+        }
+    }
+
+    /**
+     * Report and skip the next value, which must have been peeked already, as not of the expected type
+     */
+    private void unexpected(Location location, String expected) throws IOException {
+        int line = json.getTokenLine();
+        int column = json.getTokenColumn();
+        Object value = json.nextAny();
+        violations.add(new AuthViolation(location.toString(), "expected " + expected + ", but found "
+                + AuthModel.describe(value), line, column));
+    }
+}
@@ -0,0 +1,402 @@
+package com.webfuzzing.commons.auth;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Description of the classes generated from auth.yaml, ie, their properties and constraints
+ * ("x-required", and the "minLength" and "min" of scalars),
+ * used to process them without reflection.
+ * <p>
+ * This must be kept in sync with the schema.
+ */
+final class AuthModel {
+
+    private AuthModel() {
+    }
+
+    enum Kind {
+        SCALAR,
+        OBJECT,
+        LIST
+    }
+
+    /**
+     * A property of objects of type {@code T}, with values of type {@code V}.
+     * For lists, {@code V} is the list type.
+     */
+    static final class Property<T, V> {
+
+        final String name;
+
+        final Kind kind;
+
+        final Function<T, V> getter;
+
+        final BiConsumer<T, V> setter;
+
+        /**
+         * For scalars, convert a JSON value (eg, a string for an enum) into {@code V}.
+         * Throws IllegalArgumentException if not possible.
+         */
+        final Function<Object, V> converter;
+
+        /**
+         * Type of objects, or of the elements of lists
+         */
+        final Type<?> type;
+
+        /**
+         * Default value in the schema, if any
+         */
+        final V defaultValue;
+
+        /**
+         * Whether this property is in the "oneOf" constraint of its type
+         */
+        boolean inOneOf;
+
+        /**
+         * "minLength" of strings, or 0 if none
+         */
+        int minLength;
+
+        /**
+         * "min" of integers, or null if none
+         */
+        Integer min;
+
+        private Property(String name, Kind kind, Function<T, V> getter, BiConsumer<T, V> setter,
+                         Function<Object, V> converter, Type<?> type, V defaultValue) {
+            this.name = name;
+            this.kind = kind;
+            this.getter = getter;
+            this.setter = setter;
+            this.converter = converter;
+            this.type = type;
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * Convert a JSON value of a scalar, and check it against the constraints of this property
+         *
+         * @throws IllegalArgumentException if not possible, or if a constraint is not satisfied
+         */
+        V convert(Object value) {
+            V converted = converter.apply(value);
+            if (minLength > 0 && converted instanceof String && ((String) converted).length() < minLength) {
+                throw new IllegalArgumentException(minLength == 1 ? "expected a non-empty string"
+                        : "expected a string of at least " + minLength + " characters, but found " + describe(value));
+            }
+            if (min != null && converted instanceof Integer && (Integer) converted < min) {
+                throw new IllegalArgumentException((min == 0 ? "expected a non-negative integer"
+                        : "expected an integer of at least " + min) + ", but found " + converted);
+            }
+            return converted;
+        }
+
+        /**
+         * @return whether the value is specified in the object, where empty lists and schema defaults
+         * (as set by the generated classes) count as not specified
+         */
+        boolean isSpecified(Object value) {
+            if (value == null) {
+                return false;
+            }
+            if (kind == Kind.LIST) {
+                return !((List<?>) value).isEmpty();
+            }
+            return defaultValue == null || !defaultValue.equals(value);
+        }
+    }
+
+    static final class Type<T> {
+
+        final String name;
+
+        final Class<T> javaClass;
+
+        final Supplier<T> factory;
+
+        final Function<T, Map<String, Object>> additionalProperties;
+
+        final List<Property<T, ?>> properties = new ArrayList<>();
+
+        final Map<String, Property<T, ?>> byName = new HashMap<>();
+
+        /**
+         * Properties which must all be specified
+         */
+        final List<Property<T, ?>> allOf = new ArrayList<>();
+
+        /**
+         * Properties which must be specified exactly one at a time
+         */
+        final List<Property<T, ?>> oneOf = new ArrayList<>();
+
+        private Type(String name, Class<T> javaClass, Supplier<T> factory,
+                     Function<T, Map<String, Object>> additionalProperties) {
+            this.name = name;
+            this.javaClass = javaClass;
+            this.factory = factory;
+            this.additionalProperties = additionalProperties;
+        }
+
+        private <V> Type<T> add(Property<T, V> p) {
+            properties.add(p);
+            byName.put(p.name, p);
+            return this;
+        }
+
+        private Type<T> string(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+            return string(name, getter, setter, null);
+        }
+
+        private Type<T> string(String name, Function<T, String> getter, BiConsumer<T, String> setter,
+                               String defaultValue) {
+            return add(new Property<>(name, Kind.SCALAR, getter, setter, v -> cast(v, String.class, "a string"),
+                    null, defaultValue));
+        }
+
+        private Type<T> bool(String name, Function<T, Boolean> getter, BiConsumer<T, Boolean> setter) {
+            return add(new Property<>(name, Kind.SCALAR, getter, setter, v -> cast(v, Boolean.class, "a boolean"),
+                    null, null));
+        }
+
+        private Type<T> integer(String name, Function<T, Integer> getter, BiConsumer<T, Integer> setter) {
+            return add(new Property<>(name, Kind.SCALAR, getter, setter, AuthModel::toInteger, null, null));
+        }
+
+        private <E extends Enum<E>> Type<T> enumeration(String name, Class<E> enumClass, Function<String, E> fromValue,
+                                                        Function<T, E> getter, BiConsumer<T, E> setter) {
+            Function<Object, E> converter = v -> {
+                if (enumClass.isInstance(v)) {
+                    return enumClass.cast(v);
+                }
+                String s = cast(v, String.class, "a string");
+                try {
+                    return fromValue.apply(s);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("invalid value '" + s + "', allowed values are "
+                            + Arrays.toString(enumClass.getEnumConstants()));
+                }
+            };
+            return add(new Property<>(name, Kind.SCALAR, getter, setter, converter, null, null));
+        }
+
+        private <V> Type<T> object(String name, Type<V> type, Function<T, V> getter, BiConsumer<T, V> setter) {
+            return add(new Property<>(name, Kind.OBJECT, getter, setter, null, type, null));
+        }
+
+        private <E> Type<T> list(String name, Type<E> type, Function<T, List<E>> getter, BiConsumer<T, List<E>> setter) {
+            return add(new Property<>(name, Kind.LIST, getter, setter, null, type, null));
+        }
+
+        private Type<T> allOf(String... names) {
+            for (String n : names) {
+                allOf.add(byName.get(n));
+            }
+            return this;
+        }
+
+        private Type<T> minLength(String name, int minLength) {
+            byName.get(name).minLength = minLength;
+            return this;
+        }
+
+        private Type<T> min(String name, int min) {
+            byName.get(name).min = min;
+            return this;
+        }
+
+        private Type<T> oneOf(String... names) {
+            for (String n : names) {
+                Property<T, ?> p = byName.get(n);
+                p.inOneOf = true;
+                oneOf.add(p);
+            }
+            return this;
+        }
+    }
+
+    private static <T> Type<T> type(String name, Class<T> javaClass, Supplier<T> factory,
+                                    Function<T, Map<String, Object>> additionalProperties) {
+        return new Type<>(name, javaClass, factory, additionalProperties);
+    }
+
+    private static <V> V cast(Object value, Class<V> type, String expected) {
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("expected " + expected + ", but found " + describe(value));
+        }
+        return type.cast(value);
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value instanceof Number) {
+            Number n = (Number) value;
+            if (n.doubleValue() == n.intValue()) {
+                return n.intValue();
+            }
+        }
+        throw new IllegalArgumentException("expected an integer, but found " + describe(value));
+    }
+
+    static String describe(Object value) {
+        if (value instanceof String) {
+            return "'" + value + "'";
+        }
+        if (value instanceof Map) {
+            return "an object";
+        }
+        if (value instanceof List) {
+            return "an array";
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Bind a JSON-like value (ie, made of maps, lists, strings, numbers and booleans, as for example read by a
+     * generic JSON/YAML parser) to an object of the given type.
+     * Unknown properties are kept as "additionalProperties".
+     * Values of the wrong type are skipped, and reported as violations.
+     *
+     * @return the bound object, or {@code null} if the value is not an object. If the value is already of the
+     * given type, it is returned as it is.
+     */
+    static <T> T bind(Type<T> type, Object value, String path, List<AuthViolation> violations) {
+        if (type.javaClass.isInstance(value)) {
+            return type.javaClass.cast(value);
+        }
+        if (!(value instanceof Map)) {
+            violations.add(new AuthViolation(path, "expected an object, but found " + describe(value)));
+            return null;
+        }
+        T target = type.factory.get();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+            String name = String.valueOf(e.getKey());
+            Property<T, ?> p = type.byName.get(name);
+            if (p == null) {
+                type.additionalProperties.apply(target).put(name, e.getValue());
+            } else if (e.getValue() != null) {
+                bindProperty(p, target, e.getValue(), path + "." + name, violations);
+            }
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, V> void bindProperty(Property<T, V> p, T target, Object value, String path,
+                                            List<AuthViolation> violations) {
+        switch (p.kind) {
+            case SCALAR:
+                try {
+                    p.setter.accept(target, p.convert(value));
+                } catch (IllegalArgumentException e) {
+                    violations.add(new AuthViolation(path, e.getMessage()));
+                }
+                break;
+            case OBJECT:
+                Object bound = bind(p.type, value, path, violations);
+                if (bound != null) {
+                    p.setter.accept(target, (V) bound);
+                }
+                break;
+            case LIST:
+                if (!(value instanceof List)) {
+                    violations.add(new AuthViolation(path, "expected an array, but found " + describe(value)));
+                    break;
+                }
+                List<?> elements = (List<?>) value;
+                List<Object> list = new ArrayList<>(elements.size());
+                for (int i = 0; i < elements.size(); i++) {
+                    Object element = bind(p.type, elements.get(i), path + "[" + i + "]", violations);
+                    if (element != null) {
+                        list.add(element);
+                    }
+                }
+                p.setter.accept(target, (V) list);
+                break;
+        }
+    }
+
+    /*
+        Types in the schema, from the leaves, as each type must be defined before being referenced
+     */
+
+    static final Type<Header> HEADER = type("Header", Header.class, Header::new, Header::getAdditionalProperties)
+            .string("name", Header::getName, Header::setName)
+            .string("value", Header::getValue, Header::setValue)
+            .allOf("name", "value");
+
+    static final Type<PayloadUsernamePassword> PAYLOAD_USERNAME_PASSWORD = type("PayloadUsernamePassword",
+            PayloadUsernamePassword.class, PayloadUsernamePassword::new, PayloadUsernamePassword::getAdditionalProperties)
+            .string("username", PayloadUsernamePassword::getUsername, PayloadUsernamePassword::setUsername)
+            .string("password", PayloadUsernamePassword::getPassword, PayloadUsernamePassword::setPassword)
+            .string("usernameField", PayloadUsernamePassword::getUsernameField, PayloadUsernamePassword::setUsernameField)
+            .string("passwordField", PayloadUsernamePassword::getPasswordField, PayloadUsernamePassword::setPasswordField)
+            .allOf("username", "usernameField", "password", "passwordField");
+
+    static final Type<TokenHandling> TOKEN_HANDLING = type("TokenHandling",
+            TokenHandling.class, TokenHandling::new, TokenHandling::getAdditionalProperties)
+            .enumeration("extractFrom", TokenHandling.ExtractFrom.class, TokenHandling.ExtractFrom::fromValue,
+                    TokenHandling::getExtractFrom, TokenHandling::setExtractFrom)
+            .string("extractSelector", TokenHandling::getExtractSelector, TokenHandling::setExtractSelector)
+            .enumeration("sendIn", TokenHandling.SendIn.class, TokenHandling.SendIn::fromValue,
+                    TokenHandling::getSendIn, TokenHandling::setSendIn)
+            .string("sendName", TokenHandling::getSendName, TokenHandling::setSendName)
+            .string("sendTemplate", TokenHandling::getSendTemplate, TokenHandling::setSendTemplate,
+                    new TokenHandling().getSendTemplate())
+            .allOf("extractFrom", "extractSelector", "sendIn", "sendName");
+
+    static final Type<LoginEndpoint> LOGIN_ENDPOINT = type("LoginEndpoint",
+            LoginEndpoint.class, LoginEndpoint::new, LoginEndpoint::getAdditionalProperties)
+            .string("endpoint", LoginEndpoint::getEndpoint, LoginEndpoint::setEndpoint)
+            .string("externalEndpointURL", LoginEndpoint::getExternalEndpointURL, LoginEndpoint::setExternalEndpointURL)
+            .string("payloadRaw", LoginEndpoint::getPayloadRaw, LoginEndpoint::setPayloadRaw)
+            .object("payloadUserPwd", PAYLOAD_USERNAME_PASSWORD, LoginEndpoint::getPayloadUserPwd, LoginEndpoint::setPayloadUserPwd)
+            .list("headers", HEADER, LoginEndpoint::getHeaders, LoginEndpoint::setHeaders)
+            .enumeration("verb", LoginEndpoint.HttpVerb.class, LoginEndpoint.HttpVerb::fromValue,
+                    LoginEndpoint::getVerb, LoginEndpoint::setVerb)
+            .string("contentType", LoginEndpoint::getContentType, LoginEndpoint::setContentType)
+            .object("token", TOKEN_HANDLING, LoginEndpoint::getToken, LoginEndpoint::setToken)
+            .bool("expectCookies", LoginEndpoint::getExpectCookies, LoginEndpoint::setExpectCookies)
+            .allOf("verb")
+            .oneOf("endpoint", "externalEndpointURL");
+
+    static final Type<Generator> GENERATOR = type("Generator", Generator.class, Generator::new, Generator::getAdditionalProperties)
+            .string("placeHolder", Generator::getPlaceHolder, Generator::setPlaceHolder)
+            .integer("minLength", Generator::getMinLength, Generator::setMinLength)
+            .integer("maxLength", Generator::getMaxLength, Generator::setMaxLength)
+            .string("prefix", Generator::getPrefix, Generator::setPrefix)
+            .string("postfix", Generator::getPostfix, Generator::setPostfix)
+            .minLength("placeHolder", 1)
+            .min("minLength", 0)
+            .min("maxLength", 0)
+            .allOf("placeHolder");
+
+    static final Type<CreateUsers> CREATE_USERS = type("CreateUsers",
+            CreateUsers.class, CreateUsers::new, CreateUsers::getAdditionalProperties)
+            .string("endpoint", CreateUsers::getEndpoint, CreateUsers::setEndpoint)
+            .string("externalEndpointURL", CreateUsers::getExternalEndpointURL, CreateUsers::setExternalEndpointURL)
+            .string("payloadRaw", CreateUsers::getPayloadRaw, CreateUsers::setPayloadRaw)
+            .enumeration("verb", LoginEndpoint.HttpVerb.class, LoginEndpoint.HttpVerb::fromValue,
+                    CreateUsers::getVerb, CreateUsers::setVerb)
+            .string("contentType", CreateUsers::getContentType, CreateUsers::setContentType)
+            .list("generators", GENERATOR, CreateUsers::getGenerators, CreateUsers::setGenerators)
+            .allOf("verb", "contentType", "payloadRaw", "generators")
+            .oneOf("endpoint", "externalEndpointURL");
+
+    static final Type<AuthenticationInfo> AUTHENTICATION_INFO = type("AuthenticationInfo",
+            AuthenticationInfo.class, AuthenticationInfo::new, AuthenticationInfo::getAdditionalProperties)
+            .string("name", AuthenticationInfo::getName, AuthenticationInfo::setName)
+            .bool("requireMockHandling", AuthenticationInfo::getRequireMockHandling, AuthenticationInfo::setRequireMockHandling)
+            .list("fixedHeaders", HEADER, AuthenticationInfo::getFixedHeaders, AuthenticationInfo::setFixedHeaders)
+            .object("loginEndpointAuth", LOGIN_ENDPOINT, AuthenticationInfo::getLoginEndpointAuth, AuthenticationInfo::setLoginEndpointAuth)
+            .object("createUsers", CREATE_USERS, AuthenticationInfo::getCreateUsers, AuthenticationInfo::setCreateUsers)
+            .allOf("name");
+}
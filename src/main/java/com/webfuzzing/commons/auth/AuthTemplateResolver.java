@@ -0,0 +1,333 @@
+package com.webfuzzing.commons.auth;
+
+import com.webfuzzing.commons.auth.AuthModel.Property;
+import com.webfuzzing.commons.auth.AuthModel.Type;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Resolve the "authTemplate" of an auth configuration, ie, apply it to each {@link AuthenticationInfo} entry,
+ * and validate the "x-required" constraints of the schema on the results.
+ * <p>
+ * A property defined in the template is applied to all the entries that do not specify it.
+ * Nested objects (eg, "loginEndpointAuth") are merged property by property, whereas arrays (eg, "fixedHeaders")
+ * are taken as a whole, from the entry if not empty, otherwise from the template.
+ * As the generated classes cannot distinguish missing values from default ones, a property with the default value
+ * of the schema (eg, "{token}" for "sendTemplate") counts as not specified.
+ * For "oneOf" constraints (eg, "endpoint" and "externalEndpointURL"), if an entry specifies any of the properties,
+ * none of them is taken from the template.
+ * <p>
+ * The template is compiled once, at construction, into a merge plan which only visits the properties defined in
+ * it, without reflection. Resolved entries are new objects, and neither the template nor the entries are modified.
+ * Large lists of entries are resolved in parallel.
+ * Validation is done in the same pass, and all violations are reported, not only the first one.
+ * <p>
+ * This class is thread-safe.
+ */
+public class AuthTemplateResolver {
+
+    /**
+     * Minimum number of entries to resolve in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private final Plan<AuthenticationInfo> plan;
+
+    private final List<AuthViolation> templateViolations;
+
+    /**
+     * @param authTemplate as in {@link Auth#getAuthTemplate()}, ie, either an {@link AuthenticationInfo}, or a
+     *                     JSON-like map (eg, as read by a generic JSON/YAML parser). Can be {@code null}.
+     */
+    public AuthTemplateResolver(Object authTemplate) {
+        List<AuthViolation> violations = new ArrayList<>();
+        AuthenticationInfo template = authTemplate == null ? null
+                : AuthModel.bind(AuthModel.AUTHENTICATION_INFO, authTemplate, "authTemplate", violations);
+        plan = new Plan<>(AuthModel.AUTHENTICATION_INFO, template);
+        templateViolations = Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * Resolve all the entries of the given configuration
+     *
+     * @throws AuthValidationException if the configuration is not valid
+     */
+    public static List<AuthenticationInfo> resolve(Auth auth) {
+        AuthTemplateResolver resolver = new AuthTemplateResolver(auth.getAuthTemplate());
+        if (auth.getAuth() == null) {
+            List<AuthViolation> violations = new ArrayList<>(resolver.templateViolations);
+            violations.add(new AuthViolation("auth", "missing required property"));
+            throw new AuthValidationException(violations);
+        }
+        return resolver.resolve(auth.getAuth());
+    }
+
+    /**
+     * @throws AuthValidationException if the template, or any of the resolved entries, is not valid
+     */
+    public List<AuthenticationInfo> resolve(List<AuthenticationInfo> entries) {
+        List<AuthViolation> violations = new ArrayList<>();
+        List<AuthenticationInfo> resolved = resolve(entries, violations);
+        if (!violations.isEmpty()) {
+            throw new AuthValidationException(violations);
+        }
+        return resolved;
+    }
+
+    /**
+     * Resolve the given entries, without throwing exceptions on invalid data
+     *
+     * @param violations where to add all the problems in the template and in the resolved entries, in order
+     * @return the resolved entries, in the same order. {@code null} entries stay {@code null}.
+     */
+    public List<AuthenticationInfo> resolve(List<AuthenticationInfo> entries, List<AuthViolation> violations) {
+        violations.addAll(templateViolations);
+
+        int n = entries.size();
+        AuthenticationInfo[] resolved = new AuthenticationInfo[n];
+        @SuppressWarnings("unchecked")
+        List<AuthViolation>[] found = (List<AuthViolation>[]) new List<?>[n];
+
+        IntStream indices = IntStream.range(0, n);
+        if (n >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> {
+            AuthenticationInfo entry = entries.get(i);
+            List<AuthViolation> v = new ArrayList<>(0);
+            if (entry == null) {
+                v.add(new AuthViolation("auth[" + i + "]", "expected an object, but found null"));
+            } else {
+                resolved[i] = plan.apply(entry, new Location(null, "auth", i), v);
+            }
+            found[i] = v;
+        });
+
+        Map<String, Integer> names = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            violations.addAll(found[i]);
+            if (resolved[i] != null && resolved[i].getName() != null) {
+                Integer previous = names.putIfAbsent(resolved[i].getName(), i);
+                if (previous != null) {
+                    violations.add(new AuthViolation("auth[" + i + "].name", "duplicated name '"
+                            + resolved[i].getName() + "', already used in auth[" + previous + "]"));
+                }
+            }
+        }
+        return Arrays.asList(resolved);
+    }
+
+    /**
+     * @return problems found in the template itself, eg, values of the wrong type
+     */
+    public List<AuthViolation> getTemplateViolations() {
+        return templateViolations;
+    }
+
+    /**
+     * How to merge a template object of type {@code T} into entries, and validate the results
+     */
+    private static final class Plan<T> {
+
+        private final Type<T> type;
+
+        /**
+         * Whether there is no template for this object
+         */
+        private final boolean empty;
+
+        /**
+         * For each property: for scalars and lists, the value in the template if specified;
+         * for objects, the plan of their template; for lists, the plan of their elements (without template)
+         */
+        private final Object[] values;
+
+        private final Plan<?>[] plans;
+
+        private final Map<String, Object> additionalProperties;
+
+        /**
+         * Whether any property in the "oneOf" constraint is given by the template
+         */
+        private final boolean templateOneOf;
+
+        private Plan(Type<T> type, T template) {
+            this.type = type;
+            this.empty = template == null;
+            int n = type.properties.size();
+            values = new Object[n];
+            plans = new Plan<?>[n];
+            boolean oneOf = false;
+            for (int i = 0; i < n; i++) {
+                Property<T, ?> p = type.properties.get(i);
+                Object value = template == null ? null : p.getter.apply(template);
+                switch (p.kind) {
+                    case SCALAR:
+                        if (p.isSpecified(value)) {
+                            values[i] = value;
+                            oneOf |= p.inOneOf;
+                        }
+                        break;
+                    case OBJECT:
+                        plans[i] = plan(p.type, value);
+                        break;
+                    case LIST:
+                        if (p.isSpecified(value)) {
+                            values[i] = value;
+                        }
+                        plans[i] = plan(p.type, null);
+                        break;
+                }
+            }
+            templateOneOf = oneOf;
+            additionalProperties = template == null || type.additionalProperties.apply(template).isEmpty()
+                    ? Collections.emptyMap()
+                    : new LinkedHashMap<>(type.additionalProperties.apply(template));
+        }
+
+        private static <V> Plan<V> plan(Type<V> type, Object template) {
+            return new Plan<>(type, type.javaClass.cast(template));
+        }
+
+        /**
+         * @param entry can be {@code null}, to get a copy of the template
+         * @return a new object, merging the template into the entry
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        T apply(T entry, Location location, List<AuthViolation> violations) {
+            T result = type.factory.get();
+
+            boolean entryOneOf = false;
+            if (templateOneOf && entry != null) {
+                for (Property<T, ?> p : type.oneOf) {
+                    if (p.isSpecified(p.getter.apply(entry))) {
+                        entryOneOf = true;
+                        break;
+                    }
+                }
+            }
+
+            List<Property<T, ?>> properties = type.properties;
+            for (int i = 0; i < properties.size(); i++) {
+                Property p = properties.get(i);
+                Object value = entry == null ? null : p.getter.apply(entry);
+                switch (p.kind) {
+                    case SCALAR:
+                        if (!p.isSpecified(value) && !(entryOneOf && p.inOneOf)) {
+                            value = values[i];
+                        }
+                        if (value != null) {
+                            p.setter.accept(result, value);
+                        }
+                        break;
+                    case OBJECT:
+                        Plan nested = plans[i];
+                        if (value != null || !nested.empty) {
+                            p.setter.accept(result, nested.apply(value, new Location(location, p.name, -1), violations));
+                        }
+                        break;
+                    case LIST:
+                        List<?> list = p.isSpecified(value) ? (List<?>) value : (List<?>) values[i];
+                        if (list != null) {
+                            Plan element = plans[i];
+                            List<Object> copy = new ArrayList<>(list.size());
+                            for (int k = 0; k < list.size(); k++) {
+                                Object e = list.get(k);
+                                copy.add(e == null ? null : element.apply(e, new Location(location, p.name, k), violations));
+                            }
+                            p.setter.accept(result, copy);
+                        }
+                        break;
+                }
+            }
+
+            if (!additionalProperties.isEmpty()) {
+                type.additionalProperties.apply(result).putAll(additionalProperties);
+            }
+            if (entry != null) {
+                Map<String, Object> extra = type.additionalProperties.apply(entry);
+                if (!extra.isEmpty()) {
+                    type.additionalProperties.apply(result).putAll(extra);
+                }
+            }
+
+            validate(result, location, violations);
+            return result;
+        }
+
+        private void validate(T result, Location location, List<AuthViolation> violations) {
+            for (Property<T, ?> p : type.allOf) {
+                if (!isPresent(p, result)) {
+                    violations.add(AuthViolation.missingProperty(location.toString(), p.name));
+                }
+            }
+            if (!type.oneOf.isEmpty()) {
+                List<String> present = new ArrayList<>(2);
+                for (Property<T, ?> p : type.oneOf) {
+                    if (isPresent(p, result)) {
+                        present.add(p.name);
+                    }
+                }
+                if (present.size() != 1) {
+                    StringBuilder sb = new StringBuilder("exactly one of the properties ");
+                    for (int i = 0; i < type.oneOf.size(); i++) {
+                        sb.append(i == 0 ? "" : ", ").append('\'').append(type.oneOf.get(i).name).append('\'');
+                    }
+                    sb.append(" is required, but ");
+                    if (present.isEmpty()) {
+                        sb.append("none is specified");
+                    } else {
+                        sb.append("found ").append(present);
+                    }
+                    violations.add(new AuthViolation(location.toString(), sb.toString()));
+                }
+            }
+        }
+
+        private static <T> boolean isPresent(Property<T, ?> p, T object) {
+            Object value = p.getter.apply(object);
+            return value != null && !(value instanceof List && ((List<?>) value).isEmpty());
+        }
+    }
+
+    /**
+     * Path of an object in the configuration, eg, "auth[2].loginEndpointAuth.token".
+     * The string is only built when needed, ie, for violations.
+     */
+    static final class Location {
+
+        private final Location parent;
+
+        private final String name;
+
+        /**
+         * Index in an array, or -1
+         */
+        private final int index;
+
+        Location(Location parent, String name, int index) {
+            this.parent = parent;
+            this.name = name;
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            append(sb);
+            return sb.toString();
+        }
+
+        private void append(StringBuilder sb) {
+            if (parent != null) {
+                parent.append(sb);
+                sb.append('.');
+            }
+            sb.append(name);
+            if (index >= 0) {
+                sb.append('[').append(index).append(']');
+            }
+        }
+    }
+}
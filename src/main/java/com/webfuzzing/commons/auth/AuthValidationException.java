@@ -0,0 +1,33 @@
+package com.webfuzzing.commons.auth;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when an auth configuration is not valid, with all the problems found in it
+ */
+public class AuthValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<AuthViolation> violations;
+
+    public AuthValidationException(List<AuthViolation> violations) {
+        super(message(violations));
+        this.violations = Collections.unmodifiableList(violations);
+    }
+
+    private static String message(List<AuthViolation> violations) {
+        StringBuilder sb = new StringBuilder("Invalid auth configuration, with ")
+                .append(violations.size())
+                .append(violations.size() == 1 ? " problem:" : " problems:");
+        for (AuthViolation v : violations) {
+            sb.append("\n  ").append(v);
+        }
+        return sb.toString();
+    }
+
+    public List<AuthViolation> getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,114 @@
+package com.webfuzzing.commons.auth;
+
+import java.util.Objects;
+
+/**
+ * A problem found in an auth configuration, eg, a missing "x-required" property after template resolution.
+ */
+public final class AuthViolation {
+
+    private final String path;
+
+    private final String message;
+
+    private final int line;
+
+    private final int column;
+
+    private final String missingPropertyPath;
+
+    /**
+     * @param path location of the problem, eg, "auth[2].loginEndpointAuth.token"
+     */
+    public AuthViolation(String path, String message) {
+        this(path, message, 0, 0);
+    }
+
+    /**
+     * @param line   line of the problem in the source document, starting from 1, or 0 if unknown
+     * @param column column of the problem in the source document, starting from 1, or 0 if unknown
+     */
+    public AuthViolation(String path, String message, int line, int column) {
+        this(path, message, line, column, null);
+    }
+
+    private AuthViolation(String path, String message, int line, int column, String missingPropertyPath) {
+        this.path = Objects.requireNonNull(path);
+        this.message = Objects.requireNonNull(message);
+        this.line = line;
+        this.column = column;
+        this.missingPropertyPath = missingPropertyPath;
+    }
+
+    /**
+     * @param path location of the object missing the property
+     * @param name name of the required property
+     */
+    public static AuthViolation missingProperty(String path, String name) {
+        return new AuthViolation(path, "missing required property '" + name + "'", 0, 0, path + "." + name);
+    }
+
+    /**
+     * @return a copy of this violation, at the given line and column in the source document
+     */
+    public AuthViolation at(int line, int column) {
+        return new AuthViolation(path, message, line, column, missingPropertyPath);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return line in the source document, or 0 if unknown, eg, for objects not read from a document
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return column in the source document, counted in bytes, or 0 if unknown
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return path of the missing required property, eg, "auth[2].loginEndpointAuth.token.sendName",
+     * or null if the violation is not about a missing property
+     */
+    public String getMissingPropertyPath() {
+        return missingPropertyPath;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AuthViolation)) {
+            return false;
+        }
+        AuthViolation that = (AuthViolation) o;
+        return path.equals(that.path) && message.equals(that.message)
+                && line == that.line && column == that.column
+                && Objects.equals(missingPropertyPath, that.missingPropertyPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * path.hashCode() + message.hashCode()) + line;
+    }
+
+    @Override
+    public String toString() {
+        if (line > 0) {
+            return path + " (line " + line + ", column " + column + "): " + message;
+        }
+        return path + ": " + message;
+    }
+}
@@ -0,0 +1,42 @@
+package com.webfuzzing.commons.auth;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * User created with {@link CreateUsers}, ie, the values generated for the placeholders of its generators
+ * (eg, username and password), which are needed to then use it.
+ * <p>
+ * This class is immutable.
+ */
+public final class CreatedUser {
+
+    private final Map<String, String> values;
+
+    /**
+     * @param values generated value for each placeholder, eg, "{$username}"
+     */
+    public CreatedUser(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * @return the value generated for the given placeholder, or {@code null} if there is no such placeholder
+     */
+    public String getValue(String placeHolder) {
+        return values.get(placeHolder);
+    }
+
+    /**
+     * @return unmodifiable map from placeholders to values, in the order of the generators
+     */
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "CreatedUser" + values;
+    }
+}
@@ -0,0 +1,210 @@
+package com.webfuzzing.commons.auth;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Produce unique strings as described by a {@link Generator}, ie, "prefix" + body + "postfix", with a total length
+ * between "minLength" and "maxLength" (inclusive, unbounded if not specified).
+ * <p>
+ * Bodies are made of lowercase ASCII letters and digits. All the bodies with the allowed lengths are enumerated,
+ * shortest first, so that each sequence number maps to a distinct value: uniqueness is guaranteed without storing
+ * the values generated so far. Sequence numbers are taken from striped counters, where stripe {@code s} of
+ * {@code S} hands out the numbers {@code s, s+S, s+2S, ...}, so that concurrent threads rarely update the same
+ * counter, and there is no lock. When the values of a stripe run out, the other stripes are tried, and so all
+ * the {@link #getCapacity()} values are produced before failing.
+ * <p>
+ * This class is thread-safe.
+ */
+public class GeneratorEngine {
+
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    /**
+     * Distance between stripes in the counter array, to keep each of them in its own cache line
+     */
+    private static final int PADDING = 8;
+
+    private final String prefix;
+
+    private final String postfix;
+
+    private final int minBodyLength;
+
+    /**
+     * For each body length, from {@link #minBodyLength}, the number of bodies with that length,
+     * up to the one at which the capacity is reached
+     */
+    private final long[] counts;
+
+    private final long capacity;
+
+    private final int stripes;
+
+    private final AtomicLongArray counters;
+
+    public GeneratorEngine(Generator generator) {
+        this(generator, Math.min(64, 4 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param stripes number of counters, ie, of threads that can take values without contention
+     * @throws IllegalArgumentException if the lengths of the generator are inconsistent
+     */
+    public GeneratorEngine(Generator generator, int stripes) {
+        Objects.requireNonNull(generator);
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Invalid number of stripes: " + stripes);
+        }
+        prefix = generator.getPrefix() == null ? "" : generator.getPrefix();
+        postfix = generator.getPostfix() == null ? "" : generator.getPostfix();
+        int fixed = prefix.length() + postfix.length();
+        Integer min = generator.getMinLength();
+        Integer max = generator.getMaxLength();
+        if (min != null && min < 0) {
+            throw new IllegalArgumentException("Negative minLength: " + min);
+        }
+        if (max != null && max < 0) {
+            throw new IllegalArgumentException("Negative maxLength: " + max);
+        }
+        if (min != null && max != null && min > max) {
+            throw new IllegalArgumentException("minLength " + min + " is greater than maxLength " + max);
+        }
+        if (max != null && max < fixed) {
+            throw new IllegalArgumentException("maxLength " + max + " is less than the length of prefix and postfix: "
+                    + fixed);
+        }
+        minBodyLength = min == null ? 0 : Math.max(0, min - fixed);
+        int maxBodyLength = max == null ? Integer.MAX_VALUE : max - fixed;
+
+        capacity = capacity(minBodyLength, maxBodyLength);
+        int n = 0;
+        for (long total = 0; total < capacity; n++) {
+            total = saturatedAdd(total, count(minBodyLength + n));
+        }
+        counts = new long[n];
+        for (int i = 0; i < n; i++) {
+            counts[i] = count(minBodyLength + i);
+        }
+
+        this.stripes = stripes;
+        counters = new AtomicLongArray(stripes * PADDING);
+    }
+
+    /**
+     * @return how many distinct bodies (ie, values without prefix and postfix) of length between the given ones
+     * (inclusive) can be generated, or {@link Long#MAX_VALUE} if at least that many
+     */
+    public static long capacity(int minBodyLength, int maxBodyLength) {
+        if (minBodyLength < 0 || minBodyLength > maxBodyLength) {
+            throw new IllegalArgumentException("Invalid length range: [" + minBodyLength + ", " + maxBodyLength + "]");
+        }
+        long total = 0;
+        for (int length = minBodyLength; length <= maxBodyLength && total < Long.MAX_VALUE; length++) {
+            total = saturatedAdd(total, count(length));
+        }
+        return total;
+    }
+
+    /**
+     * @return number of bodies of the given length, saturated
+     */
+    private static long count(int length) {
+        long count = 1;
+        for (int i = 0; i < length; i++) {
+            if (count > Long.MAX_VALUE / ALPHABET.length) {
+                return Long.MAX_VALUE;
+            }
+            count *= ALPHABET.length;
+        }
+        return count;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * @return a value never returned before by this engine
+     * @throws IllegalStateException if all the possible values have been generated
+     */
+    public String next() {
+        return next(new StringBuilder(prefix.length() + postfix.length() + minBodyLength + 8)).toString();
+    }
+
+    /**
+     * Append a new value to the given builder, without creating any intermediate object
+     *
+     * @throws IllegalStateException if all the possible values have been generated
+     */
+    public StringBuilder next(StringBuilder out) {
+        long id = nextId();
+        if (id < 0) {
+            throw new IllegalStateException("All the " + capacity + " unique values of generator "
+                    + prefix + "*" + postfix + " have been used");
+        }
+        return write(id, out);
+    }
+
+    /**
+     * @return a new sequence number, or -1 if there is none left
+     */
+    private long nextId() {
+        int start = (int) (Thread.currentThread().getId() % stripes);
+        for (int k = 0; k < stripes; k++) {
+            int s = start + k < stripes ? start + k : start + k - stripes;
+            long c = counters.getAndIncrement(s * PADDING);
+            if (s < capacity && c <= (capacity - 1 - s) / stripes) {
+                return c * stripes + s;
+            }
+            // this stripe is exhausted. As the counter keeps growing, undo, so that it cannot overflow
+            counters.getAndDecrement(s * PADDING);
+        }
+        return -1;
+    }
+
+    private StringBuilder write(long id, StringBuilder out) {
+        int i = 0;
+        while (id >= counts[i]) {
+            id -= counts[i];
+            i++;
+        }
+        int length = minBodyLength + i;
+        out.append(prefix);
+        int start = out.length();
+        out.setLength(start + length);
+        for (int p = start + length - 1; p >= start; p--) {
+            out.setCharAt(p, ALPHABET[(int) (id % ALPHABET.length)]);
+            id /= ALPHABET.length;
+        }
+        return out.append(postfix);
+    }
+
+    /**
+     * @return maximum number of unique values this engine can produce
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of values generated so far. Only an estimate while other threads are generating values.
+     */
+    public long getGenerated() {
+        long total = 0;
+        for (int s = 0; s < stripes; s++) {
+            long c = counters.get(s * PADDING);
+            // ids of stripe s are s + k*stripes, for k < c
+            total += Math.min(c, capacity <= s ? 0 : (capacity - 1 - s) / stripes + 1);
+        }
+        return total;
+    }
+
+    /**
+     * @return number of values that can still be generated
+     */
+    public long getRemaining() {
+        return capacity - getGenerated();
+    }
+}
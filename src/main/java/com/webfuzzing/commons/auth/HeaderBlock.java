@@ -0,0 +1,217 @@
+package com.webfuzzing.commons.auth;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable block of HTTP headers, eg, the "fixedHeaders" of an {@link AuthenticationInfo}, built once and
+ * then attached to any number of requests.
+ * <p>
+ * Names are normalized to lower case (HTTP header names are case-insensitive, and HTTP/2 requires lower case),
+ * and names and values are validated, so that they cannot inject other headers. The whole block is pre-encoded
+ * in HTTP/1.1 wire format, ie, "name: value\r\n" for each header, in ISO-8859-1, so that it can be written to a
+ * request with a single array copy.
+ * <p>
+ * This class is immutable, and so thread-safe.
+ */
+public final class HeaderBlock {
+
+    public static final HeaderBlock EMPTY = new HeaderBlock(new String[0], new String[0]);
+
+    private final String[] names;
+
+    private final String[] values;
+
+    private final byte[] encoded;
+
+    private HeaderBlock(String[] names, String[] values) {
+        this.names = names;
+        this.values = values;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            sb.append(names[i]).append(": ").append(values[i]).append("\r\n");
+        }
+        this.encoded = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return the fixed headers of the given entry
+     * @throws IllegalArgumentException if any header is not valid
+     */
+    public static HeaderBlock of(AuthenticationInfo info) {
+        return of(info.getFixedHeaders());
+    }
+
+    /**
+     * @param headers in the order in which to send them. Repeated names are kept.
+     * @throws IllegalArgumentException if any header is not valid
+     */
+    public static HeaderBlock of(List<Header> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return EMPTY;
+        }
+        String[] names = new String[headers.size()];
+        String[] values = new String[headers.size()];
+        for (int i = 0; i < names.length; i++) {
+            Header h = Objects.requireNonNull(headers.get(i), "Null header");
+            names[i] = normalizeName(h.getName());
+            values[i] = normalizeValue(names[i], h.getValue());
+        }
+        return new HeaderBlock(names, values);
+    }
+
+    /**
+     * @return the name in lower case
+     * @throws IllegalArgumentException if not a valid "token" as in RFC 9110
+     */
+    static String normalizeName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing header name");
+        }
+        name = name.trim();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || "!#$%&'*+-.^_`|~".indexOf(c) >= 0;
+            if (!valid) {
+                throw new IllegalArgumentException("Invalid character at position " + i + " in header name: " + name);
+            }
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the value without leading and trailing whitespace
+     * @throws IllegalArgumentException if it has control characters (eg, line breaks), or characters not in ISO-8859-1
+     */
+    static String normalizeValue(String name, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value of header " + name);
+        }
+        value = value.trim();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < 0x20 && c != '\t') || c == 0x7F || c > 0xFF) {
+                throw new IllegalArgumentException("Invalid character at position " + i + " in value of header "
+                        + name);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return number of headers
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    /**
+     * @return the normalized name of the header at the given position
+     */
+    public String getName(int i) {
+        return names[i];
+    }
+
+    public String getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * @return the value of the first header with the given name (case-insensitive), or {@code null} if none
+     */
+    public String get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Apply the given action to each header, in order, eg, to set them on a client request
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = 0; i < names.length; i++) {
+            action.accept(names[i], values[i]);
+        }
+    }
+
+    /**
+     * @return number of bytes of the encoded block
+     */
+    public int getEncodedLength() {
+        return encoded.length;
+    }
+
+    /**
+     * Copy the encoded block into the given array
+     *
+     * @return the position after the last written byte
+     * @throws IndexOutOfBoundsException if there is not enough space
+     */
+    public int writeTo(byte[] destination, int offset) {
+        System.arraycopy(encoded, 0, destination, offset, encoded.length);
+        return offset + encoded.length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(encoded);
+    }
+
+    /**
+     * @return a read-only view of the encoded block, without copying it
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a new block with the headers of this one followed by the ones of the given block
+     */
+    public HeaderBlock concat(HeaderBlock other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        String[] n = new String[names.length + other.names.length];
+        String[] v = new String[n.length];
+        System.arraycopy(names, 0, n, 0, names.length);
+        System.arraycopy(other.names, 0, n, names.length, other.names.length);
+        System.arraycopy(values, 0, v, 0, values.length);
+        System.arraycopy(other.values, 0, v, values.length, other.values.length);
+        return new HeaderBlock(n, v);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HeaderBlock && Arrays.equals(encoded, ((HeaderBlock) o).encoded);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(encoded);
+    }
+
+    /**
+     * @return the names of the headers, but not their values, as they are typically secrets
+     */
+    @Override
+    public String toString() {
+        return "HeaderBlock" + Arrays.toString(names);
+    }
+}
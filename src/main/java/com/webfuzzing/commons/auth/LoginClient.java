@@ -0,0 +1,229 @@
+package com.webfuzzing.commons.auth;
+
+import com.webfuzzing.commons.json.JsonPointer;
+import com.webfuzzing.commons.json.JsonStreamWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Execute the login of a {@link LoginEndpoint}, with {@link HttpURLConnection}, to obtain its credentials.
+ * <p>
+ * The payload is either "payloadRaw", or built from "payloadUserPwd" based on the content type
+ * (JSON or form-urlencoded). The token is extracted based on the {@link TokenHandling}, and cookies are
+ * collected from the "Set-Cookie" headers of the response.
+ * <p>
+ * This class is thread-safe.
+ */
+public class LoginClient implements TokenManager.Login {
+
+    private final String baseUrl;
+
+    private final int timeoutMs;
+
+    /**
+     * Compiled "extractSelector" of the token handlings seen so far.
+     * Typically, all users share the same one.
+     */
+    private final ConcurrentMap<String, JsonPointer> pointers = new ConcurrentHashMap<>();
+
+    /**
+     * Compiled "sendTemplate" of the token handlings seen so far
+     */
+    private final ConcurrentMap<String, PlaceholderTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * @param baseUrl base URL of the API, to which "endpoint" paths are appended.
+     *                Can be {@code null} if only "externalEndpointURL" is used.
+     */
+    public LoginClient(String baseUrl) {
+        this(baseUrl, 10_000);
+    }
+
+    /**
+     * @param timeoutMs timeout to connect, and to read the response
+     */
+    public LoginClient(String baseUrl, int timeoutMs) {
+        this.baseUrl = baseUrl == null || !baseUrl.endsWith("/") ? baseUrl : baseUrl.substring(0, baseUrl.length() - 1);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @param info resolved auth info (see {@link AuthTemplateResolver}), with a "loginEndpointAuth"
+     * @throws IOException              if the login fails, or the expected token/cookies are not in the response
+     * @throws IllegalArgumentException if the verb is PATCH, or GET with a payload
+     */
+    @Override
+    public LoginCredentials login(AuthenticationInfo info) throws IOException {
+        LoginEndpoint endpoint = info.getLoginEndpointAuth();
+        if (endpoint == null) {
+            throw new IllegalArgumentException("No login endpoint for '" + info.getName() + "'");
+        }
+
+        LoginEndpoint.HttpVerb verb = endpoint.getVerb() == null ? LoginEndpoint.HttpVerb.POST : endpoint.getVerb();
+        if (verb == LoginEndpoint.HttpVerb.PATCH) {
+            throw new IllegalArgumentException("Cannot login '" + info.getName() + "' with PATCH, not supported by HttpURLConnection");
+        }
+        byte[] payload = payload(endpoint);
+        if (verb == LoginEndpoint.HttpVerb.GET && payload != null) {
+            // HttpURLConnection would silently send it as POST
+            throw new IllegalArgumentException("Cannot login '" + info.getName() + "' with GET and a payload");
+        }
+
+        URL url = new URL(url(endpoint));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
+            connection.setInstanceFollowRedirects(false);
+            connection.setUseCaches(false);
+            connection.setRequestMethod(verb.value());
+            if (endpoint.getHeaders() != null) {
+                for (Header h : endpoint.getHeaders()) {
+                    connection.setRequestProperty(h.getName(), h.getValue());
+                }
+            }
+            if (endpoint.getContentType() != null) {
+                connection.setRequestProperty("Content-Type", endpoint.getContentType());
+            }
+            if (payload != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(payload.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(payload);
+                }
+            }
+
+            int status = connection.getResponseCode();
+            if (status < 200 || status >= 300) {
+                throw new IOException("Login of '" + info.getName() + "' at " + url + " failed with status " + status);
+            }
+
+            Map<String, String> cookies = cookies(connection);
+            TokenHandling handling = endpoint.getToken();
+            String token = null;
+            if (handling != null) {
+                if (handling.getExtractFrom() == TokenHandling.ExtractFrom.HEADER) {
+                    token = connection.getHeaderField(handling.getExtractSelector());
+                } else {
+                    JsonPointer pointer = pointer(handling.getExtractSelector());
+                    try (InputStream in = connection.getInputStream()) {
+                        token = pointer.extractString(in);
+                    }
+                }
+                if (token == null) {
+                    throw new IOException("No token at '" + handling.getExtractSelector() + "' in the "
+                            + handling.getExtractFrom() + " of the login response for '" + info.getName() + "'");
+                }
+            }
+            if (Boolean.TRUE.equals(endpoint.getExpectCookies()) && cookies.isEmpty()) {
+                throw new IOException("No cookie in the login response for '" + info.getName() + "'");
+            }
+
+            String sendValue = token == null ? null : sendValue(handling, token);
+            return new LoginCredentials(info.getName(), token, handling, sendValue, cookies);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private String url(LoginEndpoint endpoint) {
+        if (endpoint.getExternalEndpointURL() != null) {
+            return endpoint.getExternalEndpointURL();
+        }
+        if (baseUrl == null) {
+            throw new IllegalStateException("No base URL to resolve endpoint " + endpoint.getEndpoint());
+        }
+        String path = Objects.requireNonNull(endpoint.getEndpoint(), "No endpoint");
+        return baseUrl + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    private JsonPointer pointer(String selector) {
+        if (selector == null) {
+            throw new IllegalArgumentException("No extractSelector for token in body");
+        }
+        JsonPointer pointer = pointers.get(selector);
+        if (pointer == null) {
+            pointer = JsonPointer.compile(selector);
+            pointers.putIfAbsent(selector, pointer);
+        }
+        return pointer;
+    }
+
+    private String sendValue(TokenHandling handling, String token) {
+        String key = handling.getSendTemplate() == null ? PlaceholderTemplate.TOKEN : handling.getSendTemplate();
+        PlaceholderTemplate template = templates.get(key);
+        if (template == null) {
+            template = PlaceholderTemplate.compile(handling);
+            templates.putIfAbsent(key, template);
+        }
+        // compiled with the only placeholder {token}, so without allocating an array for the values
+        return template.render(new StringBuilder(0), token).toString();
+    }
+
+    static byte[] payload(LoginEndpoint endpoint) throws IOException {
+        if (endpoint.getPayloadRaw() != null) {
+            return endpoint.getPayloadRaw().getBytes(StandardCharsets.UTF_8);
+        }
+        PayloadUsernamePassword pwd = endpoint.getPayloadUserPwd();
+        if (pwd == null) {
+            return null;
+        }
+        String contentType = endpoint.getContentType() == null ? "" : endpoint.getContentType().toLowerCase();
+        if (contentType.contains("json")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (JsonStreamWriter json = new JsonStreamWriter(out)) {
+                json.beginObject()
+                        .name(pwd.getUsernameField()).value(pwd.getUsername())
+                        .name(pwd.getPasswordField()).value(pwd.getPassword())
+                        .endObject();
+            }
+            return out.toByteArray();
+        }
+        if (contentType.contains("x-www-form-urlencoded")) {
+            String form = encode(pwd.getUsernameField()) + "=" + encode(pwd.getUsername())
+                    + "&" + encode(pwd.getPasswordField()) + "=" + encode(pwd.getPassword());
+            return form.getBytes(StandardCharsets.US_ASCII);
+        }
+        throw new IllegalArgumentException("Cannot build username/password payload for content type: "
+                + endpoint.getContentType());
+    }
+
+    private static String encode(String s) throws UnsupportedEncodingException {
+        return URLEncoder.encode(s, "UTF-8");
+    }
+
+    private static Map<String, String> cookies(HttpURLConnection connection) {
+        Map<String, String> cookies = new LinkedHashMap<>();
+        // by index, as getHeaderFields() does not keep the order of repeated headers
+        for (int i = 0; ; i++) {
+            String cookie = connection.getHeaderField(i);
+            if (cookie == null) {
+                break;
+            }
+            String key = connection.getHeaderFieldKey(i);
+            if (key == null || !key.equalsIgnoreCase("Set-Cookie")) {
+                continue;
+            }
+            int end = cookie.indexOf(';');
+            String pair = end < 0 ? cookie : cookie.substring(0, end);
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                cookies.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+            }
+        }
+        return cookies;
+    }
+}
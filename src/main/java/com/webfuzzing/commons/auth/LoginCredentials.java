@@ -0,0 +1,108 @@
+package com.webfuzzing.commons.auth;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Result of a successful login with a {@link LoginEndpoint}, ie, a token and/or cookies to use for authentication
+ * in the following requests.
+ * <p>
+ * This class is immutable.
+ */
+public final class LoginCredentials {
+
+    private final String name;
+
+    private final String token;
+
+    private final TokenHandling.SendIn sendIn;
+
+    private final String sendName;
+
+    private final String sendValue;
+
+    private final Map<String, String> cookies;
+
+    /**
+     * @param name      name of the {@link AuthenticationInfo} these credentials are for
+     * @param token     the token extracted from the response, if any
+     * @param handling  how to send the token, needed if there is a token
+     * @param sendValue the token interpolated in the "sendTemplate" of the handling
+     * @param cookies   cookies set by the login endpoint, by name
+     */
+    public LoginCredentials(String name, String token, TokenHandling handling, String sendValue,
+                            Map<String, String> cookies) {
+        this.name = Objects.requireNonNull(name);
+        this.token = token;
+        this.sendIn = token == null ? null : handling.getSendIn();
+        this.sendName = token == null ? null : handling.getSendName();
+        this.sendValue = token == null ? null : sendValue;
+        this.cookies = cookies == null || cookies.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(cookies));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the token as extracted from the login response, or {@code null} if none
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return where to send the token, or {@code null} if there is no token
+     */
+    public TokenHandling.SendIn getSendIn() {
+        return sendIn;
+    }
+
+    /**
+     * @return the header or query parameter in which to send the token, or {@code null} if there is no token
+     */
+    public String getSendName() {
+        return sendName;
+    }
+
+    /**
+     * @return the value to send, eg, "Bearer " followed by the token, or {@code null} if there is no token
+     */
+    public String getSendValue() {
+        return sendValue;
+    }
+
+    /**
+     * @return unmodifiable map of cookies, possibly empty
+     */
+    public Map<String, String> getCookies() {
+        return cookies;
+    }
+
+    /**
+     * @return the value for a "Cookie" header with all the cookies, or {@code null} if there is none
+     */
+    public String getCookieHeader() {
+        if (cookies.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : cookies.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(e.getKey()).append('=').append(e.getValue());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        // not showing secrets
+        return "LoginCredentials[" + name + ", token=" + (token == null ? "none" : "yes") + ", cookies=" + cookies.keySet() + "]";
+    }
+}
@@ -0,0 +1,297 @@
+package com.webfuzzing.commons.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Template with placeholders, eg, "Bearer {token}" in {@link TokenHandling#getSendTemplate()}, or
+ * "payloadRaw" in {@link CreateUsers} with the "placeHolder" of its {@link Generator}s.
+ * <p>
+ * The template is parsed once, at compilation, into a list of literal segments and references to placeholders.
+ * Rendering then only appends the segments and the given values to a {@link StringBuilder} or byte array
+ * provided by the caller, which can be reused among calls, without creating any intermediate object.
+ * Placeholders are matched left to right, the longest first when several match at the same position,
+ * and replaced values are not themselves searched for placeholders.
+ * <p>
+ * This class is immutable, and so thread-safe.
+ */
+public final class PlaceholderTemplate {
+
+    /**
+     * Placeholder in {@link TokenHandling#getSendTemplate()}
+     */
+    public static final String TOKEN = "{token}";
+
+    private final String template;
+
+    private final String[] placeholders;
+
+    /**
+     * Literal text before each reference, plus the one after the last reference
+     */
+    private final String[] literals;
+
+    private final byte[][] utf8Literals;
+
+    /**
+     * For each reference, the index of its placeholder
+     */
+    private final int[] references;
+
+    private final int literalLength;
+
+    private final int utf8LiteralLength;
+
+    private PlaceholderTemplate(String template, String[] placeholders, String[] literals, int[] references) {
+        this.template = template;
+        this.placeholders = placeholders;
+        this.literals = literals;
+        this.references = references;
+        this.utf8Literals = new byte[literals.length][];
+        int length = 0;
+        int utf8Length = 0;
+        for (int i = 0; i < literals.length; i++) {
+            utf8Literals[i] = literals[i].getBytes(StandardCharsets.UTF_8);
+            length += literals[i].length();
+            utf8Length += utf8Literals[i].length;
+        }
+        this.literalLength = length;
+        this.utf8LiteralLength = utf8Length;
+    }
+
+    /**
+     * @param template     text with placeholders
+     * @param placeholders the placeholders, eg, "{token}". Values are given to the render methods in the same order.
+     * @throws IllegalArgumentException if a placeholder is empty or duplicated
+     */
+    public static PlaceholderTemplate compile(String template, String... placeholders) {
+        Objects.requireNonNull(template);
+        for (int i = 0; i < placeholders.length; i++) {
+            if (placeholders[i] == null || placeholders[i].isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at position " + i);
+            }
+            for (int k = 0; k < i; k++) {
+                if (placeholders[k].equals(placeholders[i])) {
+                    throw new IllegalArgumentException("Duplicated placeholder: " + placeholders[i]);
+                }
+            }
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> references = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < template.length()) {
+            int match = -1;
+            for (int p = 0; p < placeholders.length; p++) {
+                if (template.startsWith(placeholders[p], i)
+                        && (match < 0 || placeholders[p].length() > placeholders[match].length())) {
+                    match = p;
+                }
+            }
+            if (match < 0) {
+                i++;
+                continue;
+            }
+            literals.add(template.substring(start, i));
+            references.add(match);
+            i += placeholders[match].length();
+            start = i;
+        }
+        literals.add(template.substring(start));
+
+        int[] refs = new int[references.size()];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = references.get(k);
+        }
+        return new PlaceholderTemplate(template, placeholders.clone(), literals.toArray(new String[0]), refs);
+    }
+
+    /**
+     * @return the compiled "sendTemplate" of the given handling, with {@link #TOKEN} as only placeholder.
+     * A missing template is the same as the schema default, ie, the token alone.
+     */
+    public static PlaceholderTemplate compile(TokenHandling handling) {
+        String template = handling.getSendTemplate();
+        return compile(template == null ? TOKEN : template, TOKEN);
+    }
+
+    /**
+     * @return the compiled "payloadRaw" of the given user creation, with the placeholders of its generators,
+     * in the same order
+     * @throws IllegalArgumentException if there is no payload, or a generator has no placeholder
+     */
+    public static PlaceholderTemplate compile(CreateUsers createUsers) {
+        if (createUsers.getPayloadRaw() == null) {
+            throw new IllegalArgumentException("No payloadRaw to create users");
+        }
+        List<Generator> generators = createUsers.getGenerators();
+        String[] placeholders = new String[generators.size()];
+        for (int i = 0; i < placeholders.length; i++) {
+            placeholders[i] = generators.get(i).getPlaceHolder();
+        }
+        return compile(createUsers.getPayloadRaw(), placeholders);
+    }
+
+    /**
+     * Append the template to the given builder, with the only placeholder replaced by the given value
+     *
+     * @throws IllegalStateException if the template has not exactly one placeholder
+     */
+    public StringBuilder render(StringBuilder out, CharSequence value) {
+        if (placeholders.length != 1) {
+            throw new IllegalStateException("Template has " + placeholders.length + " placeholders, not 1");
+        }
+        out.ensureCapacity(out.length() + literalLength + references.length * value.length());
+        for (int i = 0; i < references.length; i++) {
+            out.append(literals[i]).append(value);
+        }
+        return out.append(literals[references.length]);
+    }
+
+    /**
+     * Append the template to the given builder, with each placeholder replaced by the value at the same index
+     *
+     * @throws IllegalArgumentException if the number of values is not the number of placeholders
+     */
+    public StringBuilder render(StringBuilder out, CharSequence[] values) {
+        checkValues(values);
+        for (int i = 0; i < references.length; i++) {
+            out.append(literals[i]).append(values[references[i]]);
+        }
+        return out.append(literals[references.length]);
+    }
+
+    /**
+     * Convenience method, creating a new string
+     */
+    public String render(CharSequence... values) {
+        checkValues(values);
+        if (references.length == 0) {
+            return template;
+        }
+        int length = literalLength;
+        for (int reference : references) {
+            length += values[reference].length();
+        }
+        return render(new StringBuilder(length), values).toString();
+    }
+
+    /**
+     * @return the number of bytes of the template rendered with the given values and encoded in UTF-8,
+     * eg, to size the buffer for {@link #renderUtf8(CharSequence[], byte[], int)}
+     */
+    public int utf8Length(CharSequence[] values) {
+        checkValues(values);
+        int length = utf8LiteralLength;
+        for (int reference : references) {
+            length += utf8Length(values[reference]);
+        }
+        return length;
+    }
+
+    /**
+     * Write the template, with the placeholders replaced by the given values, encoded in UTF-8
+     *
+     * @return the position in the destination after the last written byte
+     * @throws IndexOutOfBoundsException if the destination is too small, in which case its content is undefined
+     */
+    public int renderUtf8(CharSequence[] values, byte[] destination, int offset) {
+        checkValues(values);
+        int pos = offset;
+        for (int i = 0; i < references.length; i++) {
+            byte[] literal = utf8Literals[i];
+            System.arraycopy(literal, 0, destination, pos, literal.length);
+            pos = encode(values[references[i]], destination, pos + literal.length);
+        }
+        byte[] last = utf8Literals[references.length];
+        System.arraycopy(last, 0, destination, pos, last.length);
+        return pos + last.length;
+    }
+
+    private void checkValues(CharSequence[] values) {
+        if (values.length != placeholders.length) {
+            throw new IllegalArgumentException("Expected " + placeholders.length + " values, but got " + values.length);
+        }
+    }
+
+    private static int utf8Length(CharSequence s) {
+        int n = s.length();
+        int length = n;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    length++;
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        // 4 bytes for 2 chars
+                        length += 2;
+                        i++;
+                    }
+                    // otherwise, '?'
+                } else {
+                    length += 2;
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Same encoding as {@link String#getBytes(java.nio.charset.Charset)}, ie, unpaired surrogates become '?'
+     */
+    private static int encode(CharSequence s, byte[] out, int pos) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    out[pos++] = (byte) (0xF0 | (cp >> 18));
+                    out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    out[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    out[pos++] = '?';
+                }
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * @return the placeholders, in the order of the values to render
+     */
+    public List<String> getPlaceholders() {
+        return Arrays.asList(placeholders.clone());
+    }
+
+    /**
+     * @return how many times placeholders occur in the template
+     */
+    public int getReferenceCount() {
+        return references.length;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -0,0 +1,286 @@
+package com.webfuzzing.commons.auth;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the credentials obtained with the {@link LoginEndpoint} of each user, by auth "name", to share among
+ * all the threads doing calls on behalf of those users.
+ * <p>
+ * Concurrent requests for the credentials of the same user are coalesced: only one login is in flight at any time,
+ * and all the other callers wait for its result. Credentials expire after a given time-to-live. If a refresh-ahead
+ * window is given, the first access within that window before the expiration starts a new login in the background,
+ * while the current credentials keep being returned, so that callers do not wait for the renewal.
+ * Failed logins are not cached, ie, they are retried on the next access.
+ * <p>
+ * This class is thread-safe.
+ */
+public class TokenManager implements Closeable {
+
+    /**
+     * How to log in a user, eg, {@link LoginClient}
+     */
+    public interface Login {
+
+        LoginCredentials login(AuthenticationInfo info) throws IOException;
+    }
+
+    private final Map<String, Slot> slots;
+
+    private final Login login;
+
+    private final long ttl;
+
+    private final long refreshAhead;
+
+    private final Executor executor;
+
+    /**
+     * Executor to shut down on close, if created here
+     */
+    private final ExecutorService ownExecutor;
+
+    /**
+     * Time in nanoseconds, as {@link System#nanoTime()}
+     */
+    private final LongSupplier clock;
+
+    private final LongAdder logins = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param users        resolved auth entries (see {@link AuthTemplateResolver}).
+     *                     Only the ones with a "loginEndpointAuth" are handled.
+     * @param login        how to log in
+     * @param ttl          how long credentials are valid after login
+     * @param refreshAhead how long before expiration to start renewing credentials in the background.
+     *                     Zero to disable.
+     */
+    public TokenManager(List<AuthenticationInfo> users, Login login, Duration ttl, Duration refreshAhead) {
+        this(users, login, ttl, refreshAhead, null, System::nanoTime);
+    }
+
+    /**
+     * @param executor where to run background refreshes. If {@code null}, daemon threads owned by this manager.
+     */
+    TokenManager(List<AuthenticationInfo> users, Login login, Duration ttl, Duration refreshAhead,
+                 Executor executor, LongSupplier clock) {
+        this.login = Objects.requireNonNull(login);
+        this.ttl = ttl.toNanos();
+        this.refreshAhead = refreshAhead.toNanos();
+        if (this.ttl <= 0) {
+            throw new IllegalArgumentException("Time-to-live must be positive: " + ttl);
+        }
+        if (this.refreshAhead < 0 || this.refreshAhead >= this.ttl) {
+            throw new IllegalArgumentException("Refresh-ahead must be non-negative and less than the time-to-live: "
+                    + refreshAhead);
+        }
+        this.clock = clock;
+
+        Map<String, Slot> map = new HashMap<>();
+        for (AuthenticationInfo info : users) {
+            if (info == null || info.getLoginEndpointAuth() == null) {
+                continue;
+            }
+            if (info.getName() == null) {
+                throw new IllegalArgumentException("Auth entry with login endpoint but no name");
+            }
+            if (map.put(info.getName(), new Slot(info)) != null) {
+                throw new IllegalArgumentException("Duplicated auth name: " + info.getName());
+            }
+        }
+        this.slots = Collections.unmodifiableMap(map);
+
+        if (executor == null) {
+            ownExecutor = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "token-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            this.executor = ownExecutor;
+        } else {
+            ownExecutor = null;
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * @return valid credentials of the given user, doing a login if needed
+     * @throws IllegalArgumentException if there is no user with that name and a login endpoint
+     * @throws IOException              if the login fails
+     */
+    public LoginCredentials getCredentials(String name) throws IOException {
+        Slot slot = slot(name);
+        while (true) {
+            Entry current = slot.current.get();
+            if (current != null) {
+                if (!current.future.isDone()) {
+                    return await(current, name);
+                }
+                if (!current.future.isCompletedExceptionally()) {
+                    long now = clock.getAsLong();
+                    if (now - current.expiresAt < 0) {
+                        hits.increment();
+                        if (refreshAhead > 0 && now - (current.expiresAt - refreshAhead) >= 0
+                                && slot.refreshing.compareAndSet(false, true)) {
+                            refresh(slot, current);
+                        }
+                        return current.future.join();
+                    }
+                }
+            }
+            Entry fresh = new Entry();
+            if (slot.current.compareAndSet(current, fresh)) {
+                doLogin(slot.info, fresh);
+                return await(fresh, name);
+            }
+            // somebody else is logging in, so check again
+        }
+    }
+
+    /**
+     * Discard the cached credentials of the given user, if any, eg, after the API rejected them.
+     * A login in flight is not affected.
+     */
+    public void invalidate(String name) {
+        slot(name).current.updateAndGet(e -> e != null && !e.future.isDone() ? e : null);
+    }
+
+    /**
+     * @return names of all the users handled here
+     */
+    public Set<String> getNames() {
+        return slots.keySet();
+    }
+
+    /**
+     * @return number of logins done so far, including failed ones and background refreshes
+     */
+    public long getLoginCount() {
+        return logins.sum();
+    }
+
+    /**
+     * @return number of times valid credentials were returned from the cache, without waiting for a login
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    private Slot slot(String name) {
+        Slot slot = slots.get(name);
+        if (slot == null) {
+            throw new IllegalArgumentException("No auth with login endpoint named: " + name);
+        }
+        return slot;
+    }
+
+    private void refresh(Slot slot, Entry current) {
+        Runnable task = () -> {
+            try {
+                Entry next = new Entry();
+                doLogin(slot.info, next);
+                if (!next.future.isCompletedExceptionally()) {
+                    // if invalidated meanwhile, the new credentials are still good to use
+                    slot.current.compareAndSet(current, next);
+                    slot.current.compareAndSet(null, next);
+                }
+                // on failure, keep the current credentials until they expire
+            } finally {
+                slot.refreshing.set(false);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            slot.refreshing.set(false);
+        }
+    }
+
+    private void doLogin(AuthenticationInfo info, Entry entry) {
+        logins.increment();
+        try {
+            LoginCredentials credentials = login.login(info);
+            entry.expiresAt = clock.getAsLong() + ttl;
+            entry.future.complete(Objects.requireNonNull(credentials));
+        } catch (Exception | Error e) {
+            failures.increment();
+            entry.future.completeExceptionally(e);
+        }
+    }
+
+    private static LoginCredentials await(Entry entry, String name) throws IOException {
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for login of '" + name + "'");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                // new instance, as the same failure is shared among all the waiting threads
+                throw new IOException("Failed login of '" + name + "': " + cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Failed login of '" + name + "'", cause);
+        }
+    }
+
+    private static final class Slot {
+
+        private final AuthenticationInfo info;
+
+        /**
+         * Latest login, possibly still in flight. Replaced with compare-and-set.
+         */
+        private final AtomicReference<Entry> current = new AtomicReference<>();
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Slot(AuthenticationInfo info) {
+            this.info = info;
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<LoginCredentials> future = new CompletableFuture<>();
+
+        /**
+         * Set before completing the future, so visible to whoever sees it done
+         */
+        private volatile long expiresAt;
+    }
+}
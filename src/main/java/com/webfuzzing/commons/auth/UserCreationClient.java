@@ -0,0 +1,138 @@
+package com.webfuzzing.commons.auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Create new users as specified by a {@link CreateUsers}, with {@link HttpURLConnection}.
+ * <p>
+ * For each user, a new value is taken from the {@link GeneratorEngine} of each generator, and the compiled
+ * "payloadRaw" is rendered with them. Responses are fully consumed, so that connections are kept alive and
+ * reused among requests.
+ * <p>
+ * This class is thread-safe.
+ */
+public class UserCreationClient implements UserPool.Creator {
+
+    private final URL url;
+
+    private final String method;
+
+    private final String contentType;
+
+    private final PlaceholderTemplate payload;
+
+    private final String[] placeholders;
+
+    private final GeneratorEngine[] engines;
+
+    private final int timeoutMs;
+
+    /**
+     * @param baseUrl base URL of the API, to which "endpoint" is appended.
+     *                Can be {@code null} if "externalEndpointURL" is used.
+     * @throws IllegalArgumentException if the specification is not complete, or its verb is GET or PATCH
+     */
+    public UserCreationClient(String baseUrl, CreateUsers createUsers) {
+        this(baseUrl, createUsers, 10_000);
+    }
+
+    /**
+     * @param timeoutMs timeout to connect, and to read the response
+     */
+    public UserCreationClient(String baseUrl, CreateUsers createUsers, int timeoutMs) {
+        List<Generator> generators = createUsers.getGenerators();
+        if (generators.isEmpty()) {
+            throw new IllegalArgumentException("No generators to create users");
+        }
+        payload = PlaceholderTemplate.compile(createUsers);
+        placeholders = payload.getPlaceholders().toArray(new String[0]);
+        engines = new GeneratorEngine[generators.size()];
+        for (int i = 0; i < engines.length; i++) {
+            engines[i] = new GeneratorEngine(generators.get(i));
+        }
+        LoginEndpoint.HttpVerb verb = createUsers.getVerb() == null ? LoginEndpoint.HttpVerb.POST : createUsers.getVerb();
+        if (verb == LoginEndpoint.HttpVerb.GET) {
+            // HttpURLConnection would silently send it as POST, due to the payload
+            throw new IllegalArgumentException("Cannot create users with GET, as the payload is sent in the body");
+        }
+        if (verb == LoginEndpoint.HttpVerb.PATCH) {
+            throw new IllegalArgumentException("Cannot create users with PATCH, not supported by HttpURLConnection");
+        }
+        method = verb.value();
+        contentType = createUsers.getContentType();
+        this.timeoutMs = timeoutMs;
+
+        String target = createUsers.getExternalEndpointURL();
+        if (target == null) {
+            if (createUsers.getEndpoint() == null || baseUrl == null) {
+                throw new IllegalArgumentException("Need either externalEndpointURL, or endpoint and base URL, to create users");
+            }
+            String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+            String path = createUsers.getEndpoint();
+            target = base + (path.startsWith("/") ? path : "/" + path);
+        }
+        try {
+            url = new URL(target);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid URL to create users: " + target, e);
+        }
+    }
+
+    /**
+     * @throws IOException           if the request fails, or the response status is not 2xx
+     * @throws IllegalStateException if a generator has no more unique values
+     */
+    @Override
+    public CreatedUser create() throws IOException {
+        CharSequence[] values = new CharSequence[engines.length];
+        for (int i = 0; i < engines.length; i++) {
+            values[i] = engines[i].next();
+        }
+        byte[] body = new byte[payload.utf8Length(values)];
+        payload.renderUtf8(values, body, 0);
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setRequestMethod(method);
+        if (contentType != null) {
+            connection.setRequestProperty("Content-Type", contentType);
+        }
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in != null) {
+            // consumed and closed, but not disconnected, to reuse the connection
+            try (InputStream response = in) {
+                byte[] buffer = new byte[4096];
+                while (response.read(buffer) >= 0) {
+                    // discard
+                }
+            }
+        }
+        if (status < 200 || status >= 300) {
+            throw new IOException("Creation of user at " + url + " failed with status " + status);
+        }
+
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(placeholders[i], values[i].toString());
+        }
+        return new CreatedUser(map);
+    }
+}
@@ -0,0 +1,256 @@
+package com.webfuzzing.commons.auth;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of users created in advance, eg, with {@link UserCreationClient}, so that fuzzers can get a new
+ * user without waiting for its creation.
+ * <p>
+ * Users are taken with {@link #poll()}, which never blocks, and returns {@code null} if the pool is empty
+ * (a miss). Whenever the pool goes below half of its capacity, it is refilled in the background: users are
+ * created in batches, with a bounded number of concurrent requests. If all the creations of a batch fail,
+ * refilling stops until the next time a user is taken, to not flood a failing server.
+ * <p>
+ * This class is thread-safe.
+ */
+public class UserPool implements Closeable {
+
+    /**
+     * How to create a new user
+     */
+    public interface Creator {
+
+        CreatedUser create() throws IOException;
+    }
+
+    private final Creator creator;
+
+    private final BlockingQueue<CreatedUser> pool;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    /**
+     * Runs the refill loop, one at a time
+     */
+    private final ExecutorService refiller;
+
+    /**
+     * Run the creations of a batch
+     */
+    private final ExecutorService workers;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    /**
+     * Whether a refill was asked for since the current refill loop started
+     */
+    private volatile boolean requested;
+
+    private volatile boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private volatile IOException lastFailure;
+
+    /**
+     * Create the pool, and start filling it in the background
+     *
+     * @param capacity    maximum number of ready users
+     * @param batchSize   number of users created in each round of refill
+     * @param concurrency maximum number of concurrent creations
+     */
+    public UserPool(Creator creator, int capacity, int batchSize, int concurrency) {
+        this.creator = Objects.requireNonNull(creator);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+        }
+        this.capacity = capacity;
+        this.batchSize = Math.min(batchSize, capacity);
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.refiller = Executors.newSingleThreadExecutor(daemon("user-pool-refill"));
+        this.workers = Executors.newFixedThreadPool(concurrency, daemon("user-pool-create"));
+        refill();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Take a ready user, without blocking
+     *
+     * @return a user never returned before, or {@code null} if none is ready
+     */
+    public CreatedUser poll() {
+        CreatedUser user = pool.poll();
+        if (user == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        if (pool.size() <= capacity / 2) {
+            refill();
+        }
+        return user;
+    }
+
+    /**
+     * Take a ready user if any, otherwise create one in the calling thread
+     *
+     * @throws IOException if the creation fails
+     */
+    public CreatedUser acquire() throws IOException {
+        CreatedUser user = poll();
+        if (user != null) {
+            return user;
+        }
+        user = creator.create();
+        created.increment();
+        return user;
+    }
+
+    private void refill() {
+        requested = true;
+        if (closed || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(this::refillLoop);
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    private void refillLoop() {
+        requested = false;
+        boolean failing = false;
+        try {
+            while (!closed) {
+                int missing = capacity - pool.size();
+                if (missing <= 0) {
+                    break;
+                }
+                int n = Math.min(batchSize, missing);
+                List<Future<CreatedUser>> batch = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    batch.add(workers.submit(creator::create));
+                }
+                int ok = 0;
+                for (Future<CreatedUser> f : batch) {
+                    try {
+                        CreatedUser user = f.get();
+                        created.increment();
+                        ok++;
+                        // if full, because of concurrent acquire(), the user is simply not used
+                        pool.offer(user);
+                    } catch (ExecutionException e) {
+                        failures.increment();
+                        Throwable cause = e.getCause();
+                        lastFailure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                    }
+                }
+                if (ok == 0) {
+                    failing = true;
+                    break;
+                }
+            }
+        } catch (InterruptedException | RejectedExecutionException e) {
+            // closed
+            failing = true;
+        } finally {
+            refilling.set(false);
+        }
+        // users might have been taken while refilling was still marked as running
+        if (!closed && (requested || (!failing && pool.size() <= capacity / 2))) {
+            refill();
+        }
+    }
+
+    /**
+     * @return number of users ready to be taken
+     */
+    public int getSize() {
+        return pool.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of times a ready user was taken
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of times no user was ready
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of users successfully created, in the background or by {@link #acquire()}
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * @return number of failed creations in the background
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the last failure of a creation in the background, or {@code null} if none
+     */
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stop refilling. Users still in the pool can be taken.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.shutdownNow();
+        workers.shutdownNow();
+    }
+}
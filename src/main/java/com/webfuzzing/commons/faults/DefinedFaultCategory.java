@@ -1,6 +1,9 @@
 package com.webfuzzing.commons.faults;
 
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 public enum DefinedFaultCategory implements FaultCategory {
@@ -153,6 +156,91 @@ public enum DefinedFaultCategory implements FaultCategory {
                     " should respond that the endpoint does not exist (e.g., 405 and 501)."),
     ;
 
+    /*
+        Lookup tables, computed once when the enum is loaded.
+        Note that values() creates a new copy of the array at each call, so it should not be used on hot paths.
+     */
+
+    private static final DefinedFaultCategory[] BY_CODE;
+
+    private static final Map<String, DefinedFaultCategory> BY_TEST_CASE_LABEL;
+
+    private static final Map<String, DefinedFaultCategory> BY_LABEL;
+
+    static {
+        DefinedFaultCategory[] all = values();
+
+        int max = 0;
+        for (DefinedFaultCategory c : all) {
+            if (c.code < FaultCategory.MIN_CODE || c.code > FaultCategory.MAX_CODE) {
+                throw new IllegalStateException("Invalid code " + c.code + " for " + c.name());
+            }
+            max = Math.max(max, c.code);
+        }
+
+        DefinedFaultCategory[] byCode = new DefinedFaultCategory[max + 1];
+        Map<String, DefinedFaultCategory> byTestCaseLabel = new HashMap<>(all.length * 2);
+        Map<String, DefinedFaultCategory> byLabel = new HashMap<>(all.length * 2);
+
+        for (DefinedFaultCategory c : all) {
+            if (byCode[c.code] != null) {
+                throw new IllegalStateException("Duplicated code " + c.code + " for " + byCode[c.code].name()
+                        + " and " + c.name());
+            }
+            byCode[c.code] = c;
+            if (byTestCaseLabel.put(c.testCaseLabel, c) != null) {
+                throw new IllegalStateException("Duplicated test case label: " + c.testCaseLabel);
+            }
+            byLabel.put(c.getLabel(), c);
+        }
+
+        BY_CODE = byCode;
+        BY_TEST_CASE_LABEL = Collections.unmodifiableMap(byTestCaseLabel);
+        BY_LABEL = Collections.unmodifiableMap(byLabel);
+    }
+
+    /**
+     * Constant-time lookup of a category based on its code.
+     * No object is allocated in this call.
+     *
+     * @return the category with the given code, or {@code null} if there is none
+     */
+    public static DefinedFaultCategory fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            return null;
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * @return the category with the given {@link #getTestCaseLabel()}, or {@code null} if there is none
+     */
+    public static DefinedFaultCategory fromTestCaseLabel(String testCaseLabel) {
+        if (testCaseLabel == null) {
+            return null;
+        }
+        return BY_TEST_CASE_LABEL.get(testCaseLabel);
+    }
+
+    /**
+     * @return the category with the given {@link #getLabel()}, e.g., "F100:HTTP Status 500",
+     * or {@code null} if there is none
+     */
+    public static DefinedFaultCategory fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        return BY_LABEL.get(label);
+    }
+
+    /**
+     * @return whether there is a defined category with the given code
+     */
+    public static boolean isDefined(int code) {
+        return fromCode(code) != null;
+    }
+
+
     private final int code;
 
     private final String name;
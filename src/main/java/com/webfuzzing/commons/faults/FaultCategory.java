@@ -2,6 +2,16 @@ package com.webfuzzing.commons.faults;
 
 public interface FaultCategory {
 
+    /**
+     * Lowest valid value for {@link #getCode()}
+     */
+    public static final int MIN_CODE = 100;
+
+    /**
+     * Highest valid value for {@link #getCode()}.
+     * Codes in the 9xx range are reserved for custom categories.
+     */
+    public static final int MAX_CODE = 999;
 
     /**
      * A unique code identifying this fault category
@@ -0,0 +1,187 @@
+package com.webfuzzing.commons.faults;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registry of all the fault categories known at runtime.
+ * It starts with all the {@link DefinedFaultCategory}, and custom ones can be added with
+ * {@link #register(FaultCategory)}.
+ * Custom categories must use codes in the 9xx range, as those are reserved for them.
+ * <p>
+ * This class is thread-safe.
+ * Lookups are lock-free, as they are done on an immutable snapshot of the registry.
+ * Registrations create a new snapshot, which is published atomically, if and only if there is no collision
+ * on codes and labels with the current one.
+ * Registrations are expected to be rare (eg, when plugins are loaded), whereas lookups are on hot paths.
+ */
+public class FaultCategoryRegistry {
+
+    /**
+     * Lowest code that can be used for custom categories
+     */
+    public static final int MIN_CUSTOM_CODE = 900;
+
+    private final AtomicReference<Snapshot> snapshot;
+
+    public FaultCategoryRegistry() {
+        snapshot = new AtomicReference<>(Snapshot.EMPTY.with(Arrays.<FaultCategory>asList(DefinedFaultCategory.values())));
+    }
+
+    /**
+     * Add a new custom category.
+     *
+     * @throws IllegalArgumentException if the code is not in the 9xx range, or if the code, label or test case label
+     *                                  are already used by another registered category.
+     *                                  In such case, the registry is left unchanged.
+     */
+    public void register(FaultCategory category) {
+        registerAll(Collections.singletonList(category));
+    }
+
+    /**
+     * Add all the given custom categories, atomically.
+     * Either all of them get registered, or none of them.
+     *
+     * @throws IllegalArgumentException under same conditions as in {@link #register(FaultCategory)},
+     *                                  including collisions among the given categories themselves
+     */
+    public void registerAll(Collection<? extends FaultCategory> categories) {
+        Objects.requireNonNull(categories);
+        for (FaultCategory c : categories) {
+            Objects.requireNonNull(c);
+            int code = c.getCode();
+            if (code < MIN_CUSTOM_CODE || code > FaultCategory.MAX_CODE) {
+                throw new IllegalArgumentException("Custom fault categories must have a code in the range ["
+                        + MIN_CUSTOM_CODE + "," + FaultCategory.MAX_CODE + "]. Invalid code: " + code);
+            }
+        }
+
+        while (true) {
+            Snapshot current = snapshot.get();
+            Snapshot next = current.with(categories);
+            if (snapshot.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the category with the given code, or {@code null} if there is none
+     */
+    public FaultCategory fromCode(int code) {
+        FaultCategory[] byCode = snapshot.get().byCode;
+        if (code < 0 || code >= byCode.length) {
+            return null;
+        }
+        return byCode[code];
+    }
+
+    /**
+     * @return the category with the given {@link FaultCategory#getLabel()}, or {@code null} if there is none
+     */
+    public FaultCategory fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        return snapshot.get().byLabel.get(label);
+    }
+
+    /**
+     * @return the category with the given {@link FaultCategory#getTestCaseLabel()}, or {@code null} if there is none
+     */
+    public FaultCategory fromTestCaseLabel(String testCaseLabel) {
+        if (testCaseLabel == null) {
+            return null;
+        }
+        return snapshot.get().byTestCaseLabel.get(testCaseLabel);
+    }
+
+    public boolean isRegistered(int code) {
+        return fromCode(code) != null;
+    }
+
+    /**
+     * @return an immutable list of all registered categories, sorted by code.
+     * Later registrations are not reflected in the returned list.
+     */
+    public List<FaultCategory> getAll() {
+        return snapshot.get().all;
+    }
+
+    public int size() {
+        return snapshot.get().all.size();
+    }
+
+
+    /**
+     * Immutable state of the registry.
+     * A new instance is created at each registration.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(
+                new FaultCategory[FaultCategory.MAX_CODE + 1],
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyList());
+
+        final FaultCategory[] byCode;
+
+        final Map<String, FaultCategory> byLabel;
+
+        final Map<String, FaultCategory> byTestCaseLabel;
+
+        final List<FaultCategory> all;
+
+        private Snapshot(FaultCategory[] byCode,
+                         Map<String, FaultCategory> byLabel,
+                         Map<String, FaultCategory> byTestCaseLabel,
+                         List<FaultCategory> all) {
+            this.byCode = byCode;
+            this.byLabel = byLabel;
+            this.byTestCaseLabel = byTestCaseLabel;
+            this.all = all;
+        }
+
+        Snapshot with(Collection<? extends FaultCategory> categories) {
+
+            FaultCategory[] code = Arrays.copyOf(byCode, byCode.length);
+            Map<String, FaultCategory> label = new HashMap<>(byLabel);
+            Map<String, FaultCategory> testCaseLabel = new HashMap<>(byTestCaseLabel);
+
+            for (FaultCategory c : categories) {
+                int k = c.getCode();
+                if (k < 0 || k >= code.length) {
+                    throw new IllegalArgumentException("Invalid code: " + k);
+                }
+                if (code[k] != null) {
+                    throw new IllegalArgumentException("Code " + k + " is already used by: " + code[k].getLabel());
+                }
+                String l = Objects.requireNonNull(c.getLabel());
+                if (label.containsKey(l)) {
+                    throw new IllegalArgumentException("Label is already used: " + l);
+                }
+                String t = Objects.requireNonNull(c.getTestCaseLabel());
+                if (testCaseLabel.containsKey(t)) {
+                    throw new IllegalArgumentException("Test case label is already used: " + t);
+                }
+                code[k] = c;
+                label.put(l, c);
+                testCaseLabel.put(t, c);
+            }
+
+            List<FaultCategory> sorted = new ArrayList<>(all.size() + categories.size());
+            for (FaultCategory c : code) {
+                if (c != null) {
+                    sorted.add(c);
+                }
+            }
+
+            return new Snapshot(code,
+                    Collections.unmodifiableMap(label),
+                    Collections.unmodifiableMap(testCaseLabel),
+                    Collections.unmodifiableList(sorted));
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.webfuzzing.commons.faults;
+
+import com.webfuzzing.commons.report.FaultCategoryId;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of fault category codes, represented as a bitset over the code space
+ * [{@link FaultCategory#MIN_CODE}, {@link FaultCategory#MAX_CODE}].
+ * <p>
+ * This is a compact alternative to collections of {@link FaultCategoryId}, when only the codes matter
+ * (ie, not the contexts), eg, when computing which categories were found by a set of tests.
+ * The array of words only grows up to the highest code in the set, so sets with only 1xx and 2xx codes
+ * take just two longs.
+ * Iterations are always in increasing order of code.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class FaultCategorySet {
+
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * Max number of words, ie, 64 bits each, needed to cover the whole code space
+     */
+    private static final int MAX_WORDS = ((FaultCategory.MAX_CODE - FaultCategory.MIN_CODE) >>> 6) + 1;
+
+    private long[] words;
+
+    public FaultCategorySet() {
+        words = EMPTY;
+    }
+
+    private FaultCategorySet(long[] words) {
+        this.words = words;
+    }
+
+    public static FaultCategorySet of(int... codes) {
+        FaultCategorySet set = new FaultCategorySet();
+        for (int code : codes) {
+            set.add(code);
+        }
+        return set;
+    }
+
+    public static FaultCategorySet ofCategories(Collection<? extends FaultCategory> categories) {
+        FaultCategorySet set = new FaultCategorySet();
+        for (FaultCategory c : categories) {
+            set.add(c);
+        }
+        return set;
+    }
+
+    /**
+     * Create a set based on the codes of the given ids, eg, from {@code FoundFault.getFaultCategories()}.
+     * Note that the contexts of the ids are ignored.
+     */
+    public static FaultCategorySet ofIds(Collection<FaultCategoryId> ids) {
+        FaultCategorySet set = new FaultCategorySet();
+        for (FaultCategoryId id : ids) {
+            set.add(id.getCode());
+        }
+        return set;
+    }
+
+    public static FaultCategorySet union(FaultCategorySet a, FaultCategorySet b) {
+        FaultCategorySet set = a.copy();
+        set.addAll(b);
+        return set;
+    }
+
+    public static FaultCategorySet intersection(FaultCategorySet a, FaultCategorySet b) {
+        FaultCategorySet set = a.copy();
+        set.retainAll(b);
+        return set;
+    }
+
+    public FaultCategorySet copy() {
+        return new FaultCategorySet(words.length == 0 ? EMPTY : words.clone());
+    }
+
+    private static int bitIndex(int code) {
+        if (code < FaultCategory.MIN_CODE || code > FaultCategory.MAX_CODE) {
+            throw new IllegalArgumentException("Invalid fault category code: " + code);
+        }
+        return code - FaultCategory.MIN_CODE;
+    }
+
+    private void ensureWords(int n) {
+        if (words.length < n) {
+            words = Arrays.copyOf(words, Math.min(MAX_WORDS, Math.max(n, words.length * 2)));
+        }
+    }
+
+    /**
+     * @return whether the code was not already in the set
+     * @throws IllegalArgumentException if the code is not in the valid range
+     */
+    public boolean add(int code) {
+        int bit = bitIndex(code);
+        int w = bit >>> 6;
+        ensureWords(w + 1);
+        long mask = 1L << bit;
+        boolean absent = (words[w] & mask) == 0;
+        words[w] |= mask;
+        return absent;
+    }
+
+    public boolean add(FaultCategory category) {
+        return add(category.getCode());
+    }
+
+    /**
+     * @return whether the code was in the set
+     */
+    public boolean remove(int code) {
+        if (code < FaultCategory.MIN_CODE || code > FaultCategory.MAX_CODE) {
+            return false;
+        }
+        int bit = code - FaultCategory.MIN_CODE;
+        int w = bit >>> 6;
+        if (w >= words.length) {
+            return false;
+        }
+        long mask = 1L << bit;
+        boolean present = (words[w] & mask) != 0;
+        words[w] &= ~mask;
+        return present;
+    }
+
+    public boolean contains(int code) {
+        if (code < FaultCategory.MIN_CODE || code > FaultCategory.MAX_CODE) {
+            return false;
+        }
+        int bit = code - FaultCategory.MIN_CODE;
+        int w = bit >>> 6;
+        return w < words.length && (words[w] & (1L << bit)) != 0;
+    }
+
+    public boolean contains(FaultCategory category) {
+        return contains(category.getCode());
+    }
+
+    /**
+     * In-place union
+     */
+    public void addAll(FaultCategorySet other) {
+        ensureWords(other.words.length);
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * In-place intersection
+     */
+    public void retainAll(FaultCategorySet other) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            words[i] &= other.words[i];
+        }
+        for (int i = n; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    /**
+     * In-place difference
+     */
+    public void removeAll(FaultCategorySet other) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    public boolean containsAll(FaultCategorySet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long w = i < words.length ? words[i] : 0;
+            if ((other.words[i] & ~w) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean intersects(FaultCategorySet other) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        int n = 0;
+        for (long w : words) {
+            n += Long.bitCount(w);
+        }
+        return n;
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) {
+            if (w != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * @return the lowest code in the set which is equal or greater than {@code from}, or -1 if there is none.
+     * This can be used to iterate over the set without allocating any object:
+     * {@code for (int c = set.nextCode(0); c >= 0; c = set.nextCode(c + 1))}
+     */
+    public int nextCode(int from) {
+        int bit = Math.max(from, FaultCategory.MIN_CODE) - FaultCategory.MIN_CODE;
+        int w = bit >>> 6;
+        if (w >= words.length) {
+            return -1;
+        }
+        long word = words[w] & (-1L << bit);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word) + FaultCategory.MIN_CODE;
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int c = nextCode(0); c >= 0; c = nextCode(c + 1)) {
+            action.accept(c);
+        }
+    }
+
+    /**
+     * @return the codes in the set, in increasing order
+     */
+    public int[] toArray() {
+        int[] codes = new int[size()];
+        int i = 0;
+        for (int c = nextCode(0); c >= 0; c = nextCode(c + 1)) {
+            codes[i++] = c;
+        }
+        return codes;
+    }
+
+    /**
+     * @return the ids for all codes in the set, in increasing order of code.
+     * As the set does not store any context, these are all {@code null} in the returned ids.
+     */
+    public Set<FaultCategoryId> toIds() {
+        Set<FaultCategoryId> ids = new LinkedHashSet<>();
+        for (int c = nextCode(0); c >= 0; c = nextCode(c + 1)) {
+            FaultCategoryId id = new FaultCategoryId();
+            id.setCode(c);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FaultCategorySet)) {
+            return false;
+        }
+        long[] other = ((FaultCategorySet) o).words;
+        int n = Math.max(words.length, other.length);
+        for (int i = 0; i < n; i++) {
+            long a = i < words.length ? words[i] : 0;
+            long b = i < other.length ? other[i] : 0;
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // trailing empty words must not have any impact
+        long h = 1234;
+        for (int i = words.length; --i >= 0; ) {
+            h ^= words[i] * (i + 1);
+        }
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int c = nextCode(0); c >= 0; c = nextCode(c + 1)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(c);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.webfuzzing.commons.json;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a JSON document is malformed, or when its content does not have the expected structure.
+ * The message includes where the problem is in the document.
+ */
+public class JsonFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    private final int column;
+
+    private final String path;
+
+    public JsonFormatException(String message, int line, int column, String path) {
+        super(message + " at line " + line + " column " + column + " path " + path);
+        this.line = line;
+        this.column = column;
+        this.path = path;
+    }
+
+    /**
+     * @return line of the problem, starting from 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return column of the problem, starting from 1, counted in bytes
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return path to the problematic value in the document, eg, {@code $.auth[2].name}
+     */
+    public String getPath() {
+        return path;
+    }
+}
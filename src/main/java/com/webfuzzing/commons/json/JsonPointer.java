@@ -0,0 +1,219 @@
+package com.webfuzzing.commons.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled JSON Pointer (RFC 6901), eg, {@code /data/tokens/0/value}, to extract a single value from JSON
+ * documents, such as the token in the response of a login endpoint.
+ * <p>
+ * The pointer is parsed once, at compilation. Evaluation streams through the document with a
+ * {@link JsonStreamReader}, skipping the values not on the path without decoding them, and stops as soon as
+ * the target value is found (or known to be missing). No tree of the document is built.
+ * <p>
+ * This class is immutable, and so thread-safe.
+ */
+public final class JsonPointer {
+
+    private final String pointer;
+
+    /**
+     * Unescaped reference tokens
+     */
+    private final String[] names;
+
+    /**
+     * For each token, its value as array index, or -1 if it is not a valid index
+     */
+    private final int[] indices;
+
+    private JsonPointer(String pointer, String[] names, int[] indices) {
+        this.pointer = pointer;
+        this.names = names;
+        this.indices = indices;
+    }
+
+    /**
+     * @param pointer eg, "/a/b~1c/0". The empty string refers to the whole document.
+     * @throws IllegalArgumentException if the pointer is not valid
+     */
+    public static JsonPointer compile(String pointer) {
+        if (pointer == null) {
+            throw new IllegalArgumentException("Null JSON Pointer");
+        }
+        if (!pointer.isEmpty() && pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("Invalid JSON Pointer, it must start with '/': " + pointer);
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= pointer.length(); i++) {
+            if (i == pointer.length() || pointer.charAt(i) == '/') {
+                tokens.add(sb.toString());
+                sb.setLength(0);
+                continue;
+            }
+            char c = pointer.charAt(i);
+            if (c == '~') {
+                char next = i + 1 < pointer.length() ? pointer.charAt(i + 1) : 0;
+                if (next == '0') {
+                    sb.append('~');
+                } else if (next == '1') {
+                    sb.append('/');
+                } else {
+                    throw new IllegalArgumentException("Invalid escape at position " + i + " in JSON Pointer: "
+                            + pointer);
+                }
+                i++;
+            } else {
+                sb.append(c);
+            }
+        }
+        String[] names = tokens.toArray(new String[0]);
+        int[] indices = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            indices[i] = index(names[i]);
+        }
+        return new JsonPointer(pointer, names, indices);
+    }
+
+    /**
+     * @return the value of an array index as in RFC 6901, ie, no leading zeros, or -1 if not valid
+     */
+    private static int index(String token) {
+        int n = token.length();
+        if (n == 0 || n > 9 || (n > 1 && token.charAt(0) == '0')) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < n; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Move the reader to the value this pointer refers to.
+     * The reader must be positioned before the value to which the pointer is applied, eg, at the start
+     * of the document.
+     * If the value is found, it is the next one in the reader. Otherwise, the state of the reader is
+     * unspecified, and it should not be used anymore.
+     *
+     * @return whether the value was found
+     * @throws JsonFormatException if the document is not valid JSON, up to the target value
+     */
+    public boolean find(JsonStreamReader reader) throws IOException {
+        for (int depth = 0; depth < names.length; depth++) {
+            switch (reader.peek()) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    String name = names[depth];
+                    boolean found = false;
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals(name)) {
+                            found = true;
+                            break;
+                        }
+                        reader.skipValue();
+                    }
+                    if (!found) {
+                        return false;
+                    }
+                    break;
+                case BEGIN_ARRAY:
+                    int index = indices[depth];
+                    if (index < 0) {
+                        return false;
+                    }
+                    reader.beginArray();
+                    for (int i = 0; i < index; i++) {
+                        if (!reader.hasNext()) {
+                            return false;
+                        }
+                        reader.skipValue();
+                    }
+                    if (!reader.hasNext()) {
+                        return false;
+                    }
+                    break;
+                default:
+                    // cannot go into a scalar
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extract a scalar value from a JSON document.
+     * The stream is not read further than the value, and it is not closed.
+     *
+     * @return the value as string (integers as in the document, and booleans as "true" or "false"),
+     * or {@code null} if it is missing, null, an object or an array
+     * @throws JsonFormatException if the document is not valid JSON, up to the target value
+     */
+    public String extractString(InputStream in) throws IOException {
+        // small buffer, as values are expected to be near the start of small documents
+        return extractString(new JsonStreamReader(in, 4096));
+    }
+
+    public String extractString(byte[] data) throws IOException {
+        return extractString(new JsonStreamReader(data));
+    }
+
+    /**
+     * @see #extractString(InputStream)
+     */
+    public String extractString(JsonStreamReader reader) throws IOException {
+        if (!find(reader)) {
+            return null;
+        }
+        switch (reader.peek()) {
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return reader.nextNumber().toString();
+            case BOOLEAN:
+                return reader.nextBoolean() ? "true" : "false";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return number of reference tokens, ie, 0 for the whole document
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the unescaped reference token at the given position
+     */
+    public String getToken(int i) {
+        return names[i];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof JsonPointer && pointer.equals(((JsonPointer) o).pointer);
+    }
+
+    @Override
+    public int hashCode() {
+        return pointer.hashCode();
+    }
+
+    /**
+     * @return the pointer as given at compilation
+     */
+    @Override
+    public String toString() {
+        return pointer;
+    }
+}
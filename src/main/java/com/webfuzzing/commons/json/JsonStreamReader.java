@@ -0,0 +1,870 @@
+package com.webfuzzing.commons.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimal pull reader of JSON documents encoded in UTF-8.
+ * Tokens are read one at a time, directly from the bytes of the input, and so memory usage does not depend on
+ * the size of the document.
+ * Values that are not needed can be skipped with {@link #skipValue()}, without decoding them.
+ * <p>
+ * Usage is based on {@link #peek()} to know the type of the next token, and then calling the corresponding
+ * method to consume it, eg, {@link #beginObject()}, {@link #nextName()} and {@link #nextString()}.
+ * Any problem in the document, including tokens of unexpected type, is reported with a {@link JsonFormatException}
+ * stating where the problem is.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class JsonStreamReader implements Closeable {
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final InputStream in;
+
+    private final byte[] buffer;
+
+    private int pos;
+
+    private int limit;
+
+    /**
+     * Absolute position in the document of the first byte in the buffer
+     */
+    private long bufferStart;
+
+    private int line = 1;
+
+    /**
+     * Absolute position in the document of the first byte of the current line
+     */
+    private long lineStart;
+
+    /**
+     * Position of the first character of the last peeked token
+     */
+    private int tokenLine;
+
+    private int tokenColumn;
+
+    private JsonToken peeked;
+
+    private boolean peekedBoolean;
+
+    private char[] number = new char[32];
+
+    private int numberLength;
+
+    private boolean numberIsInteger;
+
+    /**
+     * Scratch buffer for decoding strings
+     */
+    private char[] chars = new char[128];
+
+    /**
+     * If not null, used to share the instances of repeated strings
+     */
+    private StringDictionary dictionary;
+
+    private int[] stack = new int[32];
+
+    private String[] pathNames = new String[32];
+
+    private int[] pathIndices = new int[32];
+
+    private int stackSize;
+
+    public JsonStreamReader(InputStream in) {
+        this(in, 64 * 1024);
+    }
+
+    public JsonStreamReader(InputStream in, int bufferSize) {
+        this.in = Objects.requireNonNull(in);
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        }
+        this.buffer = new byte[bufferSize];
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Read directly from the given array, without copying it
+     */
+    public JsonStreamReader(byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.in = null;
+        this.buffer = data;
+        this.pos = offset;
+        this.limit = offset + length;
+        this.bufferStart = -offset;
+        this.lineStart = 0;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public JsonStreamReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    /**
+     * Use the given dictionary for all the strings read from now on, including property names,
+     * so that equal strings are the same instance.
+     *
+     * @param dictionary can be {@code null}, to always create new strings
+     */
+    public void setStringDictionary(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public StringDictionary getStringDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return the type of the next token, without consuming it
+     */
+    public JsonToken peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int c;
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = JsonToken.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = JsonToken.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw unexpected(c, "',' or ']'");
+                }
+                c = nextNonWhitespace();
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = JsonToken.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw unexpected(c, "',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw unexpected(c, "property name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                markToken();
+                return peeked = JsonToken.NAME;
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                c = nextNonWhitespace();
+                if (c != ':') {
+                    throw unexpected(c, "':'");
+                }
+                c = nextNonWhitespace();
+                break;
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                c = nextNonWhitespace();
+                if (c == 0xEF) {
+                    // UTF-8 byte order mark
+                    if (readByte() != 0xBB || readByte() != 0xBF) {
+                        throw error("Invalid byte order mark");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c == -1) {
+                    throw error("Empty document");
+                }
+                break;
+            case NONEMPTY_DOCUMENT:
+                c = nextNonWhitespace();
+                if (c == -1) {
+                    return peeked = JsonToken.END_DOCUMENT;
+                }
+                throw unexpected(c, "end of document");
+            default:
+                throw new IllegalStateException("Reader is closed");
+        }
+
+        if (c != -1) {
+            markToken();
+        }
+        return peeked = valueStart(c);
+    }
+
+    /**
+     * @return whether there are more elements in the current array/object
+     */
+    public boolean hasNext() throws IOException {
+        JsonToken t = peek();
+        return t != JsonToken.END_OBJECT && t != JsonToken.END_ARRAY && t != JsonToken.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        peeked = null;
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        peeked = null;
+        stackSize--;
+        pathNames[stackSize] = null;
+        afterValue();
+    }
+
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        peeked = null;
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        peeked = null;
+        stackSize--;
+        afterValue();
+    }
+
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        String name = readString();
+        peeked = null;
+        pathNames[stackSize - 1] = name;
+        return name;
+    }
+
+    public String nextString() throws IOException {
+        expect(JsonToken.STRING);
+        String s = readString();
+        peeked = null;
+        afterValue();
+        return s;
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        peeked = null;
+        afterValue();
+        return peekedBoolean;
+    }
+
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        peeked = null;
+        afterValue();
+    }
+
+    public long nextLong() throws IOException {
+        expect(JsonToken.NUMBER);
+        long value = parseLong();
+        peeked = null;
+        afterValue();
+        return value;
+    }
+
+    public int nextInt() throws IOException {
+        expect(JsonToken.NUMBER);
+        long value = parseLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("Integer out of range: " + value);
+        }
+        peeked = null;
+        afterValue();
+        return (int) value;
+    }
+
+    public double nextDouble() throws IOException {
+        expect(JsonToken.NUMBER);
+        double value;
+        try {
+            value = Double.parseDouble(new String(number, 0, numberLength));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number: " + new String(number, 0, numberLength));
+        }
+        peeked = null;
+        afterValue();
+        return value;
+    }
+
+    /**
+     * @return an Integer, Long or BigInteger for integral values (the smallest that fits), otherwise a Double
+     */
+    public Number nextNumber() throws IOException {
+        expect(JsonToken.NUMBER);
+        if (!numberIsInteger) {
+            return nextDouble();
+        }
+        Number value;
+        if (numberLength < 19) {
+            long x = parseLong();
+            if (x >= Integer.MIN_VALUE && x <= Integer.MAX_VALUE) {
+                value = (int) x;
+            } else {
+                value = x;
+            }
+        } else {
+            BigInteger x = new BigInteger(new String(number, 0, numberLength));
+            value = x.bitLength() < 64 ? (Number) x.longValue() : x;
+        }
+        peeked = null;
+        afterValue();
+        return value;
+    }
+
+    /**
+     * @return the next string, or {@code null} if the next value is null
+     */
+    public String nextNullableString() throws IOException {
+        if (peek() == JsonToken.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    /**
+     * @return the next integer, or {@code null} if the next value is null
+     */
+    public Integer nextNullableInt() throws IOException {
+        if (peek() == JsonToken.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextInt();
+    }
+
+    /**
+     * @return the next boolean, or {@code null} if the next value is null
+     */
+    public Boolean nextNullableBoolean() throws IOException {
+        if (peek() == JsonToken.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextBoolean();
+    }
+
+    /**
+     * Read the next value, of any type, into generic Java objects,
+     * ie, Map (LinkedHashMap), List (ArrayList), String, Number (see {@link #nextNumber()}), Boolean or null
+     */
+    public Object nextAny() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    map.put(name, nextAny());
+                }
+                endObject();
+                return map;
+            }
+            case BEGIN_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(nextAny());
+                }
+                endArray();
+                return list;
+            }
+            case STRING:
+                return nextString();
+            case NUMBER:
+                return nextNumber();
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw error("Expected a value but was " + peeked);
+        }
+    }
+
+    /**
+     * Skip the next value, including all of its nested values if it is an object or array.
+     * Strings are not decoded.
+     * If the next token is a property name, only the name is skipped.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    if (depth == 0) {
+                        throw error("Expected a value but was " + peeked);
+                    }
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    if (depth == 0) {
+                        throw error("Expected a value but was " + peeked);
+                    }
+                    endArray();
+                    depth--;
+                    break;
+                case NAME:
+                    skipString();
+                    peeked = null;
+                    pathNames[stackSize - 1] = "<skipped>";
+                    break;
+                case STRING:
+                    skipString();
+                    peeked = null;
+                    afterValue();
+                    break;
+                case END_DOCUMENT:
+                    throw error("Unexpected end of document");
+                default:
+                    // numbers and literals are already consumed when peeked
+                    peeked = null;
+                    afterValue();
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * @return the path to the current position in the document, eg, {@code $.faults.foundFaults[3].testCaseId}
+     */
+    public String getPath() {
+        StringBuilder sb = new StringBuilder("$");
+        for (int i = 1; i < stackSize; i++) {
+            switch (stack[i]) {
+                case EMPTY_ARRAY:
+                case NONEMPTY_ARRAY:
+                    sb.append('[').append(pathIndices[i]).append(']');
+                    break;
+                case EMPTY_OBJECT:
+                case DANGLING_NAME:
+                case NONEMPTY_OBJECT:
+                    sb.append('.');
+                    if (pathNames[i] != null) {
+                        sb.append(pathNames[i]);
+                    }
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return current line in the document, starting from 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return current column in the document, starting from 1, counted in bytes
+     */
+    public int getColumn() {
+        return (int) (bufferStart + pos - lineStart) + 1;
+    }
+
+    /**
+     * @return line of the first character of the next token, as returned by {@link #peek()}
+     * (or of the last one consumed, if not peeked yet)
+     */
+    public int getTokenLine() {
+        return tokenLine;
+    }
+
+    /**
+     * @return column of the first character of the next token, as returned by {@link #peek()}
+     * (or of the last one consumed, if not peeked yet)
+     */
+    public int getTokenColumn() {
+        return tokenColumn;
+    }
+
+    /**
+     * Create an exception for an error at the current position, eg, due to values that are valid JSON but
+     * have unexpected type or content
+     */
+    public JsonFormatException error(String message) {
+        return new JsonFormatException(message, line, getColumn(), getPath());
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 1;
+        stack[0] = 0;
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int n = stackSize * 2;
+            stack = Arrays.copyOf(stack, n);
+            pathNames = Arrays.copyOf(pathNames, n);
+            pathIndices = Arrays.copyOf(pathIndices, n);
+        }
+        stack[stackSize] = scope;
+        pathIndices[stackSize] = 0;
+        pathNames[stackSize] = null;
+        stackSize++;
+    }
+
+    /**
+     * Called when the first character of a token has just been consumed
+     */
+    private void markToken() {
+        tokenLine = line;
+        tokenColumn = getColumn() - 1;
+    }
+
+    private void afterValue() {
+        int scope = stack[stackSize - 1];
+        if (scope == EMPTY_ARRAY || scope == NONEMPTY_ARRAY) {
+            pathIndices[stackSize - 1]++;
+        }
+    }
+
+    private void expect(JsonToken token) throws IOException {
+        JsonToken t = peek();
+        if (t != token) {
+            throw error("Expected " + token + " but was " + t);
+        }
+    }
+
+    private JsonFormatException unexpected(int c, String expected) {
+        if (c == -1) {
+            return error("Unexpected end of document, expected " + expected);
+        }
+        // the character has already been consumed
+        return new JsonFormatException("Unexpected character '" + (char) c + "', expected " + expected,
+                line, getColumn() - 1, getPath());
+    }
+
+    private JsonToken valueStart(int c) throws IOException {
+        switch (c) {
+            case '{':
+                return JsonToken.BEGIN_OBJECT;
+            case '[':
+                return JsonToken.BEGIN_ARRAY;
+            case '"':
+                return JsonToken.STRING;
+            case 't':
+                literal("rue");
+                peekedBoolean = true;
+                return JsonToken.BOOLEAN;
+            case 'f':
+                literal("alse");
+                peekedBoolean = false;
+                return JsonToken.BOOLEAN;
+            case 'n':
+                literal("ull");
+                return JsonToken.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return JsonToken.NUMBER;
+                }
+                throw unexpected(c, "a value");
+        }
+    }
+
+    private void literal(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (readByte() != rest.charAt(i)) {
+                throw error("Invalid literal");
+            }
+        }
+    }
+
+    private void readNumber(int c) throws IOException {
+        numberLength = 0;
+        numberIsInteger = true;
+        while (true) {
+            if (numberLength == number.length) {
+                number = Arrays.copyOf(number, numberLength * 2);
+            }
+            number[numberLength++] = (char) c;
+            c = readByte();
+            if (c >= '0' && c <= '9' || c == '-' || c == '+') {
+                continue;
+            }
+            if (c == '.' || c == 'e' || c == 'E') {
+                numberIsInteger = false;
+                continue;
+            }
+            if (c != -1) {
+                pos--;
+            }
+            return;
+        }
+    }
+
+    private long parseLong() throws JsonFormatException {
+        if (!numberIsInteger) {
+            throw error("Expected an integer but was " + new String(number, 0, numberLength));
+        }
+        int i = 0;
+        boolean negative = number[0] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == numberLength) {
+            throw error("Invalid number: " + new String(number, 0, numberLength));
+        }
+        long value = 0;
+        for (; i < numberLength; i++) {
+            char c = number[i];
+            if (c < '0' || c > '9') {
+                throw error("Invalid number: " + new String(number, 0, numberLength));
+            }
+            // accumulate as negative, to handle Long.MIN_VALUE
+            long next = value * 10 - (c - '0');
+            if (value < Long.MIN_VALUE / 10 || next > value) {
+                throw error("Integer out of range: " + new String(number, 0, numberLength));
+            }
+            value = next;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw error("Integer out of range: " + new String(number, 0, numberLength));
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        bufferStart += limit;
+        pos = 0;
+        limit = 0;
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = readByte();
+            switch (c) {
+                case '\n':
+                    line++;
+                    lineStart = bufferStart + pos;
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                    break;
+                default:
+                    return c;
+            }
+        }
+    }
+
+    /**
+     * Read a string, whose opening quote has already been consumed
+     */
+    private String readString() throws IOException {
+
+        // fast path: ASCII without escapes, fully in the buffer
+        int start = pos;
+        int p = pos;
+        // same as String.hashCode(), computed while scanning, for the dictionary
+        int h = 0;
+        while (p < limit) {
+            byte b = buffer[p];
+            if (b == '"') {
+                pos = p + 1;
+                if (dictionary != null) {
+                    return dictionary.internLatin1(buffer, start, p - start, h);
+                }
+                return new String(buffer, start, p - start, StandardCharsets.ISO_8859_1);
+            }
+            if (b == '\\' || b < 0x20) {
+                // note: bytes >= 0x80 are negative
+                break;
+            }
+            h = 31 * h + b;
+            p++;
+        }
+
+        int length = 0;
+        for (int i = start; i < p; i++) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, length * 2);
+            }
+            chars[length++] = (char) buffer[i];
+        }
+        pos = p;
+
+        while (true) {
+            if (length + 2 > chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            int b = readByte();
+            if (b == '"') {
+                if (dictionary != null) {
+                    return dictionary.intern(chars, 0, length);
+                }
+                return new String(chars, 0, length);
+            }
+            if (b == -1) {
+                throw error("Unterminated string");
+            }
+            if (b == '\\') {
+                chars[length++] = readEscape();
+                continue;
+            }
+            if (b < 0x20) {
+                throw error("Unescaped control character in string");
+            }
+            if (b < 0x80) {
+                chars[length++] = (char) b;
+                continue;
+            }
+
+            int needed;
+            int cp;
+            if ((b & 0xE0) == 0xC0) {
+                needed = 1;
+                cp = b & 0x1F;
+            } else if ((b & 0xF0) == 0xE0) {
+                needed = 2;
+                cp = b & 0x0F;
+            } else if ((b & 0xF8) == 0xF0) {
+                needed = 3;
+                cp = b & 0x07;
+            } else {
+                chars[length++] = '\uFFFD';
+                continue;
+            }
+            for (int i = 0; i < needed; i++) {
+                int next = readByte();
+                if (next == -1) {
+                    throw error("Unterminated string");
+                }
+                if ((next & 0xC0) != 0x80) {
+                    // malformed sequence. handled like String(byte[], UTF_8)
+                    pos--;
+                    cp = -1;
+                    break;
+                }
+                cp = (cp << 6) | (next & 0x3F);
+            }
+            if (cp < 0) {
+                chars[length++] = '\uFFFD';
+            } else if (cp >= 0x10000) {
+                chars[length++] = Character.highSurrogate(cp);
+                chars[length++] = Character.lowSurrogate(cp);
+            } else {
+                chars[length++] = (char) cp;
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = readByte();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = readByte();
+                    int d = Character.digit(h, 16);
+                    if (h == -1 || d < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    value = (value << 4) | d;
+                }
+                return (char) value;
+            case -1:
+                throw error("Unterminated string");
+            default:
+                throw error("Invalid escape sequence: \\" + (char) c);
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int b = readByte();
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                b = readByte();
+            }
+            if (b == -1) {
+                throw error("Unterminated string");
+            }
+        }
+    }
+}
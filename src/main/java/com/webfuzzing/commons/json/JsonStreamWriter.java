@@ -0,0 +1,454 @@
+package com.webfuzzing.commons.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimal streaming writer of compact JSON, encoded in UTF-8.
+ * Output is buffered, and written to the underlying stream/channel only when the buffer is full,
+ * or when {@link #flush()} is called.
+ * <p>
+ * Strings are escaped in the same way as done by Jackson, ie, only quotes, backslashes and
+ * control characters, so the output is the same as the one of its default {@code ObjectMapper}.
+ * As done by Jackson, unpaired surrogates, which cannot be encoded in UTF-8, are written as escaped
+ * code units, so no data is lost.
+ * <p>
+ * There is only minimal validation of the structure of the written document, eg,
+ * it is up to the caller to make sure that a name is given before each value in an object.
+ * This class is not thread-safe.
+ */
+public final class JsonStreamWriter implements Closeable, Flushable {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+
+    private static final byte[] NULL = "null".getBytes();
+    private static final byte[] TRUE = "true".getBytes();
+    private static final byte[] FALSE = "false".getBytes();
+
+    /**
+     * For each of the first 128 chars, 0 if it can be written as it is, -1 if it must be written as
+     * unicode escape, otherwise the char to use after a backslash.
+     */
+    private static final int[] ESCAPES = new int[128];
+
+    static {
+        for (int i = 0; i < 32; i++) {
+            ESCAPES[i] = -1;
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+    }
+
+    private final OutputStream out;
+
+    private final WritableByteChannel channel;
+
+    private final byte[] buffer;
+
+    private int position;
+
+    /**
+     * For each nesting level, whether no element has been written in it yet
+     */
+    private boolean[] first = new boolean[16];
+
+    private int depth;
+
+    private boolean afterName;
+
+    private boolean closed;
+
+    public JsonStreamWriter(OutputStream out) {
+        this(out, null, 8192);
+    }
+
+    public JsonStreamWriter(WritableByteChannel channel) {
+        this(null, channel, 8192);
+    }
+
+    public JsonStreamWriter(OutputStream out, int bufferSize) {
+        this(out, null, bufferSize);
+    }
+
+    public JsonStreamWriter(WritableByteChannel channel, int bufferSize) {
+        this(null, channel, bufferSize);
+    }
+
+    private JsonStreamWriter(OutputStream out, WritableByteChannel channel, int bufferSize) {
+        if (out == null && channel == null) {
+            throw new NullPointerException("No output");
+        }
+        if (bufferSize < 32) {
+            throw new IllegalArgumentException("Too small buffer size: " + bufferSize);
+        }
+        this.out = out;
+        this.channel = channel;
+        this.buffer = new byte[bufferSize];
+        first[0] = true;
+    }
+
+    public JsonStreamWriter beginObject() throws IOException {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonStreamWriter endObject() throws IOException {
+        pop();
+        writeByte('}');
+        return this;
+    }
+
+    public JsonStreamWriter beginArray() throws IOException {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonStreamWriter endArray() throws IOException {
+        pop();
+        writeByte(']');
+        return this;
+    }
+
+    /**
+     * Write the name of the next property in the current object
+     */
+    public JsonStreamWriter name(String name) throws IOException {
+        Objects.requireNonNull(name);
+        if (depth == 0) {
+            throw new IllegalStateException("Property name outside of an object: " + name);
+        }
+        if (afterName) {
+            throw new IllegalStateException("Missing value for previous property, before: " + name);
+        }
+        separator();
+        writeString(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonStreamWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonStreamWriter value(long value) throws IOException {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    public JsonStreamWriter value(boolean value) throws IOException {
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public JsonStreamWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+        beforeValue();
+        writeAscii(value.toString());
+        return this;
+    }
+
+    public JsonStreamWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    public JsonStreamWriter nullValue() throws IOException {
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    /**
+     * Write a generic value, like the ones used in "additionalProperties" of the generated DTOs.
+     * Supported types are: null, String, Number, Boolean, Map (with String keys), Collection and Object[].
+     *
+     * @throws IllegalArgumentException for any other type
+     */
+    public JsonStreamWriter anyValue(Object value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof String) {
+            return value((String) value);
+        }
+        if (value instanceof Number) {
+            return value((Number) value);
+        }
+        if (value instanceof Boolean) {
+            return value((Boolean) value);
+        }
+        if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                name(String.valueOf(e.getKey()));
+                anyValue(e.getValue());
+            }
+            return endObject();
+        }
+        if (value instanceof Collection) {
+            beginArray();
+            for (Object x : (Collection<?>) value) {
+                anyValue(x);
+            }
+            return endArray();
+        }
+        if (value instanceof Object[]) {
+            return anyValue(Arrays.asList((Object[]) value));
+        }
+        throw new IllegalArgumentException("Cannot write as JSON an object of type: " + value.getClass().getName());
+    }
+
+    /**
+     * Write as a value some bytes from the given file, which must already represent a valid JSON value.
+     * When writing to a channel, bytes are transferred directly without copying them into this writer.
+     */
+    public JsonStreamWriter rawValue(FileChannel source, long from, long count) throws IOException {
+        beforeValue();
+        flushBuffer();
+        long end = from + count;
+        long pos = from;
+        if (channel != null) {
+            while (pos < end) {
+                long n = source.transferTo(pos, end - pos, channel);
+                if (n <= 0) {
+                    throw new IOException("Failed to transfer bytes at position " + pos);
+                }
+                pos += n;
+            }
+        } else {
+            ByteBuffer bb = ByteBuffer.wrap(buffer);
+            while (pos < end) {
+                bb.clear();
+                bb.limit((int) Math.min(buffer.length, end - pos));
+                int n = source.read(bb, pos);
+                if (n < 0) {
+                    throw new IOException("Unexpected end of file at position " + pos);
+                }
+                out.write(buffer, 0, n);
+                pos += n;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the current nesting level of objects/arrays, where 0 means being at the root
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Flush and close the underlying stream/channel
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            closed = true;
+            if (out != null) {
+                out.close();
+            } else {
+                channel.close();
+            }
+        }
+    }
+
+    private void push() {
+        depth++;
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, depth * 2);
+        }
+        first[depth] = true;
+    }
+
+    private void pop() {
+        if (depth == 0) {
+            throw new IllegalStateException("No object/array to close");
+        }
+        if (afterName) {
+            throw new IllegalStateException("Missing value for property");
+        }
+        depth--;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        separator();
+    }
+
+    private void separator() throws IOException {
+        if (depth > 0 && !first[depth]) {
+            writeByte(',');
+        }
+        first[depth] = false;
+    }
+
+    private void writeString(String s) throws IOException {
+        writeByte('"');
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 128) {
+                int escape = ESCAPES[c];
+                if (escape == 0) {
+                    writeByte(c);
+                } else if (escape > 0) {
+                    ensure(2);
+                    buffer[position++] = '\\';
+                    buffer[position++] = (byte) escape;
+                } else {
+                    ensure(6);
+                    buffer[position++] = '\\';
+                    buffer[position++] = 'u';
+                    buffer[position++] = '0';
+                    buffer[position++] = '0';
+                    buffer[position++] = HEX[c >> 4];
+                    buffer[position++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    ensure(4);
+                    buffer[position++] = (byte) (0xF0 | (cp >> 18));
+                    buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    // unpaired, so not valid UTF-8
+                    ensure(6);
+                    buffer[position++] = '\\';
+                    buffer[position++] = 'u';
+                    buffer[position++] = HEX[c >> 12];
+                    buffer[position++] = HEX[(c >> 8) & 0xF];
+                    buffer[position++] = HEX[(c >> 4) & 0xF];
+                    buffer[position++] = HEX[c & 0xF];
+                }
+            } else {
+                ensure(3);
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long x = value; x >= 10; x /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void writeAscii(String s) throws IOException {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            writeByte(s.charAt(i));
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (position + n > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (closed && position > 0) {
+            throw new IOException("Writer is closed");
+        }
+        if (position == 0) {
+            return;
+        }
+        if (out != null) {
+            out.write(buffer, 0, position);
+        } else {
+            ByteBuffer bb = ByteBuffer.wrap(buffer, 0, position);
+            while (bb.hasRemaining()) {
+                channel.write(bb);
+            }
+        }
+        position = 0;
+    }
+}
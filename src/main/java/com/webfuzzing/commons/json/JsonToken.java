@@ -0,0 +1,33 @@
+package com.webfuzzing.commons.json;
+
+/**
+ * Types of tokens returned by {@link JsonStreamReader#peek()}
+ */
+public enum JsonToken {
+
+    BEGIN_OBJECT,
+
+    END_OBJECT,
+
+    BEGIN_ARRAY,
+
+    END_ARRAY,
+
+    /**
+     * Name of a property in an object
+     */
+    NAME,
+
+    STRING,
+
+    NUMBER,
+
+    BOOLEAN,
+
+    NULL,
+
+    /**
+     * No more data to read
+     */
+    END_DOCUMENT
+}
@@ -0,0 +1,192 @@
+package com.webfuzzing.commons.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary of strings, each one with a unique int id (assigned in order of insertion, starting from 0).
+ * <p>
+ * When reading large documents, the same values (eg, operation ids and fault contexts in a report) are repeated
+ * many times. When a dictionary is given to a {@link JsonStreamReader}, all those repetitions resolve to the same
+ * {@link String} instance. Strings are looked up directly from the decoded bytes/chars, so a new {@link String}
+ * is only created for values not already in the dictionary.
+ * <p>
+ * Entries are never removed, so a dictionary should not be kept alive longer than the data read with it.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class StringDictionary {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Hash table with linear probing, storing (id + 1), where 0 means empty slot.
+     * Its length is always a power of 2.
+     */
+    private int[] table = new int[INITIAL_CAPACITY];
+
+    private String[] values = new String[INITIAL_CAPACITY / 2];
+
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+
+    private int size;
+
+    /**
+     * @return the instance in the dictionary equal to the given string, which is added if not present.
+     * Null if the input is null.
+     */
+    public String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        int id = findOrAdd(s, null, null, 0, s.length(), s.hashCode());
+        return values[id];
+    }
+
+    /**
+     * @return the id of the given string, which is added if not present
+     */
+    public int idOf(String s) {
+        return findOrAdd(s, null, null, 0, s.length(), s.hashCode());
+    }
+
+    /**
+     * @return the id of the given string, or -1 if not in the dictionary
+     */
+    public int find(String s) {
+        int h = s.hashCode();
+        int mask = table.length - 1;
+        for (int i = spread(h) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int id = table[i] - 1;
+            if (hashes[id] == h && values[id].equals(s)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param id as returned by {@link #idOf(String)}
+     */
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Invalid id " + id + " for dictionary of size " + size);
+        }
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Intern a string given as a range of chars
+     */
+    public String intern(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        int id = findOrAdd(null, chars, null, offset, length, h);
+        return values[id];
+    }
+
+    /**
+     * Intern a string given as a range of ISO-8859-1 (eg, ASCII) bytes
+     */
+    public String internLatin1(byte[] bytes, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + (bytes[i] & 0xFF);
+        }
+        return internLatin1(bytes, offset, length, h);
+    }
+
+    /**
+     * @param hash must be the same as {@link String#hashCode()} of the value, eg, as computed while scanning it
+     */
+    String internLatin1(byte[] bytes, int offset, int length, int hash) {
+        int id = findOrAdd(null, null, bytes, offset, length, hash);
+        return values[id];
+    }
+
+    /**
+     * Exactly one of {@code s}, {@code chars} and {@code bytes} is not null
+     *
+     * @param h same as {@link String#hashCode()} of the value
+     */
+    private int findOrAdd(String s, char[] chars, byte[] bytes, int offset, int length, int h) {
+        int mask = table.length - 1;
+        int i = spread(h) & mask;
+        for (; table[i] != 0; i = (i + 1) & mask) {
+            int id = table[i] - 1;
+            if (hashes[id] == h && matches(values[id], s, chars, bytes, offset, length)) {
+                return id;
+            }
+        }
+
+        String value;
+        if (s != null) {
+            value = s;
+        } else if (chars != null) {
+            value = new String(chars, offset, length);
+        } else {
+            value = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        values[id] = value;
+        hashes[id] = h;
+        table[i] = id + 1;
+
+        // keep load factor at most 0.5
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private static boolean matches(String value, String s, char[] chars, byte[] bytes, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        if (s != null) {
+            return value.equals(s);
+        }
+        if (chars != null) {
+            for (int k = 0; k < length; k++) {
+                if (value.charAt(k) != chars[offset + k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int k = 0; k < length; k++) {
+            if (value.charAt(k) != (bytes[offset + k] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private void rehash() {
+        int[] larger = new int[table.length * 2];
+        int mask = larger.length - 1;
+        for (int id = 0; id < size; id++) {
+            int i = spread(hashes[id]) & mask;
+            while (larger[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            larger[i] = id + 1;
+        }
+        table = larger;
+    }
+}
@@ -0,0 +1,306 @@
+package com.webfuzzing.commons.report;
+
+import java.util.*;
+
+/**
+ * Matrix of the HTTP status codes covered for each endpoint, as in {@code coveredHttpStatus} of a
+ * {@link RESTReport}, with the test cases covering each (endpoint, status) cell.
+ * <p>
+ * Rows are the endpoints in {@code endpointIds}, followed by any other endpoint found in
+ * {@code coveredHttpStatus} (eg, calls not in the schema), in order of first appearance.
+ * Each row is a bitset of {@link #STATUS_SLOTS} bits, one per status code, all rows in a single
+ * {@code long} array. Test cases are stored as indices into an array of their ids, sorted by cell,
+ * so memory is proportional to the number of distinct (endpoint, status, test case) entries, without any
+ * boxed value. Queries on status ranges (eg, endpoints never returning a 2xx) only look at a few words per row.
+ * <p>
+ * Status codes outside [0, {@link #STATUS_SLOTS}), entries without endpoint id, and null values are ignored.
+ * <p>
+ * This class is immutable.
+ */
+public final class CoverageMatrix {
+
+    /**
+     * Number of status codes that can be represented, ie, from 0 to 599
+     */
+    public static final int STATUS_SLOTS = 600;
+
+    private static final int WORDS_PER_ROW = (STATUS_SLOTS + 63) / 64;
+
+    private final List<String> endpointIds;
+
+    private final Map<String, Integer> rows;
+
+    /**
+     * Bitsets of covered statuses, {@link #WORDS_PER_ROW} words per row
+     */
+    private final long[] bits;
+
+    private final String[] testCaseIds;
+
+    /**
+     * Covered cells (row * STATUS_SLOTS + status) with at least a test case, sorted
+     */
+    private final int[] cells;
+
+    /**
+     * Test cases of {@code cells[i]} are in {@code tests[offsets[i]..offsets[i + 1])}, sorted by index
+     */
+    private final int[] offsets;
+
+    private final int[] tests;
+
+    private final int coveredCells;
+
+    private CoverageMatrix(List<String> endpointIds, Map<String, Integer> rows, long[] bits,
+                           String[] testCaseIds, long[] entries, int size) {
+        this.endpointIds = Collections.unmodifiableList(endpointIds);
+        this.rows = rows;
+        this.bits = bits;
+        this.testCaseIds = testCaseIds;
+
+        // entries are (cell << 32 | test), so sorting groups them by cell, and then by test
+        Arrays.sort(entries, 0, size);
+        int distinctCells = 0;
+        int distinctEntries = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || entries[i] != entries[i - 1]) {
+                if (i == 0 || (entries[i] >>> 32) != (entries[i - 1] >>> 32)) {
+                    distinctCells++;
+                }
+                distinctEntries++;
+            }
+        }
+        cells = new int[distinctCells];
+        offsets = new int[distinctCells + 1];
+        tests = new int[distinctEntries];
+        int c = -1;
+        int t = 0;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && entries[i] == entries[i - 1]) {
+                continue;
+            }
+            int cell = (int) (entries[i] >>> 32);
+            if (c < 0 || cells[c] != cell) {
+                cells[++c] = cell;
+                offsets[c] = t;
+            }
+            tests[t++] = (int) entries[i];
+        }
+        offsets[distinctCells] = t;
+
+        int n = 0;
+        for (long word : bits) {
+            n += Long.bitCount(word);
+        }
+        coveredCells = n;
+    }
+
+    public static CoverageMatrix of(Report report) {
+        RESTReport rest = report.getProblemDetails() == null ? null : report.getProblemDetails().getRest();
+        return rest == null ? of(Collections.emptyList(), Collections.emptyList()) : of(rest);
+    }
+
+    public static CoverageMatrix of(RESTReport rest) {
+        return of(rest.getEndpointIds() == null ? Collections.emptyList() : rest.getEndpointIds(),
+                rest.getCoveredHttpStatus() == null ? Collections.emptyList() : rest.getCoveredHttpStatus());
+    }
+
+    public static CoverageMatrix of(Collection<String> endpointIds, Collection<CoveredEndpoint> coveredHttpStatus) {
+        List<String> ids = new ArrayList<>(endpointIds.size());
+        Map<String, Integer> rows = new HashMap<>();
+        for (String id : endpointIds) {
+            if (id != null && rows.putIfAbsent(id, ids.size()) == null) {
+                ids.add(id);
+            }
+        }
+
+        long[] bits = new long[WORDS_PER_ROW * Math.max(16, ids.size())];
+        List<String> testIds = new ArrayList<>();
+        Map<String, Integer> testIndices = new HashMap<>();
+        long[] entries = new long[Math.max(16, coveredHttpStatus.size())];
+        int size = 0;
+
+        for (CoveredEndpoint ce : coveredHttpStatus) {
+            if (ce == null || ce.getEndpointId() == null || ce.getHttpStatus() == null) {
+                continue;
+            }
+            Integer row = rows.get(ce.getEndpointId());
+            if (row == null) {
+                row = ids.size();
+                rows.put(ce.getEndpointId(), row);
+                ids.add(ce.getEndpointId());
+                if (bits.length < WORDS_PER_ROW * ids.size()) {
+                    bits = Arrays.copyOf(bits, bits.length * 2);
+                }
+            }
+            int test = -1;
+            if (ce.getTestCaseId() != null) {
+                Integer index = testIndices.get(ce.getTestCaseId());
+                if (index == null) {
+                    index = testIds.size();
+                    testIndices.put(ce.getTestCaseId(), index);
+                    testIds.add(ce.getTestCaseId());
+                }
+                test = index;
+            }
+            for (Integer status : ce.getHttpStatus()) {
+                if (status == null || status < 0 || status >= STATUS_SLOTS) {
+                    continue;
+                }
+                bits[row * WORDS_PER_ROW + (status >>> 6)] |= 1L << status;
+                if (test >= 0) {
+                    if (size == entries.length) {
+                        entries = Arrays.copyOf(entries, size * 2);
+                    }
+                    entries[size++] = ((long) (row * STATUS_SLOTS + status) << 32) | test;
+                }
+            }
+        }
+
+        return new CoverageMatrix(ids, rows, Arrays.copyOf(bits, WORDS_PER_ROW * ids.size()),
+                testIds.toArray(new String[0]), entries, size);
+    }
+
+    /**
+     * @return all endpoints, ie, the rows of the matrix
+     */
+    public List<String> getEndpointIds() {
+        return endpointIds;
+    }
+
+    /**
+     * @return number of distinct (endpoint, status) pairs covered
+     */
+    public int getNumberOfCoveredCells() {
+        return coveredCells;
+    }
+
+    /**
+     * @return number of distinct test case ids covering any cell
+     */
+    public int getNumberOfTestCases() {
+        return testCaseIds.length;
+    }
+
+    public boolean isCovered(String endpointId, int status) {
+        Integer row = rows.get(endpointId);
+        return row != null && status >= 0 && status < STATUS_SLOTS
+                && (bits[row * WORDS_PER_ROW + (status >>> 6)] & (1L << status)) != 0;
+    }
+
+    /**
+     * @return the covered statuses of the given endpoint, sorted. Empty if unknown.
+     */
+    public int[] getStatuses(String endpointId) {
+        Integer row = rows.get(endpointId);
+        if (row == null) {
+            return new int[0];
+        }
+        int base = row * WORDS_PER_ROW;
+        int n = 0;
+        for (int w = 0; w < WORDS_PER_ROW; w++) {
+            n += Long.bitCount(bits[base + w]);
+        }
+        int[] statuses = new int[n];
+        int k = 0;
+        for (int w = 0; w < WORDS_PER_ROW; w++) {
+            for (long word = bits[base + w]; word != 0; word &= word - 1) {
+                statuses[k++] = w * 64 + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * @return whether the given endpoint covered any status in [from, to]
+     */
+    public boolean isCovered(String endpointId, int from, int to) {
+        Integer row = rows.get(endpointId);
+        return row != null && any(row, from, to);
+    }
+
+    /**
+     * @return endpoints covering at least a status in [from, to], in row order
+     */
+    public List<String> getEndpointsWith(int from, int to) {
+        return select(from, to, true);
+    }
+
+    /**
+     * @return endpoints not covering any status in [from, to], in row order.
+     * For example, {@code getEndpointsWithout(200, 299)} are the endpoints never returning a 2xx.
+     */
+    public List<String> getEndpointsWithout(int from, int to) {
+        return select(from, to, false);
+    }
+
+    /**
+     * @return ids of the distinct test cases covering the given status for the given endpoint,
+     * in order of first appearance in {@code coveredHttpStatus}. Empty if not covered.
+     */
+    public List<String> getTestCaseIds(String endpointId, int status) {
+        int c = findCell(endpointId, status);
+        if (c < 0) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>(offsets[c + 1] - offsets[c]);
+        for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+            ids.add(testCaseIds[tests[i]]);
+        }
+        return ids;
+    }
+
+    /**
+     * @return number of distinct test cases covering the given status for the given endpoint
+     */
+    public int getNumberOfTestCases(String endpointId, int status) {
+        int c = findCell(endpointId, status);
+        return c < 0 ? 0 : offsets[c + 1] - offsets[c];
+    }
+
+    private int findCell(String endpointId, int status) {
+        Integer row = rows.get(endpointId);
+        if (row == null || status < 0 || status >= STATUS_SLOTS) {
+            return -1;
+        }
+        int c = Arrays.binarySearch(cells, row * STATUS_SLOTS + status);
+        return c < 0 ? -1 : c;
+    }
+
+    private List<String> select(int from, int to, boolean covered) {
+        List<String> selected = new ArrayList<>();
+        for (int row = 0; row < endpointIds.size(); row++) {
+            if (any(row, from, to) == covered) {
+                selected.add(endpointIds.get(row));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return whether any status in [from, to] is set in the given row
+     */
+    private boolean any(int row, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, STATUS_SLOTS - 1);
+        if (from > to) {
+            return false;
+        }
+        int base = row * WORDS_PER_ROW;
+        int first = from >>> 6;
+        int last = to >>> 6;
+        for (int w = first; w <= last; w++) {
+            long mask = -1L;
+            if (w == first) {
+                mask &= -1L << from;
+            }
+            if (w == last) {
+                mask &= -1L >>> (63 - (to & 63));
+            }
+            if ((bits[base + w] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,248 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.faults.FaultCategory;
+
+import java.util.*;
+
+/**
+ * Index of the distinct faults in a set of {@link FoundFault} entries.
+ * As stated in the schema, each fault is uniquely identified by its code and its context.
+ * Note that different tests can detect the same fault, and a test case can detect several different faults.
+ * <p>
+ * For each distinct fault, the index keeps track of which test cases and which operations detected it.
+ * All queries are answered in constant time, including {@link #getTotalNumber()}, which is the
+ * value to use for {@code faults.totalNumber} in a report.
+ * <p>
+ * Faults are stored in an open-addressing hash table keyed directly on (code, context),
+ * so lookups do not need to create any key object, nor to concatenate strings.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class FaultIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Hash table, with linear probing. Its length is always a power of 2.
+     */
+    private Fault[] table = new Fault[INITIAL_CAPACITY];
+
+    /**
+     * Distinct faults, in order of first detection
+     */
+    private final List<Fault> faults = new ArrayList<>();
+
+    private final int[] countByCode = new int[FaultCategory.MAX_CODE + 1];
+
+    private int foundFaults;
+
+    /**
+     * Index the found faults in the given report
+     */
+    public static FaultIndex of(Report report) {
+        FaultIndex index = new FaultIndex();
+        if (report.getFaults() != null && report.getFaults().getFoundFaults() != null) {
+            index.addAll(report.getFaults().getFoundFaults());
+        }
+        return index;
+    }
+
+    public static FaultIndex of(Collection<FoundFault> foundFaults) {
+        FaultIndex index = new FaultIndex();
+        index.addAll(foundFaults);
+        return index;
+    }
+
+    public void addAll(Collection<FoundFault> foundFaults) {
+        for (FoundFault ff : foundFaults) {
+            add(ff);
+        }
+    }
+
+    /**
+     * Index all the fault categories in the given entry.
+     * Null entries, and categories without a code, are ignored.
+     */
+    public void add(FoundFault foundFault) {
+        if (foundFault == null) {
+            return;
+        }
+        foundFaults++;
+        if (foundFault.getFaultCategories() == null) {
+            return;
+        }
+        for (FaultCategoryId id : foundFault.getFaultCategories()) {
+            if (id == null || id.getCode() == null) {
+                continue;
+            }
+            Fault f = getOrCreate(id.getCode(), id.getContext());
+            if (foundFault.getTestCaseId() != null) {
+                f.testCaseIds.add(foundFault.getTestCaseId());
+            }
+            if (foundFault.getOperationId() != null) {
+                f.operationIds.add(foundFault.getOperationId());
+            }
+        }
+    }
+
+    /**
+     * Add all the faults of the other index into this one, as if all its entries had been given to this index
+     */
+    void merge(FaultIndex other) {
+        foundFaults += other.foundFaults;
+        for (Fault f : other.faults) {
+            Fault target = getOrCreate(f.code, f.context);
+            target.testCaseIds.addAll(f.testCaseIds);
+            target.operationIds.addAll(f.operationIds);
+        }
+    }
+
+    /**
+     * @return number of distinct faults, ie, distinct (code, context) pairs
+     */
+    public int getTotalNumber() {
+        return faults.size();
+    }
+
+    /**
+     * @return number of distinct faults with the given code
+     */
+    public int getTotalNumber(int code) {
+        if (code < 0 || code >= countByCode.length) {
+            return 0;
+        }
+        return countByCode[code];
+    }
+
+    /**
+     * @return number of non-null {@link FoundFault} entries given to this index
+     */
+    public int getNumberOfFoundFaults() {
+        return foundFaults;
+    }
+
+    public boolean contains(int code, String context) {
+        return find(code, context) != null;
+    }
+
+    /**
+     * @return the ids of the test cases detecting the given fault, in order of detection.
+     * Empty if the fault is not in the index.
+     */
+    public Set<String> getTestCaseIds(int code, String context) {
+        Fault f = find(code, context);
+        return f == null ? Collections.emptySet() : Collections.unmodifiableSet(f.testCaseIds);
+    }
+
+    /**
+     * @return number of distinct test cases detecting the given fault
+     */
+    public int getNumberOfTestCases(int code, String context) {
+        Fault f = find(code, context);
+        return f == null ? 0 : f.testCaseIds.size();
+    }
+
+    /**
+     * @return the ids of the operations in which the given fault was detected, in order of detection.
+     * Empty if the fault is not in the index.
+     */
+    public Set<String> getOperationIds(int code, String context) {
+        Fault f = find(code, context);
+        return f == null ? Collections.emptySet() : Collections.unmodifiableSet(f.operationIds);
+    }
+
+    /**
+     * @return all distinct faults, in order of first detection. The returned objects are new copies.
+     */
+    public List<FaultCategoryId> getFaults() {
+        List<FaultCategoryId> ids = new ArrayList<>(faults.size());
+        for (Fault f : faults) {
+            FaultCategoryId id = new FaultCategoryId();
+            id.setCode(f.code);
+            id.setContext(f.context);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static int hash(int code, String context) {
+        int h = 31 * code + (context == null ? 0 : context.hashCode());
+        // spread bits, as only the lowest ones are used to index the table
+        return h ^ (h >>> 16);
+    }
+
+    private Fault find(int code, String context) {
+        int mask = table.length - 1;
+        int h = hash(code, context);
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            Fault f = table[i];
+            if (f == null) {
+                return null;
+            }
+            if (f.matches(h, code, context)) {
+                return f;
+            }
+        }
+    }
+
+    private Fault getOrCreate(int code, String context) {
+        int mask = table.length - 1;
+        int h = hash(code, context);
+        int i = h & mask;
+        for (Fault f = table[i]; f != null; f = table[i]) {
+            if (f.matches(h, code, context)) {
+                return f;
+            }
+            i = (i + 1) & mask;
+        }
+
+        Fault f = new Fault(h, code, context);
+        table[i] = f;
+        faults.add(f);
+        if (code >= 0 && code < countByCode.length) {
+            countByCode[code]++;
+        }
+        // keep load factor at most 0.5
+        if (faults.size() * 2 > table.length) {
+            rehash();
+        }
+        return f;
+    }
+
+    private void rehash() {
+        Fault[] larger = new Fault[table.length * 2];
+        int mask = larger.length - 1;
+        for (Fault f : faults) {
+            int i = f.hash & mask;
+            while (larger[i] != null) {
+                i = (i + 1) & mask;
+            }
+            larger[i] = f;
+        }
+        table = larger;
+    }
+
+
+    private static final class Fault {
+
+        final int hash;
+
+        final int code;
+
+        final String context;
+
+        final Set<String> testCaseIds = new LinkedHashSet<>();
+
+        final Set<String> operationIds = new LinkedHashSet<>();
+
+        Fault(int hash, int code, String context) {
+            this.hash = hash;
+            this.code = code;
+            this.context = context;
+        }
+
+        boolean matches(int hash, int code, String context) {
+            return this.hash == hash && this.code == code && Objects.equals(this.context, context);
+        }
+    }
+}
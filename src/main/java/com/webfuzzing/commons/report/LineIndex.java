@@ -0,0 +1,153 @@
+package com.webfuzzing.commons.report;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Offsets of the lines of a text file (eg, a generated test suite), to get any range of lines in constant time.
+ * <p>
+ * The file is memory-mapped, and scanned once to find where each line starts, which are kept in an
+ * {@code int} array (4 bytes per line). Ranges of lines are returned as read-only slices of the mapping,
+ * without copying any byte. Lines end with "\n" or "\r\n", and are numbered from 1, as {@code startLine}
+ * and {@code endLine} in {@link TestCase}. Files larger than 2 GB are not supported.
+ * <p>
+ * The file must not be modified while the index is in use.
+ * This class is immutable.
+ */
+public final class LineIndex {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ByteBuffer content;
+
+    /**
+     * Offset of the start of each line, plus the size of the content as last element
+     */
+    private final int[] starts;
+
+    private LineIndex(ByteBuffer content) {
+        this.content = content.asReadOnlyBuffer();
+        int size = content.limit();
+
+        // guess of the number of lines, for source code
+        int[] offsets = new int[Math.max(16, size / 32)];
+        int lines = 1;
+        byte[] chunk = new byte[CHUNK_SIZE];
+        ByteBuffer source = content.duplicate();
+        source.clear();
+        for (int base = 0; base < size; base += CHUNK_SIZE) {
+            int n = Math.min(CHUNK_SIZE, size - base);
+            source.get(chunk, 0, n);
+            for (int i = 0; i < n; i++) {
+                if (chunk[i] == '\n') {
+                    if (lines == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, lines * 2);
+                    }
+                    offsets[lines++] = base + i + 1;
+                }
+            }
+        }
+        // a final line terminator does not start a new line
+        if (size == 0 || offsets[lines - 1] == size) {
+            lines--;
+        }
+        starts = Arrays.copyOf(offsets, lines + 1);
+        starts[lines] = size;
+    }
+
+    /**
+     * Memory-map the given file, and index its lines
+     */
+    public static LineIndex of(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to be indexed: " + file + " (" + size + " bytes)");
+            }
+            // the mapping stays valid after the channel is closed
+            return new LineIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Index the lines of content already in memory, eg, for tests. The buffer is not copied.
+     */
+    public static LineIndex of(byte[] content) {
+        return new LineIndex(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * @return number of lines. A final line terminator does not start a new line.
+     */
+    public int getNumberOfLines() {
+        return starts.length - 1;
+    }
+
+    /**
+     * @return size of the content, in bytes
+     */
+    public int size() {
+        return starts[starts.length - 1];
+    }
+
+    /**
+     * @return the given line, without line terminator
+     */
+    public ByteBuffer getLine(int line) {
+        return getLines(line, line);
+    }
+
+    /**
+     * @param startLine first line, from 1
+     * @param endLine   last line, inclusive
+     * @return a read-only slice with the given lines, without the line terminator of the last one
+     * @throws IllegalArgumentException if the lines are not in the file
+     */
+    public ByteBuffer getLines(int startLine, int endLine) {
+        if (startLine < 1 || endLine < startLine || endLine > getNumberOfLines()) {
+            throw new IllegalArgumentException("Invalid lines " + startLine + "-" + endLine
+                    + ", as there are " + getNumberOfLines() + " lines");
+        }
+        int from = starts[startLine - 1];
+        int to = starts[endLine];
+        if (to > from && content.get(to - 1) == '\n') {
+            to--;
+            if (to > from && content.get(to - 1) == '\r') {
+                to--;
+            }
+        }
+        ByteBuffer slice = content.duplicate();
+        slice.position(from);
+        slice.limit(to);
+        return slice.slice();
+    }
+
+    /**
+     * @return the given lines decoded as UTF-8, with the same line terminators as in the file
+     * @see #getLines(int, int)
+     */
+    public String getText(int startLine, int endLine) {
+        ByteBuffer lines = getLines(startLine, endLine);
+        return StandardCharsets.UTF_8.decode(lines).toString();
+    }
+
+    /**
+     * @return offset in bytes where the given line starts
+     */
+    public int getOffset(int line) {
+        if (line < 1 || line > getNumberOfLines()) {
+            throw new IllegalArgumentException("Invalid line " + line + ", as there are " + getNumberOfLines() + " lines");
+        }
+        return starts[line - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "LineIndex{lines=" + getNumberOfLines() + ", size=" + size() + "}";
+    }
+}
@@ -0,0 +1,486 @@
+package com.webfuzzing.commons.report;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.webfuzzing.commons.report.ReportBinaryWriter.*;
+
+/**
+ * Read reports written with {@link ReportBinaryWriter}.
+ * See there for a description of the format.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ReportBinaryReader implements Closeable {
+
+    private final InputStream in;
+
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private int pos;
+
+    private int limit;
+
+    private String[] dictionary = new String[256];
+
+    private int dictionarySize;
+
+    private boolean started;
+
+    public ReportBinaryReader(InputStream in) {
+        this.in = Objects.requireNonNull(in);
+    }
+
+    /**
+     * Read a single report, and close the stream
+     */
+    public static Report read(InputStream in) throws IOException {
+        try (ReportBinaryReader reader = new ReportBinaryReader(in)) {
+            Report report = reader.next();
+            if (report == null) {
+                throw new EOFException("No report in the input");
+            }
+            return report;
+        }
+    }
+
+    /**
+     * @return the next report in the stream, or null if there is none
+     * @throws IOException if the data is not in the expected format
+     */
+    public Report next() throws IOException {
+        if (!started) {
+            started = true;
+            for (byte b : MAGIC) {
+                if (readByte() != b) {
+                    throw new IOException("Not a binary WFC report");
+                }
+            }
+            int version = readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported version of binary WFC report: " + version);
+            }
+        }
+        if (pos == limit && !fill()) {
+            return null;
+        }
+
+        Report report = new Report();
+        report.setSchemaVersion(string());
+        report.setToolName(string());
+        report.setToolVersion(string());
+        report.setCreationTime(string());
+
+        if (object()) {
+            Faults faults = new Faults();
+            faults.setTotalNumber(integer());
+            int n = size();
+            if (n < 0) {
+                faults.setFoundFaults(null);
+            } else {
+                List<FoundFault> list = new ArrayList<>(initialCapacity(n));
+                for (int i = 0; i < n; i++) {
+                    list.add(foundFault());
+                }
+                faults.setFoundFaults(list);
+            }
+            additionalProperties(faults.getAdditionalProperties());
+            report.setFaults(faults);
+        } else {
+            report.setFaults(null);
+        }
+
+        if (object()) {
+            ProblemDetails problemDetails = new ProblemDetails();
+            if (object()) {
+                RESTReport rest = new RESTReport();
+                rest.setOutputHttpCalls(integer());
+                rest.setEvaluatedHttpCalls(integer());
+                rest.setEndpointIds(strings(true));
+                int n = size();
+                if (n < 0) {
+                    rest.setCoveredHttpStatus(null);
+                } else {
+                    List<CoveredEndpoint> list = new ArrayList<>(initialCapacity(n));
+                    for (int i = 0; i < n; i++) {
+                        list.add(coveredEndpoint());
+                    }
+                    rest.setCoveredHttpStatus(list);
+                }
+                additionalProperties(rest.getAdditionalProperties());
+                problemDetails.setRest(rest);
+            } else {
+                problemDetails.setRest(null);
+            }
+            additionalProperties(problemDetails.getAdditionalProperties());
+            report.setProblemDetails(problemDetails);
+        } else {
+            report.setProblemDetails(null);
+        }
+
+        report.setTotalTests(integer());
+        report.setTestFilePaths(strings(true));
+        int n = size();
+        if (n < 0) {
+            report.setTestCases(null);
+        } else {
+            List<TestCase> list = new ArrayList<>(initialCapacity(n));
+            for (int i = 0; i < n; i++) {
+                list.add(testCase());
+            }
+            report.setTestCases(list);
+        }
+        report.setExecutionTimeInSeconds(integer());
+        n = size();
+        if (n < 0) {
+            report.setExtra(null);
+        } else {
+            List<Coverage> list = new ArrayList<>(initialCapacity(n));
+            for (int i = 0; i < n; i++) {
+                list.add(coverage());
+            }
+            report.setExtra(list);
+        }
+        n = size();
+        if (n < 0) {
+            report.setWarnings(null);
+        } else {
+            List<Warning> list = new ArrayList<>(initialCapacity(n));
+            for (int i = 0; i < n; i++) {
+                list.add(warning());
+            }
+            report.setWarnings(list);
+        }
+        additionalProperties(report.getAdditionalProperties());
+        return report;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private TestCase testCase() throws IOException {
+        if (!object()) {
+            return null;
+        }
+        TestCase tc = new TestCase();
+        tc.setId(string());
+        tc.setFilePath(string());
+        tc.setName(string());
+        tc.setStartLine(integer());
+        tc.setEndLine(integer());
+        tc.setNamedExamples(strings(false));
+        additionalProperties(tc.getAdditionalProperties());
+        return tc;
+    }
+
+    private FoundFault foundFault() throws IOException {
+        if (!object()) {
+            return null;
+        }
+        FoundFault ff = new FoundFault();
+        ff.setOperationId(string());
+        ff.setTestCaseId(string());
+        int n = size();
+        if (n < 0) {
+            ff.setFaultCategories(null);
+        } else {
+            Set<FaultCategoryId> ids = new LinkedHashSet<>(capacity(n));
+            for (int i = 0; i < n; i++) {
+                FaultCategoryId id = null;
+                if (object()) {
+                    id = new FaultCategoryId();
+                    id.setCode(integer());
+                    id.setContext(string());
+                    additionalProperties(id.getAdditionalProperties());
+                }
+                ids.add(id);
+            }
+            ff.setFaultCategories(ids);
+        }
+        additionalProperties(ff.getAdditionalProperties());
+        return ff;
+    }
+
+    private CoveredEndpoint coveredEndpoint() throws IOException {
+        if (!object()) {
+            return null;
+        }
+        CoveredEndpoint ce = new CoveredEndpoint();
+        ce.setEndpointId(string());
+        ce.setTestCaseId(string());
+        int n = size();
+        if (n < 0) {
+            ce.setHttpStatus(null);
+        } else {
+            Set<Integer> statuses = new LinkedHashSet<>(capacity(n));
+            for (int i = 0; i < n; i++) {
+                statuses.add(integer());
+            }
+            ce.setHttpStatus(statuses);
+        }
+        additionalProperties(ce.getAdditionalProperties());
+        return ce;
+    }
+
+    private Coverage coverage() throws IOException {
+        if (!object()) {
+            return null;
+        }
+        Coverage c = new Coverage();
+        c.setToolName(string());
+        int n = size();
+        if (n < 0) {
+            c.setCriteria(null);
+        } else {
+            List<CoverageCriterion> criteria = new ArrayList<>(initialCapacity(n));
+            for (int i = 0; i < n; i++) {
+                CoverageCriterion cc = null;
+                if (object()) {
+                    cc = new CoverageCriterion();
+                    cc.setName(string());
+                    cc.setCovered(integer());
+                    cc.setTotal(integer());
+                    additionalProperties(cc.getAdditionalProperties());
+                }
+                criteria.add(cc);
+            }
+            c.setCriteria(criteria);
+        }
+        additionalProperties(c.getAdditionalProperties());
+        return c;
+    }
+
+    private Warning warning() throws IOException {
+        if (!object()) {
+            return null;
+        }
+        Warning w = new Warning();
+        w.setMessage(string());
+        w.setCategory(string());
+        w.setDisplayPriority(integer());
+        additionalProperties(w.getAdditionalProperties());
+        return w;
+    }
+
+    /**
+     * Sizes are read from the input, so they are not trusted for allocating memory up front: a collection
+     * larger than this grows as its elements are read, and truncated input fails with an {@link IOException}
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private static int initialCapacity(int n) {
+        return Math.min(n, MAX_INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return initial capacity of a hash set with n elements
+     */
+    private static int capacity(int n) {
+        return Math.max(16, (int) (initialCapacity(n) / 0.75f) + 1);
+    }
+
+    private boolean object() throws IOException {
+        long x = varint();
+        if (x > 1) {
+            throw new IOException("Invalid object marker: " + x);
+        }
+        return x == 1;
+    }
+
+    /**
+     * @return -1 for a null collection
+     */
+    private int size() throws IOException {
+        long x = varint();
+        if (x > Integer.MAX_VALUE) {
+            throw new IOException("Invalid collection size: " + x);
+        }
+        return (int) x - 1;
+    }
+
+    /**
+     * @param unique whether to use a Set, as for "uniqueItems" arrays in the schema, instead of a List
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Collection<String>> T strings(boolean unique) throws IOException {
+        int n = size();
+        if (n < 0) {
+            return null;
+        }
+        Collection<String> c = unique ? new LinkedHashSet<>(capacity(n)) : new ArrayList<>(initialCapacity(n));
+        for (int i = 0; i < n; i++) {
+            c.add(string());
+        }
+        return (T) c;
+    }
+
+    private Integer integer() throws IOException {
+        long x = varint();
+        if (x == 0) {
+            return null;
+        }
+        long value = unZigZag(x - 1);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IOException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private String string() throws IOException {
+        long x = varint();
+        if (x == 0) {
+            return null;
+        }
+        if (x > 1) {
+            long id = x - 2;
+            if (id >= dictionarySize) {
+                throw new IOException("Invalid string reference: " + id);
+            }
+            return dictionary[(int) id];
+        }
+        int length = length();
+        String s;
+        if (length <= limit - pos) {
+            s = new String(buffer, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+        } else {
+            s = new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+        if (dictionarySize == dictionary.length) {
+            dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+        }
+        dictionary[dictionarySize++] = s;
+        return s;
+    }
+
+    private void additionalProperties(Map<String, Object> target) throws IOException {
+        int n = length();
+        for (int i = 0; i < n; i++) {
+            String name = string();
+            target.put(name, any());
+        }
+    }
+
+    private Object any() throws IOException {
+        int tag = (int) varint();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return false;
+            case TAG_TRUE:
+                return true;
+            case TAG_INT:
+                return (int) unZigZag(varint());
+            case TAG_LONG:
+                return unZigZag(varint());
+            case TAG_BIG_INTEGER:
+                return new BigInteger(readBytes(length()));
+            case TAG_DOUBLE:
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits |= ((long) readByte()) << (8 * i);
+                }
+                return Double.longBitsToDouble(bits);
+            case TAG_DECIMAL:
+                return new BigDecimal(string());
+            case TAG_STRING:
+                return string();
+            case TAG_ARRAY: {
+                int n = length();
+                List<Object> list = new ArrayList<>(initialCapacity(n));
+                for (int i = 0; i < n; i++) {
+                    list.add(any());
+                }
+                return list;
+            }
+            case TAG_OBJECT: {
+                int n = length();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) {
+                    String name = string();
+                    map.put(name, any());
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Invalid value tag: " + tag);
+        }
+    }
+
+    private static long unZigZag(long x) {
+        return (x >>> 1) ^ -(x & 1);
+    }
+
+    private int length() throws IOException {
+        long x = varint();
+        if (x > Integer.MAX_VALUE) {
+            throw new IOException("Invalid length: " + x);
+        }
+        return (int) x;
+    }
+
+    private long varint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readByte() throws IOException {
+        if (pos == limit && !fill()) {
+            throw new EOFException("Unexpected end of binary WFC report");
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        // as for collections, the length is not trusted, so the array grows as bytes are actually read
+        byte[] bytes = new byte[Math.min(length, buffer.length)];
+        int done = Math.min(length, limit - pos);
+        System.arraycopy(buffer, pos, bytes, 0, done);
+        pos += done;
+        while (done < length) {
+            if (done == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            int n = in.read(bytes, done, bytes.length - done);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of binary WFC report");
+            }
+            done += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return false if there is no more data
+     */
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            pos = 0;
+            limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
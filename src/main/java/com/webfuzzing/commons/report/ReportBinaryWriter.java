@@ -0,0 +1,390 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.StringDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Write a {@link Report} in a compact binary format, as alternative to JSON, eg, for archiving.
+ * It can be read back with {@link ReportBinaryReader}, getting a report equal to the original one.
+ * As such, converting JSON to binary and back is lossless.
+ * <p>
+ * The format starts with the magic bytes "WFCB" and a format version byte.
+ * Then, the fields of each object are written in the same order as in the schema, without names:
+ * <ul>
+ *     <li>integers are varints (zig-zag encoded), with 0 used for null, and the value shifted by 1</li>
+ *     <li>strings are dictionary-encoded: a varint 0 for null, 1 for a new string, followed by its length
+ *         and UTF-8 bytes (which is then added to the dictionary), or (id + 2) for a string already in the dictionary</li>
+ *     <li>objects start with a varint 0 for null, or 1</li>
+ *     <li>arrays start with a varint 0 for null, or their size + 1, followed by their elements</li>
+ *     <li>"additionalProperties" of each object are written last, as their number followed by
+ *         (name, tagged value) pairs, where tagged values can be any JSON value. As in the JSON form,
+ *         properties with null values are skipped.</li>
+ * </ul>
+ * Repeated strings (eg, operation ids, test case ids and fault contexts) are written only once,
+ * making the output several times smaller than the equivalent JSON.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ReportBinaryWriter implements Closeable {
+
+    static final byte[] MAGIC = {'W', 'F', 'C', 'B'};
+
+    static final int FORMAT_VERSION = 1;
+
+    /*
+        Tags of values in "additionalProperties"
+     */
+    static final int TAG_NULL = 0;
+    static final int TAG_FALSE = 1;
+    static final int TAG_TRUE = 2;
+    static final int TAG_INT = 3;
+    static final int TAG_LONG = 4;
+    static final int TAG_BIG_INTEGER = 5;
+    static final int TAG_DOUBLE = 6;
+    /**
+     * Numbers of any other type, eg BigDecimal, written as their string representation
+     */
+    static final int TAG_DECIMAL = 7;
+    static final int TAG_STRING = 8;
+    static final int TAG_ARRAY = 9;
+    static final int TAG_OBJECT = 10;
+
+    private final OutputStream out;
+
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private int pos;
+
+    private final StringDictionary dictionary = new StringDictionary();
+
+    private boolean started;
+
+    public ReportBinaryWriter(OutputStream out) {
+        this.out = Objects.requireNonNull(out);
+    }
+
+    /**
+     * Write the given report, and close the stream
+     */
+    public static void write(Report report, OutputStream out) throws IOException {
+        try (ReportBinaryWriter writer = new ReportBinaryWriter(out)) {
+            writer.write(report);
+        }
+    }
+
+    /**
+     * Write a report.
+     * Several reports can be written to the same stream, sharing the same string dictionary.
+     */
+    public void write(Report report) throws IOException {
+        if (!started) {
+            started = true;
+            ensure(MAGIC.length + 1);
+            System.arraycopy(MAGIC, 0, buffer, pos, MAGIC.length);
+            pos += MAGIC.length;
+            buffer[pos++] = FORMAT_VERSION;
+        }
+
+        Objects.requireNonNull(report);
+        string(report.getSchemaVersion());
+        string(report.getToolName());
+        string(report.getToolVersion());
+        string(report.getCreationTime());
+
+        Faults faults = report.getFaults();
+        if (object(faults)) {
+            integer(faults.getTotalNumber());
+            if (size(faults.getFoundFaults())) {
+                for (FoundFault ff : faults.getFoundFaults()) {
+                    foundFault(ff);
+                }
+            }
+            additionalProperties(faults.getAdditionalProperties());
+        }
+
+        ProblemDetails problemDetails = report.getProblemDetails();
+        if (object(problemDetails)) {
+            RESTReport rest = problemDetails.getRest();
+            if (object(rest)) {
+                integer(rest.getOutputHttpCalls());
+                integer(rest.getEvaluatedHttpCalls());
+                strings(rest.getEndpointIds());
+                if (size(rest.getCoveredHttpStatus())) {
+                    for (CoveredEndpoint ce : rest.getCoveredHttpStatus()) {
+                        coveredEndpoint(ce);
+                    }
+                }
+                additionalProperties(rest.getAdditionalProperties());
+            }
+            additionalProperties(problemDetails.getAdditionalProperties());
+        }
+
+        integer(report.getTotalTests());
+        strings(report.getTestFilePaths());
+        if (size(report.getTestCases())) {
+            for (TestCase tc : report.getTestCases()) {
+                testCase(tc);
+            }
+        }
+        integer(report.getExecutionTimeInSeconds());
+        if (size(report.getExtra())) {
+            for (Coverage c : report.getExtra()) {
+                coverage(c);
+            }
+        }
+        if (size(report.getWarnings())) {
+            for (Warning w : report.getWarnings()) {
+                warning(w);
+            }
+        }
+        additionalProperties(report.getAdditionalProperties());
+    }
+
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void testCase(TestCase tc) throws IOException {
+        if (!object(tc)) {
+            return;
+        }
+        string(tc.getId());
+        string(tc.getFilePath());
+        string(tc.getName());
+        integer(tc.getStartLine());
+        integer(tc.getEndLine());
+        strings(tc.getNamedExamples());
+        additionalProperties(tc.getAdditionalProperties());
+    }
+
+    private void foundFault(FoundFault ff) throws IOException {
+        if (!object(ff)) {
+            return;
+        }
+        string(ff.getOperationId());
+        string(ff.getTestCaseId());
+        if (size(ff.getFaultCategories())) {
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                if (object(id)) {
+                    integer(id.getCode());
+                    string(id.getContext());
+                    additionalProperties(id.getAdditionalProperties());
+                }
+            }
+        }
+        additionalProperties(ff.getAdditionalProperties());
+    }
+
+    private void coveredEndpoint(CoveredEndpoint ce) throws IOException {
+        if (!object(ce)) {
+            return;
+        }
+        string(ce.getEndpointId());
+        string(ce.getTestCaseId());
+        if (size(ce.getHttpStatus())) {
+            for (Integer status : ce.getHttpStatus()) {
+                integer(status);
+            }
+        }
+        additionalProperties(ce.getAdditionalProperties());
+    }
+
+    private void coverage(Coverage c) throws IOException {
+        if (!object(c)) {
+            return;
+        }
+        string(c.getToolName());
+        if (size(c.getCriteria())) {
+            for (CoverageCriterion cc : c.getCriteria()) {
+                if (object(cc)) {
+                    string(cc.getName());
+                    integer(cc.getCovered());
+                    integer(cc.getTotal());
+                    additionalProperties(cc.getAdditionalProperties());
+                }
+            }
+        }
+        additionalProperties(c.getAdditionalProperties());
+    }
+
+    private void warning(Warning w) throws IOException {
+        if (!object(w)) {
+            return;
+        }
+        string(w.getMessage());
+        string(w.getCategory());
+        integer(w.getDisplayPriority());
+        additionalProperties(w.getAdditionalProperties());
+    }
+
+    /**
+     * @return whether the object is not null, and so its fields have to be written
+     */
+    private boolean object(Object o) throws IOException {
+        varint(o == null ? 0 : 1);
+        return o != null;
+    }
+
+    /**
+     * @return whether the collection is not null, and so its elements have to be written
+     */
+    private boolean size(Collection<?> c) throws IOException {
+        varint(c == null ? 0 : c.size() + 1L);
+        return c != null;
+    }
+
+    private void strings(Collection<String> c) throws IOException {
+        if (size(c)) {
+            for (String s : c) {
+                string(s);
+            }
+        }
+    }
+
+    private void integer(Integer value) throws IOException {
+        varint(value == null ? 0 : zigZag(value) + 1);
+    }
+
+    private void string(String s) throws IOException {
+        if (s == null) {
+            varint(0);
+            return;
+        }
+        int size = dictionary.size();
+        int id = dictionary.idOf(s);
+        if (id < size) {
+            varint(id + 2L);
+            return;
+        }
+        varint(1);
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        bytes(bytes);
+    }
+
+    private void additionalProperties(Map<String, Object> properties) throws IOException {
+        int n = 0;
+        for (Object value : properties.values()) {
+            if (value != null) {
+                n++;
+            }
+        }
+        varint(n);
+        for (Map.Entry<String, Object> e : properties.entrySet()) {
+            if (e.getValue() != null) {
+                string(e.getKey());
+                any(e.getValue());
+            }
+        }
+    }
+
+    private void any(Object value) throws IOException {
+        if (value == null) {
+            varint(TAG_NULL);
+        } else if (value instanceof Boolean) {
+            varint((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            varint(TAG_INT);
+            varint(zigZag(((Number) value).longValue()));
+        } else if (value instanceof Long) {
+            varint(TAG_LONG);
+            varint(zigZag((Long) value));
+        } else if (value instanceof BigInteger) {
+            varint(TAG_BIG_INTEGER);
+            byte[] bytes = ((BigInteger) value).toByteArray();
+            varint(bytes.length);
+            bytes(bytes);
+        } else if (value instanceof Double || value instanceof Float) {
+            varint(TAG_DOUBLE);
+            long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[pos++] = (byte) (bits >>> (8 * i));
+            }
+        } else if (value instanceof Number) {
+            varint(TAG_DECIMAL);
+            string(value.toString());
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            varint(TAG_OBJECT);
+            varint(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                string(String.valueOf(e.getKey()));
+                any(e.getValue());
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> c = (Collection<?>) value;
+            varint(TAG_ARRAY);
+            varint(c.size());
+            for (Object o : c) {
+                any(o);
+            }
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            varint(TAG_ARRAY);
+            varint(array.length);
+            for (Object o : array) {
+                any(o);
+            }
+        } else {
+            varint(TAG_STRING);
+            string(value.toString());
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void varint(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+    }
+
+    private void bytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - pos) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buffer.length - pos < n) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.webfuzzing.commons.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Differences between two reports on the same API, eg, of two runs of a fuzzer on consecutive days,
+ * in terms of:
+ * <ul>
+ *     <li>faults, identified by operation id, fault category code and context</li>
+ *     <li>covered endpoints, ie, endpoint ids in {@code coveredHttpStatus}</li>
+ *     <li>covered statuses, identified by endpoint id and HTTP status code</li>
+ * </ul>
+ * Each of them is either new (only in the current report), fixed (only in the previous report), or unchanged.
+ * <p>
+ * The distinct keys of the previous report are put in hash tables, and then each entry of the current report
+ * is looked up in them, so the comparison takes linear time. When reading from streams, reports are never
+ * loaded in memory: entries are read one at a time with {@link ReportReader} (skipping test cases), and only the
+ * distinct keys are kept, with a single copy of each of their strings (operation ids, endpoint ids and contexts).
+ * Other values, like test case ids, are not kept.
+ * <p>
+ * This class is immutable.
+ */
+public final class ReportDiff {
+
+    private final Changes<Fault> faults;
+
+    private final Changes<String> endpoints;
+
+    private final Changes<Status> statuses;
+
+    private ReportDiff(Changes<Fault> faults, Changes<String> endpoints, Changes<Status> statuses) {
+        this.faults = faults;
+        this.endpoints = endpoints;
+        this.statuses = statuses;
+    }
+
+    public static ReportDiff of(Report previous, Report current) {
+        Collector collector = new Collector();
+        collector.addAll(previous, true);
+        collector.addAll(current, false);
+        return collector.toDiff();
+    }
+
+    /**
+     * Compare two reports in JSON, reading them incrementally.
+     * The previous report is read fully before the current one.
+     */
+    public static ReportDiff read(InputStream previous, InputStream current) throws IOException {
+        Collector collector = new Collector();
+        collector.read(previous, true);
+        collector.read(current, false);
+        return collector.toDiff();
+    }
+
+    public static ReportDiff read(Path previous, Path current) throws IOException {
+        try (InputStream p = Files.newInputStream(previous);
+             InputStream c = Files.newInputStream(current)) {
+            return read(p, c);
+        }
+    }
+
+    /**
+     * @return changes of the distinct faults
+     */
+    public Changes<Fault> getFaults() {
+        return faults;
+    }
+
+    /**
+     * @return changes of the endpoints covered with any status
+     */
+    public Changes<String> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return changes of the covered HTTP statuses of each endpoint
+     */
+    public Changes<Status> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * @return whether there is anything new or fixed
+     */
+    public boolean hasChanges() {
+        return faults.hasChanges() || endpoints.hasChanges() || statuses.hasChanges();
+    }
+
+    @Override
+    public String toString() {
+        return "ReportDiff{faults=" + faults + ", endpoints=" + endpoints + ", statuses=" + statuses + "}";
+    }
+
+    /**
+     * New, fixed and unchanged keys of one kind.
+     * New and unchanged keys are in order of first appearance in the current report, and fixed ones in order
+     * of first appearance in the previous report.
+     */
+    public static final class Changes<T> {
+
+        private final List<T> added;
+
+        private final List<T> fixed;
+
+        private final List<T> unchanged;
+
+        private Changes(List<T> added, List<T> fixed, List<T> unchanged) {
+            this.added = Collections.unmodifiableList(added);
+            this.fixed = Collections.unmodifiableList(fixed);
+            this.unchanged = Collections.unmodifiableList(unchanged);
+        }
+
+        /**
+         * @return keys only in the current report
+         */
+        public List<T> getNew() {
+            return added;
+        }
+
+        /**
+         * @return keys only in the previous report
+         */
+        public List<T> getFixed() {
+            return fixed;
+        }
+
+        /**
+         * @return keys in both reports
+         */
+        public List<T> getUnchanged() {
+            return unchanged;
+        }
+
+        public boolean hasChanges() {
+            return !added.isEmpty() || !fixed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "{new=" + added.size() + ", fixed=" + fixed.size() + ", unchanged=" + unchanged.size() + "}";
+        }
+    }
+
+    /**
+     * A fault found in an operation. The same fault (code and context) found in different operations
+     * gives different keys.
+     */
+    public static final class Fault {
+
+        private final String operationId;
+
+        private final int code;
+
+        private final String context;
+
+        private final int hash;
+
+        public Fault(String operationId, int code, String context) {
+            this.operationId = operationId;
+            this.code = code;
+            this.context = context;
+            this.hash = 31 * (31 * Objects.hashCode(operationId) + code) + Objects.hashCode(context);
+        }
+
+        /**
+         * @return can be {@code null}
+         */
+        public String getOperationId() {
+            return operationId;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @return can be {@code null}
+         */
+        public String getContext() {
+            return context;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fault)) {
+                return false;
+            }
+            Fault other = (Fault) o;
+            return hash == other.hash && code == other.code
+                    && Objects.equals(operationId, other.operationId) && Objects.equals(context, other.context);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return operationId + " " + code + (context == null ? "" : " " + context);
+        }
+    }
+
+    /**
+     * An HTTP status covered for an endpoint
+     */
+    public static final class Status {
+
+        private final String endpointId;
+
+        private final int status;
+
+        public Status(String endpointId, int status) {
+            this.endpointId = Objects.requireNonNull(endpointId);
+            this.status = status;
+        }
+
+        public String getEndpointId() {
+            return endpointId;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Status)) {
+                return false;
+            }
+            Status other = (Status) o;
+            return status == other.status && endpointId.equals(other.endpointId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * endpointId.hashCode() + status;
+        }
+
+        @Override
+        public String toString() {
+            return endpointId + " " + status;
+        }
+    }
+
+    /**
+     * Classify the keys of one kind, given first all the ones of the previous report
+     */
+    private static final class Classifier<T> {
+
+        /**
+         * Distinct keys of the previous report, and whether they are in the current report too
+         */
+        private final Map<T, Boolean> previous = new LinkedHashMap<>();
+
+        private final Set<T> added = new LinkedHashSet<>();
+
+        private final List<T> unchanged = new ArrayList<>();
+
+        void previous(T key) {
+            previous.putIfAbsent(key, Boolean.FALSE);
+        }
+
+        void current(T key) {
+            Boolean found = previous.get(key);
+            if (found == null) {
+                added.add(key);
+            } else if (!found) {
+                previous.put(key, Boolean.TRUE);
+                unchanged.add(key);
+            }
+        }
+
+        Changes<T> toChanges() {
+            List<T> fixed = new ArrayList<>();
+            previous.forEach((k, found) -> {
+                if (!found) {
+                    fixed.add(k);
+                }
+            });
+            return new Changes<>(new ArrayList<>(added), fixed, unchanged);
+        }
+    }
+
+    private static final class Collector {
+
+        private final Classifier<Fault> faults = new Classifier<>();
+
+        private final Classifier<String> endpoints = new Classifier<>();
+
+        private final Classifier<Status> statuses = new Classifier<>();
+
+        /**
+         * Single copy of the strings in keys, so that equal keys in both reports share them
+         */
+        private final Map<String, String> strings = new HashMap<>();
+
+        private String share(String s) {
+            if (s == null) {
+                return null;
+            }
+            String shared = strings.putIfAbsent(s, s);
+            return shared == null ? s : shared;
+        }
+
+        void addAll(Report report, boolean previous) {
+            if (report.getFaults() != null && report.getFaults().getFoundFaults() != null) {
+                for (FoundFault ff : report.getFaults().getFoundFaults()) {
+                    add(ff, previous);
+                }
+            }
+            RESTReport rest = report.getProblemDetails() == null ? null : report.getProblemDetails().getRest();
+            if (rest != null && rest.getCoveredHttpStatus() != null) {
+                for (CoveredEndpoint ce : rest.getCoveredHttpStatus()) {
+                    add(ce, previous);
+                }
+            }
+        }
+
+        void read(InputStream in, boolean previous) throws IOException {
+            EnumSet<ReportReader.EntryType> types =
+                    EnumSet.of(ReportReader.EntryType.FOUND_FAULT, ReportReader.EntryType.COVERED_ENDPOINT);
+            // no dictionary, as it would keep all the strings read, eg, test case ids
+            try (ReportReader reader = new ReportReader(in, types, null)) {
+                while (reader.next()) {
+                    if (reader.getEntryType() == ReportReader.EntryType.FOUND_FAULT) {
+                        add(reader.getFoundFault(), previous);
+                    } else {
+                        add(reader.getCoveredEndpoint(), previous);
+                    }
+                }
+            }
+        }
+
+        private void add(FoundFault ff, boolean previous) {
+            if (ff == null || ff.getFaultCategories() == null) {
+                return;
+            }
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                if (id == null || id.getCode() == null) {
+                    continue;
+                }
+                Fault key = new Fault(share(ff.getOperationId()), id.getCode(), share(id.getContext()));
+                if (previous) {
+                    faults.previous(key);
+                } else {
+                    faults.current(key);
+                }
+            }
+        }
+
+        private void add(CoveredEndpoint ce, boolean previous) {
+            if (ce == null || ce.getEndpointId() == null) {
+                return;
+            }
+            String endpointId = share(ce.getEndpointId());
+            if (previous) {
+                endpoints.previous(endpointId);
+            } else {
+                endpoints.current(endpointId);
+            }
+            if (ce.getHttpStatus() == null) {
+                return;
+            }
+            for (Integer s : ce.getHttpStatus()) {
+                if (s == null) {
+                    continue;
+                }
+                Status key = new Status(endpointId, s);
+                if (previous) {
+                    statuses.previous(key);
+                } else {
+                    statuses.current(key);
+                }
+            }
+        }
+
+        ReportDiff toDiff() {
+            return new ReportDiff(faults.toChanges(), endpoints.toChanges(), statuses.toChanges());
+        }
+    }
+}
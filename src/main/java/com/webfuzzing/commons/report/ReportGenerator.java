@@ -0,0 +1,461 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.faults.DefinedFaultCategory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Generate synthetic WFC reports of arbitrary size, together with the test suite files they refer to,
+ * eg, for load and scale testing of tools processing reports.
+ * <p>
+ * Reports are valid according to the schema, and the line ranges of their test cases match the generated
+ * test files. Tests finding faults are written in "faults_*.java" files, and the others in "successes_*.java"
+ * files, as done by EvoMaster.
+ * Faults are drawn from a limited number of distinct ones per endpoint, so that the same faults are found by
+ * several tests, as in practice.
+ * <p>
+ * Everything is streamed to disk with {@link ReportWriter}, so memory usage does not depend on the number of
+ * tests, but only on the number of endpoints and of test files.
+ * With the same configuration (including the seed and creation time), the output is always the same.
+ */
+public class ReportGenerator {
+
+    /**
+     * Name of the report file, when generating in a directory
+     */
+    public static final String REPORT_FILE_NAME = "report.json";
+
+    private static final String[] VERBS = {"GET", "POST", "PUT", "PATCH", "DELETE"};
+
+    private static final String[] FAULT_DESCRIPTIONS = {
+            "Instance type (null) does not match any allowed primitive type (allowed: [\"string\"])",
+            "Object has missing required properties ([\"id\"])",
+            "Numeric instance is lower than the required minimum (minimum: 0, found: -1)",
+            "Invalid value for enum",
+            "Response content-type is not declared in the schema"
+    };
+
+    private int endpoints = 100;
+
+    private int testCases = 1000;
+
+    private int testsPerFile = 100;
+
+    private int maxCallsPerTest = 3;
+
+    private double faultsPerTest = 0.2;
+
+    private int distinctFaultsPerEndpoint = 5;
+
+    private int[] statusCodes = {200, 201, 204, 400, 401, 403, 404, 409, 500};
+
+    private int warnings = 1;
+
+    private long seed = 42;
+
+    private String toolName = "Synthetic";
+
+    private String creationTime;
+
+    /**
+     * Generate the report, as {@link #REPORT_FILE_NAME}, and its test files in the given directory
+     * (which is created if it does not exist)
+     *
+     * @return the path of the report
+     */
+    public Path generate(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path report = dir.resolve(REPORT_FILE_NAME);
+        try (OutputStream out = Files.newOutputStream(report)) {
+            generate(out, dir);
+        }
+        return report;
+    }
+
+    /**
+     * Write the report to the given stream, which is closed
+     *
+     * @param testDir where to write the test files, or {@code null} to not write them
+     *                (but the test cases in the report are the same)
+     */
+    public void generate(OutputStream out, Path testDir) throws IOException {
+        Random random = new Random(seed);
+        DefinedFaultCategory[] categories = DefinedFaultCategory.values();
+
+        String[] endpointIds = new String[endpoints];
+        String[] paths = new String[endpoints];
+        for (int i = 0; i < endpoints; i++) {
+            paths[i] = "/api/resources" + (i / VERBS.length) + (i % 2 == 0 ? "" : "/{id}");
+            endpointIds[i] = VERBS[i % VERBS.length] + ":" + paths[i];
+        }
+
+        int calls = 0;
+        try (ReportWriter writer = new ReportWriter(out);
+             TestFile faults = new TestFile("faults", testDir);
+             TestFile successes = new TestFile("successes", testDir)) {
+
+            writer.setSchemaVersion("0.0.1");
+            writer.setToolName(toolName);
+            writer.setToolVersion("1.0.0");
+            writer.setCreationTime(creationTime != null ? creationTime : Instant.now().toString());
+            writer.setExecutionTimeInSeconds(testCases / 10);
+            for (String id : endpointIds) {
+                writer.addEndpointId(id);
+            }
+
+            // calls of the current test, as (endpoint index, status) pairs
+            int[] callEndpoints = new int[maxCallsPerTest];
+            int[] callStatuses = new int[maxCallsPerTest];
+
+            for (int t = 0; t < testCases; t++) {
+                int n = 1 + random.nextInt(maxCallsPerTest);
+                for (int c = 0; c < n; c++) {
+                    callEndpoints[c] = random.nextInt(endpoints);
+                    callStatuses[c] = statusCodes[random.nextInt(statusCodes.length)];
+                }
+                calls += n;
+
+                int nFaults = (int) faultsPerTest + (random.nextDouble() < faultsPerTest - (int) faultsPerTest ? 1 : 0);
+                // faults of each call, keyed by endpoint index
+                Map<Integer, Set<FaultCategoryId>> found = new LinkedHashMap<>();
+                for (int f = 0; f < nFaults; f++) {
+                    int e = callEndpoints[random.nextInt(n)];
+                    int k = random.nextInt(distinctFaultsPerEndpoint);
+                    FaultCategoryId id = new FaultCategoryId();
+                    // same code for same fault
+                    id.setCode(categories[(e * distinctFaultsPerEndpoint + k) % categories.length].getCode());
+                    id.setContext(endpointIds[e] + " -> " + FAULT_DESCRIPTIONS[k % FAULT_DESCRIPTIONS.length]
+                            + " [" + k + "]");
+                    found.computeIfAbsent(e, x -> new LinkedHashSet<>()).add(id);
+                }
+
+                TestFile file = found.isEmpty() ? successes : faults;
+                if (file.tests == 0 || file.tests == testsPerFile) {
+                    file.next();
+                    writer.addTestFilePath(file.path);
+                }
+
+                TestCase tc = new TestCase();
+                tc.setFilePath(file.path);
+                tc.setName("test_" + file.tests);
+                tc.setId(file.path + "#" + tc.getName());
+                tc.setStartLine(file.writeTest(tc.getName(), n, callEndpoints, callStatuses, paths, endpointIds, found));
+                tc.setEndLine(file.line);
+                writer.writeTestCase(tc);
+
+                Map<Integer, CoveredEndpoint> covered = new LinkedHashMap<>();
+                for (int c = 0; c < n; c++) {
+                    CoveredEndpoint ce = covered.get(callEndpoints[c]);
+                    if (ce == null) {
+                        ce = new CoveredEndpoint();
+                        ce.setEndpointId(endpointIds[callEndpoints[c]]);
+                        ce.setTestCaseId(tc.getId());
+                        covered.put(callEndpoints[c], ce);
+                    }
+                    ce.getHttpStatus().add(callStatuses[c]);
+                }
+                for (CoveredEndpoint ce : covered.values()) {
+                    writer.writeCoveredEndpoint(ce);
+                }
+
+                for (Map.Entry<Integer, Set<FaultCategoryId>> e : found.entrySet()) {
+                    FoundFault ff = new FoundFault();
+                    ff.setOperationId(endpointIds[e.getKey()]);
+                    ff.setTestCaseId(tc.getId());
+                    ff.setFaultCategories(e.getValue());
+                    writer.writeFoundFault(ff);
+                }
+            }
+
+            writer.setOutputHttpCalls(calls);
+            writer.setEvaluatedHttpCalls(calls * 10);
+
+            Coverage coverage = new Coverage();
+            coverage.setToolName(toolName);
+            coverage.getCriteria().add(criterion("Line Coverage", random, 10_000));
+            coverage.getCriteria().add(criterion("Branch Coverage", random, 2_000));
+            writer.addCoverage(coverage);
+
+            for (int i = 0; i < warnings; i++) {
+                Warning warning = new Warning();
+                warning.setMessage("Synthetic warning " + i);
+                warning.setCategory(i % 2 == 0 ? "FUZZER" : "SCHEMA");
+                warning.setDisplayPriority(1 + i % 3);
+                writer.addWarning(warning);
+            }
+        }
+    }
+
+    private static CoverageCriterion criterion(String name, Random random, int total) {
+        CoverageCriterion c = new CoverageCriterion();
+        c.setName(name);
+        c.setTotal(total);
+        c.setCovered(random.nextInt(total + 1));
+        return c;
+    }
+
+    /**
+     * Test suite files of a given kind, written one at a time
+     */
+    private static class TestFile implements Closeable {
+
+        private final String kind;
+
+        private final Path dir;
+
+        private int index;
+
+        private String path;
+
+        private Writer writer;
+
+        /**
+         * Number of tests in the current file
+         */
+        private int tests;
+
+        /**
+         * Last written line in the current file
+         */
+        private int line;
+
+        private TestFile(String kind, Path dir) {
+            this.kind = kind;
+            this.dir = dir;
+        }
+
+        private void next() throws IOException {
+            close();
+            index++;
+            String name = kind + "_" + index;
+            path = name + ".java";
+            tests = 0;
+            line = 0;
+            if (dir != null) {
+                writer = new BufferedWriter(Files.newBufferedWriter(dir.resolve(path), StandardCharsets.UTF_8));
+            }
+            line("import org.junit.jupiter.api.Test;");
+            line("import org.junit.jupiter.api.Timeout;");
+            line("import static io.restassured.RestAssured.given;");
+            line("");
+            line("/**");
+            line(" * This file was generated as synthetic data, and it is not meant to be run.");
+            line(" */");
+            line("public class " + name + " {");
+            line("");
+            line("    private static String baseUrlOfSut;");
+        }
+
+        /**
+         * @return the first line of the test, ie, of its comment
+         */
+        private int writeTest(String name, int calls, int[] endpoints, int[] statuses, String[] paths,
+                               String[] endpointIds, Map<Integer, Set<FaultCategoryId>> faults) throws IOException {
+            line("");
+            line("");
+            int start = line + 1;
+            line("    /**");
+            line("    * Calls:");
+            for (int c = 0; c < calls; c++) {
+                line("    * (" + statuses[c] + ") " + endpointIds[endpoints[c]]);
+            }
+            int n = faults.values().stream().mapToInt(Set::size).sum();
+            if (n > 0) {
+                line("    * Found " + n + " potential faults");
+            }
+            line("    */");
+            line("    @Test @Timeout(60)");
+            line("    public void " + name + "() throws Exception {");
+            for (Set<FaultCategoryId> ids : faults.values()) {
+                for (FaultCategoryId id : ids) {
+                    line("        // Fault" + id.getCode() + ". " + id.getContext());
+                }
+            }
+            for (int c = 0; c < calls; c++) {
+                String verb = endpointIds[endpoints[c]];
+                verb = verb.substring(0, verb.indexOf(':')).toLowerCase(Locale.ENGLISH);
+                line("        given().accept(\"*/*\")");
+                line("                ." + verb + "(baseUrlOfSut + \"" + paths[endpoints[c]].replace("{id}", "42") + "\")");
+                line("                .then()");
+                line("                .statusCode(" + statuses[c] + ");");
+            }
+            line("    }");
+            tests++;
+            return start;
+        }
+
+        private void line(String s) throws IOException {
+            line++;
+            if (writer != null) {
+                writer.write(s);
+                writer.write('\n');
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                line("}");
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+
+    public int getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(int endpoints) {
+        positive("endpoints", endpoints);
+        this.endpoints = endpoints;
+    }
+
+    public int getTestCases() {
+        return testCases;
+    }
+
+    public void setTestCases(int testCases) {
+        if (testCases < 0) {
+            throw new IllegalArgumentException("Negative number of test cases: " + testCases);
+        }
+        this.testCases = testCases;
+    }
+
+    public int getTestsPerFile() {
+        return testsPerFile;
+    }
+
+    public void setTestsPerFile(int testsPerFile) {
+        positive("testsPerFile", testsPerFile);
+        this.testsPerFile = testsPerFile;
+    }
+
+    public int getMaxCallsPerTest() {
+        return maxCallsPerTest;
+    }
+
+    public void setMaxCallsPerTest(int maxCallsPerTest) {
+        positive("maxCallsPerTest", maxCallsPerTest);
+        this.maxCallsPerTest = maxCallsPerTest;
+    }
+
+    public double getFaultsPerTest() {
+        return faultsPerTest;
+    }
+
+    /**
+     * @param faultsPerTest average number of faults found by each test, eg, 0.2 for one every 5 tests
+     */
+    public void setFaultsPerTest(double faultsPerTest) {
+        if (!(faultsPerTest >= 0)) {
+            throw new IllegalArgumentException("Invalid number of faults per test: " + faultsPerTest);
+        }
+        this.faultsPerTest = faultsPerTest;
+    }
+
+    public int getDistinctFaultsPerEndpoint() {
+        return distinctFaultsPerEndpoint;
+    }
+
+    public void setDistinctFaultsPerEndpoint(int distinctFaultsPerEndpoint) {
+        positive("distinctFaultsPerEndpoint", distinctFaultsPerEndpoint);
+        this.distinctFaultsPerEndpoint = distinctFaultsPerEndpoint;
+    }
+
+    public int[] getStatusCodes() {
+        return statusCodes.clone();
+    }
+
+    /**
+     * @param statusCodes HTTP status codes returned by the calls in the tests, chosen uniformly at random
+     */
+    public void setStatusCodes(int... statusCodes) {
+        if (statusCodes.length == 0) {
+            throw new IllegalArgumentException("No status code");
+        }
+        for (int code : statusCodes) {
+            if (code < 100 || code > 599) {
+                throw new IllegalArgumentException("Invalid HTTP status code: " + code);
+            }
+        }
+        this.statusCodes = statusCodes.clone();
+    }
+
+    public int getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(int warnings) {
+        if (warnings < 0) {
+            throw new IllegalArgumentException("Negative number of warnings: " + warnings);
+        }
+        this.warnings = warnings;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public String getToolName() {
+        return toolName;
+    }
+
+    public void setToolName(String toolName) {
+        this.toolName = Objects.requireNonNull(toolName);
+    }
+
+    public String getCreationTime() {
+        return creationTime;
+    }
+
+    /**
+     * @param creationTime if {@code null} (default), the time of generation is used
+     */
+    public void setCreationTime(String creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    private static void positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Value of " + name + " must be positive: " + value);
+        }
+    }
+
+    /**
+     * Generate a report in the given directory, with arguments:
+     * dir [testCases [endpoints [faultsPerTest]]]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length > 4) {
+            System.err.println("Usage: ReportGenerator <dir> [testCases [endpoints [faultsPerTest]]]");
+            System.exit(1);
+        }
+        ReportGenerator generator = new ReportGenerator();
+        if (args.length > 1) {
+            generator.setTestCases(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            generator.setEndpoints(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.setFaultsPerTest(Double.parseDouble(args[3]));
+        }
+        Path report = generator.generate(Paths.get(args[0]));
+        System.out.println("Generated " + report);
+    }
+}
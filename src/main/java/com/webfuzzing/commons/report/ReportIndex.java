@@ -0,0 +1,380 @@
+package com.webfuzzing.commons.report;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the test cases of a {@link Report}, to find them without scanning the report:
+ * <ul>
+ *     <li>by test case id</li>
+ *     <li>by test file path, and by lines in the file, ie, the test cases whose [startLine, endLine] contains
+ *     a line, or overlaps a range of lines</li>
+ *     <li>by operation id, ie, tests finding faults in it or covering it (from {@code foundFaults} and
+ *     {@code coveredHttpStatus})</li>
+ *     <li>by fault category code, ie, tests finding faults of that category</li>
+ * </ul>
+ * Test cases are referred to by their position in the report, so the indexes are arrays of {@code int}.
+ * For each file, test cases are sorted by start line, and seen as an implicit balanced binary tree augmented
+ * with the maximum end line of each subtree. An interval query skips the subtrees that cannot reach the queried
+ * lines, so it takes O((k + 1) log n) for k results among n test cases, even with test cases spanning the whole
+ * file. The indexes are built in parallel, with fork/join.
+ * <p>
+ * Returned lists are unmodifiable views, and test cases are in the order of the report, unless stated
+ * otherwise. If several test cases have the same id, the first one is indexed by id.
+ * Faults and covered endpoints referring to test cases not in the report are ignored.
+ * <p>
+ * The report must not be modified after the index is built.
+ * This class is immutable.
+ */
+public final class ReportIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final TestCase[] testCases;
+
+    private final Map<String, Integer> byId;
+
+    private final Map<String, FileIndex> byFile;
+
+    private final Map<String, int[]> byOperation;
+
+    private final Map<Integer, int[]> byFaultCode;
+
+    private ReportIndex(TestCase[] testCases, Map<String, Integer> byId, Map<String, FileIndex> byFile,
+                        Map<String, int[]> byOperation, Map<Integer, int[]> byFaultCode) {
+        this.testCases = testCases;
+        this.byId = byId;
+        this.byFile = byFile;
+        this.byOperation = byOperation;
+        this.byFaultCode = byFaultCode;
+    }
+
+    /**
+     * Build the index of the given report, in the common fork/join pool
+     */
+    public static ReportIndex of(Report report) {
+        return of(report, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build the index of the given report, in the given fork/join pool
+     */
+    public static ReportIndex of(Report report, ForkJoinPool pool) {
+        TestCase[] testCases = report.getTestCases() == null ? new TestCase[0]
+                : report.getTestCases().stream().filter(Objects::nonNull).toArray(TestCase[]::new);
+        List<FoundFault> foundFaults = report.getFaults() == null || report.getFaults().getFoundFaults() == null
+                ? Collections.emptyList() : report.getFaults().getFoundFaults();
+        RESTReport rest = report.getProblemDetails() == null ? null : report.getProblemDetails().getRest();
+        List<CoveredEndpoint> covered = rest == null || rest.getCoveredHttpStatus() == null
+                ? Collections.emptyList() : rest.getCoveredHttpStatus();
+
+        Map<String, Integer> byId = new HashMap<>();
+        Map<String, FileIndex> byFile = new HashMap<>();
+        Map<String, int[]> byOperation = new HashMap<>();
+        Map<Integer, int[]> byFaultCode = new HashMap<>();
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                // files only need the test cases, so they are indexed while ids are
+                ForkJoinTask<?> files = ForkJoinTask.adapt(() -> byFile.putAll(indexFiles(testCases))).fork();
+                for (int i = 0; i < testCases.length; i++) {
+                    if (testCases[i].getId() != null) {
+                        byId.putIfAbsent(testCases[i].getId(), i);
+                    }
+                }
+                ForkJoinTask<?> operations = ForkJoinTask.adapt(
+                        () -> byOperation.putAll(indexOperations(byId, foundFaults, covered))).fork();
+                byFaultCode.putAll(indexFaultCodes(byId, foundFaults));
+                operations.join();
+                files.join();
+            }
+        });
+        return new ReportIndex(testCases, byId, byFile, byOperation, byFaultCode);
+    }
+
+    private static Map<String, FileIndex> indexFiles(TestCase[] testCases) {
+        Map<String, IntList> positions = new LinkedHashMap<>();
+        for (int i = 0; i < testCases.length; i++) {
+            String path = testCases[i].getFilePath();
+            if (path != null) {
+                positions.computeIfAbsent(path, k -> new IntList()).add(i);
+            }
+        }
+        // each file is sorted independently
+        List<FileIndex> indexes = ForkJoinTask.invokeAll(positions.values().stream()
+                .map(p -> ForkJoinTask.adapt(() -> new FileIndex(testCases, p.toArray())))
+                .collect(Collectors.toList()))
+                .stream().map(ForkJoinTask::join).collect(Collectors.toList());
+        Map<String, FileIndex> byFile = new HashMap<>();
+        int k = 0;
+        for (String path : positions.keySet()) {
+            byFile.put(path, indexes.get(k++));
+        }
+        return byFile;
+    }
+
+    private static Map<String, int[]> indexOperations(Map<String, Integer> byId, List<FoundFault> foundFaults,
+                                                      List<CoveredEndpoint> covered) {
+        Map<String, IntList> tests = new HashMap<>();
+        for (FoundFault ff : foundFaults) {
+            if (ff != null && ff.getOperationId() != null) {
+                add(tests, ff.getOperationId(), byId.get(ff.getTestCaseId()));
+            }
+        }
+        for (CoveredEndpoint ce : covered) {
+            if (ce != null && ce.getEndpointId() != null) {
+                add(tests, ce.getEndpointId(), byId.get(ce.getTestCaseId()));
+            }
+        }
+        return toSortedArrays(tests);
+    }
+
+    private static Map<Integer, int[]> indexFaultCodes(Map<String, Integer> byId, List<FoundFault> foundFaults) {
+        Map<Integer, IntList> tests = new HashMap<>();
+        for (FoundFault ff : foundFaults) {
+            if (ff == null || ff.getFaultCategories() == null) {
+                continue;
+            }
+            Integer position = byId.get(ff.getTestCaseId());
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                if (id != null && id.getCode() != null) {
+                    add(tests, id.getCode(), position);
+                }
+            }
+        }
+        return toSortedArrays(tests);
+    }
+
+    private static <K> void add(Map<K, IntList> tests, K key, Integer position) {
+        if (position != null) {
+            tests.computeIfAbsent(key, k -> new IntList()).add(position);
+        }
+    }
+
+    /**
+     * @return the positions of each key, sorted and without duplicates
+     */
+    private static <K> Map<K, int[]> toSortedArrays(Map<K, IntList> tests) {
+        Map<K, int[]> result = new HashMap<>(tests.size() * 2);
+        tests.forEach((k, list) -> {
+            int[] a = list.toArray();
+            Arrays.sort(a);
+            int n = 0;
+            for (int i = 0; i < a.length; i++) {
+                if (i == 0 || a[i] != a[i - 1]) {
+                    a[n++] = a[i];
+                }
+            }
+            result.put(k, n == a.length ? a : Arrays.copyOf(a, n));
+        });
+        return result;
+    }
+
+    /**
+     * @return number of non-null test cases in the report
+     */
+    public int size() {
+        return testCases.length;
+    }
+
+    /**
+     * @return {@code null} if not found
+     */
+    public TestCase getTestCase(String id) {
+        Integer i = byId.get(id);
+        return i == null ? null : testCases[i];
+    }
+
+    /**
+     * @return paths of all test files with at least a test case
+     */
+    public Set<String> getFilePaths() {
+        return Collections.unmodifiableSet(byFile.keySet());
+    }
+
+    /**
+     * @return all the test cases in the given file, sorted by start line (test cases without lines last)
+     */
+    public List<TestCase> getTestCasesInFile(String filePath) {
+        FileIndex f = byFile.get(filePath);
+        return f == null ? Collections.emptyList() : view(f.positions);
+    }
+
+    /**
+     * @return the test cases in the given file whose lines contain the given line, sorted by start line
+     */
+    public List<TestCase> getTestCasesAt(String filePath, int line) {
+        return getTestCasesOverlapping(filePath, line, line);
+    }
+
+    /**
+     * @return the test cases in the given file whose lines overlap [fromLine, toLine], sorted by start line
+     */
+    public List<TestCase> getTestCasesOverlapping(String filePath, int fromLine, int toLine) {
+        FileIndex f = byFile.get(filePath);
+        if (f == null || fromLine > toLine) {
+            return Collections.emptyList();
+        }
+        return view(f.overlapping(fromLine, toLine));
+    }
+
+    /**
+     * @return the test cases finding faults in, or covering, the given operation
+     */
+    public List<TestCase> getTestCasesForOperation(String operationId) {
+        return view(byOperation.getOrDefault(operationId, NONE));
+    }
+
+    /**
+     * @return the test cases finding faults with the given fault category code
+     */
+    public List<TestCase> getTestCasesForFaultCode(int code) {
+        return view(byFaultCode.getOrDefault(code, NONE));
+    }
+
+    private List<TestCase> view(int[] positions) {
+        if (positions.length == 0) {
+            return Collections.emptyList();
+        }
+        return new AbstractList<TestCase>() {
+            @Override
+            public TestCase get(int index) {
+                return testCases[positions[index]];
+            }
+
+            @Override
+            public int size() {
+                return positions.length;
+            }
+        };
+    }
+
+    /**
+     * Test cases of a file, sorted by start line, as an implicit interval tree: a sorted array of start lines,
+     * with the maximum end line of each prefix
+     */
+    private static final class FileIndex {
+
+        /**
+         * Positions of the test cases in the report, sorted by start line.
+         * Those without lines are last, and not in the interval arrays.
+         */
+        final int[] positions;
+
+        final int[] starts;
+
+        final int[] ends;
+
+        /**
+         * In the implicit binary tree where the root of the range [lo, hi) is at (lo + hi) / 2,
+         * maxEnds[i] is the maximum end of the subtree rooted at i
+         */
+        final int[] maxEnds;
+
+        FileIndex(TestCase[] testCases, int[] inFile) {
+            // start line in the high bits, so sorting the keys sorts by start line, and then by order in the report
+            long[] keys = new long[inFile.length];
+            int withLines = 0;
+            positions = new int[inFile.length];
+            int last = inFile.length;
+            for (int i = inFile.length - 1; i >= 0; i--) {
+                Integer start = testCases[inFile[i]].getStartLine();
+                if (start != null) {
+                    keys[withLines++] = ((long) start << 32) | i;
+                } else {
+                    positions[--last] = inFile[i];
+                }
+            }
+            Arrays.sort(keys, 0, withLines);
+            starts = new int[withLines];
+            ends = new int[withLines];
+            maxEnds = new int[withLines];
+            for (int i = 0; i < withLines; i++) {
+                int position = inFile[(int) keys[i]];
+                TestCase tc = testCases[position];
+                positions[i] = position;
+                starts[i] = tc.getStartLine();
+                ends[i] = end(tc);
+            }
+            buildMaxEnds(0, withLines);
+        }
+
+        private int buildMaxEnds(int lo, int hi) {
+            if (lo >= hi) {
+                return Integer.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            int max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        private static int end(TestCase tc) {
+            return tc.getEndLine() == null ? tc.getStartLine() : Math.max(tc.getStartLine(), tc.getEndLine());
+        }
+
+        /**
+         * @return positions of the test cases overlapping [from, to], sorted by start line
+         */
+        int[] overlapping(int from, int to) {
+            // first test case starting after "to"
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= to) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            IntList found = new IntList();
+            collect(0, starts.length, lo, from, found);
+            return found.toArray();
+        }
+
+        /**
+         * In-order visit of the subtree of [lo, hi), adding the test cases before {@code limit} ending at or
+         * after {@code from}
+         */
+        private void collect(int lo, int hi, int limit, int from, IntList found) {
+            if (lo >= hi || lo >= limit) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < from) {
+                return;
+            }
+            collect(lo, mid, limit, from, found);
+            if (mid < limit && ends[mid] >= from) {
+                found.add(positions[mid]);
+            }
+            collect(mid + 1, hi, limit, from, found);
+        }
+    }
+
+    /**
+     * Growable array of {@code int}, without boxing
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.JsonStreamReader;
+import com.webfuzzing.commons.json.JsonStreamWriter;
+import com.webfuzzing.commons.json.JsonToken;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * JSON (de)serialization of the DTOs generated from report.yaml, without any reflection.
+ * <p>
+ * Properties are written in the same order in which they are declared in the schema, and so in the DTOs.
+ * Null values are skipped, and entries in "additionalProperties" are written as properties of their
+ * containing object.
+ * This is the same as using Jackson with {@code JsonInclude.Include.NON_NULL}, and with
+ * {@code getAdditionalProperties()} treated as {@code @JsonAnyGetter}.
+ */
+class ReportJson {
+
+    private ReportJson() {
+    }
+
+    /**
+     * Write the content of an array, which might have been produced somewhere else, e.g., in a temporary file
+     */
+    @FunctionalInterface
+    interface ArrayContent {
+        void write(JsonStreamWriter json) throws IOException;
+    }
+
+    /**
+     * Write a whole report.
+     * For the 3 potentially large arrays, the given content is used instead of what is in the report object.
+     * A {@code null} content means the array is not written at all.
+     */
+    static void writeReport(JsonStreamWriter json,
+                            Report report,
+                            ArrayContent testCases,
+                            ArrayContent foundFaults,
+                            ArrayContent coveredHttpStatus) throws IOException {
+        json.beginObject();
+        field(json, "schemaVersion", report.getSchemaVersion());
+        field(json, "toolName", report.getToolName());
+        field(json, "toolVersion", report.getToolVersion());
+        field(json, "creationTime", report.getCreationTime());
+
+        Faults faults = report.getFaults();
+        if (faults != null) {
+            json.name("faults").beginObject();
+            field(json, "totalNumber", faults.getTotalNumber());
+            content(json, "foundFaults", foundFaults);
+            additionalProperties(json, faults.getAdditionalProperties());
+            json.endObject();
+        }
+
+        ProblemDetails problemDetails = report.getProblemDetails();
+        if (problemDetails != null) {
+            json.name("problemDetails").beginObject();
+            RESTReport rest = problemDetails.getRest();
+            if (rest != null) {
+                json.name("rest").beginObject();
+                field(json, "outputHttpCalls", rest.getOutputHttpCalls());
+                field(json, "evaluatedHttpCalls", rest.getEvaluatedHttpCalls());
+                strings(json, "endpointIds", rest.getEndpointIds());
+                content(json, "coveredHttpStatus", coveredHttpStatus);
+                additionalProperties(json, rest.getAdditionalProperties());
+                json.endObject();
+            }
+            additionalProperties(json, problemDetails.getAdditionalProperties());
+            json.endObject();
+        }
+
+        field(json, "totalTests", report.getTotalTests());
+        strings(json, "testFilePaths", report.getTestFilePaths());
+        content(json, "testCases", testCases);
+        field(json, "executionTimeInSeconds", report.getExecutionTimeInSeconds());
+
+        if (report.getExtra() != null) {
+            json.name("extra").beginArray();
+            for (Coverage c : report.getExtra()) {
+                writeCoverage(json, c);
+            }
+            json.endArray();
+        }
+        if (report.getWarnings() != null) {
+            json.name("warnings").beginArray();
+            for (Warning w : report.getWarnings()) {
+                writeWarning(json, w);
+            }
+            json.endArray();
+        }
+        additionalProperties(json, report.getAdditionalProperties());
+        json.endObject();
+    }
+
+    /**
+     * Write a whole report, taking all data from the given object
+     */
+    static void writeReport(JsonStreamWriter json, Report report) throws IOException {
+
+        Faults faults = report.getFaults();
+        RESTReport rest = report.getProblemDetails() == null ? null : report.getProblemDetails().getRest();
+
+        writeReport(json, report,
+                report.getTestCases() == null ? null : j -> {
+                    j.beginArray();
+                    for (TestCase tc : report.getTestCases()) {
+                        writeTestCase(j, tc);
+                    }
+                    j.endArray();
+                },
+                faults == null || faults.getFoundFaults() == null ? null : j -> {
+                    j.beginArray();
+                    for (FoundFault f : faults.getFoundFaults()) {
+                        writeFoundFault(j, f);
+                    }
+                    j.endArray();
+                },
+                rest == null || rest.getCoveredHttpStatus() == null ? null : j -> {
+                    j.beginArray();
+                    for (CoveredEndpoint c : rest.getCoveredHttpStatus()) {
+                        writeCoveredEndpoint(j, c);
+                    }
+                    j.endArray();
+                });
+    }
+
+    static void writeTestCase(JsonStreamWriter json, TestCase tc) throws IOException {
+        if (tc == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "id", tc.getId());
+        field(json, "filePath", tc.getFilePath());
+        field(json, "name", tc.getName());
+        field(json, "startLine", tc.getStartLine());
+        field(json, "endLine", tc.getEndLine());
+        strings(json, "namedExamples", tc.getNamedExamples());
+        additionalProperties(json, tc.getAdditionalProperties());
+        json.endObject();
+    }
+
+    static void writeFoundFault(JsonStreamWriter json, FoundFault ff) throws IOException {
+        if (ff == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "operationId", ff.getOperationId());
+        field(json, "testCaseId", ff.getTestCaseId());
+        if (ff.getFaultCategories() != null) {
+            json.name("faultCategories").beginArray();
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                writeFaultCategoryId(json, id);
+            }
+            json.endArray();
+        }
+        additionalProperties(json, ff.getAdditionalProperties());
+        json.endObject();
+    }
+
+    static void writeFaultCategoryId(JsonStreamWriter json, FaultCategoryId id) throws IOException {
+        if (id == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "code", id.getCode());
+        field(json, "context", id.getContext());
+        additionalProperties(json, id.getAdditionalProperties());
+        json.endObject();
+    }
+
+    static void writeCoveredEndpoint(JsonStreamWriter json, CoveredEndpoint ce) throws IOException {
+        if (ce == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "endpointId", ce.getEndpointId());
+        field(json, "testCaseId", ce.getTestCaseId());
+        if (ce.getHttpStatus() != null) {
+            json.name("httpStatus").beginArray();
+            for (Integer status : ce.getHttpStatus()) {
+                json.value(status);
+            }
+            json.endArray();
+        }
+        additionalProperties(json, ce.getAdditionalProperties());
+        json.endObject();
+    }
+
+    static void writeWarning(JsonStreamWriter json, Warning w) throws IOException {
+        if (w == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "message", w.getMessage());
+        field(json, "category", w.getCategory());
+        field(json, "displayPriority", w.getDisplayPriority());
+        additionalProperties(json, w.getAdditionalProperties());
+        json.endObject();
+    }
+
+    static void writeCoverage(JsonStreamWriter json, Coverage c) throws IOException {
+        if (c == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "toolName", c.getToolName());
+        if (c.getCriteria() != null) {
+            json.name("criteria").beginArray();
+            for (CoverageCriterion cc : c.getCriteria()) {
+                writeCoverageCriterion(json, cc);
+            }
+            json.endArray();
+        }
+        additionalProperties(json, c.getAdditionalProperties());
+        json.endObject();
+    }
+
+    static void writeCoverageCriterion(JsonStreamWriter json, CoverageCriterion cc) throws IOException {
+        if (cc == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        field(json, "name", cc.getName());
+        field(json, "covered", cc.getCovered());
+        field(json, "total", cc.getTotal());
+        additionalProperties(json, cc.getAdditionalProperties());
+        json.endObject();
+    }
+
+    /*
+        Reading.
+        Unknown properties are added to "additionalProperties".
+        Each method can be called when the next value is null, in which case null is returned.
+     */
+
+    static TestCase readTestCase(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        TestCase tc = new TestCase();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "id":
+                    tc.setId(json.nextNullableString());
+                    break;
+                case "filePath":
+                    tc.setFilePath(json.nextNullableString());
+                    break;
+                case "name":
+                    tc.setName(json.nextNullableString());
+                    break;
+                case "startLine":
+                    tc.setStartLine(json.nextNullableInt());
+                    break;
+                case "endLine":
+                    tc.setEndLine(json.nextNullableInt());
+                    break;
+                case "namedExamples":
+                    tc.setNamedExamples(readStrings(json, new ArrayList<>()));
+                    break;
+                default:
+                    tc.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return tc;
+    }
+
+    static FoundFault readFoundFault(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        FoundFault ff = new FoundFault();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "operationId":
+                    ff.setOperationId(json.nextNullableString());
+                    break;
+                case "testCaseId":
+                    ff.setTestCaseId(json.nextNullableString());
+                    break;
+                case "faultCategories":
+                    if (nullValue(json)) {
+                        ff.setFaultCategories(null);
+                    } else {
+                        Set<FaultCategoryId> ids = new LinkedHashSet<>();
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            ids.add(readFaultCategoryId(json));
+                        }
+                        json.endArray();
+                        ff.setFaultCategories(ids);
+                    }
+                    break;
+                default:
+                    ff.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return ff;
+    }
+
+    static FaultCategoryId readFaultCategoryId(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        FaultCategoryId id = new FaultCategoryId();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "code":
+                    id.setCode(json.nextNullableInt());
+                    break;
+                case "context":
+                    id.setContext(json.nextNullableString());
+                    break;
+                default:
+                    id.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return id;
+    }
+
+    static CoveredEndpoint readCoveredEndpoint(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        CoveredEndpoint ce = new CoveredEndpoint();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "endpointId":
+                    ce.setEndpointId(json.nextNullableString());
+                    break;
+                case "testCaseId":
+                    ce.setTestCaseId(json.nextNullableString());
+                    break;
+                case "httpStatus":
+                    if (nullValue(json)) {
+                        ce.setHttpStatus(null);
+                    } else {
+                        Set<Integer> statuses = new LinkedHashSet<>();
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            statuses.add(json.nextNullableInt());
+                        }
+                        json.endArray();
+                        ce.setHttpStatus(statuses);
+                    }
+                    break;
+                default:
+                    ce.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return ce;
+    }
+
+    static Warning readWarning(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        Warning w = new Warning();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "message":
+                    w.setMessage(json.nextNullableString());
+                    break;
+                case "category":
+                    w.setCategory(json.nextNullableString());
+                    break;
+                case "displayPriority":
+                    w.setDisplayPriority(json.nextNullableInt());
+                    break;
+                default:
+                    w.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return w;
+    }
+
+    static Coverage readCoverage(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        Coverage c = new Coverage();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "toolName":
+                    c.setToolName(json.nextNullableString());
+                    break;
+                case "criteria":
+                    if (nullValue(json)) {
+                        c.setCriteria(null);
+                    } else {
+                        List<CoverageCriterion> criteria = new ArrayList<>();
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            criteria.add(readCoverageCriterion(json));
+                        }
+                        json.endArray();
+                        c.setCriteria(criteria);
+                    }
+                    break;
+                default:
+                    c.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return c;
+    }
+
+    static CoverageCriterion readCoverageCriterion(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        CoverageCriterion cc = new CoverageCriterion();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "name":
+                    cc.setName(json.nextNullableString());
+                    break;
+                case "covered":
+                    cc.setCovered(json.nextNullableInt());
+                    break;
+                case "total":
+                    cc.setTotal(json.nextNullableInt());
+                    break;
+                default:
+                    cc.setAdditionalProperty(name, json.nextAny());
+            }
+        }
+        json.endObject();
+        return cc;
+    }
+
+    static List<Coverage> readCoverages(JsonStreamReader json) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        List<Coverage> list = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            list.add(readCoverage(json));
+        }
+        json.endArray();
+        return list;
+    }
+
+    /**
+     * Read an array of strings into the given collection
+     *
+     * @return the given collection, or null if the value is null
+     */
+    static <T extends Collection<String>> T readStrings(JsonStreamReader json, T target) throws IOException {
+        if (nullValue(json)) {
+            return null;
+        }
+        json.beginArray();
+        while (json.hasNext()) {
+            target.add(json.nextNullableString());
+        }
+        json.endArray();
+        return target;
+    }
+
+    /**
+     * If next value is null, consume it
+     */
+    static boolean nullValue(JsonStreamReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static void content(JsonStreamWriter json, String name, ArrayContent content) throws IOException {
+        if (content != null) {
+            json.name(name);
+            content.write(json);
+        }
+    }
+
+    private static void field(JsonStreamWriter json, String name, String value) throws IOException {
+        if (value != null) {
+            json.name(name).value(value);
+        }
+    }
+
+    private static void field(JsonStreamWriter json, String name, Integer value) throws IOException {
+        if (value != null) {
+            json.name(name).value(value.longValue());
+        }
+    }
+
+    private static void strings(JsonStreamWriter json, String name, Collection<String> values) throws IOException {
+        if (values != null) {
+            json.name(name).beginArray();
+            for (String s : values) {
+                json.value(s);
+            }
+            json.endArray();
+        }
+    }
+
+    private static void additionalProperties(JsonStreamWriter json, Map<String, Object> properties) throws IOException {
+        if (properties == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> e : properties.entrySet()) {
+            if (e.getValue() != null) {
+                json.name(e.getKey()).anyValue(e.getValue());
+            }
+        }
+    }
+}
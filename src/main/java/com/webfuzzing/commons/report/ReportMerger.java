@@ -0,0 +1,550 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.StringDictionary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Merge the reports of several runs of fuzzers on the same API (eg, shards run in parallel) into a single report.
+ * <p>
+ * The merged report contains:
+ * <ul>
+ *     <li>the test cases of all reports, without duplicates. {@code totalTests} is their number.
+ *     As found faults and covered endpoints refer to test cases by id, test cases with the same id in
+ *     different reports must be equal, otherwise the reports cannot be merged
+ *     (eg, shards numbering their tests in the same way, in different files).</li>
+ *     <li>the found faults of all reports, deduplicated by (operation id, fault code, fault context).
+ *     The first report (in the given order) detecting a fault is the one that keeps it.
+ *     {@code faults.totalNumber} is recomputed as the number of distinct (code, context) pairs.</li>
+ *     <li>the union of all endpoint ids and test file paths.</li>
+ *     <li>one covered endpoint entry per (endpoint id, test case id), with the union of all the covered HTTP statuses.</li>
+ *     <li>the sum of {@code outputHttpCalls} and of {@code evaluatedHttpCalls}.</li>
+ *     <li>the maximum {@code executionTimeInSeconds}, as shards are assumed to run in parallel.</li>
+ *     <li>the distinct coverage data and warnings of all reports.</li>
+ *     <li>for all other values, including the "additionalProperties", the first non-null one.</li>
+ * </ul>
+ * Entries are in the same order as in the given reports.
+ * <p>
+ * Entries are hash-partitioned, and each partition is merged independently of the others, in parallel.
+ * The computation is linear in the total number of entries, regardless of the number of reports.
+ * <p>
+ * The given reports are not modified, but the merged report may share entry objects with them.
+ */
+public class ReportMerger {
+
+    private final ExecutorService executor;
+
+    private final int partitionBits;
+
+    /**
+     * Merge using the common fork-join pool, with a number of partitions based on its parallelism
+     */
+    public ReportMerger() {
+        this(ForkJoinPool.commonPool(), 4 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param executor   where to run the merging tasks
+     * @param partitions number of hash partitions, rounded up to a power of 2
+     */
+    public ReportMerger(ExecutorService executor, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be positive: " + partitions);
+        }
+        this.executor = Objects.requireNonNull(executor);
+        int bits = 32 - Integer.numberOfLeadingZeros(partitions - 1);
+        this.partitionBits = Math.min(bits, 16);
+    }
+
+    /**
+     * @throws IllegalArgumentException if different test cases have the same id
+     */
+    public Report merge(Report... reports) {
+        return merge(Arrays.asList(reports));
+    }
+
+    /**
+     * @throws IllegalArgumentException if different test cases have the same id
+     */
+    public Report merge(List<Report> reports) {
+        Report merged = mergeHeaders(reports);
+
+        List<List<TestCase>> testCases = new ArrayList<>(reports.size());
+        List<List<FoundFault>> foundFaults = new ArrayList<>(reports.size());
+        List<List<CoveredEndpoint>> coveredEndpoints = new ArrayList<>(reports.size());
+        for (Report r : reports) {
+            testCases.add(r.getTestCases());
+            foundFaults.add(r.getFaults() == null ? null : r.getFaults().getFoundFaults());
+            RESTReport rest = r.getProblemDetails() == null ? null : r.getProblemDetails().getRest();
+            coveredEndpoints.add(rest == null ? null : rest.getCoveredHttpStatus());
+        }
+
+        List<TestCase> mergedTestCases = mergeEntries(testCases, TestCaseKey::new, ReportMerger::sameTestCase);
+        merged.setTestCases(mergedTestCases);
+        merged.setTotalTests(mergedTestCases.size());
+
+        List<FoundFault> mergedFaults = mergeFaults(foundFaults);
+        merged.getFaults().setFoundFaults(mergedFaults);
+        merged.getFaults().setTotalNumber(FaultIndex.of(mergedFaults).getTotalNumber());
+
+        if (merged.getProblemDetails() != null && merged.getProblemDetails().getRest() != null) {
+            merged.getProblemDetails().getRest().setCoveredHttpStatus(
+                    mergeEntries(coveredEndpoints, CoveredEndpointKey::new, ReportMerger::mergeStatuses));
+        }
+
+        return merged;
+    }
+
+    /**
+     * Read and merge the given reports.
+     * The streams are read in parallel, and closed.
+     *
+     * @throws IllegalArgumentException if different test cases have the same id
+     */
+    public Report mergeStreams(List<? extends InputStream> streams) throws IOException {
+        List<Callable<Report>> tasks = new ArrayList<>(streams.size());
+        for (InputStream in : streams) {
+            tasks.add(() -> {
+                try {
+                    // the whole report is kept, so sharing its repeated strings saves memory
+                    return ReportReader.readReport(in, new StringDictionary());
+                } catch (IOException e) {
+                    // checked exceptions would be wrapped by some executors, eg, ForkJoinPool
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        List<Report> reports;
+        try {
+            reports = runAll(tasks);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return merge(reports);
+    }
+
+    private static Report mergeHeaders(List<Report> reports) {
+
+        Report merged = new Report();
+        merged.setFaults(new Faults());
+        merged.setTestFilePaths(new LinkedHashSet<>());
+        Set<Coverage> extra = new LinkedHashSet<>();
+        Set<Warning> warnings = new LinkedHashSet<>();
+
+        for (Report r : reports) {
+            if (merged.getSchemaVersion() == null) {
+                merged.setSchemaVersion(r.getSchemaVersion());
+            }
+            if (merged.getToolName() == null) {
+                merged.setToolName(r.getToolName());
+            }
+            if (merged.getToolVersion() == null) {
+                merged.setToolVersion(r.getToolVersion());
+            }
+            if (merged.getCreationTime() == null) {
+                merged.setCreationTime(r.getCreationTime());
+            }
+            if (r.getExecutionTimeInSeconds() != null && (merged.getExecutionTimeInSeconds() == null
+                    || r.getExecutionTimeInSeconds() > merged.getExecutionTimeInSeconds())) {
+                merged.setExecutionTimeInSeconds(r.getExecutionTimeInSeconds());
+            }
+            if (r.getTestFilePaths() != null) {
+                merged.getTestFilePaths().addAll(r.getTestFilePaths());
+            }
+            if (r.getExtra() != null) {
+                extra.addAll(r.getExtra());
+            }
+            if (r.getWarnings() != null) {
+                warnings.addAll(r.getWarnings());
+            }
+            r.getAdditionalProperties().forEach(merged.getAdditionalProperties()::putIfAbsent);
+
+            if (r.getFaults() != null) {
+                r.getFaults().getAdditionalProperties().forEach(merged.getFaults().getAdditionalProperties()::putIfAbsent);
+            }
+
+            ProblemDetails pd = r.getProblemDetails();
+            if (pd == null) {
+                continue;
+            }
+            if (merged.getProblemDetails() == null) {
+                merged.setProblemDetails(new ProblemDetails());
+            }
+            pd.getAdditionalProperties().forEach(merged.getProblemDetails().getAdditionalProperties()::putIfAbsent);
+
+            RESTReport rest = pd.getRest();
+            if (rest == null) {
+                continue;
+            }
+            RESTReport mergedRest = merged.getProblemDetails().getRest();
+            if (mergedRest == null) {
+                mergedRest = new RESTReport();
+                mergedRest.setEndpointIds(new LinkedHashSet<>());
+                merged.getProblemDetails().setRest(mergedRest);
+            }
+            mergedRest.setOutputHttpCalls(sum(mergedRest.getOutputHttpCalls(), rest.getOutputHttpCalls()));
+            mergedRest.setEvaluatedHttpCalls(sum(mergedRest.getEvaluatedHttpCalls(), rest.getEvaluatedHttpCalls()));
+            if (rest.getEndpointIds() != null) {
+                mergedRest.getEndpointIds().addAll(rest.getEndpointIds());
+            }
+            rest.getAdditionalProperties().forEach(mergedRest.getAdditionalProperties()::putIfAbsent);
+        }
+
+        merged.setExtra(new ArrayList<>(extra));
+        merged.setWarnings(new ArrayList<>(warnings));
+        return merged;
+    }
+
+    private static Integer sum(Integer a, Integer b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a + b;
+    }
+
+    private static TestCase sameTestCase(TestCase kept, TestCase other) {
+        if (!kept.equals(other)) {
+            throw new IllegalArgumentException("Cannot merge different test cases with same id '" + kept.getId()
+                    + "', in " + kept.getFilePath() + " and " + other.getFilePath());
+        }
+        return kept;
+    }
+
+    private static CoveredEndpoint mergeStatuses(CoveredEndpoint kept, CoveredEndpoint other) {
+        if (other.getHttpStatus() == null || other.getHttpStatus().isEmpty()) {
+            return kept;
+        }
+        if (kept.getHttpStatus() != null && kept.getHttpStatus().containsAll(other.getHttpStatus())) {
+            return kept;
+        }
+        CoveredEndpoint copy = new CoveredEndpoint();
+        copy.setEndpointId(kept.getEndpointId());
+        copy.setTestCaseId(kept.getTestCaseId());
+        Set<Integer> statuses = new LinkedHashSet<>();
+        if (kept.getHttpStatus() != null) {
+            statuses.addAll(kept.getHttpStatus());
+        }
+        statuses.addAll(other.getHttpStatus());
+        copy.setHttpStatus(statuses);
+        copy.getAdditionalProperties().putAll(kept.getAdditionalProperties());
+        return copy;
+    }
+
+    /**
+     * Deduplicate entries by key, keeping the first occurrence, possibly combined with the following ones.
+     *
+     * @param combine how to combine an entry with a duplicate of it. If null, duplicates are discarded.
+     */
+    private <E> List<E> mergeEntries(List<List<E>> shards, Function<E, Object> key, BinaryOperator<E> combine) {
+
+        List<Unit<E>[]> units = partition(shards, (entry, out) -> out.accept(key.apply(entry), entry), combine);
+
+        List<E> merged = new ArrayList<>();
+        for (Unit<E>[] shard : units) {
+            for (Unit<E> u : shard) {
+                if (u.kept) {
+                    merged.add(u.merged);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Faults are deduplicated by single categories, and not by whole found fault entries.
+     * A found fault is kept with only its categories not detected before, if any.
+     */
+    private List<FoundFault> mergeFaults(List<List<FoundFault>> shards) {
+
+        List<Unit<FaultCategoryId>[]> units = partition(shards, (ff, out) -> {
+            if (ff.getFaultCategories() == null) {
+                return;
+            }
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                if (id != null) {
+                    out.accept(new FaultKey(ff.getOperationId(), id), id);
+                }
+            }
+        }, null);
+
+        List<FoundFault> merged = new ArrayList<>();
+        for (int s = 0; s < shards.size(); s++) {
+            List<FoundFault> shard = shards.get(s);
+            if (shard == null) {
+                continue;
+            }
+            Unit<FaultCategoryId>[] shardUnits = units.get(s);
+            int i = 0;
+            for (FoundFault ff : shard) {
+                if (ff == null || ff.getFaultCategories() == null) {
+                    continue;
+                }
+                int n = 0;
+                int keptCount = 0;
+                for (FaultCategoryId id : ff.getFaultCategories()) {
+                    if (id != null) {
+                        n++;
+                        if (shardUnits[i + n - 1].kept) {
+                            keptCount++;
+                        }
+                    }
+                }
+                if (keptCount == ff.getFaultCategories().size()) {
+                    merged.add(ff);
+                } else if (keptCount > 0) {
+                    FoundFault copy = new FoundFault();
+                    copy.setOperationId(ff.getOperationId());
+                    copy.setTestCaseId(ff.getTestCaseId());
+                    Set<FaultCategoryId> ids = new LinkedHashSet<>();
+                    for (int k = i; k < i + n; k++) {
+                        if (shardUnits[k].kept) {
+                            ids.add(shardUnits[k].entry);
+                        }
+                    }
+                    copy.setFaultCategories(ids);
+                    copy.getAdditionalProperties().putAll(ff.getAdditionalProperties());
+                    merged.add(copy);
+                }
+                i += n;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Split the units of each shard into hash partitions (in parallel, one task per shard),
+     * and then find the first occurrence of each key (in parallel, one task per partition).
+     * As a partition contains all the units with a given key, no synchronization is needed between partitions.
+     * Within a partition, units are visited in the same order as in the shards, so results are deterministic.
+     *
+     * @param units   how to extract the (key, value) units from an entry. Null entries are skipped.
+     * @param combine how to combine the value of the first occurrence of a key with a following one, if at all
+     * @return for each shard, its units in order, with their {@code kept} flag set
+     */
+    private <E, V> List<Unit<V>[]> partition(List<List<E>> shards,
+                                             BiConsumer<E, BiConsumer<Object, V>> units,
+                                             BinaryOperator<V> combine) {
+
+        int partitions = 1 << partitionBits;
+        int n = shards.size();
+        // each task sets only its own element
+        List<Unit<V>[]> ordered = new ArrayList<>(Collections.nCopies(n, null));
+        List<List<Unit<V>[]>> buckets = new ArrayList<>(Collections.nCopies(n, null));
+
+        List<Callable<Void>> split = new ArrayList<>(n);
+        for (int s = 0; s < n; s++) {
+            int shard = s;
+            split.add(() -> {
+                List<E> entries = shards.get(shard);
+                List<Unit<V>> list = new ArrayList<>(entries == null ? 0 : entries.size());
+                if (entries != null) {
+                    for (E e : entries) {
+                        if (e != null) {
+                            units.accept(e, (k, v) -> list.add(new Unit<>(k, v)));
+                        }
+                    }
+                }
+                int[] sizes = new int[partitions];
+                for (Unit<V> u : list) {
+                    sizes[partitionOf(u.key)]++;
+                }
+                List<Unit<V>[]> b = new ArrayList<>(partitions);
+                for (int p = 0; p < partitions; p++) {
+                    b.add(units(sizes[p]));
+                    sizes[p] = 0;
+                }
+                for (Unit<V> u : list) {
+                    int p = partitionOf(u.key);
+                    b.get(p)[sizes[p]++] = u;
+                }
+                ordered.set(shard, list.toArray(units(list.size())));
+                buckets.set(shard, b);
+                return null;
+            });
+        }
+        runAll(split);
+
+        List<Callable<Void>> dedup = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            int partition = p;
+            dedup.add(() -> {
+                Map<Object, Unit<V>> first = new HashMap<>();
+                for (int s = 0; s < n; s++) {
+                    for (Unit<V> u : buckets.get(s).get(partition)) {
+                        Unit<V> w = first.putIfAbsent(u.key, u);
+                        if (w == null) {
+                            u.kept = true;
+                        } else if (combine != null) {
+                            w.merged = combine.apply(w.merged, u.entry);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        runAll(dedup);
+
+        return ordered;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Unit<V>[] units(int length) {
+        // generic arrays cannot be created directly
+        return (Unit<V>[]) new Unit<?>[length];
+    }
+
+    private int partitionOf(Object key) {
+        if (partitionBits == 0) {
+            return 0;
+        }
+        // use high bits of a mixed hash, as low bits are used by the hash maps within partitions
+        return (key.hashCode() * 0x9E3779B9) >>> (32 - partitionBits);
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> f : executor.invokeAll(tasks)) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging reports", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+
+
+    private static final class Unit<V> {
+
+        final Object key;
+
+        final V entry;
+
+        /**
+         * Whether this is the first occurrence of its key
+         */
+        boolean kept;
+
+        /**
+         * If kept, the entry combined with all the following ones with same key
+         */
+        V merged;
+
+        Unit(Object key, V entry) {
+            this.key = key;
+            this.entry = entry;
+            this.merged = entry;
+        }
+    }
+
+    private static final class TestCaseKey {
+
+        private final String id;
+
+        private final TestCase testCase;
+
+        TestCaseKey(TestCase testCase) {
+            this.id = testCase.getId();
+            this.testCase = testCase;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TestCaseKey)) {
+                return false;
+            }
+            TestCaseKey other = (TestCaseKey) o;
+            if (id == null || other.id == null) {
+                // test cases without id are never considered duplicates
+                return testCase == other.testCase;
+            }
+            return id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id == null ? System.identityHashCode(testCase) : id.hashCode();
+        }
+    }
+
+    private static final class CoveredEndpointKey {
+
+        private final String endpointId;
+
+        private final String testCaseId;
+
+        CoveredEndpointKey(CoveredEndpoint ce) {
+            this.endpointId = ce.getEndpointId();
+            this.testCaseId = ce.getTestCaseId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CoveredEndpointKey)) {
+                return false;
+            }
+            CoveredEndpointKey other = (CoveredEndpointKey) o;
+            return Objects.equals(endpointId, other.endpointId) && Objects.equals(testCaseId, other.testCaseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(endpointId) + Objects.hashCode(testCaseId);
+        }
+    }
+
+    private static final class FaultKey {
+
+        private final String operationId;
+
+        private final Integer code;
+
+        private final String context;
+
+        FaultKey(String operationId, FaultCategoryId id) {
+            this.operationId = operationId;
+            this.code = id.getCode();
+            this.context = id.getContext();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FaultKey)) {
+                return false;
+            }
+            FaultKey other = (FaultKey) o;
+            return Objects.equals(code, other.code)
+                    && Objects.equals(context, other.context)
+                    && Objects.equals(operationId, other.operationId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(operationId) + Objects.hashCode(code)) + Objects.hashCode(context);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.JsonStreamReader;
+import com.webfuzzing.commons.json.StringDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read a WFC report in JSON incrementally, one entry at a time, without loading the whole document in memory.
+ * Entries are the elements of the potentially large arrays in the report, ie, test cases, found faults,
+ * covered endpoints and warnings.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * try (ReportReader reader = new ReportReader(in)) {
+ *     while (reader.next()) {
+ *         switch (reader.getEntryType()) {
+ *             case TEST_CASE: handle(reader.getTestCase()); break;
+ *             ...
+ *         }
+ *     }
+ *     Report header = reader.getHeader();
+ * }
+ * </pre>
+ * All the other data (eg, tool name and endpoint ids) is collected in a "header" {@link Report} object,
+ * whose lists of entries are left empty.
+ * As JSON properties can be in any order, the header is complete only once {@link #next()} returns {@code false}.
+ * <p>
+ * Entries of types not of interest are skipped without being bound to objects, nor having their strings decoded.
+ * Memory usage is constant, apart from the header data, and the size of a single entry.
+ * <p>
+ * Optionally, all strings can be read through a {@link StringDictionary}, so that repeated values (eg, operation
+ * ids and fault contexts) are shared by all the entries, instead of each entry having its own copies.
+ * This reduces the memory needed to keep the read entries by a large factor.
+ * The dictionary can be shared among readers, eg, to read several reports on the same API.
+ * As a dictionary keeps all the distinct strings read (including unique ones, like test case ids), it is not used
+ * by default, to keep memory constant when entries are not kept.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ReportReader implements Closeable {
+
+    public enum EntryType {
+        TEST_CASE,
+        FOUND_FAULT,
+        COVERED_ENDPOINT,
+        WARNING
+    }
+
+    /**
+     * Objects in the report which contain arrays of entries
+     */
+    private enum Level {
+        ROOT,
+        FAULTS,
+        PROBLEM_DETAILS,
+        REST
+    }
+
+    private final JsonStreamReader json;
+
+    private final Set<EntryType> types;
+
+    private final Report header = new Report();
+
+    private final Deque<Level> levels = new ArrayDeque<>();
+
+    /**
+     * Type of the array of entries currently being read, if any
+     */
+    private EntryType array;
+
+    private EntryType entryType;
+
+    private Object entry;
+
+    private boolean started;
+
+    private boolean finished;
+
+    /**
+     * Read all types of entries
+     */
+    public ReportReader(InputStream in) {
+        this(in, EnumSet.allOf(EntryType.class));
+    }
+
+    /**
+     * @param types the types of entries to return from {@link #next()}. Others are skipped.
+     *              If empty, only the header is read.
+     */
+    public ReportReader(InputStream in, Set<EntryType> types) {
+        this(in, types, null);
+    }
+
+    /**
+     * @param dictionary where to share repeated strings, or {@code null} to not share them
+     */
+    public ReportReader(InputStream in, Set<EntryType> types, StringDictionary dictionary) {
+        this.json = new JsonStreamReader(Objects.requireNonNull(in), 64 * 1024);
+        this.json.setStringDictionary(dictionary);
+        this.types = types.isEmpty() ? EnumSet.noneOf(EntryType.class) : EnumSet.copyOf(types);
+    }
+
+    /**
+     * Read only the header of a report, skipping all of its entries
+     */
+    public static Report readHeader(InputStream in) throws IOException {
+        try (ReportReader reader = new ReportReader(in, EnumSet.noneOf(EntryType.class))) {
+            while (reader.next()) {
+                // nothing to do, entries are skipped
+            }
+            return reader.getHeader();
+        }
+    }
+
+    /**
+     * Read a whole report into memory, without sharing strings
+     */
+    public static Report readReport(InputStream in) throws IOException {
+        return readReport(in, null);
+    }
+
+    /**
+     * Read a whole report into memory, sharing repeated strings with the given dictionary
+     *
+     * @param dictionary can be {@code null}, to not share strings
+     */
+    public static Report readReport(InputStream in, StringDictionary dictionary) throws IOException {
+        try (ReportReader reader = new ReportReader(in, EnumSet.allOf(EntryType.class), dictionary)) {
+            Report report = reader.getHeader();
+            while (reader.next()) {
+                switch (reader.getEntryType()) {
+                    case TEST_CASE:
+                        report.getTestCases().add(reader.getTestCase());
+                        break;
+                    case FOUND_FAULT:
+                        report.getFaults().getFoundFaults().add(reader.getFoundFault());
+                        break;
+                    case COVERED_ENDPOINT:
+                        report.getProblemDetails().getRest().getCoveredHttpStatus().add(reader.getCoveredEndpoint());
+                        break;
+                    case WARNING:
+                        report.getWarnings().add(reader.getWarning());
+                        break;
+                }
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Move to the next entry of interest
+     *
+     * @return false if there is no more entry in the document
+     * @throws com.webfuzzing.commons.json.JsonFormatException if the document is malformed
+     */
+    public boolean next() throws IOException {
+        entryType = null;
+        entry = null;
+        if (finished) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            json.beginObject();
+            levels.push(Level.ROOT);
+        }
+
+        while (true) {
+            if (array != null) {
+                if (!json.hasNext()) {
+                    json.endArray();
+                    array = null;
+                } else if (types.contains(array)) {
+                    entry = readEntry(array);
+                    entryType = array;
+                    return true;
+                } else {
+                    json.skipValue();
+                }
+                continue;
+            }
+
+            if (!json.hasNext()) {
+                json.endObject();
+                levels.pop();
+                if (levels.isEmpty()) {
+                    finished = true;
+                    return false;
+                }
+                continue;
+            }
+
+            String name = json.nextName();
+            switch (levels.peek()) {
+                case ROOT:
+                    readRootProperty(name);
+                    break;
+                case FAULTS:
+                    readFaultsProperty(name);
+                    break;
+                case PROBLEM_DETAILS:
+                    readProblemDetailsProperty(name);
+                    break;
+                case REST:
+                    readRestProperty(name);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the type of the current entry, or {@code null} if {@link #next()} has not returned {@code true}
+     */
+    public EntryType getEntryType() {
+        return entryType;
+    }
+
+    /**
+     * @return the current test case. Can be {@code null} if so in the document.
+     * @throws IllegalStateException if the current entry is not a test case
+     */
+    public TestCase getTestCase() {
+        return (TestCase) current(EntryType.TEST_CASE);
+    }
+
+    public FoundFault getFoundFault() {
+        return (FoundFault) current(EntryType.FOUND_FAULT);
+    }
+
+    public CoveredEndpoint getCoveredEndpoint() {
+        return (CoveredEndpoint) current(EntryType.COVERED_ENDPOINT);
+    }
+
+    public Warning getWarning() {
+        return (Warning) current(EntryType.WARNING);
+    }
+
+    /**
+     * @return the dictionary used for strings, if any
+     */
+    public StringDictionary getStringDictionary() {
+        return json.getStringDictionary();
+    }
+
+    /**
+     * @return all the data read so far which are not entries
+     */
+    public Report getHeader() {
+        return header;
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+
+    private Object current(EntryType type) {
+        if (entryType != type) {
+            throw new IllegalStateException("Current entry is not of type " + type + ", but " + entryType);
+        }
+        return entry;
+    }
+
+    private Object readEntry(EntryType type) throws IOException {
+        switch (type) {
+            case TEST_CASE:
+                return ReportJson.readTestCase(json);
+            case FOUND_FAULT:
+                return ReportJson.readFoundFault(json);
+            case COVERED_ENDPOINT:
+                return ReportJson.readCoveredEndpoint(json);
+            case WARNING:
+                return ReportJson.readWarning(json);
+            default:
+                throw new IllegalStateException("Unhandled entry type: " + type);
+        }
+    }
+
+    private void readRootProperty(String name) throws IOException {
+        switch (name) {
+            case "schemaVersion":
+                header.setSchemaVersion(json.nextNullableString());
+                break;
+            case "toolName":
+                header.setToolName(json.nextNullableString());
+                break;
+            case "toolVersion":
+                header.setToolVersion(json.nextNullableString());
+                break;
+            case "creationTime":
+                header.setCreationTime(json.nextNullableString());
+                break;
+            case "faults":
+                if (ReportJson.nullValue(json)) {
+                    header.setFaults(null);
+                } else {
+                    json.beginObject();
+                    header.setFaults(new Faults());
+                    levels.push(Level.FAULTS);
+                }
+                break;
+            case "problemDetails":
+                if (ReportJson.nullValue(json)) {
+                    header.setProblemDetails(null);
+                } else {
+                    json.beginObject();
+                    header.setProblemDetails(new ProblemDetails());
+                    levels.push(Level.PROBLEM_DETAILS);
+                }
+                break;
+            case "totalTests":
+                header.setTotalTests(json.nextNullableInt());
+                break;
+            case "testFilePaths":
+                header.setTestFilePaths(ReportJson.readStrings(json, new LinkedHashSet<>()));
+                break;
+            case "testCases":
+                if (beginEntries(EntryType.TEST_CASE)) {
+                    header.setTestCases(new ArrayList<>());
+                } else {
+                    header.setTestCases(null);
+                }
+                break;
+            case "executionTimeInSeconds":
+                header.setExecutionTimeInSeconds(json.nextNullableInt());
+                break;
+            case "extra":
+                header.setExtra(ReportJson.readCoverages(json));
+                break;
+            case "warnings":
+                if (beginEntries(EntryType.WARNING)) {
+                    header.setWarnings(new ArrayList<>());
+                } else {
+                    header.setWarnings(null);
+                }
+                break;
+            default:
+                header.setAdditionalProperty(name, json.nextAny());
+        }
+    }
+
+    private void readFaultsProperty(String name) throws IOException {
+        Faults faults = header.getFaults();
+        switch (name) {
+            case "totalNumber":
+                faults.setTotalNumber(json.nextNullableInt());
+                break;
+            case "foundFaults":
+                if (beginEntries(EntryType.FOUND_FAULT)) {
+                    faults.setFoundFaults(new ArrayList<>());
+                } else {
+                    faults.setFoundFaults(null);
+                }
+                break;
+            default:
+                faults.setAdditionalProperty(name, json.nextAny());
+        }
+    }
+
+    private void readProblemDetailsProperty(String name) throws IOException {
+        ProblemDetails problemDetails = header.getProblemDetails();
+        if (name.equals("rest")) {
+            if (ReportJson.nullValue(json)) {
+                problemDetails.setRest(null);
+            } else {
+                json.beginObject();
+                problemDetails.setRest(new RESTReport());
+                levels.push(Level.REST);
+            }
+        } else {
+            problemDetails.setAdditionalProperty(name, json.nextAny());
+        }
+    }
+
+    private void readRestProperty(String name) throws IOException {
+        RESTReport rest = header.getProblemDetails().getRest();
+        switch (name) {
+            case "outputHttpCalls":
+                rest.setOutputHttpCalls(json.nextNullableInt());
+                break;
+            case "evaluatedHttpCalls":
+                rest.setEvaluatedHttpCalls(json.nextNullableInt());
+                break;
+            case "endpointIds":
+                rest.setEndpointIds(ReportJson.readStrings(json, new LinkedHashSet<>()));
+                break;
+            case "coveredHttpStatus":
+                if (beginEntries(EntryType.COVERED_ENDPOINT)) {
+                    rest.setCoveredHttpStatus(new ArrayList<>());
+                } else {
+                    rest.setCoveredHttpStatus(null);
+                }
+                break;
+            default:
+                rest.setAdditionalProperty(name, json.nextAny());
+        }
+    }
+
+    /**
+     * @return false if the array is null
+     */
+    private boolean beginEntries(EntryType type) throws IOException {
+        if (ReportJson.nullValue(json)) {
+            return false;
+        }
+        json.beginArray();
+        array = type;
+        return true;
+    }
+}
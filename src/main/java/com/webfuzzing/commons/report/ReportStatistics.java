@@ -0,0 +1,394 @@
+package com.webfuzzing.commons.report;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Summary statistics of a {@link Report}, ie:
+ * <ul>
+ *     <li>number of test cases, in total and per test file</li>
+ *     <li>number of distinct faults (ie, distinct code and context pairs), in total, per fault category code,
+ *     and per operation in which they were found</li>
+ *     <li>number of distinct test cases detecting each fault</li>
+ *     <li>distribution of the HTTP status codes in {@code coveredHttpStatus}, and which of them were
+ *     covered for each endpoint</li>
+ * </ul>
+ * The entries of the report are split in ranges which are aggregated in parallel with fork/join, each range
+ * in its own partial summary, and then the partial summaries are combined.
+ * Null entries, and null values in them, are ignored.
+ * <p>
+ * This class is immutable.
+ */
+public final class ReportStatistics {
+
+    /**
+     * Minimum number of entries in a range to split it further
+     */
+    private static final int MIN_SPLIT = 1024;
+
+    /**
+     * HTTP status codes in [0, STATUS_SLOTS) are counted in an array, and any other in a map
+     */
+    private static final int STATUS_SLOTS = 600;
+
+    private final int numberOfTestCases;
+
+    private final Map<String, Integer> testCasesPerFile;
+
+    /**
+     * Distinct faults, with the test cases and operations detecting them. Not modified after construction.
+     */
+    private final FaultIndex faults;
+
+    /**
+     * Distinct faults, in order of first detection
+     */
+    private final List<FaultCategoryId> distinctFaults;
+
+    private final Map<Integer, Integer> faultsPerCategory;
+
+    private final Map<String, Integer> faultsPerEndpoint;
+
+    private final int numberOfCoveredEndpoints;
+
+    private final Map<Integer, Integer> statusDistribution;
+
+    private final Map<String, Set<Integer>> statusesPerEndpoint;
+
+    private ReportStatistics(Partial p) {
+        numberOfTestCases = p.testCases;
+        testCasesPerFile = Collections.unmodifiableMap(new TreeMap<>(p.testCasesPerFile));
+
+        faults = p.faults;
+        distinctFaults = faults.getFaults();
+        Map<Integer, Integer> perCategory = new TreeMap<>();
+        Map<String, Integer> perEndpoint = new HashMap<>();
+        for (FaultCategoryId id : distinctFaults) {
+            perCategory.merge(id.getCode(), 1, Integer::sum);
+            for (String operationId : faults.getOperationIds(id.getCode(), id.getContext())) {
+                perEndpoint.merge(operationId, 1, Integer::sum);
+            }
+        }
+        faultsPerCategory = Collections.unmodifiableMap(perCategory);
+        // sorted once, rather than comparing ids (with long common prefixes) at each update
+        faultsPerEndpoint = Collections.unmodifiableMap(new TreeMap<>(perEndpoint));
+
+        numberOfCoveredEndpoints = p.coveredEndpoints;
+        Map<Integer, Integer> distribution = new TreeMap<>(p.otherStatusCounts);
+        for (int s = 0; s < STATUS_SLOTS; s++) {
+            if (p.statusCounts[s] > 0) {
+                distribution.put(s, p.statusCounts[s]);
+            }
+        }
+        statusDistribution = Collections.unmodifiableMap(distribution);
+
+        Map<String, Set<Integer>> statuses = new TreeMap<>();
+        p.statusesPerEndpoint.forEach((k, v) -> statuses.put(k, Collections.unmodifiableSet(v.toSet())));
+        statusesPerEndpoint = Collections.unmodifiableMap(statuses);
+    }
+
+    /**
+     * Compute the statistics of the given report, in the common fork/join pool
+     */
+    public static ReportStatistics of(Report report) {
+        return of(report, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute the statistics of the given report, in the given fork/join pool
+     */
+    public static ReportStatistics of(Report report, ForkJoinPool pool) {
+        List<TestCase> testCases = report.getTestCases() == null ? Collections.emptyList() : report.getTestCases();
+        List<FoundFault> foundFaults = report.getFaults() == null || report.getFaults().getFoundFaults() == null
+                ? Collections.emptyList() : report.getFaults().getFoundFaults();
+        RESTReport rest = report.getProblemDetails() == null ? null : report.getProblemDetails().getRest();
+        List<CoveredEndpoint> covered = rest == null || rest.getCoveredHttpStatus() == null
+                ? Collections.emptyList() : rest.getCoveredHttpStatus();
+
+        // random access is needed to split the lists in ranges
+        List<?>[] entries = {toRandomAccess(testCases), toRandomAccess(foundFaults), toRandomAccess(covered)};
+        int parallelism = pool.getParallelism();
+        return new ReportStatistics(pool.invoke(new RecursiveTask<Partial>() {
+            @Override
+            protected Partial compute() {
+                List<Aggregation> tasks = new ArrayList<>(entries.length);
+                for (List<?> list : entries) {
+                    // a few ranges per thread, to balance the load if some ranges are slower
+                    int threshold = Math.max(MIN_SPLIT, list.size() / (parallelism * 8));
+                    tasks.add(new Aggregation(list, 0, list.size(), threshold));
+                }
+                invokeAll(tasks);
+                Partial p = tasks.get(0).join();
+                for (int i = 1; i < tasks.size(); i++) {
+                    p = p.combine(tasks.get(i).join());
+                }
+                return p;
+            }
+        }));
+    }
+
+    private static <T> List<T> toRandomAccess(List<T> list) {
+        return list instanceof RandomAccess ? list : new ArrayList<>(list);
+    }
+
+    /**
+     * @return number of non-null test cases
+     */
+    public int getNumberOfTestCases() {
+        return numberOfTestCases;
+    }
+
+    /**
+     * @return number of test cases in each test file, sorted by file path
+     */
+    public Map<String, Integer> getTestCasesPerFile() {
+        return testCasesPerFile;
+    }
+
+    /**
+     * @return number of non-null {@link FoundFault} entries
+     */
+    public int getNumberOfFoundFaults() {
+        return faults.getNumberOfFoundFaults();
+    }
+
+    /**
+     * @return number of distinct faults, ie, distinct (code, context) pairs.
+     * This is the same as {@link FaultIndex#getTotalNumber()}.
+     */
+    public int getNumberOfDistinctFaults() {
+        return faults.getTotalNumber();
+    }
+
+    /**
+     * @return all distinct faults, in order of first detection, as in {@link FaultIndex#getFaults()}.
+     * The returned objects are new copies.
+     */
+    public List<FaultCategoryId> getFaults() {
+        List<FaultCategoryId> ids = new ArrayList<>(distinctFaults.size());
+        for (FaultCategoryId f : distinctFaults) {
+            FaultCategoryId id = new FaultCategoryId();
+            id.setCode(f.getCode());
+            id.setContext(f.getContext());
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * @return number of distinct test cases detecting the given fault, 0 if not found
+     */
+    public int getNumberOfTestCases(int code, String context) {
+        return faults.getNumberOfTestCases(code, context);
+    }
+
+    /**
+     * @return number of distinct faults with each fault category code, sorted by code
+     */
+    public Map<Integer, Integer> getFaultsPerCategory() {
+        return faultsPerCategory;
+    }
+
+    /**
+     * @return number of distinct faults found in each operation, sorted by operation id
+     */
+    public Map<String, Integer> getFaultsPerEndpoint() {
+        return faultsPerEndpoint;
+    }
+
+    /**
+     * @return number of non-null {@link CoveredEndpoint} entries
+     */
+    public int getNumberOfCoveredEndpoints() {
+        return numberOfCoveredEndpoints;
+    }
+
+    /**
+     * @return for each HTTP status code, sorted, the number of {@link CoveredEndpoint} entries with it
+     */
+    public Map<Integer, Integer> getStatusDistribution() {
+        return statusDistribution;
+    }
+
+    /**
+     * @return for each endpoint id, sorted, the distinct HTTP status codes covered for it, sorted
+     */
+    public Map<String, Set<Integer>> getStatusesPerEndpoint() {
+        return statusesPerEndpoint;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportStatistics{testCases=" + numberOfTestCases
+                + ", foundFaults=" + faults.getNumberOfFoundFaults()
+                + ", distinctFaults=" + faults.getTotalNumber()
+                + ", coveredEndpoints=" + numberOfCoveredEndpoints + "}";
+    }
+
+    /**
+     * Aggregate a range of entries, splitting it in halves if larger than the threshold
+     */
+    private static final class Aggregation extends RecursiveTask<Partial> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> entries;
+
+        private final int from;
+
+        private final int to;
+
+        private final int threshold;
+
+        Aggregation(List<?> entries, int from, int to, int threshold) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                Aggregation left = new Aggregation(entries, from, middle, threshold);
+                left.fork();
+                Partial right = new Aggregation(entries, middle, to, threshold).compute();
+                return left.join().combine(right);
+            }
+            Partial p = new Partial();
+            for (int i = from; i < to; i++) {
+                Object e = entries.get(i);
+                if (e instanceof TestCase) {
+                    p.add((TestCase) e);
+                } else if (e instanceof FoundFault) {
+                    p.add((FoundFault) e);
+                } else if (e instanceof CoveredEndpoint) {
+                    p.add((CoveredEndpoint) e);
+                }
+            }
+            return p;
+        }
+    }
+
+    /**
+     * Statistics of a range of entries, mutable until combined
+     */
+    private static final class Partial {
+
+        int testCases;
+
+        final Map<String, Integer> testCasesPerFile = new HashMap<>();
+
+        final FaultIndex faults = new FaultIndex();
+
+        int coveredEndpoints;
+
+        final int[] statusCounts = new int[STATUS_SLOTS];
+
+        final Map<Integer, Integer> otherStatusCounts = new HashMap<>();
+
+        final Map<String, Statuses> statusesPerEndpoint = new HashMap<>();
+
+        void add(TestCase tc) {
+            testCases++;
+            if (tc.getFilePath() != null) {
+                testCasesPerFile.merge(tc.getFilePath(), 1, Integer::sum);
+            }
+        }
+
+        void add(FoundFault ff) {
+            faults.add(ff);
+        }
+
+        void add(CoveredEndpoint ce) {
+            coveredEndpoints++;
+            if (ce.getHttpStatus() == null) {
+                return;
+            }
+            Statuses statuses = null;
+            if (ce.getEndpointId() != null) {
+                statuses = statusesPerEndpoint.get(ce.getEndpointId());
+                if (statuses == null) {
+                    statuses = new Statuses();
+                    statusesPerEndpoint.put(ce.getEndpointId(), statuses);
+                }
+            }
+            for (Integer s : ce.getHttpStatus()) {
+                if (s == null) {
+                    continue;
+                }
+                if (s >= 0 && s < STATUS_SLOTS) {
+                    statusCounts[s]++;
+                } else {
+                    otherStatusCounts.merge(s, 1, Integer::sum);
+                }
+                if (statuses != null) {
+                    statuses.add(s);
+                }
+            }
+        }
+
+        /**
+         * Merge the other partial into this one
+         *
+         * @return this
+         */
+        Partial combine(Partial other) {
+            testCases += other.testCases;
+            other.testCasesPerFile.forEach((k, v) -> testCasesPerFile.merge(k, v, Integer::sum));
+            faults.merge(other.faults);
+            coveredEndpoints += other.coveredEndpoints;
+            for (int s = 0; s < STATUS_SLOTS; s++) {
+                statusCounts[s] += other.statusCounts[s];
+            }
+            other.otherStatusCounts.forEach((k, v) -> otherStatusCounts.merge(k, v, Integer::sum));
+            other.statusesPerEndpoint.forEach((k, v) -> statusesPerEndpoint.merge(k, v, Statuses::addAll));
+            return this;
+        }
+    }
+
+    /**
+     * Set of HTTP status codes, as a bitset for the usual ones, without boxing
+     */
+    private static final class Statuses {
+
+        final BitSet slots = new BitSet(STATUS_SLOTS);
+
+        Set<Integer> others;
+
+        void add(int status) {
+            if (status >= 0 && status < STATUS_SLOTS) {
+                slots.set(status);
+            } else {
+                if (others == null) {
+                    others = new HashSet<>();
+                }
+                others.add(status);
+            }
+        }
+
+        Statuses addAll(Statuses other) {
+            slots.or(other.slots);
+            if (other.others != null) {
+                if (others == null) {
+                    others = new HashSet<>();
+                }
+                others.addAll(other.others);
+            }
+            return this;
+        }
+
+        Set<Integer> toSet() {
+            Set<Integer> set = new TreeSet<>();
+            for (int s = slots.nextSetBit(0); s >= 0; s = slots.nextSetBit(s + 1)) {
+                set.add(s);
+            }
+            if (others != null) {
+                set.addAll(others);
+            }
+            return set;
+        }
+    }
+}
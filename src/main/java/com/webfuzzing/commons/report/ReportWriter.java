@@ -0,0 +1,410 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.JsonStreamWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Write a WFC report in JSON incrementally, without the need to keep all of its test cases,
+ * found faults and covered endpoints in memory.
+ * <p>
+ * Header information (eg, tool name and endpoint ids) can be set at any time before {@link #close()}.
+ * Test cases, found faults and covered endpoints are serialized as soon as they are given, into temporary files
+ * (one per array), as the position of these arrays in the document does not necessarily match the order in which
+ * they are produced.
+ * On {@link #close()}, the whole document is assembled into the output, by copying those temporary files,
+ * which are then deleted.
+ * As such, memory usage is bounded, apart from header data and the keys of the distinct faults.
+ * <p>
+ * Unless explicitly set, {@code totalTests} is the number of written test cases,
+ * and {@code faults.totalNumber} is the number of distinct (code, context) pairs in the written found faults.
+ * <p>
+ * The output is byte-by-byte the same as the one of {@link #write(Report, OutputStream)} on a {@link Report} object
+ * with same data, ie, compact JSON with properties in the same order as in the schema, skipping null values.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ReportWriter implements Closeable {
+
+    private final JsonStreamWriter json;
+
+    private final Path tmpDir;
+
+    /**
+     * Holds all the data apart from test cases, found faults and covered endpoints
+     */
+    private final Report header = new Report();
+
+    private final Spool testCases = new Spool("testCases");
+
+    private final Spool foundFaults = new Spool("foundFaults");
+
+    private final Spool coveredEndpoints = new Spool("coveredHttpStatus");
+
+    private final Set<FaultKey> distinctFaults = new HashSet<>();
+
+    private boolean closed;
+
+    /**
+     * Write to the given stream, using the default temporary-file directory
+     */
+    public ReportWriter(OutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * @param tmpDir where to store temporary files, or {@code null} to use the default temporary-file directory
+     */
+    public ReportWriter(OutputStream out, Path tmpDir) {
+        this(new JsonStreamWriter(Objects.requireNonNull(out), 64 * 1024), tmpDir);
+    }
+
+    /**
+     * Write to the given channel.
+     * Data from temporary files is transferred without passing through the JVM heap, when supported by the OS.
+     */
+    public ReportWriter(WritableByteChannel channel) {
+        this(channel, null);
+    }
+
+    public ReportWriter(WritableByteChannel channel, Path tmpDir) {
+        this(new JsonStreamWriter(Objects.requireNonNull(channel), 64 * 1024), tmpDir);
+    }
+
+    private ReportWriter(JsonStreamWriter json, Path tmpDir) {
+        this.json = json;
+        this.tmpDir = tmpDir != null ? tmpDir : Paths.get(System.getProperty("java.io.tmpdir"));
+        header.setFaults(new Faults());
+    }
+
+    /**
+     * Write a whole report object, directly, without using any temporary file
+     */
+    public static void write(Report report, OutputStream out) throws IOException {
+        try (JsonStreamWriter json = new JsonStreamWriter(out, 64 * 1024)) {
+            ReportJson.writeReport(json, report);
+        }
+    }
+
+    /**
+     * Copy all the data in the given report which is not about test cases, found faults and covered endpoints
+     * (which need to be written with the other methods of this class).
+     * This includes the "additionalProperties" of all the objects, and any explicit value for
+     * {@code totalTests} and {@code faults.totalNumber}.
+     * Values previously set in this writer are overwritten, apart from the REST problem details if covered endpoints
+     * were already written and the given report has none, as those endpoints are written in them.
+     */
+    public void setHeader(Report report) {
+        checkOpen();
+        header.setSchemaVersion(report.getSchemaVersion());
+        header.setToolName(report.getToolName());
+        header.setToolVersion(report.getToolVersion());
+        header.setCreationTime(report.getCreationTime());
+        header.setTotalTests(report.getTotalTests());
+        header.setTestFilePaths(report.getTestFilePaths() == null ? null : new LinkedHashSet<>(report.getTestFilePaths()));
+        header.setExecutionTimeInSeconds(report.getExecutionTimeInSeconds());
+        header.setExtra(report.getExtra() == null ? null : new ArrayList<>(report.getExtra()));
+        header.setWarnings(report.getWarnings() == null ? null : new ArrayList<>(report.getWarnings()));
+        header.getAdditionalProperties().clear();
+        header.getAdditionalProperties().putAll(report.getAdditionalProperties());
+
+        Faults faults = new Faults();
+        if (report.getFaults() != null) {
+            faults.setTotalNumber(report.getFaults().getTotalNumber());
+            faults.getAdditionalProperties().putAll(report.getFaults().getAdditionalProperties());
+        }
+        header.setFaults(faults);
+
+        ProblemDetails problemDetails = null;
+        if (report.getProblemDetails() != null) {
+            problemDetails = new ProblemDetails();
+            problemDetails.getAdditionalProperties().putAll(report.getProblemDetails().getAdditionalProperties());
+            RESTReport rest = report.getProblemDetails().getRest();
+            if (rest != null) {
+                RESTReport copy = new RESTReport();
+                copy.setOutputHttpCalls(rest.getOutputHttpCalls());
+                copy.setEvaluatedHttpCalls(rest.getEvaluatedHttpCalls());
+                copy.setEndpointIds(rest.getEndpointIds() == null ? null : new LinkedHashSet<>(rest.getEndpointIds()));
+                copy.getAdditionalProperties().putAll(rest.getAdditionalProperties());
+                problemDetails.setRest(copy);
+            }
+        }
+        if (coveredEndpoints.count > 0 && (problemDetails == null || problemDetails.getRest() == null)) {
+            // otherwise, the covered endpoints already written would be dropped
+            if (problemDetails == null) {
+                problemDetails = new ProblemDetails();
+            }
+            problemDetails.setRest(rest());
+        }
+        header.setProblemDetails(problemDetails);
+    }
+
+    public void setSchemaVersion(String schemaVersion) {
+        checkOpen();
+        header.setSchemaVersion(schemaVersion);
+    }
+
+    public void setToolName(String toolName) {
+        checkOpen();
+        header.setToolName(toolName);
+    }
+
+    public void setToolVersion(String toolVersion) {
+        checkOpen();
+        header.setToolVersion(toolVersion);
+    }
+
+    public void setCreationTime(String creationTime) {
+        checkOpen();
+        header.setCreationTime(creationTime);
+    }
+
+    public void setExecutionTimeInSeconds(Integer executionTimeInSeconds) {
+        checkOpen();
+        header.setExecutionTimeInSeconds(executionTimeInSeconds);
+    }
+
+    /**
+     * Explicitly set the total number of tests, instead of using the number of written test cases
+     */
+    public void setTotalTests(Integer totalTests) {
+        checkOpen();
+        header.setTotalTests(totalTests);
+    }
+
+    /**
+     * Explicitly set the total number of faults, instead of computing it from the written found faults
+     */
+    public void setTotalFaults(Integer totalNumber) {
+        checkOpen();
+        header.getFaults().setTotalNumber(totalNumber);
+    }
+
+    public void addTestFilePath(String path) {
+        checkOpen();
+        if (header.getTestFilePaths() == null) {
+            header.setTestFilePaths(new LinkedHashSet<>());
+        }
+        header.getTestFilePaths().add(path);
+    }
+
+    public void setOutputHttpCalls(Integer outputHttpCalls) {
+        checkOpen();
+        rest().setOutputHttpCalls(outputHttpCalls);
+    }
+
+    public void setEvaluatedHttpCalls(Integer evaluatedHttpCalls) {
+        checkOpen();
+        rest().setEvaluatedHttpCalls(evaluatedHttpCalls);
+    }
+
+    public void addEndpointId(String endpointId) {
+        checkOpen();
+        RESTReport rest = rest();
+        if (rest.getEndpointIds() == null) {
+            rest.setEndpointIds(new LinkedHashSet<>());
+        }
+        rest.getEndpointIds().add(endpointId);
+    }
+
+    public void addCoverage(Coverage coverage) {
+        checkOpen();
+        if (header.getExtra() == null) {
+            header.setExtra(new ArrayList<>());
+        }
+        header.getExtra().add(coverage);
+    }
+
+    public void addWarning(Warning warning) {
+        checkOpen();
+        if (header.getWarnings() == null) {
+            header.setWarnings(new ArrayList<>());
+        }
+        header.getWarnings().add(warning);
+    }
+
+    public void setAdditionalProperty(String name, Object value) {
+        checkOpen();
+        header.setAdditionalProperty(name, value);
+    }
+
+    public void writeTestCase(TestCase testCase) throws IOException {
+        checkOpen();
+        ReportJson.writeTestCase(testCases.writer(), testCase);
+        testCases.count++;
+    }
+
+    public void writeFoundFault(FoundFault foundFault) throws IOException {
+        checkOpen();
+        ReportJson.writeFoundFault(foundFaults.writer(), foundFault);
+        foundFaults.count++;
+        if (foundFault != null && foundFault.getFaultCategories() != null) {
+            for (FaultCategoryId id : foundFault.getFaultCategories()) {
+                if (id != null && id.getCode() != null) {
+                    distinctFaults.add(new FaultKey(id.getCode(), id.getContext()));
+                }
+            }
+        }
+    }
+
+    public void writeCoveredEndpoint(CoveredEndpoint coveredEndpoint) throws IOException {
+        checkOpen();
+        rest();
+        ReportJson.writeCoveredEndpoint(coveredEndpoints.writer(), coveredEndpoint);
+        coveredEndpoints.count++;
+    }
+
+    public int getWrittenTestCases() {
+        return testCases.count;
+    }
+
+    public int getWrittenFoundFaults() {
+        return foundFaults.count;
+    }
+
+    public int getWrittenCoveredEndpoints() {
+        return coveredEndpoints.count;
+    }
+
+    /**
+     * Write the whole document to the output, and close it.
+     * All temporary files are deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (header.getTotalTests() == null) {
+                header.setTotalTests(testCases.count);
+            }
+            Faults faults = header.getFaults();
+            if (faults.getTotalNumber() == null) {
+                faults.setTotalNumber(distinctFaults.size());
+            }
+            RESTReport rest = header.getProblemDetails() == null ? null : header.getProblemDetails().getRest();
+
+            ReportJson.writeReport(json, header,
+                    testCases::copyTo,
+                    foundFaults::copyTo,
+                    rest == null ? null : coveredEndpoints::copyTo);
+            json.close();
+        } finally {
+            testCases.delete();
+            foundFaults.delete();
+            coveredEndpoints.delete();
+        }
+    }
+
+    private RESTReport rest() {
+        if (header.getProblemDetails() == null) {
+            header.setProblemDetails(new ProblemDetails());
+        }
+        ProblemDetails pd = header.getProblemDetails();
+        if (pd.getRest() == null) {
+            pd.setRest(new RESTReport());
+        }
+        return pd.getRest();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Report writer is closed");
+        }
+    }
+
+
+    /**
+     * A JSON array stored in a temporary file, which is created only when the first element is written
+     */
+    private class Spool {
+
+        private final String name;
+
+        private FileChannel channel;
+
+        private JsonStreamWriter writer;
+
+        private int count;
+
+        Spool(String name) {
+            this.name = name;
+        }
+
+        JsonStreamWriter writer() throws IOException {
+            if (writer == null) {
+                Path file = Files.createTempFile(tmpDir, "wfc-" + name + "-", ".json");
+                channel = FileChannel.open(file,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+                writer = new JsonStreamWriter(channel, 64 * 1024);
+                writer.beginArray();
+            }
+            return writer;
+        }
+
+        void copyTo(JsonStreamWriter target) throws IOException {
+            if (writer == null) {
+                target.beginArray().endArray();
+                return;
+            }
+            writer.endArray();
+            writer.flush();
+            target.rawValue(channel, 0, channel.position());
+        }
+
+        void delete() throws IOException {
+            if (channel != null) {
+                // file is deleted on close
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private static final class FaultKey {
+
+        private final int code;
+
+        private final String context;
+
+        FaultKey(int code, String context) {
+            this.code = code;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FaultKey)) {
+                return false;
+            }
+            FaultKey other = (FaultKey) o;
+            return code == other.code && Objects.equals(context, other.context);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * code + (context == null ? 0 : context.hashCode());
+        }
+    }
+}
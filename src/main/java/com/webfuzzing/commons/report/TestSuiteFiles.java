@@ -0,0 +1,126 @@
+package com.webfuzzing.commons.report;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Access to the code of each {@link TestCase} in the test files of a report ({@code testFilePaths}),
+ * without reading whole files.
+ * <p>
+ * Each file is memory-mapped and its lines indexed with a {@link LineIndex} the first time it is needed,
+ * and then kept, so extracting the code of a test case takes constant time, regardless of the size of its file.
+ * Code is returned as read-only slices of the mapped files, without copying.
+ * <p>
+ * Test file paths are resolved against a base directory, ie, the one of the report, and only the files listed
+ * in the report can be accessed, none outside the base directory.
+ * <p>
+ * This class is thread-safe.
+ */
+public class TestSuiteFiles {
+
+    private final Path baseDir;
+
+    private final Set<String> filePaths;
+
+    private final ConcurrentMap<String, LineIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * @param report  whose {@code testFilePaths} can be accessed
+     * @param baseDir directory against which test file paths are resolved
+     */
+    public TestSuiteFiles(Report report, Path baseDir) {
+        this(report.getTestFilePaths() == null ? Collections.emptySet() : report.getTestFilePaths(), baseDir);
+    }
+
+    /**
+     * @throws IllegalArgumentException if any of the paths is outside the base directory
+     */
+    public TestSuiteFiles(Collection<String> filePaths, Path baseDir) {
+        this.baseDir = baseDir.toAbsolutePath().normalize();
+        Set<String> paths = new HashSet<>();
+        for (String p : filePaths) {
+            if (p == null) {
+                continue;
+            }
+            if (!resolve(p).startsWith(this.baseDir)) {
+                throw new IllegalArgumentException("Test file outside of " + this.baseDir + ": " + p);
+            }
+            paths.add(p);
+        }
+        this.filePaths = Collections.unmodifiableSet(paths);
+    }
+
+    private Path resolve(String filePath) {
+        return baseDir.resolve(filePath).normalize();
+    }
+
+    public Path getBaseDir() {
+        return baseDir;
+    }
+
+    public Set<String> getFilePaths() {
+        return filePaths;
+    }
+
+    /**
+     * @return the line index of the given test file, mapping and indexing it if not done yet
+     * @throws IllegalArgumentException if the file is not one of the test files of the report
+     * @throws IOException              if the file cannot be read
+     */
+    public LineIndex getLineIndex(String filePath) throws IOException {
+        LineIndex index = indexes.get(filePath);
+        if (index != null) {
+            return index;
+        }
+        if (!filePaths.contains(filePath)) {
+            throw new IllegalArgumentException("Not a test file of the report: " + filePath);
+        }
+        try {
+            return indexes.computeIfAbsent(filePath, p -> {
+                try {
+                    return LineIndex.of(resolve(p));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return the code of the given test case, from its start line to its end line (inclusive), as a read-only
+     * slice of its mapped file
+     * @throws IllegalArgumentException if the test case has no file or lines, or they are not in the file
+     * @throws IOException              if the file cannot be read
+     */
+    public ByteBuffer getCode(TestCase testCase) throws IOException {
+        if (testCase.getFilePath() == null || testCase.getStartLine() == null) {
+            throw new IllegalArgumentException("No file path or start line for test case " + testCase.getId());
+        }
+        int start = testCase.getStartLine();
+        int end = testCase.getEndLine() == null ? start : testCase.getEndLine();
+        return getLineIndex(testCase.getFilePath()).getLines(start, end);
+    }
+
+    /**
+     * @return the code of the given test case, decoded as UTF-8
+     * @see #getCode(TestCase)
+     */
+    public String getCodeAsString(TestCase testCase) throws IOException {
+        return StandardCharsets.UTF_8.decode(getCode(testCase)).toString();
+    }
+
+    /**
+     * @return number of files mapped so far
+     */
+    public int getNumberOfIndexedFiles() {
+        return indexes.size();
+    }
+}
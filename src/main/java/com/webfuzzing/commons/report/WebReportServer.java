@@ -0,0 +1,559 @@
+package com.webfuzzing.commons.report;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP server of a web report, ie, of the directory with its {@code index.html}, assets, report and test files,
+ * as an alternative to {@code webreport.py}. Only the JDK is needed.
+ * <p>
+ * Requests are handled by a pool of threads, so several people can browse large reports at the same time.
+ * Files are served with:
+ * <ul>
+ *     <li>{@code ETag} and {@code Last-Modified}, answering conditional requests with 304 (Not Modified)</li>
+ *     <li>caching: files in {@code assets/}, whose names contain a hash of their content, can be cached for a
+ *     year, while all the others (eg, the report and the test files) can be cached but need revalidation,
+ *     so changes are seen at the next load, without downloading unchanged files again</li>
+ *     <li>gzip compression of text files, if accepted by the client. Compressed small files are cached
+ *     in memory, and larger ones are compressed while sent.</li>
+ *     <li>single byte range requests ({@code Range} and {@code If-Range})</li>
+ * </ul>
+ * Only GET and HEAD are allowed, and no file outside the root directory can be accessed.
+ * <p>
+ * This class is thread-safe.
+ */
+public class WebReportServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8000;
+
+    /**
+     * Files up to this size are compressed once, and then kept in memory
+     */
+    private static final int MAX_CACHED_SIZE = 1024 * 1024;
+
+    /**
+     * Maximum total size of the compressed files kept in memory
+     */
+    private static final long MAX_CACHE_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Files smaller than this are not worth compressing
+     */
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+
+    private static final String IMMUTABLE_DIR = "assets/";
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        String text = "text/plain; charset=utf-8";
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("js", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("mjs", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json");
+        CONTENT_TYPES.put("map", "application/json");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("xml", "application/xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        // test files, and other sources
+        for (String ext : Arrays.asList("txt", "md", "java", "kt", "py", "ts", "yaml", "yml")) {
+            CONTENT_TYPES.put(ext, text);
+        }
+    }
+
+    private final Path root;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final ConcurrentMap<Path, Compressed> compressed = new ConcurrentHashMap<>();
+
+    private final AtomicLong cacheSize = new AtomicLong();
+
+    /**
+     * Serve the given directory on localhost, on the default port, with a thread per available processor
+     * (at least 4)
+     */
+    public WebReportServer(Path root) throws IOException {
+        this(root, new InetSocketAddress("localhost", DEFAULT_PORT),
+                Math.max(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param address where to listen. Port 0 chooses any free port.
+     * @param threads number of threads handling requests
+     * @throws IOException if the address cannot be bound
+     */
+    public WebReportServer(Path root, InetSocketAddress address, int threads) throws IOException {
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("Not a directory: " + root);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.root = root.toRealPath();
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "web-report-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Serve the web report in the given directory (by default, the current one), until the process is stopped.
+     * Arguments: [directory [port [host]]]
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : ".");
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        String host = args.length > 2 ? args[2] : "localhost";
+        WebReportServer server = new WebReportServer(dir, new InetSocketAddress(host, port),
+                Math.max(4, Runtime.getRuntime().availableProcessors()));
+        server.start();
+        System.out.println("Serving at " + server.getUri());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the actual address, eg, with the port chosen if given 0
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public URI getUri() {
+        InetSocketAddress address = getAddress();
+        String host = address.getHostString();
+        if (host.contains(":")) {
+            host = "[" + host + "]";
+        }
+        return URI.create("http://" + host + ":" + address.getPort() + "/");
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Stop the server, waiting at most a second for the requests being handled
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compressed.clear();
+        cacheSize.set(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(exchange, 405, "Method Not Allowed");
+                return;
+            }
+
+            Path file = resolve(exchange.getRequestURI().getPath());
+            BasicFileAttributes attributes = file == null ? null : readAttributes(file);
+            if (attributes != null && attributes.isDirectory()) {
+                file = file.resolve("index.html");
+                attributes = readAttributes(file);
+            }
+            if (attributes == null || !attributes.isRegularFile() || !isInRoot(file)) {
+                sendError(exchange, 404, "Not Found");
+                return;
+            }
+            serve(exchange, file, attributes, head);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the file for the given request path, or {@code null} if outside the root directory
+     */
+    private Path resolve(String requestPath) {
+        String relative = requestPath == null ? "" : requestPath.replaceFirst("^/+", "");
+        if (relative.indexOf('\0') >= 0) {
+            return null;
+        }
+        try {
+            Path file = root.resolve(relative).normalize();
+            return file.startsWith(root) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Symbolic links are followed when reading a file, so its real path is checked as well,
+     * as a link in the root directory could point outside it
+     */
+    private boolean isInRoot(Path file) {
+        try {
+            return file.toRealPath().startsWith(root);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void serve(HttpExchange exchange, Path file, BasicFileAttributes attributes, boolean head)
+            throws IOException {
+        Headers request = exchange.getRequestHeaders();
+        Headers response = exchange.getResponseHeaders();
+
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000;
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis())
+                + "\"";
+        String contentType = contentType(file);
+        boolean compressible = isCompressible(contentType) && size >= MIN_COMPRESSED_SIZE;
+        boolean gzip = compressible && acceptsGzip(request.getFirst("Accept-Encoding"));
+        // the compressed content is a different representation, with its own tag
+        String gzipEtag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+
+        response.set("ETag", gzip ? gzipEtag : etag);
+        response.set("Last-Modified", formatDate(lastModified));
+        response.set("Cache-Control", root.relativize(file).toString().replace('\\', '/').startsWith(IMMUTABLE_DIR)
+                ? "public, max-age=31536000, immutable" : "no-cache");
+        response.set("Accept-Ranges", "bytes");
+        if (compressible) {
+            response.set("Vary", "Accept-Encoding");
+        }
+
+        if (isNotModified(request, etag, gzipEtag, lastModified)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        response.set("Content-Type", contentType);
+
+        // ranges are of the file as it is, not compressed
+        String range = request.getFirst("Range");
+        if (range != null && isCurrent(request.getFirst("If-Range"), etag, lastModified)) {
+            // if not a single byte range, it is ignored
+            long[] bounds = parseRange(range, size);
+            if (bounds != null && bounds.length == 0) {
+                response.set("Content-Range", "bytes */" + size);
+                sendError(exchange, 416, "Range Not Satisfiable");
+                return;
+            } else if (bounds != null) {
+                long length = bounds[1] - bounds[0] + 1;
+                response.set("ETag", etag);
+                response.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+                sendFile(exchange, 206, file, bounds[0], length, head);
+                return;
+            }
+        }
+
+        if (gzip) {
+            response.set("Content-Encoding", "gzip");
+            if (size <= MAX_CACHED_SIZE) {
+                byte[] content = getCompressed(file, etag);
+                sendHeaders(exchange, 200, content.length, head);
+                if (!head) {
+                    exchange.getResponseBody().write(content);
+                }
+            } else if (head) {
+                // length is only known once compressed
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody(), 64 * 1024)) {
+                    Files.copy(file, out);
+                }
+            }
+            return;
+        }
+        sendFile(exchange, 200, file, 0, size, head);
+    }
+
+    private static void sendHeaders(HttpExchange exchange, int status, long length, boolean head) throws IOException {
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", Long.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            // 0 means chunked encoding for the JDK server, so an empty body is -1
+            exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        }
+    }
+
+    private static void sendFile(HttpExchange exchange, int status, Path file, long position, long length,
+                                 boolean head) throws IOException {
+        sendHeaders(exchange, status, length, head);
+        if (head || length == 0) {
+            return;
+        }
+        OutputStream out = exchange.getResponseBody();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(64 * 1024, length));
+            long remaining = length;
+            long p = position;
+            while (remaining > 0) {
+                buffer.clear();
+                if (buffer.capacity() > remaining) {
+                    buffer.limit((int) remaining);
+                }
+                int n = channel.read(buffer, p);
+                if (n < 0) {
+                    // file truncated while being sent
+                    throw new IOException("Unexpected end of " + file);
+                }
+                out.write(buffer.array(), 0, n);
+                p += n;
+                remaining -= n;
+            }
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (status + " " + message + "\n").getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        sendHeaders(exchange, status, body.length, head);
+        if (!head) {
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private byte[] getCompressed(Path file, String etag) throws IOException {
+        Compressed c = compressed.get(file);
+        if (c != null && c.etag.equals(etag)) {
+            return c.gzip;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes);
+             InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        byte[] gzip = bytes.toByteArray();
+        // when full, files are just compressed at each request
+        if (cacheSize.addAndGet(gzip.length) <= MAX_CACHE_SIZE) {
+            Compressed previous = compressed.put(file, new Compressed(etag, gzip));
+            if (previous != null) {
+                cacheSize.addAndGet(-previous.gzip.length);
+            }
+        } else {
+            cacheSize.addAndGet(-gzip.length);
+        }
+        return gzip;
+    }
+
+    /**
+     * As in RFC 9110, If-None-Match takes precedence over If-Modified-Since
+     */
+    private static boolean isNotModified(Headers request, String etag, String gzipEtag, long lastModified) {
+        String ifNoneMatch = request.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag) || matches(ifNoneMatch, gzipEtag);
+        }
+        Long since = parseDate(request.getFirst("If-Modified-Since"));
+        return since != null && lastModified <= since;
+    }
+
+    /**
+     * @return whether the given list of entity tags contains the given one, with weak comparison
+     */
+    private static boolean matches(String tags, String etag) {
+        for (String tag : tags.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether a range request can be served, given its If-Range header (if any)
+     */
+    private static boolean isCurrent(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"")) {
+            // strong comparison
+            return ifRange.equals(etag);
+        }
+        Long date = parseDate(ifRange);
+        return date != null && date == lastModified;
+    }
+
+    /**
+     * @return {@code [first, last]} for a single satisfiable byte range, an empty array if not satisfiable,
+     * or {@code null} if not a single byte range (eg, invalid, or several ranges), to be ignored
+     */
+    static long[] parseRange(String range, long size) {
+        range = range.trim();
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long from;
+            long to;
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                // suffix, ie, the last bytes
+                long suffix = Long.parseLong(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                if (suffix == 0 || size == 0) {
+                    return new long[0];
+                }
+                from = Math.max(0, size - suffix);
+                to = size - 1;
+            } else {
+                from = Long.parseLong(first);
+                to = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (from < 0 || to < from) {
+                    return null;
+                }
+                if (from >= size) {
+                    return new long[0];
+                }
+                to = Math.min(to, size - 1);
+            }
+            return new long[]{from, to};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String p = parts[i].trim().replace(" ", "");
+                    if (p.equals("q=0") || p.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String type = dot < 0 ? null : CONTENT_TYPES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+        return type == null ? "application/octet-stream" : type;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/") || contentType.startsWith("application/json")
+                || contentType.startsWith("application/xml") || contentType.startsWith("image/svg+xml");
+    }
+
+    private static String formatDate(long epochSeconds) {
+        return HTTP_DATE.format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneOffset.UTC));
+    }
+
+    /**
+     * @return seconds since the epoch, or {@code null} if not a valid date
+     */
+    private static Long parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(date.trim(), HTTP_DATE).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class Compressed {
+
+        final String etag;
+
+        final byte[] gzip;
+
+        Compressed(String etag, byte[] gzip) {
+            this.etag = etag;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.webfuzzing.commons.auth;
+
+import com.webfuzzing.commons.json.JsonFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthLoaderTest {
+
+    private static final String CONFIG = "{\n" +
+            "  \"schemaVersion\": \"0.1.0\",\n" +
+            "  \"authTemplate\": {\n" +
+            "    \"loginEndpointAuth\": {\n" +
+            "      \"endpoint\": \"/login\",\n" +
+            "      \"verb\": \"POST\",\n" +
+            "      \"contentType\": \"application/json\",\n" +
+            "      \"payloadUserPwd\": {\"usernameField\": \"username\", \"passwordField\": \"password\"},\n" +
+            "      \"token\": {\"extractFrom\": \"body\", \"extractSelector\": \"/token\", \"sendIn\": \"header\",\n" +
+            "                \"sendName\": \"Authorization\", \"sendTemplate\": \"Bearer {token}\"}\n" +
+            "    }\n" +
+            "  },\n" +
+            "  \"auth\": [\n" +
+            "    {\"name\": \"foo\", \"loginEndpointAuth\": {\"payloadUserPwd\": {\"username\": \"foo\", \"password\": \"a\"}}},\n" +
+            "    {\"name\": \"bar\", \"x-extra\": [1, {\"a\": null}],\n" +
+            "     \"loginEndpointAuth\": {\"payloadUserPwd\": {\"username\": \"bar\", \"password\": \"b\"}},\n" +
+            "     \"fixedHeaders\": [{\"name\": \"X-Api-Key\", \"value\": \"123\"}],\n" +
+            "     \"createUsers\": {\"externalEndpointURL\": \"http://localhost/users\", \"verb\": \"PUT\",\n" +
+            "        \"contentType\": \"application/json\", \"payloadRaw\": \"{}\",\n" +
+            "        \"generators\": [{\"placeHolder\": \"{$u}\", \"minLength\": 3, \"maxLength\": 10}]}}\n" +
+            "  ],\n" +
+            "  \"configs\": {\"mode\": \"fast\"}\n" +
+            "}";
+
+    private static List<String> violations(String json) {
+        AuthValidationException e = assertThrows(AuthValidationException.class,
+                () -> AuthLoader.load(json.getBytes(StandardCharsets.UTF_8)));
+        return e.getViolations().stream().map(AuthViolation::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        List<AuthenticationInfo> users = AuthLoader.load(new ByteArrayInputStream(CONFIG.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, users.size());
+
+        AuthenticationInfo foo = users.get(0);
+        assertEquals("foo", foo.getName());
+        LoginEndpoint login = foo.getLoginEndpointAuth();
+        assertEquals("/login", login.getEndpoint());
+        assertEquals(LoginEndpoint.HttpVerb.POST, login.getVerb());
+        assertEquals("foo", login.getPayloadUserPwd().getUsername());
+        assertEquals("username", login.getPayloadUserPwd().getUsernameField());
+        assertEquals(TokenHandling.ExtractFrom.BODY, login.getToken().getExtractFrom());
+        assertEquals(TokenHandling.SendIn.HEADER, login.getToken().getSendIn());
+        assertEquals("Bearer {token}", login.getToken().getSendTemplate());
+
+        AuthenticationInfo bar = users.get(1);
+        assertEquals("X-Api-Key", bar.getFixedHeaders().get(0).getName());
+        assertEquals(LoginEndpoint.HttpVerb.PUT, bar.getCreateUsers().getVerb());
+        assertEquals(3, bar.getCreateUsers().getGenerators().get(0).getMinLength());
+        assertEquals(Arrays.asList(1, java.util.Collections.singletonMap("a", null)),
+                bar.getAdditionalProperties().get("x-extra"));
+        assertEquals("bar", bar.getLoginEndpointAuth().getPayloadUserPwd().getUsername());
+        assertEquals("username", bar.getLoginEndpointAuth().getPayloadUserPwd().getUsernameField());
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        Auth auth = AuthLoader.read(CONFIG.getBytes(StandardCharsets.UTF_8));
+        assertEquals("0.1.0", auth.getSchemaVersion());
+        assertEquals(2, auth.getAuth().size());
+        assertNull(auth.getAuth().get(0).getLoginEndpointAuth().getEndpoint());
+        assertTrue(auth.getAuthTemplate() instanceof AuthenticationInfo);
+        assertEquals("fast", auth.getConfigs().getAdditionalProperties().get("mode"));
+
+        // same as resolving it separately
+        assertEquals(AuthLoader.load(CONFIG.getBytes(StandardCharsets.UTF_8)), AuthTemplateResolver.resolve(auth));
+    }
+
+    @Test
+    public void testTypeViolations() {
+        String json = "{\"auth\": [\n" +
+                "  {\"name\": 42, \"requireMockHandling\": \"yes\"},\n" +
+                "  \"x\",\n" +
+                "  {\"name\": \"a\", \"loginEndpointAuth\": {\"endpoint\": \"/l\", \"verb\": \"HEAD\",\n" +
+                "     \"token\": {\"extractFrom\": \"cookie\", \"extractSelector\": \"/t\", \"sendIn\": \"query\"}}},\n" +
+                "  {\"name\": \"b\", \"fixedHeaders\": {}, \"createUsers\": {\"endpoint\": \"/u\", \"verb\": \"POST\",\n" +
+                "     \"contentType\": \"text/plain\", \"payloadRaw\": \"{$u}\",\n" +
+                "     \"generators\": [{\"placeHolder\": \"\", \"minLength\": -1, \"maxLength\": 2.5}]}}\n" +
+                "], \"configs\": {\"k\": 1}}";
+        assertEquals(Arrays.asList(
+                "auth[0].name (line 2, column 12): expected a string, but found 42",
+                "auth[0].requireMockHandling (line 2, column 39): expected a boolean, but found 'yes'",
+                "auth[1] (line 3, column 3): expected an object, but found 'x'",
+                "auth[2].loginEndpointAuth.verb (line 4, column 65): invalid value 'HEAD', allowed values are [POST, GET, PATCH, DELETE, PUT]",
+                "auth[2].loginEndpointAuth.token.extractFrom (line 5, column 31): invalid value 'cookie', allowed values are [body, header]",
+                "auth[3].fixedHeaders (line 6, column 33): expected an array, but found an object",
+                "auth[3].createUsers.generators[0].placeHolder (line 8, column 37): expected a non-empty string",
+                "auth[3].createUsers.generators[0].minLength (line 8, column 54): expected a non-negative integer, but found -1",
+                "auth[3].createUsers.generators[0].maxLength (line 8, column 71): expected an integer, but found 2.5",
+                "configs.k (line 9, column 21): expected a string, but found 1",
+                // x-required, located at the start of the entry, and not repeated for the invalid values
+                "auth[2].loginEndpointAuth.token (line 4, column 3): missing required property 'sendName'"
+        ), violations(json));
+    }
+
+    @Test
+    public void testMissingAuth() {
+        assertEquals(Arrays.asList("auth (line 1, column 1): missing required property"),
+                violations("{\"schemaVersion\": \"1\"}"));
+        assertEquals(Arrays.asList("$ (line 1, column 1): expected an object, but found an array"),
+                violations("[]"));
+    }
+
+    @Test
+    public void testSyntaxError() {
+        JsonFormatException e = assertThrows(JsonFormatException.class,
+                () -> AuthLoader.load("{\"auth\": [{\"name\": \"a\"]}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, e.getLine());
+    }
+}
@@ -0,0 +1,265 @@
+package com.webfuzzing.commons.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthTemplateResolverTest {
+
+    /**
+     * Template as it would be read by a generic JSON/YAML parser
+     */
+    private static Map<String, Object> template() {
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("extractFrom", "body");
+        token.put("extractSelector", "/token");
+        token.put("sendIn", "header");
+        token.put("sendName", "Authorization");
+        token.put("sendTemplate", "Bearer {token}");
+
+        Map<String, Object> pwd = new LinkedHashMap<>();
+        pwd.put("usernameField", "username");
+        pwd.put("passwordField", "password");
+
+        Map<String, Object> login = new LinkedHashMap<>();
+        login.put("endpoint", "/login");
+        login.put("verb", "POST");
+        login.put("contentType", "application/json");
+        login.put("payloadUserPwd", pwd);
+        login.put("token", token);
+
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("name", "X-Tenant");
+        header.put("value", "foo");
+
+        Map<String, Object> template = new LinkedHashMap<>();
+        template.put("requireMockHandling", false);
+        template.put("fixedHeaders", Collections.singletonList(header));
+        template.put("loginEndpointAuth", login);
+        template.put("x-custom", 42);
+        return template;
+    }
+
+    private static AuthenticationInfo user(String name) {
+        PayloadUsernamePassword pwd = new PayloadUsernamePassword();
+        pwd.setUsername(name);
+        pwd.setPassword("secret-" + name);
+        LoginEndpoint login = new LoginEndpoint();
+        login.setPayloadUserPwd(pwd);
+        AuthenticationInfo info = new AuthenticationInfo();
+        info.setName(name);
+        info.setLoginEndpointAuth(login);
+        return info;
+    }
+
+    @Test
+    public void testResolve() {
+
+        Auth auth = new Auth();
+        auth.setAuthTemplate(template());
+        auth.getAuth().add(user("foo"));
+        auth.getAuth().add(user("bar"));
+        AuthenticationInfo original = user("foo");
+
+        List<AuthenticationInfo> resolved = AuthTemplateResolver.resolve(auth);
+        assertEquals(2, resolved.size());
+
+        AuthenticationInfo foo = resolved.get(0);
+        assertEquals("foo", foo.getName());
+        assertFalse(foo.getRequireMockHandling());
+        assertEquals("X-Tenant", foo.getFixedHeaders().get(0).getName());
+        assertEquals(42, foo.getAdditionalProperties().get("x-custom"));
+        LoginEndpoint login = foo.getLoginEndpointAuth();
+        assertEquals("/login", login.getEndpoint());
+        assertEquals(LoginEndpoint.HttpVerb.POST, login.getVerb());
+        assertEquals("foo", login.getPayloadUserPwd().getUsername());
+        assertEquals("secret-foo", login.getPayloadUserPwd().getPassword());
+        assertEquals("username", login.getPayloadUserPwd().getUsernameField());
+        assertEquals(TokenHandling.ExtractFrom.BODY, login.getToken().getExtractFrom());
+        assertEquals("Bearer {token}", login.getToken().getSendTemplate());
+
+        // entries are not modified, and results do not share objects
+        assertEquals(original, auth.getAuth().get(0));
+        AuthenticationInfo bar = resolved.get(1);
+        assertEquals("bar", bar.getLoginEndpointAuth().getPayloadUserPwd().getUsername());
+        assertNotSame(login.getToken(), bar.getLoginEndpointAuth().getToken());
+        assertNotSame(foo.getFixedHeaders().get(0), bar.getFixedHeaders().get(0));
+    }
+
+    @Test
+    public void testEntryOverridesTemplate() {
+
+        AuthenticationInfo info = user("foo");
+        info.setRequireMockHandling(true);
+        Header header = new Header();
+        header.setName("X-Other");
+        header.setValue("bar");
+        info.getFixedHeaders().add(header);
+        LoginEndpoint login = info.getLoginEndpointAuth();
+        login.setExternalEndpointURL("http://localhost:8080/login");
+        TokenHandling token = new TokenHandling();
+        // default of the schema, so taken from the template
+        assertEquals("{token}", token.getSendTemplate());
+        token.setSendName("X-Token");
+        login.setToken(token);
+
+        AuthTemplateResolver resolver = new AuthTemplateResolver(template());
+        AuthenticationInfo resolved = resolver.resolve(Collections.singletonList(info)).get(0);
+
+        assertTrue(resolved.getRequireMockHandling());
+        assertEquals(Collections.singletonList(header), resolved.getFixedHeaders());
+        // oneOf, so "endpoint" in the template is not applied
+        assertNull(resolved.getLoginEndpointAuth().getEndpoint());
+        assertEquals("http://localhost:8080/login", resolved.getLoginEndpointAuth().getExternalEndpointURL());
+        assertEquals("X-Token", resolved.getLoginEndpointAuth().getToken().getSendName());
+        assertEquals("/token", resolved.getLoginEndpointAuth().getToken().getExtractSelector());
+        assertEquals("Bearer {token}", resolved.getLoginEndpointAuth().getToken().getSendTemplate());
+    }
+
+    @Test
+    public void testTemplateAsObject() {
+
+        AuthenticationInfo template = new AuthenticationInfo();
+        Header header = new Header();
+        header.setName("Authorization");
+        header.setValue("Basic Zm9vOmJhcg==");
+        template.getFixedHeaders().add(header);
+
+        AuthenticationInfo foo = new AuthenticationInfo();
+        foo.setName("foo");
+
+        List<AuthenticationInfo> resolved = new AuthTemplateResolver(template).resolve(Collections.singletonList(foo));
+        assertEquals(Collections.singletonList(header), resolved.get(0).getFixedHeaders());
+
+        // no template
+        resolved = new AuthTemplateResolver(null).resolve(Collections.singletonList(foo));
+        assertEquals(foo, resolved.get(0));
+        assertNotSame(foo, resolved.get(0));
+    }
+
+    @Test
+    public void testAllViolations() {
+
+        AuthenticationInfo noName = user("x");
+        noName.setName(null);
+
+        AuthenticationInfo both = user("both");
+        both.getLoginEndpointAuth().setEndpoint("/login");
+        both.getLoginEndpointAuth().setExternalEndpointURL("http://localhost/login");
+        both.getLoginEndpointAuth().setVerb(LoginEndpoint.HttpVerb.POST);
+
+        AuthenticationInfo noPassword = user("foo");
+        noPassword.getLoginEndpointAuth().getPayloadUserPwd().setPassword(null);
+
+        CreateUsers createUsers = new CreateUsers();
+        createUsers.setVerb(LoginEndpoint.HttpVerb.POST);
+        createUsers.setPayloadRaw("{}");
+        AuthenticationInfo creating = new AuthenticationInfo();
+        creating.setName("creating");
+        creating.setCreateUsers(createUsers);
+
+        Auth auth = new Auth();
+        auth.getAuth().addAll(Arrays.asList(noName, both, noPassword, creating, user("foo"), null));
+
+        AuthValidationException e = assertThrows(AuthValidationException.class, () -> AuthTemplateResolver.resolve(auth));
+        List<String> violations = e.getViolations().stream().map(AuthViolation::toString).collect(Collectors.toList());
+        assertEquals(Arrays.asList(
+                "auth[0].loginEndpointAuth.payloadUserPwd: missing required property 'usernameField'",
+                "auth[0].loginEndpointAuth.payloadUserPwd: missing required property 'passwordField'",
+                "auth[0].loginEndpointAuth: missing required property 'verb'",
+                "auth[0].loginEndpointAuth: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but none is specified",
+                "auth[0]: missing required property 'name'",
+                "auth[1].loginEndpointAuth.payloadUserPwd: missing required property 'usernameField'",
+                "auth[1].loginEndpointAuth.payloadUserPwd: missing required property 'passwordField'",
+                "auth[1].loginEndpointAuth: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but found [endpoint, externalEndpointURL]",
+                "auth[2].loginEndpointAuth.payloadUserPwd: missing required property 'usernameField'",
+                "auth[2].loginEndpointAuth.payloadUserPwd: missing required property 'password'",
+                "auth[2].loginEndpointAuth.payloadUserPwd: missing required property 'passwordField'",
+                "auth[2].loginEndpointAuth: missing required property 'verb'",
+                "auth[2].loginEndpointAuth: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but none is specified",
+                "auth[3].createUsers: missing required property 'contentType'",
+                "auth[3].createUsers: missing required property 'generators'",
+                "auth[3].createUsers: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but none is specified",
+                "auth[4].loginEndpointAuth.payloadUserPwd: missing required property 'usernameField'",
+                "auth[4].loginEndpointAuth.payloadUserPwd: missing required property 'passwordField'",
+                "auth[4].loginEndpointAuth: missing required property 'verb'",
+                "auth[4].loginEndpointAuth: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but none is specified",
+                "auth[4].name: duplicated name 'foo', already used in auth[2]",
+                "auth[5]: expected an object, but found null"
+        ), violations);
+        assertTrue(e.getMessage().contains("22 problems"));
+        assertEquals("auth[0].name", e.getViolations().get(4).getMissingPropertyPath());
+        assertNull(e.getViolations().get(3).getMissingPropertyPath());
+
+        // with template, only the problems not fixed by it are left
+        List<AuthViolation> found = new ArrayList<>();
+        List<AuthenticationInfo> resolved = new AuthTemplateResolver(template()).resolve(auth.getAuth(), found);
+        assertEquals(6, resolved.size());
+        assertNull(resolved.get(5));
+        assertNotNull(resolved.get(0));
+        assertEquals(Arrays.asList(
+                "auth[0]: missing required property 'name'",
+                "auth[1].loginEndpointAuth: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but found [endpoint, externalEndpointURL]",
+                "auth[2].loginEndpointAuth.payloadUserPwd: missing required property 'password'",
+                // credentials are needed for the login in the template
+                "auth[3].loginEndpointAuth.payloadUserPwd: missing required property 'username'",
+                "auth[3].loginEndpointAuth.payloadUserPwd: missing required property 'password'",
+                "auth[3].createUsers: missing required property 'contentType'",
+                "auth[3].createUsers: missing required property 'generators'",
+                "auth[3].createUsers: exactly one of the properties 'endpoint', 'externalEndpointURL' is required, but none is specified",
+                "auth[4].name: duplicated name 'foo', already used in auth[2]",
+                "auth[5]: expected an object, but found null"
+        ), found.stream().map(AuthViolation::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testInvalidTemplate() {
+
+        Map<String, Object> template = template();
+        template.put("requireMockHandling", "yes");
+        template.put("fixedHeaders", "X-Foo: bar");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> login = (Map<String, Object>) template.get("loginEndpointAuth");
+        login.put("verb", "FETCH");
+        login.put("token", Arrays.asList(1, 2));
+        Map<String, Object> generator = new LinkedHashMap<>();
+        generator.put("placeHolder", "");
+        generator.put("maxLength", -3);
+        Map<String, Object> createUsers = new LinkedHashMap<>();
+        createUsers.put("generators", Collections.singletonList(generator));
+        template.put("createUsers", createUsers);
+
+        AuthTemplateResolver resolver = new AuthTemplateResolver(template);
+        assertEquals(Arrays.asList(
+                "authTemplate.requireMockHandling: expected a boolean, but found 'yes'",
+                "authTemplate.fixedHeaders: expected an array, but found 'X-Foo: bar'",
+                "authTemplate.loginEndpointAuth.verb: invalid value 'FETCH', allowed values are [POST, GET, PATCH, DELETE, PUT]",
+                "authTemplate.loginEndpointAuth.token: expected an object, but found an array",
+                "authTemplate.createUsers.generators[0].placeHolder: expected a non-empty string",
+                "authTemplate.createUsers.generators[0].maxLength: expected a non-negative integer, but found -3"
+        ), resolver.getTemplateViolations().stream().map(AuthViolation::toString).collect(Collectors.toList()));
+
+        assertThrows(AuthValidationException.class, () -> resolver.resolve(Collections.emptyList()));
+    }
+
+    @Test
+    public void testManyUsers() {
+
+        int n = 10_000;
+        List<AuthenticationInfo> users = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            users.add(user("user" + i));
+        }
+        AuthTemplateResolver resolver = new AuthTemplateResolver(template());
+
+        List<AuthenticationInfo> resolved = resolver.resolve(users);
+        assertEquals(n, resolved.size());
+        for (int i = 0; i < n; i += 997) {
+            assertEquals(resolver.resolve(Collections.singletonList(users.get(i))).get(0), resolved.get(i));
+            assertEquals("user" + i, resolved.get(i).getName());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.webfuzzing.commons.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneratorEngineTest {
+
+    private static Generator generator(String prefix, String postfix, Integer minLength, Integer maxLength) {
+        Generator g = new Generator();
+        g.setPlaceHolder("{$x}");
+        g.setPrefix(prefix);
+        g.setPostfix(postfix);
+        g.setMinLength(minLength);
+        g.setMaxLength(maxLength);
+        return g;
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(1, GeneratorEngine.capacity(0, 0));
+        assertEquals(36, GeneratorEngine.capacity(1, 1));
+        assertEquals(36 + 36 * 36, GeneratorEngine.capacity(1, 2));
+        assertEquals(36L * 36 * 36 * 36 * 36, GeneratorEngine.capacity(5, 5));
+        assertEquals(Long.MAX_VALUE, GeneratorEngine.capacity(0, 100));
+        assertEquals(Long.MAX_VALUE, GeneratorEngine.capacity(0, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> GeneratorEngine.capacity(3, 2));
+
+        // "user_" and "@x.org" take 11 characters
+        assertEquals(36 * 36, new GeneratorEngine(generator("user_", "@x.org", 13, 13)).getCapacity());
+        assertEquals(1 + 36, new GeneratorEngine(generator("user_", "@x.org", null, 12)).getCapacity());
+        assertEquals(Long.MAX_VALUE, new GeneratorEngine(generator("user_", null, 8, null)).getCapacity());
+    }
+
+    @Test
+    public void testValues() {
+        GeneratorEngine engine = new GeneratorEngine(generator("u_", "@x.org", 9, 10), 1);
+        assertEquals("u_a@x.org", engine.next());
+        assertEquals("u_b@x.org", engine.next());
+        for (int i = 2; i < 36; i++) {
+            engine.next();
+        }
+        assertEquals("u_aa@x.org", engine.next());
+        assertEquals("u_ab@x.org", engine.next());
+        assertEquals(38, engine.getGenerated());
+        assertEquals(36 + 36 * 36 - 38, engine.getRemaining());
+
+        StringBuilder sb = new StringBuilder("name=");
+        assertEquals("name=u_ac@x.org", engine.next(sb).toString());
+
+        GeneratorEngine noFixes = new GeneratorEngine(generator(null, null, 0, 1), 3);
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < 37; i++) {
+            values.add(noFixes.next());
+        }
+        assertEquals(37, values.size());
+        assertTrue(values.contains(""));
+    }
+
+    @Test
+    public void testExhaustion() {
+        // more stripes than values, so most stripes are empty from the start
+        GeneratorEngine engine = new GeneratorEngine(generator("p", null, 1, 2), 64);
+        assertEquals(37, engine.getCapacity());
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < 37; i++) {
+            String v = engine.next();
+            assertTrue(v.startsWith("p") && v.length() <= 2, v);
+            values.add(v);
+        }
+        assertEquals(37, values.size());
+        assertEquals(0, engine.getRemaining());
+        assertThrows(IllegalStateException.class, engine::next);
+        assertThrows(IllegalStateException.class, engine::next);
+        assertEquals(37, engine.getGenerated());
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorEngine(generator(null, null, 5, 4)));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorEngine(generator(null, null, -1, 4)));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorEngine(generator("abc", "de", null, 4)));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorEngine(generator(null, null, 1, 4), 0));
+    }
+
+    @Test
+    public void testConcurrentUniqueness() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        GeneratorEngine engine = new GeneratorEngine(generator("user_", null, 8, 9), 4);
+        long capacity = engine.getCapacity();
+        assertEquals(36 * 36 * 36 + 36 * 36 * 36 * 36, capacity);
+        assertTrue(threads * perThread < capacity);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<String> values = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        values.add(engine.next());
+                    }
+                    return values;
+                }));
+            }
+            start.countDown();
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> f : results) {
+                for (String v : f.get(60, TimeUnit.SECONDS)) {
+                    assertTrue(v.length() >= 8 && v.length() <= 9, v);
+                    assertTrue(all.add(v), v);
+                }
+            }
+            assertEquals(threads * perThread, all.size());
+            assertEquals(threads * perThread, engine.getGenerated());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.webfuzzing.commons.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeaderBlockTest {
+
+    private static Header header(String name, String value) {
+        Header h = new Header();
+        h.setName(name);
+        h.setValue(value);
+        return h;
+    }
+
+    @Test
+    public void testBlock() throws IOException {
+        AuthenticationInfo info = new AuthenticationInfo();
+        info.setFixedHeaders(Arrays.asList(header(" X-API-Key ", " abc "), header("Accept", "*/*"),
+                header("x-api-key", "caf\u00e9")));
+        HeaderBlock block = HeaderBlock.of(info);
+
+        assertEquals(3, block.size());
+        assertEquals("x-api-key", block.getName(0));
+        assertEquals("abc", block.getValue(0));
+        assertEquals("accept", block.getName(1));
+        assertEquals("abc", block.get("X-Api-Key"));
+        assertEquals("*/*", block.get("ACCEPT"));
+        assertNull(block.get("Authorization"));
+
+        byte[] expected = "x-api-key: abc\r\naccept: */*\r\nx-api-key: caf\u00e9\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(expected.length, block.getEncodedLength());
+        byte[] request = new byte[expected.length + 4];
+        assertEquals(2 + expected.length, block.writeTo(request, 2));
+        assertArrayEquals(expected, Arrays.copyOfRange(request, 2, 2 + expected.length));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        block.writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+
+        ByteBuffer buffer = block.asByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(expected.length, buffer.remaining());
+
+        List<String> pairs = new ArrayList<>();
+        block.forEach((n, v) -> pairs.add(n + "=" + v));
+        assertEquals(Arrays.asList("x-api-key=abc", "accept=*/*", "x-api-key=caf\u00e9"), pairs);
+
+        // no secrets
+        assertEquals("HeaderBlock[x-api-key, accept, x-api-key]", block.toString());
+    }
+
+    @Test
+    public void testEmptyAndConcat() {
+        assertSame(HeaderBlock.EMPTY, HeaderBlock.of(new AuthenticationInfo()));
+        assertEquals(0, HeaderBlock.EMPTY.getEncodedLength());
+
+        HeaderBlock a = HeaderBlock.of(Collections.singletonList(header("A", "1")));
+        HeaderBlock b = HeaderBlock.of(Collections.singletonList(header("B", "2")));
+        assertSame(a, a.concat(HeaderBlock.EMPTY));
+        assertSame(b, HeaderBlock.EMPTY.concat(b));
+        HeaderBlock ab = a.concat(b);
+        assertEquals(HeaderBlock.of(Arrays.asList(header("a", "1"), header("b", "2"))), ab);
+        assertEquals("a: 1\r\nb: 2\r\n", new String(toBytes(ab), StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] toBytes(HeaderBlock block) {
+        byte[] bytes = new byte[block.getEncodedLength()];
+        block.writeTo(bytes, 0);
+        return bytes;
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> HeaderBlock.of(Collections.singletonList(header("", "x"))));
+        assertThrows(IllegalArgumentException.class, () -> HeaderBlock.of(Collections.singletonList(header("A B", "x"))));
+        assertThrows(IllegalArgumentException.class, () -> HeaderBlock.of(Collections.singletonList(header("A:", "x"))));
+        assertThrows(IllegalArgumentException.class, () -> HeaderBlock.of(Collections.singletonList(header("A", null))));
+        // header injection
+        assertThrows(IllegalArgumentException.class,
+                () -> HeaderBlock.of(Collections.singletonList(header("A", "x\r\nCookie: y"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> HeaderBlock.of(Collections.singletonList(header("A", "\u20ac"))));
+    }
+}
@@ -0,0 +1,123 @@
+package com.webfuzzing.commons.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlaceholderTemplateTest {
+
+    private static Generator generator(String placeHolder) {
+        Generator g = new Generator();
+        g.setPlaceHolder(placeHolder);
+        return g;
+    }
+
+    @Test
+    public void testSendTemplate() {
+        TokenHandling handling = new TokenHandling();
+        handling.setSendTemplate("Bearer {token}");
+        PlaceholderTemplate template = PlaceholderTemplate.compile(handling);
+        assertEquals("Bearer abc", template.render("abc"));
+        assertEquals(1, template.getReferenceCount());
+
+        StringBuilder sb = new StringBuilder();
+        template.render(sb, "x");
+        sb.append(", ");
+        template.render(sb, new StringBuilder("y"));
+        assertEquals("Bearer x, Bearer y", sb.toString());
+
+        handling.setSendTemplate(null);
+        assertEquals("abc", PlaceholderTemplate.compile(handling).render("abc"));
+        handling.setSendTemplate("{token}:{token}");
+        assertEquals("a:a", PlaceholderTemplate.compile(handling).render(new StringBuilder(), "a").toString());
+    }
+
+    @Test
+    public void testPayload() {
+        CreateUsers createUsers = new CreateUsers();
+        createUsers.setPayloadRaw("{\"name\":\"{$username}\", \"email\":\"{$email}\", \"alias\":\"{$username}\"}");
+        createUsers.setGenerators(Arrays.asList(generator("{$username}"), generator("{$email}")));
+        PlaceholderTemplate template = PlaceholderTemplate.compile(createUsers);
+        assertEquals(Arrays.asList("{$username}", "{$email}"), template.getPlaceholders());
+        assertEquals(3, template.getReferenceCount());
+
+        String expected = "{\"name\":\"foo\", \"email\":\"foo@x.org\", \"alias\":\"foo\"}";
+        CharSequence[] values = {"foo", "foo@x.org"};
+        assertEquals(expected, template.render(values));
+        assertEquals(expected, template.render(new StringBuilder(), values).toString());
+
+        // values are not interpolated again
+        assertEquals("{\"name\":\"{$email}\", \"email\":\"e\", \"alias\":\"{$email}\"}", template.render("{$email}", "e"));
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("foo"));
+        assertThrows(IllegalStateException.class, () -> template.render(new StringBuilder(), "foo"));
+    }
+
+    @Test
+    public void testOverlappingPlaceholders() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("{a}{ab}{a b", "{a", "{ab}", "{a}");
+        assertEquals("321 b", template.render("1", "2", "3"));
+        assertEquals("no placeholders", PlaceholderTemplate.compile("no placeholders", "{x}").render("y"));
+        assertEquals("", PlaceholderTemplate.compile("", "{x}").render("y"));
+
+        assertThrows(IllegalArgumentException.class, () -> PlaceholderTemplate.compile("{x}", "{x}", "{x}"));
+        assertThrows(IllegalArgumentException.class, () -> PlaceholderTemplate.compile("{x}", ""));
+    }
+
+    @Test
+    public void testUtf8() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("\u00e9<{v}>\u20ac", "{v}");
+        for (String value : new String[]{"", "abc", "\u00fc\u4e2d", "\uD83D\uDE00", "bad\ud83d", "\ude00"}) {
+            CharSequence[] values = {value};
+            byte[] expected = template.render(values).getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, template.utf8Length(values), value);
+
+            byte[] buffer = new byte[expected.length + 4];
+            int end = template.renderUtf8(values, buffer, 2);
+            assertEquals(2 + expected.length, end);
+            assertArrayEquals(expected, Arrays.copyOfRange(buffer, 2, end), value);
+        }
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> template.renderUtf8(new CharSequence[]{"abc"}, new byte[5], 0));
+    }
+
+    @Test
+    public void testNoAllocation() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+
+        PlaceholderTemplate header = PlaceholderTemplate.compile("Bearer {token}", PlaceholderTemplate.TOKEN);
+        PlaceholderTemplate payload = PlaceholderTemplate.compile("{\"u\":\"{u}\",\"e\":\"{e}\"}", "{u}", "{e}");
+        StringBuilder sb = new StringBuilder(256);
+        byte[] buffer = new byte[256];
+        CharSequence[] values = {"user_42", "user_42@example.com"};
+        int n = 100_000;
+
+        long id = Thread.currentThread().getId();
+        long checksum = 0;
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < n; i++) {
+            sb.setLength(0);
+            checksum += header.render(sb, "token").length();
+            sb.setLength(0);
+            checksum += payload.render(sb, values).length();
+            checksum += payload.renderUtf8(values, buffer, 0);
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assertEquals(n * (12L + 2 * 41), checksum);
+        // a single string per call would already be several MB
+        assertTrue(allocated < 100_000, "" + allocated);
+    }
+}
@@ -0,0 +1,295 @@
+package com.webfuzzing.commons.auth;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenManagerTest {
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Status to return for the next requests, if not 200
+     */
+    private final Queue<Integer> errors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * If set, requests wait on it before answering
+     */
+    private volatile CountDownLatch gate;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/login", this::login);
+        server.createContext("/cookie", exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().add("Set-Cookie", "SESSION=s" + requests.get() + "; Path=/; HttpOnly");
+            exchange.getResponseHeaders().add("Set-Cookie", "XSRF=x");
+            exchange.getResponseHeaders().add("X-Auth-Token", "header-token");
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        int n = requests.incrementAndGet();
+        bodies.add(read(exchange.getRequestBody()));
+        CountDownLatch g = gate;
+        if (g != null) {
+            try {
+                g.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Integer error = errors.poll();
+        byte[] body = ("{\"data\":{\"token\":\"t" + n + "\",\"other\":[1,2]}}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(error == null ? 200 : error, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static AuthenticationInfo user(String name) {
+        PayloadUsernamePassword pwd = new PayloadUsernamePassword();
+        pwd.setUsername(name);
+        pwd.setPassword("secret \"" + name + "\"");
+        pwd.setUsernameField("user");
+        pwd.setPasswordField("pwd");
+
+        TokenHandling token = new TokenHandling();
+        token.setExtractFrom(TokenHandling.ExtractFrom.BODY);
+        token.setExtractSelector("/data/token");
+        token.setSendIn(TokenHandling.SendIn.HEADER);
+        token.setSendName("Authorization");
+        token.setSendTemplate("Bearer {token}");
+
+        LoginEndpoint login = new LoginEndpoint();
+        login.setEndpoint("/login");
+        login.setVerb(LoginEndpoint.HttpVerb.POST);
+        login.setContentType("application/json");
+        login.setPayloadUserPwd(pwd);
+        login.setToken(token);
+
+        AuthenticationInfo info = new AuthenticationInfo();
+        info.setName(name);
+        info.setLoginEndpointAuth(login);
+        return info;
+    }
+
+    private TokenManager manager(Duration ttl, Duration refreshAhead, Executor executor, AtomicLong clock,
+                                 AuthenticationInfo... users) {
+        return new TokenManager(Arrays.asList(users), new LoginClient(baseUrl), ttl, refreshAhead,
+                executor, clock::get);
+    }
+
+    @Test
+    public void testLogin() throws IOException {
+        try (TokenManager manager = new TokenManager(Arrays.asList(user("foo"), user("bar")),
+                new LoginClient(baseUrl), Duration.ofMinutes(5), Duration.ZERO)) {
+
+            LoginCredentials foo = manager.getCredentials("foo");
+            assertEquals("foo", foo.getName());
+            assertEquals("t1", foo.getToken());
+            assertEquals(TokenHandling.SendIn.HEADER, foo.getSendIn());
+            assertEquals("Authorization", foo.getSendName());
+            assertEquals("Bearer t1", foo.getSendValue());
+            assertNull(foo.getCookieHeader());
+            assertEquals("{\"user\":\"foo\",\"pwd\":\"secret \\\"foo\\\"\"}", bodies.get(0));
+
+            assertSame(foo, manager.getCredentials("foo"));
+            assertEquals("t2", manager.getCredentials("bar").getToken());
+            assertEquals(2, requests.get());
+            assertEquals(2, manager.getLoginCount());
+            assertEquals(1, manager.getHitCount());
+            assertEquals(new HashSet<>(Arrays.asList("foo", "bar")), manager.getNames());
+
+            assertThrows(IllegalArgumentException.class, () -> manager.getCredentials("unknown"));
+        }
+    }
+
+    @Test
+    public void testCookiesAndHeaderToken() throws IOException {
+        AuthenticationInfo info = user("foo");
+        LoginEndpoint login = info.getLoginEndpointAuth();
+        login.setEndpoint(null);
+        login.setExternalEndpointURL(baseUrl + "/cookie");
+        login.setContentType("application/x-www-form-urlencoded");
+        login.setExpectCookies(true);
+        // eg, built in code, instead of being read from a document
+        login.setHeaders(null);
+        login.getToken().setExtractFrom(TokenHandling.ExtractFrom.HEADER);
+        login.getToken().setExtractSelector("X-Auth-Token");
+        login.getToken().setSendIn(TokenHandling.SendIn.QUERY);
+        login.getToken().setSendName("access_token");
+        login.getToken().setSendTemplate("{token}");
+
+        LoginCredentials credentials = new LoginClient(null).login(info);
+        assertEquals("header-token", credentials.getToken());
+        assertEquals(TokenHandling.SendIn.QUERY, credentials.getSendIn());
+        assertEquals("header-token", credentials.getSendValue());
+        assertEquals(2, credentials.getCookies().size());
+        assertEquals("s1", credentials.getCookies().get("SESSION"));
+        assertEquals("SESSION=s1; XSRF=x", credentials.getCookieHeader());
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        gate = new CountDownLatch(1);
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (TokenManager manager = manager(Duration.ofMinutes(5), Duration.ZERO, null, new AtomicLong(),
+                user("foo"))) {
+            List<Future<LoginCredentials>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> manager.getCredentials("foo")));
+            }
+            while (requests.get() == 0) {
+                Thread.sleep(10);
+            }
+            // give time to the other threads to pile up
+            Thread.sleep(100);
+            gate.countDown();
+
+            LoginCredentials first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<LoginCredentials> f : results) {
+                assertSame(first, f.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, requests.get());
+            assertEquals(1, manager.getLoginCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExpiration() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        try (TokenManager manager = manager(Duration.ofNanos(100), Duration.ZERO, null, clock, user("foo"))) {
+            assertEquals("t1", manager.getCredentials("foo").getToken());
+            clock.set(99);
+            assertEquals("t1", manager.getCredentials("foo").getToken());
+            clock.set(100);
+            assertEquals("t2", manager.getCredentials("foo").getToken());
+            assertEquals("t2", manager.getCredentials("foo").getToken());
+
+            manager.invalidate("foo");
+            assertEquals("t3", manager.getCredentials("foo").getToken());
+            assertEquals(3, manager.getLoginCount());
+        }
+    }
+
+    @Test
+    public void testRefreshAhead() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>();
+        try (TokenManager manager = manager(Duration.ofNanos(100), Duration.ofNanos(20), tasks::add, clock,
+                user("foo"))) {
+            assertEquals("t1", manager.getCredentials("foo").getToken());
+            clock.set(79);
+            assertEquals("t1", manager.getCredentials("foo").getToken());
+            assertTrue(tasks.isEmpty());
+
+            // in the refresh window, current token is still returned, and only one refresh is started
+            clock.set(80);
+            assertEquals("t1", manager.getCredentials("foo").getToken());
+            assertEquals("t1", manager.getCredentials("foo").getToken());
+            assertEquals(1, tasks.size());
+            assertEquals(1, requests.get());
+
+            tasks.remove(0).run();
+            assertEquals(2, requests.get());
+            assertEquals("t2", manager.getCredentials("foo").getToken());
+
+            // new token expires at 180
+            clock.set(179);
+            assertEquals("t2", manager.getCredentials("foo").getToken());
+            assertEquals(1, tasks.size());
+
+            // failed refresh keeps the current token
+            errors.add(503);
+            tasks.remove(0).run();
+            assertEquals("t2", manager.getCredentials("foo").getToken());
+            assertEquals(1, manager.getFailureCount());
+        }
+    }
+
+    @Test
+    public void testFailureIsRetried() throws IOException {
+        errors.add(401);
+        try (TokenManager manager = manager(Duration.ofMinutes(5), Duration.ZERO, null, new AtomicLong(),
+                user("foo"))) {
+            IOException e = assertThrows(IOException.class, () -> manager.getCredentials("foo"));
+            assertTrue(e.getMessage().contains("401"), e.getMessage());
+            assertEquals("t2", manager.getCredentials("foo").getToken());
+            assertEquals(2, manager.getLoginCount());
+            assertEquals(1, manager.getFailureCount());
+        }
+    }
+
+    @Test
+    public void testMissingToken() {
+        AuthenticationInfo info = user("foo");
+        info.getLoginEndpointAuth().getToken().setExtractSelector("/data/missing");
+        IOException e = assertThrows(IOException.class, () -> new LoginClient(baseUrl).login(info));
+        assertTrue(e.getMessage().contains("/data/missing"), e.getMessage());
+    }
+
+    @Test
+    public void testUnsupportedVerb() {
+        AuthenticationInfo get = user("foo");
+        get.getLoginEndpointAuth().setVerb(LoginEndpoint.HttpVerb.GET);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new LoginClient(baseUrl).login(get));
+        assertTrue(e.getMessage().contains("GET"), e.getMessage());
+
+        AuthenticationInfo patch = user("foo");
+        patch.getLoginEndpointAuth().setVerb(LoginEndpoint.HttpVerb.PATCH);
+        e = assertThrows(IllegalArgumentException.class, () -> new LoginClient(baseUrl).login(patch));
+        assertTrue(e.getMessage().contains("PATCH"), e.getMessage());
+        assertEquals(0, requests.get());
+    }
+}
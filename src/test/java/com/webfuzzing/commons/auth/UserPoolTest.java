@@ -0,0 +1,176 @@
+package com.webfuzzing.commons.auth;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserPoolTest {
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile int status = 201;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/users", exchange -> {
+            requests.incrementAndGet();
+            assertEquals("PUT", exchange.getRequestMethod());
+            assertEquals("application/json", exchange.getRequestHeaders().getFirst("Content-Type"));
+            bodies.add(read(exchange.getRequestBody()));
+            byte[] response = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static CreateUsers createUsers() {
+        Generator username = new Generator();
+        username.setPlaceHolder("{$username}");
+        username.setPrefix("user_");
+        username.setMinLength(8);
+        Generator password = new Generator();
+        password.setPlaceHolder("{$password}");
+        password.setPrefix("pwd-");
+        password.setMinLength(12);
+        password.setMaxLength(12);
+
+        CreateUsers createUsers = new CreateUsers();
+        createUsers.setEndpoint("/users");
+        createUsers.setVerb(LoginEndpoint.HttpVerb.PUT);
+        createUsers.setContentType("application/json");
+        createUsers.setPayloadRaw("{\"username\":\"{$username}\",\"password\":\"{$password}\"}");
+        createUsers.setGenerators(Arrays.asList(username, password));
+        return createUsers;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testCreationClient() throws IOException {
+        UserCreationClient client = new UserCreationClient(baseUrl, createUsers());
+        CreatedUser first = client.create();
+        CreatedUser second = client.create();
+
+        String username = first.getValue("{$username}");
+        String password = first.getValue("{$password}");
+        assertTrue(username.matches("user_[a-z0-9]{3}"), username);
+        assertTrue(password.matches("pwd-[a-z0-9]{8}"), password);
+        assertNotEquals(username, second.getValue("{$username}"));
+        assertNotEquals(password, second.getValue("{$password}"));
+        assertEquals(Arrays.asList("{$username}", "{$password}"), new ArrayList<>(first.getValues().keySet()));
+        assertEquals("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}", bodies.get(0));
+
+        status = 409;
+        IOException e = assertThrows(IOException.class, client::create);
+        assertTrue(e.getMessage().contains("409"), e.getMessage());
+
+        CreateUsers incomplete = createUsers();
+        incomplete.setEndpoint(null);
+        assertThrows(IllegalArgumentException.class, () -> new UserCreationClient(baseUrl, incomplete));
+
+        for (LoginEndpoint.HttpVerb verb : Arrays.asList(LoginEndpoint.HttpVerb.GET, LoginEndpoint.HttpVerb.PATCH)) {
+            CreateUsers unsupported = createUsers();
+            unsupported.setVerb(verb);
+            IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+                    () -> new UserCreationClient(baseUrl, unsupported));
+            assertTrue(iae.getMessage().contains(verb.value()), iae.getMessage());
+        }
+    }
+
+    @Test
+    public void testPool() throws Exception {
+        try (UserPool pool = new UserPool(new UserCreationClient(baseUrl, createUsers()), 20, 5, 3)) {
+            await(() -> pool.getSize() == 20);
+            assertEquals(20, pool.getCreatedCount());
+
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < 15; i++) {
+                CreatedUser user = pool.poll();
+                assertNotNull(user);
+                assertTrue(names.add(user.getValue("{$username}")));
+            }
+            assertEquals(15, pool.getHitCount());
+            assertEquals(0, pool.getMissCount());
+
+            // refilled in background, after going below half
+            await(() -> pool.getSize() == 20);
+            assertEquals(35, requests.get());
+            while (pool.getSize() > 0) {
+                assertTrue(names.add(pool.poll().getValue("{$username}")));
+            }
+            assertEquals(0, pool.getFailureCount());
+        }
+    }
+
+    @Test
+    public void testMissAndFailure() throws Exception {
+        status = 500;
+        try (UserPool pool = new UserPool(new UserCreationClient(baseUrl, createUsers()), 10, 4, 2)) {
+            await(() -> pool.getFailureCount() == 4);
+            // a failed batch stops the refill
+            Thread.sleep(50);
+            assertEquals(4, requests.get());
+            assertNotNull(pool.getLastFailure());
+
+            assertNull(pool.poll());
+            assertEquals(1, pool.getMissCount());
+            assertThrows(IOException.class, pool::acquire);
+
+            // server is back: acquire creates in the caller, and the pool is refilled
+            status = 201;
+            assertNotNull(pool.acquire());
+            await(() -> pool.getSize() == 10);
+            assertEquals(0, pool.getHitCount());
+            assertNotNull(pool.poll());
+            assertEquals(1, pool.getHitCount());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.webfuzzing.commons.faults;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FaultCategoryRegistryTest {
+
+    private static class CustomCategory implements FaultCategory {
+
+        private final int code;
+        private final String name;
+
+        CustomCategory(int code, String name) {
+            this.code = code;
+            this.name = name;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+
+        @Override
+        public String getDescriptiveName() {
+            return name;
+        }
+
+        @Override
+        public String getTestCaseLabel() {
+            return "custom" + name;
+        }
+
+        @Override
+        public String getFullDescription() {
+            return "Custom " + name;
+        }
+    }
+
+    @Test
+    public void testDefinedAreRegistered() {
+
+        FaultCategoryRegistry registry = new FaultCategoryRegistry();
+        assertEquals(DefinedFaultCategory.values().length, registry.size());
+
+        for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+            assertSame(c, registry.fromCode(c.getCode()));
+            assertSame(c, registry.fromLabel(c.getLabel()));
+            assertSame(c, registry.fromTestCaseLabel(c.getTestCaseLabel()));
+        }
+        assertNull(registry.fromCode(900));
+        assertNull(registry.fromCode(1000));
+        assertNull(registry.fromCode(-5));
+    }
+
+    @Test
+    public void testRegister() {
+
+        FaultCategoryRegistry registry = new FaultCategoryRegistry();
+        CustomCategory foo = new CustomCategory(901, "Foo");
+        registry.register(foo);
+
+        assertSame(foo, registry.fromCode(901));
+        assertSame(foo, registry.fromLabel("F901:Foo"));
+        assertSame(foo, registry.fromTestCaseLabel("customFoo"));
+        assertTrue(registry.isRegistered(901));
+        assertEquals(DefinedFaultCategory.values().length + 1, registry.size());
+
+        List<FaultCategory> all = registry.getAll();
+        assertSame(foo, all.get(all.size() - 1));
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getCode() < all.get(i).getCode());
+        }
+    }
+
+    @Test
+    public void testRejectNonCustomCode() {
+
+        FaultCategoryRegistry registry = new FaultCategoryRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new CustomCategory(150, "Foo")));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new CustomCategory(1000, "Foo")));
+        assertEquals(DefinedFaultCategory.values().length, registry.size());
+    }
+
+    @Test
+    public void testRejectCollisionsAtomically() {
+
+        FaultCategoryRegistry registry = new FaultCategoryRegistry();
+        registry.register(new CustomCategory(900, "Foo"));
+
+        // same code
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new CustomCategory(900, "Bar")));
+        // same test case label
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new CustomCategory(901, "Foo")));
+
+        // batch with collision in last element: nothing should be registered
+        assertThrows(IllegalArgumentException.class, () -> registry.registerAll(Arrays.asList(
+                new CustomCategory(902, "A"),
+                new CustomCategory(903, "B"),
+                new CustomCategory(904, "A"))));
+
+        assertEquals(DefinedFaultCategory.values().length + 1, registry.size());
+        assertNull(registry.fromCode(902));
+        assertNull(registry.fromCode(903));
+    }
+
+    @Test
+    public void testConcurrentRegistrations() throws Exception {
+
+        FaultCategoryRegistry registry = new FaultCategoryRegistry();
+        int nThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger(0);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < nThreads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int code = 900; code <= 999; code++) {
+                        try {
+                            // all threads try to register the same codes, only one should win for each
+                            registry.register(new CustomCategory(code, "T" + thread + "_" + code));
+                        } catch (IllegalArgumentException e) {
+                            failures.incrementAndGet();
+                        }
+                        // lookups while others are writing
+                        assertNotNull(registry.fromCode(100));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(100 * (nThreads - 1), failures.get());
+        assertEquals(DefinedFaultCategory.values().length + 100, registry.size());
+        for (int code = 900; code <= 999; code++) {
+            assertNotNull(registry.fromCode(code));
+        }
+    }
+}
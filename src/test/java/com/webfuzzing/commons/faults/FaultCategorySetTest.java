@@ -0,0 +1,137 @@
+package com.webfuzzing.commons.faults;
+
+import com.webfuzzing.commons.report.FaultCategoryId;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FaultCategorySetTest {
+
+    @Test
+    public void testAddContainsRemove() {
+
+        FaultCategorySet set = new FaultCategorySet();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(100));
+
+        assertTrue(set.add(100));
+        assertFalse(set.add(100));
+        assertTrue(set.add(999));
+        assertTrue(set.add(DefinedFaultCategory.SQL_INJECTION));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(100));
+        assertTrue(set.contains(200));
+        assertTrue(set.contains(999));
+        assertFalse(set.contains(101));
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(1000));
+
+        assertTrue(set.remove(999));
+        assertFalse(set.remove(999));
+        assertFalse(set.remove(5000));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void testInvalidCodes() {
+
+        FaultCategorySet set = new FaultCategorySet();
+        assertThrows(IllegalArgumentException.class, () -> set.add(99));
+        assertThrows(IllegalArgumentException.class, () -> set.add(1000));
+        assertThrows(IllegalArgumentException.class, () -> FaultCategorySet.of(-1));
+    }
+
+    @Test
+    public void testIterationInCodeOrder() {
+
+        FaultCategorySet set = FaultCategorySet.of(999, 205, 100, 163, 164, 900, 101);
+        assertArrayEquals(new int[]{100, 101, 163, 164, 205, 900, 999}, set.toArray());
+        assertEquals("[100, 101, 163, 164, 205, 900, 999]", set.toString());
+
+        List<Integer> visited = new ArrayList<>();
+        set.forEach(visited::add);
+        assertEquals(Arrays.asList(100, 101, 163, 164, 205, 900, 999), visited);
+
+        assertEquals(163, set.nextCode(102));
+        assertEquals(100, set.nextCode(-3));
+        assertEquals(-1, set.nextCode(1000));
+        assertEquals(-1, new FaultCategorySet().nextCode(0));
+    }
+
+    @Test
+    public void testSetOperations() {
+
+        FaultCategorySet a = FaultCategorySet.of(100, 101, 200, 901);
+        FaultCategorySet b = FaultCategorySet.of(101, 200, 202);
+
+        assertEquals(FaultCategorySet.of(100, 101, 200, 202, 901), FaultCategorySet.union(a, b));
+        assertEquals(FaultCategorySet.of(101, 200), FaultCategorySet.intersection(a, b));
+        assertEquals(FaultCategorySet.of(101, 200), FaultCategorySet.intersection(b, a));
+        assertTrue(a.intersects(b));
+        assertFalse(a.containsAll(b));
+        assertTrue(FaultCategorySet.union(a, b).containsAll(b));
+
+        FaultCategorySet c = a.copy();
+        c.removeAll(b);
+        assertEquals(FaultCategorySet.of(100, 901), c);
+        // copies are independent
+        assertEquals(4, a.size());
+
+        assertFalse(FaultCategorySet.of(100).intersects(FaultCategorySet.of(999)));
+    }
+
+    @Test
+    public void testEqualsIgnoresCapacity() {
+
+        FaultCategorySet a = FaultCategorySet.of(100, 999);
+        a.remove(999);
+        FaultCategorySet b = FaultCategorySet.of(100);
+
+        assertEquals(a, b);
+        assertEquals(b, a);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        a.clear();
+        assertEquals(new FaultCategorySet(), a);
+        assertEquals(new FaultCategorySet().hashCode(), a.hashCode());
+    }
+
+    @Test
+    public void testConversionWithIds() {
+
+        Set<FaultCategoryId> ids = new LinkedHashSet<>();
+        ids.add(id(200, "foo"));
+        ids.add(id(100, null));
+        ids.add(id(200, "bar"));
+
+        FaultCategorySet set = FaultCategorySet.ofIds(ids);
+        assertEquals(FaultCategorySet.of(100, 200), set);
+
+        List<Integer> codes = new ArrayList<>();
+        for (FaultCategoryId id : set.toIds()) {
+            codes.add(id.getCode());
+            assertNull(id.getContext());
+        }
+        assertEquals(Arrays.asList(100, 200), codes);
+    }
+
+    @Test
+    public void testAllDefined() {
+
+        FaultCategorySet set = FaultCategorySet.ofCategories(Arrays.asList(DefinedFaultCategory.values()));
+        assertEquals(DefinedFaultCategory.values().length, set.size());
+        for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+            assertTrue(set.contains(c));
+        }
+    }
+
+    private static FaultCategoryId id(int code, String context) {
+        FaultCategoryId id = new FaultCategoryId();
+        id.setCode(code);
+        id.setContext(context);
+        return id;
+    }
+}
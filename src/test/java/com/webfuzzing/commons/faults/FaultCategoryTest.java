@@ -5,7 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class FaultCategoryTest {
 
@@ -20,4 +20,46 @@ class FaultCategoryTest {
 
         assertEquals(total, unique, "Mismatch: " + total + " != " + unique);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFromCode() {
+
+        for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+            assertSame(c, DefinedFaultCategory.fromCode(c.getCode()));
+            assertTrue(DefinedFaultCategory.isDefined(c.getCode()));
+        }
+
+        assertNull(DefinedFaultCategory.fromCode(-1));
+        assertNull(DefinedFaultCategory.fromCode(0));
+        assertNull(DefinedFaultCategory.fromCode(199));
+        assertNull(DefinedFaultCategory.fromCode(999));
+        assertNull(DefinedFaultCategory.fromCode(Integer.MAX_VALUE));
+        assertFalse(DefinedFaultCategory.isDefined(999));
+    }
+
+    @Test
+    public void testFromLabels() {
+
+        for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+            assertSame(c, DefinedFaultCategory.fromTestCaseLabel(c.getTestCaseLabel()));
+            assertSame(c, DefinedFaultCategory.fromLabel(c.getLabel()));
+        }
+
+        assertSame(DefinedFaultCategory.HTTP_STATUS_500, DefinedFaultCategory.fromLabel("F100:HTTP Status 500"));
+        assertSame(DefinedFaultCategory.SQL_INJECTION, DefinedFaultCategory.fromTestCaseLabel("vulnerableToSQLInjection"));
+
+        assertNull(DefinedFaultCategory.fromLabel(null));
+        assertNull(DefinedFaultCategory.fromLabel("F100"));
+        assertNull(DefinedFaultCategory.fromTestCaseLabel(null));
+        assertNull(DefinedFaultCategory.fromTestCaseLabel("foo"));
+    }
+
+    @Test
+    public void testCodesInValidRange() {
+
+        for (DefinedFaultCategory c : DefinedFaultCategory.values()) {
+            assertTrue(c.getCode() >= FaultCategory.MIN_CODE, c.name());
+            assertTrue(c.getCode() < 900, "9xx codes are reserved for custom categories: " + c.name());
+        }
+    }
+}
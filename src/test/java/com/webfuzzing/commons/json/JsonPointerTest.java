@@ -0,0 +1,95 @@
+package com.webfuzzing.commons.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonPointerTest {
+
+    /**
+     * Example from RFC 6901
+     */
+    private static final String RFC = "{\"foo\": [\"bar\", \"baz\"], \"\": 0, \"a/b\": 1, \"c%d\": 2, \"e^f\": 3,"
+            + " \"g|h\": 4, \"i\\\\j\": 5, \"k\\\"l\": 6, \" \": 7, \"m~n\": 8}";
+
+    private static String extract(String pointer, String json) throws IOException {
+        return JsonPointer.compile(pointer).extractString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRfcExamples() throws IOException {
+        assertNull(extract("", RFC));
+        assertNull(extract("/foo", RFC));
+        assertEquals("bar", extract("/foo/0", RFC));
+        assertEquals("baz", extract("/foo/1", RFC));
+        assertEquals("0", extract("/", RFC));
+        assertEquals("1", extract("/a~1b", RFC));
+        assertEquals("2", extract("/c%d", RFC));
+        assertEquals("3", extract("/e^f", RFC));
+        assertEquals("4", extract("/g|h", RFC));
+        assertEquals("5", extract("/i\\j", RFC));
+        assertEquals("6", extract("/k\"l", RFC));
+        assertEquals("7", extract("/ ", RFC));
+        assertEquals("8", extract("/m~0n", RFC));
+    }
+
+    @Test
+    public void testValues() throws IOException {
+        String json = "{\"a\":{\"b\":[{\"x\":1},{\"token\":\"abc\\u00e9\",\"n\":12345678901,\"t\":true,\"z\":null}]}}";
+        assertEquals("abc\u00e9", extract("/a/b/1/token", json));
+        assertEquals("12345678901", extract("/a/b/1/n", json));
+        assertEquals("true", extract("/a/b/1/t", json));
+        assertNull(extract("/a/b/1/z", json));
+        assertEquals("1", extract("/a/b/0/x", json));
+        assertEquals("text", extract("", "\"text\""));
+
+        // missing
+        assertNull(extract("/a/b/2/token", json));
+        assertNull(extract("/a/b/-", json));
+        assertNull(extract("/a/b/01", json));
+        assertNull(extract("/a/c", json));
+        assertNull(extract("/a/b/0/x/y", json));
+    }
+
+    @Test
+    public void testStopsAtTarget() throws IOException {
+        // the rest of the document is not read, even if invalid
+        byte[] data = "{\"token\":\"abc\", \"rest\": [1, 2, !!!".getBytes(StandardCharsets.UTF_8);
+        int[] read = new int[1];
+        InputStream in = new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                // one byte at a time, to know how far the reader went
+                int n = super.read(b, off, Math.min(len, 1));
+                read[0] += Math.max(n, 0);
+                return n;
+            }
+        };
+        assertEquals("abc", JsonPointer.compile("/token").extractString(in));
+        assertTrue(read[0] <= "{\"token\":\"abc\",".length(), "" + read[0]);
+
+        assertThrows(JsonFormatException.class, () -> extract("/rest/5", new String(data, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testCompile() {
+        JsonPointer pointer = JsonPointer.compile("/a~1b/~0/0");
+        assertEquals(3, pointer.size());
+        assertEquals("a/b", pointer.getToken(0));
+        assertEquals("~", pointer.getToken(1));
+        assertEquals("0", pointer.getToken(2));
+        assertEquals("/a~1b/~0/0", pointer.toString());
+        assertEquals(pointer, JsonPointer.compile("/a~1b/~0/0"));
+        assertEquals(0, JsonPointer.compile("").size());
+
+        assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile("token"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile("/a~2"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile("/a~"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile(null));
+    }
+}
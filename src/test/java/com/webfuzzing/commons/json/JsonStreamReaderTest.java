@@ -0,0 +1,190 @@
+package com.webfuzzing.commons.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonStreamReaderTest {
+
+    private static JsonStreamReader reader(String json, int bufferSize) {
+        return new JsonStreamReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+
+    @Test
+    public void testTokens() throws IOException {
+
+        JsonStreamReader json = reader(" {\"a\": 1, \"b\" : [\"x\", null, true, -4.5e1],\n \"c\":{}} ", 8192);
+
+        assertEquals(JsonToken.BEGIN_OBJECT, json.peek());
+        json.beginObject();
+        assertEquals(JsonToken.NAME, json.peek());
+        assertEquals("a", json.nextName());
+        assertEquals(1, json.nextInt());
+        assertEquals("b", json.nextName());
+        json.beginArray();
+        assertEquals("x", json.nextString());
+        assertEquals(JsonToken.NULL, json.peek());
+        assertNull(json.nextNullableString());
+        assertTrue(json.nextBoolean());
+        assertEquals(-45.0, json.nextDouble());
+        assertFalse(json.hasNext());
+        json.endArray();
+        assertEquals("c", json.nextName());
+        json.beginObject();
+        assertFalse(json.hasNext());
+        json.endObject();
+        json.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, json.peek());
+    }
+
+    @Test
+    public void testStringsSameAsJackson() throws IOException {
+
+        List<String> values = Arrays.asList(
+                "",
+                "plain",
+                "quote \" backslash \\ slash / tab \t new line \n",
+                "control \u0000 \u001f \u007f",
+                "latin \u00e8\u00e0 greek \u03b1\u03b2 cjk \u4e2d\u6587",
+                "emoji \uD83D\uDE00 end",
+                "escaped unicode: \\u00e8 is not decoded twice"
+        );
+        byte[] data = new ObjectMapper().writeValueAsBytes(values);
+        // also unicode escapes written by other tools, eg, for non-ASCII characters
+        String escaped = "[\"\\u00e8\\uD83D\\uDE00\\/\"]";
+
+        for (int size : new int[]{32, 64, 8192}) {
+            JsonStreamReader json = new JsonStreamReader(new ByteArrayInputStream(data), size);
+            List<String> read = new ArrayList<>();
+            json.beginArray();
+            while (json.hasNext()) {
+                read.add(json.nextString());
+            }
+            json.endArray();
+            assertEquals(values, read);
+
+            json = reader(escaped, size);
+            json.beginArray();
+            assertEquals("\u00e8\uD83D\uDE00/", json.nextString());
+        }
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+
+        JsonStreamReader json = reader("[0, -1, 2147483648, 123456789012345678901234567890, 0.5, 1E3, -0.0]", 8192);
+        json.beginArray();
+        assertEquals(0, json.nextNumber());
+        assertEquals(-1, json.nextInt());
+        assertEquals(2147483648L, json.nextNumber());
+        assertEquals(new BigInteger("123456789012345678901234567890"), json.nextNumber());
+        assertEquals(0.5, json.nextNumber());
+        assertEquals(1000.0, json.nextDouble());
+        assertEquals(-0.0, json.nextDouble());
+        json.endArray();
+
+        JsonStreamReader overflow = reader("[2147483648]", 8192);
+        overflow.beginArray();
+        assertThrows(JsonFormatException.class, overflow::nextInt);
+
+        JsonStreamReader fraction = reader("[1.5]", 8192);
+        fraction.beginArray();
+        assertThrows(JsonFormatException.class, fraction::nextLong);
+    }
+
+    @Test
+    public void testNextAnySameAsJackson() throws IOException {
+
+        String s = "{\"a\":[1,2.5,\"x\",{\"b\":null,\"c\":false}],\"d\":{},\"e\":[]}";
+        @SuppressWarnings("unchecked")
+        Map<String, Object> expected = new ObjectMapper().readValue(s, Map.class);
+
+        Object read = reader(s, 8192).nextAny();
+        assertEquals(expected, read);
+        assertTrue(read instanceof LinkedHashMap);
+    }
+
+    @Test
+    public void testSkipValue() throws IOException {
+
+        JsonStreamReader json = reader("{\"a\":{\"b\":[1,{\"c\":\"}]\\\"\"},[]]},\"x\":true}", 32);
+        json.beginObject();
+        assertEquals("a", json.nextName());
+        json.skipValue();
+        assertEquals("x", json.nextName());
+        assertTrue(json.nextBoolean());
+        json.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, json.peek());
+    }
+
+    @Test
+    public void testTokenLocation() throws IOException {
+
+        JsonStreamReader json = reader("{\"a\": [1, true,\n   \"x\"], \"b\"  :null}", 3);
+        json.beginObject();
+        assertEquals(1, json.getTokenLine());
+        assertEquals(1, json.getTokenColumn());
+        json.peek();
+        assertEquals(2, json.getTokenColumn());
+        json.nextName();
+        json.beginArray();
+        assertEquals(7, json.getTokenColumn());
+        json.nextInt();
+        json.peek();
+        assertEquals(11, json.getTokenColumn());
+        json.nextBoolean();
+        json.peek();
+        assertEquals(2, json.getTokenLine());
+        assertEquals(4, json.getTokenColumn());
+        json.nextString();
+        json.endArray();
+        assertEquals("b", json.nextName());
+        assertEquals(2, json.getTokenLine());
+        assertEquals(10, json.getTokenColumn());
+        json.nextNull();
+        assertEquals(16, json.getTokenColumn());
+    }
+
+    @Test
+    public void testErrorLocation() throws IOException {
+
+        JsonStreamReader json = reader("{\"a\":[1,\n  2,\n  x]}", 8192);
+        json.beginObject();
+        json.nextName();
+        json.beginArray();
+        json.nextInt();
+        json.nextInt();
+
+        JsonFormatException e = assertThrows(JsonFormatException.class, json::peek);
+        assertEquals(3, e.getLine());
+        assertEquals(3, e.getColumn());
+        assertEquals("$.a[2]", e.getPath());
+
+        JsonStreamReader wrongType = reader("{\"a\":\"x\"}", 8192);
+        wrongType.beginObject();
+        wrongType.nextName();
+        e = assertThrows(JsonFormatException.class, wrongType::nextInt);
+        assertEquals("$.a", e.getPath());
+
+        assertThrows(JsonFormatException.class, () -> reader("[1,]", 8192).nextAny());
+        assertThrows(JsonFormatException.class, () -> reader("{\"a\" 1}", 8192).nextAny());
+        assertThrows(JsonFormatException.class, () -> reader("[\"unterminated", 8192).nextAny());
+        assertThrows(JsonFormatException.class, () -> reader("[tru]", 8192).nextAny());
+    }
+
+    @Test
+    public void testByteArrayWithOffset() throws IOException {
+
+        byte[] data = "xx[\"a\",\"b\"]yy".getBytes(StandardCharsets.UTF_8);
+        JsonStreamReader json = new JsonStreamReader(data, 2, 9);
+        assertEquals(Arrays.asList("a", "b"), json.nextAny());
+        assertEquals(JsonToken.END_DOCUMENT, json.peek());
+    }
+}
@@ -0,0 +1,131 @@
+package com.webfuzzing.commons.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonStreamWriterTest {
+
+    private static String write(JsonConsumer consumer, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonStreamWriter json = new JsonStreamWriter(out, bufferSize)) {
+            consumer.accept(json);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface JsonConsumer {
+        void accept(JsonStreamWriter json) throws IOException;
+    }
+
+    @Test
+    public void testStructure() throws IOException {
+
+        String json = write(j -> j.beginObject()
+                .name("a").value(1)
+                .name("b").beginArray().value("x").nullValue().value(true).value(-42L).endArray()
+                .name("c").beginObject().endObject()
+                .name("d").beginArray().beginObject().name("e").value(false).endObject().beginArray().endArray().endArray()
+                .endObject(), 8192);
+
+        assertEquals("{\"a\":1,\"b\":[\"x\",null,true,-42],\"c\":{},\"d\":[{\"e\":false},[]]}", json);
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+
+        String json = write(j -> j.beginArray()
+                .value(0).value(9).value(10).value(Long.MAX_VALUE).value(Long.MIN_VALUE)
+                .value(Integer.valueOf(7)).value(1.5d).value((Number) null)
+                .endArray(), 32);
+
+        assertEquals("[0,9,10," + Long.MAX_VALUE + "," + Long.MIN_VALUE + ",7,1.5,null]", json);
+    }
+
+    @Test
+    public void testStringsSameAsJackson() throws IOException {
+
+        StringBuilder all = new StringBuilder();
+        for (char c = 0; c < 256; c++) {
+            all.append(c);
+        }
+        List<String> values = Arrays.asList(
+                "",
+                "hello",
+                "quote \" and backslash \\ and slash /",
+                "tab\t newline\n return\r backspace\b formfeed\f",
+                all.toString(),
+                "Instance type (null) does not match any allowed primitive type (allowed: [\"string\"])",
+                "\u00e6\u00f8\u00e5 \u20ac \u4e2d\u6587 \ud83d\ude00 end"
+        );
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (String v : values) {
+            // small buffer, to check flushes in the middle of escapes and multi-byte chars
+            String json = write(j -> j.value(v), 32);
+            assertEquals(mapper.writeValueAsString(v), json);
+            assertEquals(v, mapper.readValue(json, String.class));
+        }
+    }
+
+    @Test
+    public void testUnpairedSurrogates() throws IOException {
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (String v : Arrays.asList("\ud83d", "a\ud83d b", "\ude00", "\ude00\ud83d")) {
+            // escaped, instead of replaced by '?' as done by String.getBytes()
+            String json = write(j -> j.value(v), 32);
+            assertArrayEquals(mapper.writeValueAsBytes(v), json.getBytes(StandardCharsets.UTF_8));
+            assertEquals(v, mapper.readValue(json, String.class));
+        }
+    }
+
+    @Test
+    public void testAnyValue() throws IOException {
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("s", "foo");
+        map.put("n", 3);
+        map.put("l", Arrays.asList(1, "two", null, false));
+        map.put("m", Collections.singletonMap("x", 1.25));
+        map.put("a", new Object[]{"y"});
+
+        String json = write(j -> j.anyValue(map), 8192);
+        assertEquals("{\"s\":\"foo\",\"n\":3,\"l\":[1,\"two\",null,false],\"m\":{\"x\":1.25},\"a\":[\"y\"]}", json);
+
+        assertThrows(IllegalArgumentException.class, () -> write(j -> j.anyValue(new Object()), 8192));
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonStreamWriter json = new JsonStreamWriter(Channels.newChannel(out), 32)) {
+            json.beginArray();
+            for (int i = 0; i < 100; i++) {
+                json.value("value_" + i);
+            }
+            json.endArray();
+        }
+        String s = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(s.startsWith("[\"value_0\",\"value_1\","));
+        assertTrue(s.endsWith(",\"value_99\"]"));
+    }
+
+    @Test
+    public void testInvalidStructure() {
+
+        assertThrows(IllegalStateException.class, () -> write(j -> j.name("a"), 8192));
+        assertThrows(IllegalStateException.class, () -> write(j -> j.endObject(), 8192));
+        assertThrows(IllegalStateException.class, () -> write(j -> j.beginObject().name("a").name("b"), 8192));
+        assertThrows(IllegalStateException.class, () -> write(j -> j.beginObject().name("a").endObject(), 8192));
+    }
+}
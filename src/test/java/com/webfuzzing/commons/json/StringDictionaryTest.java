@@ -0,0 +1,83 @@
+package com.webfuzzing.commons.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void testIds() {
+
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(0, dictionary.size());
+        assertEquals(-1, dictionary.find("a"));
+
+        assertEquals(0, dictionary.idOf("a"));
+        assertEquals(1, dictionary.idOf("b"));
+        assertEquals(0, dictionary.idOf(new String("a")));
+        assertEquals(2, dictionary.idOf(""));
+        assertEquals(1, dictionary.find("b"));
+        assertEquals(3, dictionary.size());
+        assertEquals("b", dictionary.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.get(3));
+        assertNull(dictionary.intern((String) null));
+    }
+
+    @Test
+    public void testSameInstance() {
+
+        StringDictionary dictionary = new StringDictionary();
+        String s = "GET:/app/api/projects";
+        String interned = dictionary.intern(new String(s));
+
+        assertSame(interned, dictionary.intern(new String(s)));
+        assertSame(interned, dictionary.intern(s.toCharArray(), 0, s.length()));
+        byte[] bytes = ("xx" + s + "yy").getBytes(StandardCharsets.US_ASCII);
+        assertSame(interned, dictionary.internLatin1(bytes, 2, s.length()));
+
+        String nonAscii = "caf\u00e9 \u4e2d";
+        char[] chars = ("[" + nonAscii + "]").toCharArray();
+        assertSame(dictionary.intern(nonAscii), dictionary.intern(chars, 1, nonAscii.length()));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void testGrowth() {
+
+        StringDictionary dictionary = new StringDictionary();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            values.add(dictionary.intern("value " + i));
+        }
+        assertEquals(100_000, dictionary.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertSame(values.get(i), dictionary.intern("value " + i));
+            assertEquals(i, dictionary.find("value " + i));
+        }
+    }
+
+    @Test
+    public void testWithReader() throws IOException {
+
+        String json = "[\"GET:/x\",\"caf\\u00e9\",\"GET:/x\",\"caf\u00e9\",{\"GET:/x\":1}]";
+        JsonStreamReader reader = new JsonStreamReader(json.getBytes(StandardCharsets.UTF_8));
+        StringDictionary dictionary = new StringDictionary();
+        reader.setStringDictionary(dictionary);
+
+        reader.beginArray();
+        String a = reader.nextString();
+        String b = reader.nextString();
+        assertSame(a, reader.nextString());
+        assertSame(b, reader.nextString());
+        reader.beginObject();
+        assertSame(a, reader.nextName());
+        assertEquals("caf\u00e9", b);
+        assertEquals(2, dictionary.size());
+    }
+}
@@ -0,0 +1,118 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.webfuzzing.commons.report.ReportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageMatrixTest {
+
+    @Test
+    public void testEmpty() {
+        CoverageMatrix matrix = CoverageMatrix.of(new Report());
+        assertTrue(matrix.getEndpointIds().isEmpty());
+        assertEquals(0, matrix.getNumberOfCoveredCells());
+        assertFalse(matrix.isCovered("GET:/x", 200));
+        assertEquals(0, matrix.getStatuses("GET:/x").length);
+        assertTrue(matrix.getTestCaseIds("GET:/x", 200).isEmpty());
+    }
+
+    @Test
+    public void testMatrix() {
+
+        RESTReport rest = new RESTReport();
+        rest.getEndpointIds().addAll(Arrays.asList("GET:/x", "POST:/x", "DELETE:/x"));
+        rest.getCoveredHttpStatus().addAll(Arrays.asList(
+                covered("POST:/x", "t1", 201, 400),
+                covered("GET:/x", "t0", 500, 200),
+                null,
+                covered("GET:/x", "t2", 200, null),
+                covered("GET:/x", "t0", 200),
+                covered("OPTIONS:/x", "t3", 405, 1000),
+                covered("DELETE:/x", null, 404),
+                covered(null, "t4", 200)
+        ));
+
+        CoverageMatrix matrix = CoverageMatrix.of(rest);
+
+        // endpoints not in the schema come last
+        assertEquals(Arrays.asList("GET:/x", "POST:/x", "DELETE:/x", "OPTIONS:/x"), matrix.getEndpointIds());
+        assertEquals(6, matrix.getNumberOfCoveredCells());
+        assertEquals(4, matrix.getNumberOfTestCases());
+
+        assertTrue(matrix.isCovered("GET:/x", 200));
+        assertFalse(matrix.isCovered("GET:/x", 201));
+        assertFalse(matrix.isCovered("GET:/y", 200));
+        assertFalse(matrix.isCovered("OPTIONS:/x", 1000));
+        assertArrayEquals(new int[]{200, 500}, matrix.getStatuses("GET:/x"));
+        assertArrayEquals(new int[]{405}, matrix.getStatuses("OPTIONS:/x"));
+
+        assertEquals(Arrays.asList("t0", "t2"), matrix.getTestCaseIds("GET:/x", 200));
+        assertEquals(Collections.singletonList("t0"), matrix.getTestCaseIds("GET:/x", 500));
+        assertEquals(2, matrix.getNumberOfTestCases("GET:/x", 200));
+        // covered, but without test case id
+        assertTrue(matrix.isCovered("DELETE:/x", 404));
+        assertTrue(matrix.getTestCaseIds("DELETE:/x", 404).isEmpty());
+
+        assertEquals(Arrays.asList("DELETE:/x", "OPTIONS:/x"), matrix.getEndpointsWithout(200, 299));
+        assertEquals(Arrays.asList("GET:/x", "POST:/x"), matrix.getEndpointsWith(200, 299));
+        assertEquals(Collections.singletonList("GET:/x"), matrix.getEndpointsWith(500, 599));
+        assertTrue(matrix.isCovered("POST:/x", 400, 499));
+        assertFalse(matrix.isCovered("POST:/x", 202, 399));
+        assertEquals(matrix.getEndpointIds(), matrix.getEndpointsWithout(600, 1000));
+    }
+
+    @Test
+    public void testRanges() {
+
+        // statuses at the boundaries of the words of the bitsets
+        List<CoveredEndpoint> covered = new ArrayList<>();
+        int[] statuses = {0, 63, 64, 127, 128, 511, 512, 599};
+        for (int s : statuses) {
+            covered.add(covered("e" + s, "t" + s, s));
+        }
+        CoverageMatrix matrix = CoverageMatrix.of(Collections.emptyList(), covered);
+
+        for (int s : statuses) {
+            String e = "e" + s;
+            assertArrayEquals(new int[]{s}, matrix.getStatuses(e));
+            assertTrue(matrix.isCovered(e, s, s));
+            assertTrue(matrix.isCovered(e, -10, 700));
+            assertFalse(matrix.isCovered(e, s + 1, 700));
+            assertFalse(matrix.isCovered(e, -10, s - 1));
+            assertEquals(Collections.singletonList("t" + s), matrix.getTestCaseIds(e, s));
+        }
+        assertEquals(Arrays.asList("e63", "e64", "e127", "e128"), matrix.getEndpointsWith(63, 128));
+    }
+
+    @Test
+    public void testManyEndpoints() {
+
+        RESTReport rest = new RESTReport();
+        int n = 5000;
+        for (int i = 0; i < n; i++) {
+            rest.getEndpointIds().add("GET:/e" + i);
+        }
+        for (int t = 0; t < 20_000; t++) {
+            rest.getCoveredHttpStatus().add(covered("GET:/e" + (t % n), "t" + t, t % 3 == 0 ? 500 : 200));
+        }
+
+        CoverageMatrix matrix = CoverageMatrix.of(rest);
+        assertEquals(n, matrix.getEndpointIds().size());
+        assertEquals(20_000, matrix.getNumberOfTestCases());
+        for (int i = 0; i < n; i += 499) {
+            String e = "GET:/e" + i;
+            int expected200 = 0;
+            for (int t = i; t < 20_000; t += n) {
+                if (t % 3 != 0) {
+                    expected200++;
+                }
+            }
+            assertEquals(expected200, matrix.getNumberOfTestCases(e, 200));
+            assertEquals(4 - expected200, matrix.getNumberOfTestCases(e, 500));
+        }
+        assertTrue(matrix.getEndpointsWithout(200, 299).isEmpty());
+    }
+}
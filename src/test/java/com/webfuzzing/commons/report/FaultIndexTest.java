@@ -0,0 +1,94 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.webfuzzing.commons.report.ReportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FaultIndexTest {
+
+    @Test
+    public void testEmpty() {
+        FaultIndex index = new FaultIndex();
+        assertEquals(0, index.getTotalNumber());
+        assertEquals(0, index.getTotalNumber(100));
+        assertFalse(index.contains(100, null));
+        assertTrue(index.getTestCaseIds(100, null).isEmpty());
+        assertTrue(index.getFaults().isEmpty());
+    }
+
+    @Test
+    public void testDeduplication() {
+
+        FaultIndex index = FaultIndex.of(Arrays.asList(
+                fault("GET:/x", "t0", 100, null, 101, "a"),
+                fault("POST:/x", "t1", 100, null),
+                fault("GET:/x", "t2", 101, "a", 101, "b"),
+                null,
+                fault("GET:/x", "t2", 100, null)
+        ));
+
+        assertEquals(3, index.getTotalNumber());
+        assertEquals(1, index.getTotalNumber(100));
+        assertEquals(2, index.getTotalNumber(101));
+        assertEquals(4, index.getNumberOfFoundFaults());
+
+        assertTrue(index.contains(100, null));
+        assertFalse(index.contains(100, "a"));
+        assertEquals(Arrays.asList("t0", "t1", "t2"), new ArrayList<>(index.getTestCaseIds(100, null)));
+        assertEquals(3, index.getNumberOfTestCases(100, null));
+        assertEquals(Arrays.asList("GET:/x", "POST:/x"), new ArrayList<>(index.getOperationIds(100, null)));
+        assertEquals(Collections.singleton("t2"), index.getTestCaseIds(101, "b"));
+        assertThrows(UnsupportedOperationException.class, () -> index.getTestCaseIds(100, null).clear());
+
+        List<FaultCategoryId> faults = index.getFaults();
+        assertEquals(100, faults.get(0).getCode());
+        assertEquals("a", faults.get(1).getContext());
+        assertEquals("b", faults.get(2).getContext());
+    }
+
+    @Test
+    public void testManyFaults() {
+
+        FaultIndex index = new FaultIndex();
+        Set<List<Object>> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int code = 100 + random.nextInt(10);
+            String context = random.nextInt(10) == 0 ? null : "context " + random.nextInt(5_000);
+            index.add(fault("op" + (i % 7), "t" + i, code, context));
+            expected.add(Arrays.asList(code, context));
+        }
+
+        assertEquals(expected.size(), index.getTotalNumber());
+        for (List<Object> e : expected) {
+            assertTrue(index.contains((Integer) e.get(0), (String) e.get(1)));
+        }
+        int sum = 0;
+        for (int code = 100; code < 110; code++) {
+            sum += index.getTotalNumber(code);
+        }
+        assertEquals(expected.size(), sum);
+    }
+
+    @Test
+    public void testE2EReport() {
+
+        Report report = JacksonReports.readE2EReport();
+        FaultIndex index = FaultIndex.of(report);
+
+        Map<List<Object>, Set<String>> expected = new HashMap<>();
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                expected.computeIfAbsent(Arrays.asList(id.getCode(), id.getContext()), k -> new HashSet<>())
+                        .add(ff.getTestCaseId());
+            }
+        }
+
+        assertEquals(expected.size(), index.getTotalNumber());
+        assertEquals(report.getFaults().getFoundFaults().size(), index.getNumberOfFoundFaults());
+        expected.forEach((k, tests) -> assertEquals(tests, index.getTestCaseIds((Integer) k.get(0), (String) k.get(1))));
+    }
+}
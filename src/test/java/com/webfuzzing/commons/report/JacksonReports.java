@@ -0,0 +1,69 @@
+package com.webfuzzing.commons.report;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Jackson configuration used as reference in the tests, to check the library's own JSON handling of reports.
+ * Without annotations in the generated DTOs, Jackson would treat "additionalProperties" as a regular property.
+ */
+public class JacksonReports {
+
+    public static final String E2E_REPORT_FILEPATH = "web-report/src-e2e/static/report.json";
+
+    abstract static class AdditionalPropertiesMixIn {
+
+        @JsonAnyGetter
+        abstract Map<String, Object> getAdditionalProperties();
+
+        @JsonAnySetter
+        abstract void setAdditionalProperty(String name, Object value);
+    }
+
+    public static ObjectMapper mapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        for (Class<?> k : Arrays.asList(Report.class, Faults.class, FoundFault.class, FaultCategoryId.class,
+                ProblemDetails.class, RESTReport.class, CoveredEndpoint.class, TestCase.class, Coverage.class,
+                CoverageCriterion.class, Warning.class)) {
+            mapper.addMixIn(k, AdditionalPropertiesMixIn.class);
+        }
+        return mapper;
+    }
+
+    public static byte[] write(Report report) {
+        try {
+            return mapper().writeValueAsBytes(report);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static Report read(byte[] json) {
+        try {
+            return mapper().readValue(json, Report.class);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static byte[] readE2EReportBytes() {
+        try {
+            return Files.readAllBytes(Paths.get(E2E_REPORT_FILEPATH));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static Report readE2EReport() {
+        return read(readE2EReportBytes());
+    }
+}
@@ -0,0 +1,81 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineIndexTest {
+
+    private static LineIndex index(String text) {
+        return LineIndex.of(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLines() {
+        LineIndex index = index("a\nbc\r\n\nd");
+        assertEquals(4, index.getNumberOfLines());
+        assertEquals("a", index.getText(1, 1));
+        assertEquals("bc", index.getText(2, 2));
+        assertEquals("", index.getText(3, 3));
+        assertEquals("d", index.getText(4, 4));
+        assertEquals("a\nbc\r\n", index.getText(1, 3));
+        assertEquals("bc\r\n\nd", index.getText(2, 4));
+        assertEquals(2, index.getOffset(2));
+        assertEquals(8, index.size());
+    }
+
+    @Test
+    public void testFinalTerminator() {
+        assertEquals(0, index("").getNumberOfLines());
+        assertEquals(1, index("a").getNumberOfLines());
+        assertEquals(1, index("a\n").getNumberOfLines());
+        assertEquals(2, index("a\n\n").getNumberOfLines());
+        assertEquals("", index("a\n\n").getText(2, 2));
+        assertEquals(1, index("\n").getNumberOfLines());
+        assertEquals("", index("\n").getText(1, 1));
+    }
+
+    @Test
+    public void testInvalidLines() {
+        LineIndex index = index("a\nb\n");
+        assertThrows(IllegalArgumentException.class, () -> index.getLines(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.getLines(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.getLines(1, 3));
+        assertThrows(IllegalArgumentException.class, () -> index.getOffset(3));
+    }
+
+    @Test
+    public void testMappedFile(@TempDir Path dir) throws IOException {
+
+        // larger than a chunk, with non-ASCII text
+        StringBuilder sb = new StringBuilder();
+        int n = 20_001;
+        for (int i = 1; i <= n; i++) {
+            sb.append("line ").append(i).append(i % 100 == 0 ? " \u00e9\u4e2d" : "").append('\n');
+        }
+        Path file = dir.resolve("Test.java");
+        Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        LineIndex index = LineIndex.of(file);
+        assertEquals(n, index.getNumberOfLines());
+        assertEquals(Files.size(file), index.size());
+        assertEquals("line 1", index.getText(1, 1));
+        assertEquals("line 100 \u00e9\u4e2d\nline 101", index.getText(100, 101));
+        assertEquals("line " + n, index.getText(n, n));
+
+        ByteBuffer slice = index.getLines(7, 8);
+        assertTrue(slice.isReadOnly());
+        assertEquals(0, slice.position());
+        assertEquals("line 7\nline 8".length(), slice.remaining());
+        // slices are independent
+        slice.get();
+        assertEquals("line 7", index.getText(7, 7));
+    }
+}
@@ -0,0 +1,149 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportBinaryWriterTest {
+
+    private static byte[] toBinary(Report report) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportBinaryWriter.write(report, out);
+        return out.toByteArray();
+    }
+
+    private static Report fromBinary(byte[] data) throws IOException {
+        return ReportBinaryReader.read(new ByteArrayInputStream(data));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        Report sample = ReportWriterTest.sampleReport();
+        assertEquals(sample, fromBinary(toBinary(sample)));
+
+        Report e2e = JacksonReports.readE2EReport();
+        Report read = fromBinary(toBinary(e2e));
+        assertEquals(e2e, read);
+        // lossless also for the JSON form
+        assertArrayEquals(JacksonReports.write(e2e), JacksonReports.write(read));
+    }
+
+    @Test
+    public void testNullsAndEmpty() throws IOException {
+
+        Report report = new Report();
+        report.setFaults(null);
+        report.setTestFilePaths(null);
+        report.setWarnings(null);
+        TestCase tc = new TestCase();
+        tc.setNamedExamples(null);
+        tc.setStartLine(-5);
+        report.getTestCases().add(tc);
+        report.getTestCases().add(null);
+        ProblemDetails pd = new ProblemDetails();
+        pd.setRest(new RESTReport());
+        CoveredEndpoint ce = new CoveredEndpoint();
+        ce.setHttpStatus(new LinkedHashSet<>(Arrays.asList(500, null, 200)));
+        pd.getRest().getCoveredHttpStatus().add(ce);
+        report.setProblemDetails(pd);
+
+        Report read = fromBinary(toBinary(report));
+        assertEquals(report, read);
+        assertNull(read.getFaults());
+        assertNull(read.getTestCases().get(0).getNamedExamples());
+        assertTrue(read.getExtra().isEmpty());
+        assertEquals(Arrays.asList(500, null, 200), new ArrayList<>(
+                read.getProblemDetails().getRest().getCoveredHttpStatus().get(0).getHttpStatus()));
+    }
+
+    @Test
+    public void testAdditionalProperties() throws IOException {
+
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("a", Arrays.asList(1, 2L, null, "x"));
+        nested.put("b", Collections.emptyMap());
+
+        Report report = new Report();
+        report.setAdditionalProperty("int", Integer.MIN_VALUE);
+        report.setAdditionalProperty("long", Long.MAX_VALUE);
+        report.setAdditionalProperty("big", new BigInteger("-123456789012345678901234567890"));
+        report.setAdditionalProperty("double", -0.5);
+        report.setAdditionalProperty("decimal", new BigDecimal("1.10"));
+        report.setAdditionalProperty("bool", true);
+        report.setAdditionalProperty("null", null);
+        report.setAdditionalProperty("string", "caf\u00e9 \uD83D\uDE00");
+        report.setAdditionalProperty("nested", nested);
+
+        Report read = fromBinary(toBinary(report));
+        // null values are skipped, as in JSON
+        assertFalse(read.getAdditionalProperties().containsKey("null"));
+        assertArrayEquals(JacksonReports.write(report), JacksonReports.write(read));
+        report.getAdditionalProperties().remove("null");
+        assertEquals(report, read);
+    }
+
+    @Test
+    public void testSeveralReports() throws IOException {
+
+        Report a = ReportWriterTest.sampleReport();
+        Report b = JacksonReports.readE2EReport();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportBinaryWriter writer = new ReportBinaryWriter(out)) {
+            writer.write(a);
+            writer.write(b);
+            writer.write(a);
+        }
+
+        try (ReportBinaryReader reader = new ReportBinaryReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(a, reader.next());
+            assertEquals(b, reader.next());
+            assertEquals(a, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testSmallerThanJson() throws IOException {
+
+        byte[] json = JacksonReports.readE2EReportBytes();
+        byte[] binary = toBinary(JacksonReports.readE2EReport());
+        assertTrue(binary.length * 2 < json.length, "binary " + binary.length + " vs json " + json.length);
+    }
+
+    @Test
+    public void testInvalidData() throws IOException {
+
+        assertThrows(IOException.class, () -> fromBinary("{\"toolName\":\"x\"}".getBytes()));
+        assertThrows(IOException.class, () -> fromBinary(new byte[0]));
+
+        byte[] data = toBinary(JacksonReports.readE2EReport());
+        byte[] truncated = Arrays.copyOf(data, data.length / 2);
+        assertThrows(IOException.class, () -> fromBinary(truncated));
+
+        byte[] wrongVersion = data.clone();
+        wrongVersion[4] = 42;
+        IOException e = assertThrows(IOException.class, () -> fromBinary(wrongVersion));
+        assertTrue(e.getMessage().contains("42"));
+    }
+
+    @Test
+    public void testHugeSizesInTruncatedData() {
+
+        // header, 4 null strings, faults object with null total and Integer.MAX_VALUE - 1 found faults
+        byte[] faults = {'W', 'F', 'C', 'B', 1, 0, 0, 0, 0, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 7};
+        assertEquals(16, faults.length);
+        assertThrows(IOException.class, () -> fromBinary(faults));
+
+        // header, and a literal string declared with Integer.MAX_VALUE bytes
+        byte[] string = {'W', 'F', 'C', 'B', 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 7, 'x'};
+        assertThrows(IOException.class, () -> fromBinary(string));
+    }
+}
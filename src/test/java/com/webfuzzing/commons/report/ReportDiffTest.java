@@ -0,0 +1,129 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.webfuzzing.commons.report.ReportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportDiffTest {
+
+    private static Report report(List<FoundFault> faults, List<CoveredEndpoint> covered) {
+        Report report = new Report();
+        report.setSchemaVersion("0.0.1");
+        report.setToolName("test");
+        report.setToolVersion("1.0");
+        report.setCreationTime("2025-01-01T00:00:00Z");
+        report.setFaults(new Faults());
+        report.getFaults().getFoundFaults().addAll(faults);
+        report.setProblemDetails(new ProblemDetails());
+        report.getProblemDetails().setRest(new RESTReport());
+        report.getProblemDetails().getRest().getCoveredHttpStatus().addAll(covered);
+        return report;
+    }
+
+    private static Report previous() {
+        return report(Arrays.asList(
+                fault("GET:/x", "t0", 100, null, 101, "a"),
+                fault("POST:/x", "t1", 100, null),
+                fault("GET:/x", "t2", 100, null)
+        ), Arrays.asList(
+                covered("GET:/x", "t0", 200, 500),
+                covered("POST:/x", "t1", 400),
+                covered("DELETE:/x", "t3", 404)
+        ));
+    }
+
+    private static Report current() {
+        return report(Arrays.asList(
+                fault("GET:/x", "u0", 101, "b"),
+                fault("GET:/x", "u1", 100, null, 101, "b"),
+                null,
+                fault("PUT:/x", "u2", 100, null)
+        ), Arrays.asList(
+                covered("GET:/x", "u0", 200),
+                covered("POST:/x", "u1", 201, 400),
+                covered("PUT:/x", "u2", 500),
+                covered("GET:/x", "u3", 200)
+        ));
+    }
+
+    private static void assertExpected(ReportDiff diff) {
+        assertTrue(diff.hasChanges());
+
+        ReportDiff.Changes<ReportDiff.Fault> faults = diff.getFaults();
+        assertEquals(Arrays.asList(new ReportDiff.Fault("GET:/x", 101, "b"), new ReportDiff.Fault("PUT:/x", 100, null)),
+                faults.getNew());
+        assertEquals(Arrays.asList(new ReportDiff.Fault("GET:/x", 101, "a"), new ReportDiff.Fault("POST:/x", 100, null)),
+                faults.getFixed());
+        assertEquals(Collections.singletonList(new ReportDiff.Fault("GET:/x", 100, null)), faults.getUnchanged());
+
+        assertEquals(Collections.singletonList("PUT:/x"), diff.getEndpoints().getNew());
+        assertEquals(Collections.singletonList("DELETE:/x"), diff.getEndpoints().getFixed());
+        assertEquals(Arrays.asList("GET:/x", "POST:/x"), diff.getEndpoints().getUnchanged());
+
+        assertEquals(Arrays.asList(new ReportDiff.Status("POST:/x", 201), new ReportDiff.Status("PUT:/x", 500)),
+                diff.getStatuses().getNew());
+        assertEquals(Arrays.asList(new ReportDiff.Status("GET:/x", 500), new ReportDiff.Status("DELETE:/x", 404)),
+                diff.getStatuses().getFixed());
+        assertEquals(Arrays.asList(new ReportDiff.Status("GET:/x", 200), new ReportDiff.Status("POST:/x", 400)),
+                diff.getStatuses().getUnchanged());
+    }
+
+    @Test
+    public void testDiff() {
+        ReportDiff diff = ReportDiff.of(previous(), current());
+        assertExpected(diff);
+        assertEquals("ReportDiff{faults={new=2, fixed=2, unchanged=1}, endpoints={new=1, fixed=1, unchanged=2},"
+                + " statuses={new=2, fixed=2, unchanged=2}}", diff.toString());
+
+        // the other way around
+        ReportDiff reverse = ReportDiff.of(current(), previous());
+        assertEquals(diff.getFaults().getNew(), reverse.getFaults().getFixed());
+        assertEquals(diff.getStatuses().getFixed(), reverse.getStatuses().getNew());
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        ReportDiff diff = ReportDiff.read(new ByteArrayInputStream(JacksonReports.write(previous())),
+                new ByteArrayInputStream(JacksonReports.write(current())));
+        assertExpected(diff);
+    }
+
+    @Test
+    public void testSameReport(@TempDir Path dir) throws IOException {
+
+        ReportGenerator generator = new ReportGenerator();
+        generator.setTestCases(2000);
+        Path path = generator.generate(dir);
+
+        ReportDiff diff = ReportDiff.read(path, path);
+        assertFalse(diff.hasChanges());
+        assertFalse(diff.getFaults().getUnchanged().isEmpty());
+        assertFalse(diff.getStatuses().getUnchanged().isEmpty());
+
+        // a different run finds different faults
+        generator.setSeed(7);
+        Path other = generator.generate(dir.resolve("other"));
+        diff = ReportDiff.read(path, other);
+        assertTrue(diff.getFaults().hasChanges());
+        Set<ReportDiff.Fault> previous = new HashSet<>(diff.getFaults().getFixed());
+        previous.addAll(diff.getFaults().getUnchanged());
+        Set<ReportDiff.Fault> expected = new HashSet<>();
+        try (InputStream in = Files.newInputStream(path)) {
+            for (FoundFault ff : ReportReader.readReport(in).getFaults().getFoundFaults()) {
+                for (FaultCategoryId id : ff.getFaultCategories()) {
+                    expected.add(new ReportDiff.Fault(ff.getOperationId(), id.getCode(), id.getContext()));
+                }
+            }
+        }
+        assertEquals(expected, previous);
+    }
+}
@@ -0,0 +1,36 @@
+package com.webfuzzing.commons.report;
+
+import java.util.Arrays;
+
+/**
+ * Factories of the report elements used in the tests of faults and covered endpoints.
+ */
+final class ReportFixtures {
+
+    private ReportFixtures() {
+    }
+
+    /**
+     * @param codeAndContext pairs of fault category code and context, e.g. {@code 100, null, 101, "foo"}
+     */
+    static FoundFault fault(String operationId, String testCaseId, Object... codeAndContext) {
+        FoundFault ff = new FoundFault();
+        ff.setOperationId(operationId);
+        ff.setTestCaseId(testCaseId);
+        for (int i = 0; i < codeAndContext.length; i += 2) {
+            FaultCategoryId id = new FaultCategoryId();
+            id.setCode((Integer) codeAndContext[i]);
+            id.setContext((String) codeAndContext[i + 1]);
+            ff.getFaultCategories().add(id);
+        }
+        return ff;
+    }
+
+    static CoveredEndpoint covered(String endpointId, String testCaseId, Integer... status) {
+        CoveredEndpoint ce = new CoveredEndpoint();
+        ce.setEndpointId(endpointId);
+        ce.setTestCaseId(testCaseId);
+        ce.getHttpStatus().addAll(Arrays.asList(status));
+        return ce;
+    }
+}
@@ -0,0 +1,136 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportGeneratorTest {
+
+    private static ReportGenerator generator() {
+        ReportGenerator generator = new ReportGenerator();
+        generator.setCreationTime("2025-01-01T00:00:00Z");
+        generator.setEndpoints(20);
+        generator.setTestCases(500);
+        generator.setTestsPerFile(40);
+        generator.setFaultsPerTest(0.5);
+        generator.setStatusCodes(200, 404, 500);
+        generator.setWarnings(3);
+        return generator;
+    }
+
+    @Test
+    public void testGenerateInDirectory(@TempDir Path dir) throws IOException {
+
+        Path path = generator().generate(dir);
+        Report report;
+        try (InputStream in = Files.newInputStream(path)) {
+            report = ReportReader.readReport(in);
+        }
+
+        // required fields in the schema
+        assertNotNull(report.getSchemaVersion());
+        assertEquals("Synthetic", report.getToolName());
+        assertNotNull(report.getToolVersion());
+        assertEquals("2025-01-01T00:00:00Z", report.getCreationTime());
+        assertNotNull(report.getFaults());
+
+        assertEquals(500, report.getTestCases().size());
+        assertEquals(500, report.getTotalTests());
+        assertEquals(3, report.getWarnings().size());
+        assertEquals(20, report.getProblemDetails().getRest().getEndpointIds().size());
+        assertEquals(FaultIndex.of(report).getTotalNumber(), report.getFaults().getTotalNumber());
+        assertTrue(report.getFaults().getTotalNumber() <= 20 * 5);
+        assertFalse(report.getFaults().getFoundFaults().isEmpty());
+
+        Set<String> ids = new HashSet<>();
+        Map<String, List<String>> files = new HashMap<>();
+        for (String file : report.getTestFilePaths()) {
+            files.put(file, Files.readAllLines(dir.resolve(file), StandardCharsets.UTF_8));
+        }
+        for (TestCase tc : report.getTestCases()) {
+            assertTrue(ids.add(tc.getId()));
+            assertTrue(tc.getId().startsWith(tc.getFilePath() + "#"));
+            List<String> lines = files.get(tc.getFilePath());
+            assertTrue(tc.getStartLine() <= tc.getEndLine());
+            assertEquals("    /**", lines.get(tc.getStartLine() - 1));
+            assertEquals("    }", lines.get(tc.getEndLine() - 1));
+            String code = String.join("\n", lines.subList(tc.getStartLine() - 1, tc.getEndLine()));
+            assertTrue(code.contains("public void " + tc.getName() + "()"));
+        }
+        for (List<String> lines : files.values()) {
+            assertEquals("}", lines.get(lines.size() - 1));
+        }
+
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            assertTrue(ids.contains(ff.getTestCaseId()));
+            assertTrue(ff.getTestCaseId().startsWith("faults_"));
+            assertFalse(ff.getFaultCategories().isEmpty());
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                assertTrue(id.getContext().startsWith(ff.getOperationId()));
+            }
+        }
+        for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+            assertTrue(ids.contains(ce.getTestCaseId()));
+            assertTrue(report.getProblemDetails().getRest().getEndpointIds().contains(ce.getEndpointId()));
+            for (Integer status : ce.getHttpStatus()) {
+                assertTrue(status == 200 || status == 404 || status == 500);
+            }
+        }
+    }
+
+    @Test
+    public void testDeterministic() throws IOException {
+
+        ByteArrayOutputStream a = new ByteArrayOutputStream();
+        generator().generate(a, null);
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        generator().generate(b, null);
+        assertArrayEquals(a.toByteArray(), b.toByteArray());
+
+        ReportGenerator other = generator();
+        other.setSeed(7);
+        ByteArrayOutputStream c = new ByteArrayOutputStream();
+        other.generate(c, null);
+        assertFalse(Arrays.equals(a.toByteArray(), c.toByteArray()));
+
+        Report report = ReportReader.readReport(new ByteArrayInputStream(c.toByteArray()));
+        assertEquals(500, report.getTestCases().size());
+    }
+
+    @Test
+    public void testNoFaults() throws IOException {
+
+        ReportGenerator generator = generator();
+        generator.setFaultsPerTest(0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(out, null);
+
+        Report report = ReportReader.readReport(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(0, report.getFaults().getTotalNumber());
+        assertTrue(report.getFaults().getFoundFaults().isEmpty());
+        // 500 tests, 40 per file
+        assertEquals(13, report.getTestFilePaths().size());
+        assertTrue(report.getTestFilePaths().stream().allMatch(p -> p.startsWith("successes_")));
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+
+        ReportGenerator generator = new ReportGenerator();
+        assertThrows(IllegalArgumentException.class, () -> generator.setEndpoints(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.setTestCases(-1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setFaultsPerTest(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setStatusCodes());
+        assertThrows(IllegalArgumentException.class, () -> generator.setStatusCodes(200, 42));
+    }
+}
@@ -0,0 +1,170 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static com.webfuzzing.commons.report.ReportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportIndexTest {
+
+    private static TestCase testCase(String id, String filePath, Integer startLine, Integer endLine) {
+        TestCase tc = new TestCase();
+        tc.setId(id);
+        tc.setFilePath(filePath);
+        tc.setStartLine(startLine);
+        tc.setEndLine(endLine);
+        return tc;
+    }
+
+    private static List<String> ids(List<TestCase> testCases) {
+        return testCases.stream().map(TestCase::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEmpty() {
+        ReportIndex index = ReportIndex.of(new Report());
+        assertEquals(0, index.size());
+        assertNull(index.getTestCase("t0"));
+        assertTrue(index.getTestCasesAt("a.java", 1).isEmpty());
+        assertTrue(index.getTestCasesForOperation("GET:/x").isEmpty());
+        assertTrue(index.getTestCasesForFaultCode(100).isEmpty());
+    }
+
+    @Test
+    public void testIndex() {
+
+        Report report = new Report();
+        report.getTestCases().addAll(Arrays.asList(
+                testCase("t0", "a.java", 30, 40),
+                testCase("t1", "a.java", 10, 20),
+                testCase("t2", "b.java", 1, 100),
+                null,
+                testCase("t3", "b.java", 5, 8),
+                testCase("t4", "a.java", null, null),
+                testCase("t5", "a.java", 50, null),
+                testCase("t0", "c.java", 1, 2)
+        ));
+        report.setFaults(new Faults());
+        report.getFaults().getFoundFaults().addAll(Arrays.asList(
+                fault("GET:/x", "t3", 100, null),
+                fault("GET:/x", "t0", 101, null),
+                fault("GET:/x", "t3", 101, null),
+                fault("POST:/x", "unknown", 100, null)
+        ));
+        report.setProblemDetails(new ProblemDetails());
+        report.getProblemDetails().setRest(new RESTReport());
+        report.getProblemDetails().getRest().getCoveredHttpStatus().addAll(Arrays.asList(
+                covered("GET:/x", "t1", 200),
+                covered("POST:/x", "t2", 200)
+        ));
+
+        ReportIndex index = ReportIndex.of(report);
+        assertEquals(7, index.size());
+        assertEquals("a.java", index.getTestCase("t0").getFilePath());
+        assertEquals(Integer.valueOf(5), index.getTestCase("t3").getStartLine());
+        assertNull(index.getTestCase("t6"));
+
+        assertEquals(new HashSet<>(Arrays.asList("a.java", "b.java", "c.java")), index.getFilePaths());
+        assertEquals(Arrays.asList("t1", "t0", "t5", "t4"), ids(index.getTestCasesInFile("a.java")));
+        assertEquals(Collections.singletonList("t1"), ids(index.getTestCasesAt("a.java", 10)));
+        assertEquals(Collections.singletonList("t1"), ids(index.getTestCasesAt("a.java", 20)));
+        assertTrue(index.getTestCasesAt("a.java", 25).isEmpty());
+        assertEquals(Collections.singletonList("t5"), ids(index.getTestCasesAt("a.java", 50)));
+        assertEquals(Arrays.asList("t1", "t0"), ids(index.getTestCasesOverlapping("a.java", 15, 35)));
+        assertEquals(Arrays.asList("t2", "t3"), ids(index.getTestCasesAt("b.java", 6)));
+        assertEquals(Collections.singletonList("t2"), ids(index.getTestCasesAt("b.java", 50)));
+        assertTrue(index.getTestCasesAt("d.java", 1).isEmpty());
+        assertTrue(index.getTestCasesOverlapping("a.java", 40, 30).isEmpty());
+
+        assertEquals(Arrays.asList("t0", "t1", "t3"), ids(index.getTestCasesForOperation("GET:/x")));
+        assertEquals(Collections.singletonList("t2"), ids(index.getTestCasesForOperation("POST:/x")));
+        assertEquals(Collections.singletonList("t3"), ids(index.getTestCasesForFaultCode(100)));
+        assertEquals(Arrays.asList("t0", "t3"), ids(index.getTestCasesForFaultCode(101)));
+
+        assertThrows(UnsupportedOperationException.class, () -> index.getTestCasesForFaultCode(101).clear());
+    }
+
+    @Test
+    public void testLongTestCases() {
+
+        // a block spanning the whole file, before many short and nested test cases
+        Random random = new Random(42);
+        Report report = new Report();
+        report.getTestCases().add(testCase("all", "T.java", 1, 100_000));
+        for (int i = 0; i < 5000; i++) {
+            int start = 1 + random.nextInt(100_000);
+            int length = random.nextInt(10) == 0 ? random.nextInt(5000) : random.nextInt(20);
+            report.getTestCases().add(testCase("t" + i, "T.java", start, start + length));
+        }
+        ReportIndex index = ReportIndex.of(report);
+
+        for (int q = 0; q < 500; q++) {
+            int from = 1 + random.nextInt(100_000);
+            int to = from + random.nextInt(50);
+            List<TestCase> expected = report.getTestCases().stream()
+                    .filter(tc -> tc.getStartLine() <= to && tc.getEndLine() >= from)
+                    .sorted(Comparator.comparing(TestCase::getStartLine))
+                    .collect(Collectors.toList());
+            assertEquals(expected, index.getTestCasesOverlapping("T.java", from, to));
+            assertEquals("all", index.getTestCasesOverlapping("T.java", from, to).get(0).getId());
+        }
+        assertTrue(index.getTestCasesAt("T.java", 200_000).isEmpty());
+    }
+
+    @Test
+    public void testGeneratedReport(@TempDir Path dir) throws IOException {
+
+        ReportGenerator generator = new ReportGenerator();
+        generator.setTestCases(3000);
+        generator.setTestsPerFile(100);
+        Report report;
+        try (InputStream in = Files.newInputStream(generator.generate(dir))) {
+            report = ReportReader.readReport(in);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ReportIndex index;
+        try {
+            index = ReportIndex.of(report, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(report.getTestCases().size(), index.size());
+
+        // same results as scanning the report
+        for (TestCase tc : report.getTestCases()) {
+            assertSame(tc, index.getTestCase(tc.getId()));
+            assertTrue(index.getTestCasesAt(tc.getFilePath(), tc.getStartLine()).contains(tc));
+            assertTrue(index.getTestCasesAt(tc.getFilePath(), tc.getEndLine()).contains(tc));
+        }
+        TestCase some = report.getTestCases().get(1234);
+        List<TestCase> expected = report.getTestCases().stream()
+                .filter(tc -> tc.getFilePath().equals(some.getFilePath())
+                        && tc.getStartLine() <= some.getEndLine() + 30 && tc.getEndLine() >= some.getStartLine())
+                .collect(Collectors.toList());
+        assertEquals(expected, index.getTestCasesOverlapping(some.getFilePath(), some.getStartLine(), some.getEndLine() + 30));
+
+        FoundFault ff = report.getFaults().getFoundFaults().get(0);
+        Set<String> forOperation = new LinkedHashSet<>();
+        for (FoundFault f : report.getFaults().getFoundFaults()) {
+            if (f.getOperationId().equals(ff.getOperationId())) {
+                forOperation.add(f.getTestCaseId());
+            }
+        }
+        for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+            if (ce.getEndpointId().equals(ff.getOperationId())) {
+                forOperation.add(ce.getTestCaseId());
+            }
+        }
+        assertEquals(forOperation, new HashSet<>(ids(index.getTestCasesForOperation(ff.getOperationId()))));
+    }
+}
@@ -0,0 +1,230 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static com.webfuzzing.commons.report.ReportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportMergerTest {
+
+    private static TestCase testCase(String id) {
+        TestCase tc = new TestCase();
+        tc.setId(id);
+        return tc;
+    }
+
+    private static Report shard(int calls, int time, String... endpointIds) {
+        Report r = new Report();
+        r.setToolName("EvoMaster");
+        r.setExecutionTimeInSeconds(time);
+        r.setFaults(new Faults());
+        r.setProblemDetails(new ProblemDetails());
+        r.getProblemDetails().setRest(new RESTReport());
+        r.getProblemDetails().getRest().setOutputHttpCalls(calls);
+        r.getProblemDetails().getRest().setEvaluatedHttpCalls(calls * 100);
+        r.getProblemDetails().getRest().getEndpointIds().addAll(Arrays.asList(endpointIds));
+        return r;
+    }
+
+    private static Set<List<Object>> faultKeys(Report report) {
+        Set<List<Object>> keys = new HashSet<>();
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            for (FaultCategoryId id : ff.getFaultCategories()) {
+                keys.add(Arrays.asList(ff.getOperationId(), id.getCode(), id.getContext()));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Split a report into shards, based on the hash of the test case ids
+     */
+    private static List<Report> split(Report report, int n) {
+        List<Report> shards = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Report s = new Report();
+            s.setToolName(report.getToolName());
+            s.setFaults(new Faults());
+            s.setProblemDetails(new ProblemDetails());
+            s.getProblemDetails().setRest(new RESTReport());
+            s.getProblemDetails().getRest().setEndpointIds(report.getProblemDetails().getRest().getEndpointIds());
+            shards.add(s);
+        }
+        for (TestCase tc : report.getTestCases()) {
+            shards.get(Math.floorMod(tc.getId().hashCode(), n)).getTestCases().add(tc);
+        }
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            shards.get(Math.floorMod(ff.getTestCaseId().hashCode(), n)).getFaults().getFoundFaults().add(ff);
+        }
+        for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+            shards.get(Math.floorMod(ce.getTestCaseId().hashCode(), n))
+                    .getProblemDetails().getRest().getCoveredHttpStatus().add(ce);
+        }
+        return shards;
+    }
+
+    @Test
+    public void testMergeSmallShards() {
+
+        Report a = shard(10, 60, "GET:/x", "POST:/x");
+        a.getTestCases().add(testCase("t0"));
+        a.getTestCases().add(testCase("t1"));
+        a.getFaults().getFoundFaults().add(fault("GET:/x", "t0", 100, null));
+        a.getFaults().getFoundFaults().add(fault("POST:/x", "t1", 101, "foo"));
+        a.getProblemDetails().getRest().getCoveredHttpStatus().add(covered("GET:/x", "t0", 200));
+        a.setAdditionalProperty("k", "a");
+
+        Report b = shard(5, 90, "POST:/x", "DELETE:/x");
+        b.getTestCases().add(testCase("t1"));
+        b.getTestCases().add(testCase("t2"));
+        // same fault on same operation, detected by another test
+        b.getFaults().getFoundFaults().add(fault("GET:/x", "t2", 100, null));
+        // same category, but on another operation
+        b.getFaults().getFoundFaults().add(fault("DELETE:/x", "t2", 101, "foo"));
+        b.getProblemDetails().getRest().getCoveredHttpStatus().add(covered("GET:/x", "t0", 500));
+        b.getProblemDetails().getRest().getCoveredHttpStatus().add(covered("DELETE:/x", "t2", 204));
+        b.setAdditionalProperty("k", "b");
+
+        Report merged = new ReportMerger().merge(a, b);
+
+        assertEquals(Arrays.asList("t0", "t1", "t2"),
+                merged.getTestCases().stream().map(TestCase::getId).collect(Collectors.toList()));
+        assertEquals(3, merged.getTotalTests());
+
+        List<FoundFault> faults = merged.getFaults().getFoundFaults();
+        assertEquals(3, faults.size());
+        assertEquals("t0", faults.get(0).getTestCaseId());
+        assertEquals("t1", faults.get(1).getTestCaseId());
+        assertEquals("DELETE:/x", faults.get(2).getOperationId());
+        // (100, null) and (101, foo)
+        assertEquals(2, merged.getFaults().getTotalNumber());
+
+        RESTReport rest = merged.getProblemDetails().getRest();
+        assertEquals(Arrays.asList("GET:/x", "POST:/x", "DELETE:/x"), new ArrayList<>(rest.getEndpointIds()));
+        assertEquals(15, rest.getOutputHttpCalls());
+        assertEquals(1500, rest.getEvaluatedHttpCalls());
+        assertEquals(2, rest.getCoveredHttpStatus().size());
+        assertEquals(new HashSet<>(Arrays.asList(200, 500)), rest.getCoveredHttpStatus().get(0).getHttpStatus());
+        assertEquals(90, merged.getExecutionTimeInSeconds());
+        assertEquals("a", merged.getAdditionalProperties().get("k"));
+
+        // inputs are not modified
+        assertEquals(Collections.singleton(200), a.getProblemDetails().getRest().getCoveredHttpStatus().get(0).getHttpStatus());
+    }
+
+    @Test
+    public void testSameTestCaseIdsInShards() {
+
+        Report a = shard(10, 60, "GET:/x");
+        Report b = shard(10, 60, "GET:/x");
+        for (Report r : Arrays.asList(a, b)) {
+            TestCase tc = testCase("test_0");
+            tc.setFilePath("src/test/FuzzTest.java");
+            tc.setStartLine(10);
+            r.getTestCases().add(tc);
+        }
+        // the very same test, eg, from merging a report with a part of itself
+        assertEquals(1, new ReportMerger().merge(a, b).getTestCases().size());
+
+        // the same numbering in different shards
+        b.getTestCases().get(0).setFilePath("src/test/FuzzTest2.java");
+        b.getFaults().getFoundFaults().add(fault("GET:/x", "test_0", 100, null));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new ReportMerger().merge(a, b));
+        assertTrue(e.getMessage().contains("test_0"), e.getMessage());
+        assertTrue(e.getMessage().contains("FuzzTest2.java"), e.getMessage());
+    }
+
+    @Test
+    public void testMergeSplitReport() {
+
+        Report report = JacksonReports.readE2EReport();
+        List<Report> shards = split(report, 7);
+
+        Report merged = new ReportMerger().merge(shards);
+
+        assertEquals(new HashSet<>(report.getTestCases()), new HashSet<>(merged.getTestCases()));
+        assertEquals(report.getTestCases().size(), merged.getTotalTests());
+        assertEquals(faultKeys(report), faultKeys(merged));
+        assertEquals(new HashSet<>(report.getProblemDetails().getRest().getCoveredHttpStatus()),
+                new HashSet<>(merged.getProblemDetails().getRest().getCoveredHttpStatus()));
+        assertEquals(report.getProblemDetails().getRest().getEndpointIds(),
+                merged.getProblemDetails().getRest().getEndpointIds());
+
+        long distinct = report.getFaults().getFoundFaults().stream()
+                .flatMap(ff -> ff.getFaultCategories().stream())
+                .map(id -> Arrays.asList(id.getCode(), id.getContext()))
+                .distinct().count();
+        assertEquals(distinct, (long) merged.getFaults().getTotalNumber());
+    }
+
+    @Test
+    public void testIdempotentAndDeterministic() {
+
+        Report report = JacksonReports.readE2EReport();
+        Report once = new ReportMerger().merge(report);
+
+        Report thrice = new ReportMerger().merge(report, report, report);
+        RESTReport rest = thrice.getProblemDetails().getRest();
+        assertEquals(3 * report.getProblemDetails().getRest().getEvaluatedHttpCalls(), rest.getEvaluatedHttpCalls());
+        rest.setOutputHttpCalls(report.getProblemDetails().getRest().getOutputHttpCalls());
+        rest.setEvaluatedHttpCalls(report.getProblemDetails().getRest().getEvaluatedHttpCalls());
+        assertEquals(once, thrice);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int partitions : new int[]{1, 3, 64, 100_000}) {
+                Report merged = new ReportMerger(executor, partitions).merge(split(report, 5));
+                assertEquals(new ReportMerger().merge(split(report, 5)), merged);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMergeManyShards() {
+
+        List<Report> shards = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Report s = shard(1, i, "GET:/x");
+            s.getTestCases().add(testCase("t" + i));
+            s.getFaults().getFoundFaults().add(fault("GET:/x", "t" + i, 100, "" + (i % 10)));
+            s.getProblemDetails().getRest().getCoveredHttpStatus().add(covered("GET:/x", null, 200 + (i % 100)));
+            shards.add(s);
+        }
+
+        Report merged = new ReportMerger().merge(shards);
+
+        assertEquals(500, merged.getTestCases().size());
+        assertEquals(10, merged.getFaults().getFoundFaults().size());
+        assertEquals(10, merged.getFaults().getTotalNumber());
+        assertEquals(1, merged.getProblemDetails().getRest().getCoveredHttpStatus().size());
+        assertEquals(100, merged.getProblemDetails().getRest().getCoveredHttpStatus().get(0).getHttpStatus().size());
+        assertEquals(500, merged.getProblemDetails().getRest().getOutputHttpCalls());
+        assertEquals(499, merged.getExecutionTimeInSeconds());
+    }
+
+    @Test
+    public void testMergeStreams() throws IOException {
+
+        Report report = JacksonReports.readE2EReport();
+        List<Report> shards = split(report, 3);
+        List<ByteArrayInputStream> streams = shards.stream()
+                .map(s -> new ByteArrayInputStream(JacksonReports.write(s)))
+                .collect(Collectors.toList());
+
+        assertEquals(new ReportMerger().merge(shards), new ReportMerger().mergeStreams(streams));
+
+        List<ByteArrayInputStream> malformed = Arrays.asList(
+                new ByteArrayInputStream(JacksonReports.write(report)),
+                new ByteArrayInputStream("{\"testCases\":[".getBytes()));
+        assertThrows(IOException.class, () -> new ReportMerger().mergeStreams(malformed));
+    }
+}
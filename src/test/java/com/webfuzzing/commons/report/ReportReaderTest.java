@@ -0,0 +1,193 @@
+package com.webfuzzing.commons.report;
+
+import com.webfuzzing.commons.json.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportReaderTest {
+
+    private static ByteArrayInputStream input(byte[] data) {
+        return new ByteArrayInputStream(data);
+    }
+
+    @Test
+    public void testReadSameAsJackson() throws IOException {
+
+        byte[] data = JacksonReports.readE2EReportBytes();
+        Report report = ReportReader.readReport(input(data));
+        assertEquals(JacksonReports.readE2EReport(), report);
+
+        byte[] sample = JacksonReports.write(ReportWriterTest.sampleReport());
+        assertEquals(JacksonReports.read(sample), ReportReader.readReport(input(sample)));
+    }
+
+    @Test
+    public void testPullEntries() throws IOException {
+
+        Report expected = JacksonReports.readE2EReport();
+        int testCases = 0;
+        int foundFaults = 0;
+        int coveredEndpoints = 0;
+        int warnings = 0;
+
+        try (ReportReader reader = new ReportReader(input(JacksonReports.readE2EReportBytes()))) {
+            while (reader.next()) {
+                switch (reader.getEntryType()) {
+                    case TEST_CASE:
+                        assertEquals(expected.getTestCases().get(testCases++), reader.getTestCase());
+                        break;
+                    case FOUND_FAULT:
+                        assertEquals(expected.getFaults().getFoundFaults().get(foundFaults++), reader.getFoundFault());
+                        break;
+                    case COVERED_ENDPOINT:
+                        assertEquals(expected.getProblemDetails().getRest().getCoveredHttpStatus().get(coveredEndpoints++),
+                                reader.getCoveredEndpoint());
+                        break;
+                    case WARNING:
+                        assertEquals(expected.getWarnings().get(warnings++), reader.getWarning());
+                        break;
+                }
+            }
+            assertFalse(reader.next());
+
+            Report header = reader.getHeader();
+            assertEquals(expected.getToolName(), header.getToolName());
+            assertEquals(expected.getProblemDetails().getRest().getEndpointIds(),
+                    header.getProblemDetails().getRest().getEndpointIds());
+            assertTrue(header.getTestCases().isEmpty());
+        }
+
+        assertEquals(127, testCases);
+        assertEquals(112, foundFaults);
+        assertEquals(130, coveredEndpoints);
+        assertEquals(expected.getWarnings().size(), warnings);
+    }
+
+    @Test
+    public void testOnlySomeTypes() throws IOException {
+
+        try (ReportReader reader = new ReportReader(input(JacksonReports.readE2EReportBytes()),
+                EnumSet.of(ReportReader.EntryType.FOUND_FAULT))) {
+            int n = 0;
+            while (reader.next()) {
+                assertEquals(ReportReader.EntryType.FOUND_FAULT, reader.getEntryType());
+                assertNotNull(reader.getFoundFault());
+                assertThrows(IllegalStateException.class, reader::getTestCase);
+                n++;
+            }
+            assertEquals(112, n);
+        }
+    }
+
+    @Test
+    public void testReadHeader() throws IOException {
+
+        Report expected = JacksonReports.readE2EReport();
+        Report header = ReportReader.readHeader(input(JacksonReports.readE2EReportBytes()));
+
+        assertEquals(expected.getSchemaVersion(), header.getSchemaVersion());
+        assertEquals(expected.getCreationTime(), header.getCreationTime());
+        assertEquals(expected.getTotalTests(), header.getTotalTests());
+        assertEquals(expected.getTestFilePaths(), header.getTestFilePaths());
+        assertEquals(expected.getFaults().getTotalNumber(), header.getFaults().getTotalNumber());
+        assertEquals(expected.getExtra(), header.getExtra());
+        assertTrue(header.getTestCases().isEmpty());
+        assertTrue(header.getFaults().getFoundFaults().isEmpty());
+        assertTrue(header.getProblemDetails().getRest().getCoveredHttpStatus().isEmpty());
+        assertTrue(header.getWarnings().isEmpty());
+    }
+
+    @Test
+    public void testAnyOrderAndUnknownProperties() throws IOException {
+
+        String json = "{\"testCases\":[{\"id\":\"t0\",\"extra\":[1,{\"a\":null}]},null],"
+                + "\"problemDetails\":{\"rest\":{\"coveredHttpStatus\":[{\"endpointId\":\"GET:/x\",\"httpStatus\":[200,500]}],"
+                + "\"endpointIds\":[\"GET:/x\"]},\"graphql\":{}},"
+                + "\"custom\":\"x\",\"faults\":{\"foundFaults\":[],\"totalNumber\":0},\"toolName\":\"foo\",\"warnings\":null}";
+
+        Report report = ReportReader.readReport(input(json.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(JacksonReports.read(json.getBytes(StandardCharsets.UTF_8)), report);
+        assertEquals(2, report.getTestCases().size());
+        assertNull(report.getTestCases().get(1));
+        assertNull(report.getWarnings());
+        assertEquals("x", report.getAdditionalProperties().get("custom"));
+    }
+
+    @Test
+    public void testRoundTripWithWriter() throws IOException {
+
+        Report expected = JacksonReports.readE2EReport();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Warning> warnings = new ArrayList<>();
+
+        try (ReportReader reader = new ReportReader(input(JacksonReports.readE2EReportBytes()));
+             ReportWriter writer = new ReportWriter(out)) {
+            while (reader.next()) {
+                switch (reader.getEntryType()) {
+                    case TEST_CASE:
+                        writer.writeTestCase(reader.getTestCase());
+                        break;
+                    case FOUND_FAULT:
+                        writer.writeFoundFault(reader.getFoundFault());
+                        break;
+                    case COVERED_ENDPOINT:
+                        writer.writeCoveredEndpoint(reader.getCoveredEndpoint());
+                        break;
+                    case WARNING:
+                        warnings.add(reader.getWarning());
+                        break;
+                }
+            }
+            // header is complete only at the end of the document
+            writer.setHeader(reader.getHeader());
+            warnings.forEach(writer::addWarning);
+        }
+
+        assertEquals(expected, ReportReader.readReport(input(out.toByteArray())));
+    }
+
+    @Test
+    public void testSharedStrings() throws IOException {
+
+        StringDictionary dictionary = new StringDictionary();
+        Report report = ReportReader.readReport(input(JacksonReports.readE2EReportBytes()), dictionary);
+        Report other = ReportReader.readReport(input(JacksonReports.readE2EReportBytes()), dictionary);
+        assertEquals(JacksonReports.readE2EReport(), report);
+
+        Map<String, String> seen = new HashMap<>();
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            assertSame(seen.computeIfAbsent(ff.getOperationId(), k -> k), ff.getOperationId());
+        }
+        for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+            assertSame(seen.computeIfAbsent(ce.getEndpointId(), k -> k), ce.getEndpointId());
+        }
+        assertSame(report.getTestCases().get(0).getId(), other.getTestCases().get(0).getId());
+
+        Report notShared = ReportReader.readReport(input(JacksonReports.readE2EReportBytes()), null);
+        assertEquals(report, notShared);
+        assertNotSame(report.getTestCases().get(0).getId(), notShared.getTestCases().get(0).getId());
+
+        // opt-in, as a dictionary keeps all the distinct strings read
+        try (ReportReader reader = new ReportReader(input(JacksonReports.readE2EReportBytes()))) {
+            assertNull(reader.getStringDictionary());
+        }
+    }
+
+    @Test
+    public void testMalformed() {
+
+        byte[] data = "{\"faults\":{\"totalNumber\":\"x\"}}".getBytes(StandardCharsets.UTF_8);
+        IOException e = assertThrows(IOException.class, () -> ReportReader.readReport(input(data)));
+        assertTrue(e.getMessage().contains("$.faults.totalNumber"), e.getMessage());
+
+        byte[] truncated = "{\"testCases\":[{\"id\":\"t0\"}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> ReportReader.readReport(input(truncated)));
+    }
+}
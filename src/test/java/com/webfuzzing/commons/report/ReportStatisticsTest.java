@@ -0,0 +1,148 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.webfuzzing.commons.report.ReportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportStatisticsTest {
+
+    private static TestCase testCase(String id, String filePath) {
+        TestCase tc = new TestCase();
+        tc.setId(id);
+        tc.setFilePath(filePath);
+        return tc;
+    }
+
+    @Test
+    public void testEmpty() {
+        ReportStatistics stats = ReportStatistics.of(new Report());
+        assertEquals(0, stats.getNumberOfTestCases());
+        assertEquals(0, stats.getNumberOfDistinctFaults());
+        assertEquals(0, stats.getNumberOfCoveredEndpoints());
+        assertTrue(stats.getFaults().isEmpty());
+        assertTrue(stats.getStatusDistribution().isEmpty());
+        assertEquals(0, stats.getNumberOfTestCases(100, null));
+    }
+
+    @Test
+    public void testStatistics() {
+
+        Report report = new Report();
+        report.getTestCases().addAll(Arrays.asList(
+                testCase("t0", "a.java"), testCase("t1", "a.java"), testCase("t2", "b.java"), null));
+        Faults faults = new Faults();
+        faults.getFoundFaults().addAll(Arrays.asList(
+                fault("GET:/x", "t0", 100, null, 101, "a"),
+                fault("POST:/x", "t1", 100, null),
+                fault("GET:/x", "t2", 101, "a", 101, "b"),
+                null,
+                fault("GET:/x", "t2", 100, null)
+        ));
+        report.setFaults(faults);
+        RESTReport rest = new RESTReport();
+        rest.getCoveredHttpStatus().addAll(Arrays.asList(
+                covered("GET:/x", "t0", 200, 500),
+                covered("GET:/x", "t2", 200),
+                covered("POST:/x", "t1", 400),
+                covered("DELETE:/x", "t1", 999)
+        ));
+        ProblemDetails details = new ProblemDetails();
+        details.setRest(rest);
+        report.setProblemDetails(details);
+
+        ReportStatistics stats = ReportStatistics.of(report);
+
+        assertEquals(3, stats.getNumberOfTestCases());
+        Map<String, Integer> files = new LinkedHashMap<>();
+        files.put("a.java", 2);
+        files.put("b.java", 1);
+        assertEquals(files, stats.getTestCasesPerFile());
+
+        assertEquals(4, stats.getNumberOfFoundFaults());
+        assertEquals(3, stats.getNumberOfDistinctFaults());
+        assertEquals(3, stats.getNumberOfTestCases(100, null));
+        assertEquals(2, stats.getNumberOfTestCases(101, "a"));
+        assertEquals(1, stats.getNumberOfTestCases(101, "b"));
+        assertEquals(0, stats.getNumberOfTestCases(101, null));
+
+        List<FaultCategoryId> ids = stats.getFaults();
+        assertEquals(3, ids.size());
+        assertEquals(100, ids.get(0).getCode());
+        assertNull(ids.get(0).getContext());
+        assertEquals("a", ids.get(1).getContext());
+        assertEquals("b", ids.get(2).getContext());
+
+        Map<Integer, Integer> categories = new LinkedHashMap<>();
+        categories.put(100, 1);
+        categories.put(101, 2);
+        assertEquals(categories, stats.getFaultsPerCategory());
+
+        Map<String, Integer> endpoints = new LinkedHashMap<>();
+        endpoints.put("GET:/x", 3);
+        endpoints.put("POST:/x", 1);
+        assertEquals(endpoints, stats.getFaultsPerEndpoint());
+
+        assertEquals(4, stats.getNumberOfCoveredEndpoints());
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(200, 2);
+        distribution.put(400, 1);
+        distribution.put(500, 1);
+        distribution.put(999, 1);
+        assertEquals(distribution, stats.getStatusDistribution());
+        assertEquals(new ArrayList<>(distribution.keySet()), new ArrayList<>(stats.getStatusDistribution().keySet()));
+        assertEquals(new TreeSet<>(Arrays.asList(200, 500)), stats.getStatusesPerEndpoint().get("GET:/x"));
+        assertEquals(Collections.singleton(999), stats.getStatusesPerEndpoint().get("DELETE:/x"));
+
+        assertThrows(UnsupportedOperationException.class, () -> stats.getFaultsPerEndpoint().clear());
+        assertThrows(UnsupportedOperationException.class, () -> stats.getStatusesPerEndpoint().get("GET:/x").clear());
+    }
+
+    @Test
+    public void testParallel(@TempDir Path dir) throws IOException {
+
+        ReportGenerator generator = new ReportGenerator();
+        generator.setEndpoints(50);
+        generator.setTestCases(20_000);
+        generator.setFaultsPerTest(0.5);
+        Report report;
+        try (InputStream in = Files.newInputStream(generator.generate(dir))) {
+            report = ReportReader.readReport(in);
+        }
+
+        ReportStatistics stats = ReportStatistics.of(report);
+        FaultIndex index = FaultIndex.of(report);
+        assertEquals(report.getTestCases().size(), stats.getNumberOfTestCases());
+        assertEquals(index.getTotalNumber(), stats.getNumberOfDistinctFaults());
+        assertEquals(index.getNumberOfFoundFaults(), stats.getNumberOfFoundFaults());
+        for (FaultCategoryId id : index.getFaults()) {
+            assertEquals(index.getNumberOfTestCases(id.getCode(), id.getContext()),
+                    stats.getNumberOfTestCases(id.getCode(), id.getContext()));
+            assertEquals(index.getTotalNumber(id.getCode()), (int) stats.getFaultsPerCategory().get(id.getCode()));
+        }
+        assertEquals(report.getTestFilePaths().size(), stats.getTestCasesPerFile().size());
+        assertEquals(report.getProblemDetails().getRest().getCoveredHttpStatus().size(),
+                stats.getNumberOfCoveredEndpoints());
+
+        // same results regardless of how entries are split
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            ReportStatistics sequential = ReportStatistics.of(report, pool);
+            assertEquals(stats.getFaults(), sequential.getFaults());
+            assertEquals(stats.getTestCasesPerFile(), sequential.getTestCasesPerFile());
+            assertEquals(stats.getFaultsPerEndpoint(), sequential.getFaultsPerEndpoint());
+            assertEquals(stats.getStatusDistribution(), sequential.getStatusDistribution());
+            assertEquals(stats.getStatusesPerEndpoint(), sequential.getStatusesPerEndpoint());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
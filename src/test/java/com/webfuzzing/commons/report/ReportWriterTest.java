@@ -0,0 +1,274 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportWriterTest {
+
+    private static FaultCategoryId faultCategoryId(int code, String context) {
+        FaultCategoryId id = new FaultCategoryId();
+        id.setCode(code);
+        id.setContext(context);
+        return id;
+    }
+
+    /**
+     * A small report, with some special characters, null values and additional properties
+     */
+    static Report sampleReport() {
+
+        Report report = new Report();
+        report.setSchemaVersion("0.0.1");
+        report.setToolName("EvoMaster");
+        report.setToolVersion("1.0.0");
+        report.setCreationTime("2025-04-09T19:31:54.258Z");
+        report.setExecutionTimeInSeconds(60);
+        report.setTotalTests(3);
+        report.getTestFilePaths().add("faults.java");
+        report.getTestFilePaths().add("successes.java");
+        report.setAdditionalProperty("custom", "x");
+
+        Faults faults = new Faults();
+        faults.setTotalNumber(2);
+        report.setFaults(faults);
+
+        FoundFault f0 = new FoundFault();
+        f0.setOperationId("GET:/api/users/{id}");
+        f0.setTestCaseId("faults.java#test_0");
+        f0.getFaultCategories().add(faultCategoryId(100, null));
+        f0.getFaultCategories().add(faultCategoryId(101, "[Path '/x'] Instance type (null) does not match (allowed: [\"string\"])"));
+        faults.getFoundFaults().add(f0);
+
+        FoundFault f1 = new FoundFault();
+        f1.setOperationId("POST:/api/users");
+        f1.setTestCaseId("faults.java#test_1");
+        f1.getFaultCategories().add(faultCategoryId(100, null));
+        f1.setAdditionalProperty("severity", 3);
+        faults.getFoundFaults().add(f1);
+
+        RESTReport rest = new RESTReport();
+        rest.setOutputHttpCalls(10);
+        rest.setEvaluatedHttpCalls(1000);
+        rest.getEndpointIds().add("GET:/api/users/{id}");
+        rest.getEndpointIds().add("POST:/api/users");
+        ProblemDetails problemDetails = new ProblemDetails();
+        problemDetails.setRest(rest);
+        report.setProblemDetails(problemDetails);
+
+        CoveredEndpoint c0 = new CoveredEndpoint();
+        c0.setEndpointId("GET:/api/users/{id}");
+        c0.setTestCaseId("faults.java#test_0");
+        c0.setHttpStatus(new LinkedHashSet<>(Arrays.asList(200, 500)));
+        rest.getCoveredHttpStatus().add(c0);
+        CoveredEndpoint c1 = new CoveredEndpoint();
+        c1.setEndpointId("POST:/api/users");
+        c1.setTestCaseId("successes.java#test_2");
+        c1.setHttpStatus(null);
+        rest.getCoveredHttpStatus().add(c1);
+
+        for (int i = 0; i < 3; i++) {
+            TestCase tc = new TestCase();
+            tc.setId((i < 2 ? "faults.java" : "successes.java") + "#test_" + i);
+            tc.setFilePath(i < 2 ? "faults.java" : "successes.java");
+            tc.setName("test_" + i);
+            tc.setStartLine(10 * i);
+            tc.setEndLine(10 * i + 8);
+            if (i == 1) {
+                tc.getNamedExamples().add("\u00e9\t\"quoted\"");
+            }
+            report.getTestCases().add(tc);
+        }
+
+        Coverage coverage = new Coverage();
+        coverage.setToolName("JaCoCo");
+        CoverageCriterion line = new CoverageCriterion();
+        line.setName("line");
+        line.setCovered(42);
+        line.setTotal(100);
+        coverage.getCriteria().add(line);
+        CoverageCriterion branch = new CoverageCriterion();
+        branch.setName("branch");
+        branch.setCovered(7);
+        coverage.getCriteria().add(branch);
+        report.getExtra().add(coverage);
+
+        Warning warning = new Warning();
+        warning.setMessage("No auth\nconfigured");
+        warning.setCategory("FUZZER");
+        warning.setDisplayPriority(1);
+        report.getWarnings().add(warning);
+
+        return report;
+    }
+
+    private static byte[] write(Report report) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter.write(report, out);
+        return out.toByteArray();
+    }
+
+    private static void stream(Report report, ReportWriter writer) throws IOException {
+        writer.setHeader(report);
+        // order of production does not matter
+        for (int i = 0; i < 3; i++) {
+            if (i < report.getTestCases().size()) {
+                writer.writeTestCase(report.getTestCases().get(i));
+            }
+            if (i < report.getFaults().getFoundFaults().size()) {
+                writer.writeFoundFault(report.getFaults().getFoundFaults().get(i));
+            }
+            if (i < report.getProblemDetails().getRest().getCoveredHttpStatus().size()) {
+                writer.writeCoveredEndpoint(report.getProblemDetails().getRest().getCoveredHttpStatus().get(i));
+            }
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testSameAsJackson() throws IOException {
+
+        Report report = sampleReport();
+        String jackson = new String(JacksonReports.write(report), StandardCharsets.UTF_8);
+        String ours = new String(write(report), StandardCharsets.UTF_8);
+        assertEquals(jackson, ours);
+    }
+
+    @Test
+    public void testE2EReportSameAsJackson() throws IOException {
+
+        Report report = JacksonReports.readE2EReport();
+        assertTrue(report.getTestCases().size() > 100);
+        assertArrayEquals(JacksonReports.write(report), write(report));
+    }
+
+    @Test
+    public void testStreamingToStream(@TempDir Path tmp) throws IOException {
+
+        Report report = sampleReport();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream(report, new ReportWriter(out, tmp));
+
+        assertArrayEquals(write(report), out.toByteArray());
+        // all temporary files should had been deleted
+        try (Stream<Path> files = Files.list(tmp)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testStreamingToChannel(@TempDir Path tmp) throws IOException {
+
+        Report report = sampleReport();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream(report, new ReportWriter(Channels.newChannel(out), tmp));
+
+        assertArrayEquals(write(report), out.toByteArray());
+    }
+
+    @Test
+    public void testStreamingE2EReport(@TempDir Path tmp) throws IOException {
+
+        Report report = JacksonReports.readE2EReport();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter writer = new ReportWriter(out, tmp);
+        writer.setHeader(report);
+        for (TestCase tc : report.getTestCases()) {
+            writer.writeTestCase(tc);
+        }
+        for (CoveredEndpoint ce : report.getProblemDetails().getRest().getCoveredHttpStatus()) {
+            writer.writeCoveredEndpoint(ce);
+        }
+        for (FoundFault ff : report.getFaults().getFoundFaults()) {
+            writer.writeFoundFault(ff);
+        }
+        writer.close();
+
+        assertArrayEquals(JacksonReports.write(report), out.toByteArray());
+    }
+
+    @Test
+    public void testHeaderAfterCoveredEndpoints(@TempDir Path tmp) throws IOException {
+
+        CoveredEndpoint ce = new CoveredEndpoint();
+        ce.setEndpointId("GET:/x");
+        ce.getHttpStatus().add(200);
+        Report header = new Report();
+        header.setToolName("test");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(out, tmp)) {
+            writer.setOutputHttpCalls(5);
+            writer.writeCoveredEndpoint(ce);
+            writer.setHeader(header);
+        }
+
+        Report read = JacksonReports.read(out.toByteArray());
+        assertEquals("test", read.getToolName());
+        assertEquals(5, read.getProblemDetails().getRest().getOutputHttpCalls());
+        assertEquals(Collections.singletonList(ce), read.getProblemDetails().getRest().getCoveredHttpStatus());
+    }
+
+    @Test
+    public void testComputedTotals(@TempDir Path tmp) throws IOException {
+
+        Report report = sampleReport();
+        report.setTotalTests(null);
+        report.getFaults().setTotalNumber(null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream(report, new ReportWriter(out, tmp));
+
+        Report read = JacksonReports.read(out.toByteArray());
+        assertEquals(3, read.getTotalTests());
+        // (100,null) is repeated in 2 found faults
+        assertEquals(2, read.getFaults().getTotalNumber());
+        assertEquals(report.getTestCases(), read.getTestCases());
+        assertEquals(report.getFaults().getFoundFaults(), read.getFaults().getFoundFaults());
+    }
+
+    @Test
+    public void testIncrementalHeader(@TempDir Path tmp) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(out, tmp)) {
+            writer.setToolName("foo");
+            TestCase tc = new TestCase();
+            tc.setId("a");
+            writer.writeTestCase(tc);
+            writer.addEndpointId("GET:/a");
+            writer.addTestFilePath("a.java");
+            writer.setSchemaVersion("0.0.1");
+            assertEquals(1, writer.getWrittenTestCases());
+        }
+
+        String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals("{\"schemaVersion\":\"0.0.1\",\"toolName\":\"foo\",\"faults\":{\"totalNumber\":0,\"foundFaults\":[]}," +
+                "\"problemDetails\":{\"rest\":{\"endpointIds\":[\"GET:/a\"],\"coveredHttpStatus\":[]}}," +
+                "\"totalTests\":1,\"testFilePaths\":[\"a.java\"],\"testCases\":[{\"id\":\"a\",\"namedExamples\":[]}]," +
+                "\"extra\":[],\"warnings\":[]}", json);
+    }
+
+    @Test
+    public void testClosed(@TempDir Path tmp) throws IOException {
+
+        ReportWriter writer = new ReportWriter(new ByteArrayOutputStream(), tmp);
+        writer.close();
+        writer.close();
+        assertThrows(IllegalStateException.class, () -> writer.writeTestCase(new TestCase()));
+        assertThrows(IllegalStateException.class, () -> writer.setToolName("foo"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSuiteFilesTest {
+
+    @Test
+    public void testGeneratedSuite(@TempDir Path dir) throws IOException {
+
+        ReportGenerator generator = new ReportGenerator();
+        generator.setTestCases(500);
+        generator.setTestsPerFile(60);
+        Path path = generator.generate(dir);
+        Report report;
+        try (InputStream in = Files.newInputStream(path)) {
+            report = ReportReader.readReport(in);
+        }
+
+        TestSuiteFiles files = new TestSuiteFiles(report, dir);
+        for (TestCase tc : report.getTestCases()) {
+            List<String> lines = Files.readAllLines(dir.resolve(tc.getFilePath()), StandardCharsets.UTF_8);
+            String expected = String.join("\n", lines.subList(tc.getStartLine() - 1, tc.getEndLine()));
+            assertEquals(expected, files.getCodeAsString(tc));
+        }
+        assertEquals(report.getTestFilePaths().size(), files.getNumberOfIndexedFiles());
+    }
+
+    @Test
+    public void testAccess(@TempDir Path dir) throws IOException {
+
+        Files.write(dir.resolve("a.java"), "class A {\n  void a() {}\n}\n".getBytes(StandardCharsets.UTF_8));
+        TestSuiteFiles files = new TestSuiteFiles(Arrays.asList("a.java", "missing.java"), dir);
+
+        TestCase tc = new TestCase();
+        tc.setFilePath("a.java");
+        tc.setStartLine(2);
+        assertEquals("  void a() {}", files.getCodeAsString(tc));
+        assertTrue(files.getCode(tc).isReadOnly());
+
+        tc.setFilePath("b.java");
+        assertThrows(IllegalArgumentException.class, () -> files.getCode(tc));
+        tc.setFilePath("missing.java");
+        assertThrows(NoSuchFileException.class, () -> files.getCode(tc));
+        tc.setFilePath("a.java");
+        tc.setEndLine(10);
+        assertThrows(IllegalArgumentException.class, () -> files.getCode(tc));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new TestSuiteFiles(Collections.singletonList("../outside.java"), dir));
+    }
+}
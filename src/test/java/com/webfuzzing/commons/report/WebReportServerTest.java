@@ -0,0 +1,257 @@
+package com.webfuzzing.commons.report;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebReportServerTest {
+
+    @TempDir
+    Path dir;
+
+    private WebReportServer server;
+
+    private byte[] report;
+
+    @BeforeEach
+    public void start() throws IOException {
+        Path root = Files.createDirectory(dir.resolve("webreport"));
+        Files.write(root.resolve("index.html"), "<html></html>".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectory(root.resolve("assets"));
+        Files.write(root.resolve("assets/index-1a2b3c.js"), "console.log(1)".getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder("{\"testCases\":[");
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"id\":\"t").append(i).append("\"}");
+        }
+        report = sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(root.resolve("report.json"), report);
+        Files.write(dir.resolve("secret.txt"), "secret".getBytes(StandardCharsets.UTF_8));
+
+        server = new WebReportServer(root, new InetSocketAddress("localhost", 0), 4);
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    private HttpURLConnection open(String path, String... headers) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL(server.getUri().toString() + path).openConnection();
+        for (int i = 0; i < headers.length; i += 2) {
+            c.setRequestProperty(headers[i], headers[i + 1]);
+        }
+        return c;
+    }
+
+    private static byte[] body(HttpURLConnection c) throws IOException {
+        InputStream in = c.getResponseCode() >= 400 ? c.getErrorStream() : c.getInputStream();
+        return in == null ? new byte[0] : readAll(in);
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        return readAll(new GZIPInputStream(new ByteArrayInputStream(gzip)));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream i = in) {
+            byte[] buffer = new byte[8192];
+            for (int n = i.read(buffer); n >= 0; n = i.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testGet() throws IOException {
+        HttpURLConnection c = open("");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("<html></html>", new String(body(c), StandardCharsets.UTF_8));
+        assertEquals("text/html; charset=utf-8", c.getHeaderField("Content-Type"));
+        assertEquals("no-cache", c.getHeaderField("Cache-Control"));
+        assertNotNull(c.getHeaderField("ETag"));
+        assertNotNull(c.getHeaderField("Last-Modified"));
+
+        c = open("assets/index-1a2b3c.js");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("console.log(1)", new String(body(c), StandardCharsets.UTF_8));
+        assertTrue(c.getHeaderField("Cache-Control").contains("immutable"));
+
+        c = open("report.json");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("application/json", c.getHeaderField("Content-Type"));
+        assertNull(c.getHeaderField("Content-Encoding"));
+        assertArrayEquals(report, body(c));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        assertEquals(404, open("missing.json").getResponseCode());
+        assertEquals(404, open("%2e%2e/secret.txt").getResponseCode());
+        assertEquals(404, open("assets/..%2f..%2fsecret.txt").getResponseCode());
+
+        HttpURLConnection c = open("report.json");
+        c.setRequestMethod("DELETE");
+        assertEquals(405, c.getResponseCode());
+        assertEquals("GET, HEAD", c.getHeaderField("Allow"));
+    }
+
+    @Test
+    public void testSymbolicLinks() throws IOException {
+        Path root = server.getRoot();
+        try {
+            Files.createSymbolicLink(root.resolve("secret.txt"), dir.resolve("secret.txt"));
+            Files.createSymbolicLink(root.resolve("outside"), dir);
+            Files.createSymbolicLink(root.resolve("copy.json"), root.resolve("report.json"));
+        } catch (UnsupportedOperationException | IOException e) {
+            Assumptions.assumeTrue(false, "No symbolic links: " + e);
+        }
+
+        assertEquals(404, open("secret.txt").getResponseCode());
+        assertEquals(404, open("outside/secret.txt").getResponseCode());
+        // links within the root directory are fine
+        HttpURLConnection c = open("copy.json");
+        assertEquals(200, c.getResponseCode());
+        assertArrayEquals(report, body(c));
+    }
+
+    @Test
+    public void testHead() throws IOException {
+        HttpURLConnection c = open("report.json");
+        c.setRequestMethod("HEAD");
+        assertEquals(200, c.getResponseCode());
+        assertEquals(Integer.toString(report.length), c.getHeaderField("Content-Length"));
+        assertEquals(0, body(c).length);
+    }
+
+    @Test
+    public void testConditional() throws IOException {
+        HttpURLConnection c = open("report.json");
+        assertEquals(200, c.getResponseCode());
+        String etag = c.getHeaderField("ETag");
+        String lastModified = c.getHeaderField("Last-Modified");
+        body(c);
+
+        c = open("report.json", "If-None-Match", etag);
+        assertEquals(304, c.getResponseCode());
+        assertEquals(etag, c.getHeaderField("ETag"));
+        assertEquals(304, open("report.json", "If-None-Match", "\"x\", W/" + etag).getResponseCode());
+        assertEquals(200, open("report.json", "If-None-Match", "\"x\"").getResponseCode());
+        assertEquals(304, open("report.json", "If-Modified-Since", lastModified).getResponseCode());
+        assertEquals(200, open("report.json", "If-Modified-Since", "Mon, 01 Jan 2001 00:00:00 GMT").getResponseCode());
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            HttpURLConnection c = open("report.json", "Accept-Encoding", "deflate, gzip");
+            assertEquals(200, c.getResponseCode());
+            assertEquals("gzip", c.getHeaderField("Content-Encoding"));
+            assertEquals("Accept-Encoding", c.getHeaderField("Vary"));
+            byte[] gzip = body(c);
+            assertTrue(gzip.length < report.length / 4);
+            assertEquals(Integer.toString(gzip.length), c.getHeaderField("Content-Length"));
+            assertArrayEquals(report, gunzip(gzip));
+
+            // the tag of the compressed content also validates
+            assertEquals(304, open("report.json", "Accept-Encoding", "gzip",
+                    "If-None-Match", c.getHeaderField("ETag")).getResponseCode());
+        }
+        assertNull(open("report.json", "Accept-Encoding", "gzip;q=0").getHeaderField("Content-Encoding"));
+        // too small to be compressed
+        assertNull(open("index.html", "Accept-Encoding", "gzip").getHeaderField("Content-Encoding"));
+    }
+
+    @Test
+    public void testGzipLargeFile() throws IOException {
+        // compressed while sent, instead of cached
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 3 * 1024 * 1024; i++) {
+            sb.append("    @Test\n    public void test_").append(i).append("() {}\n");
+        }
+        byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(server.getRoot().resolve("LargeTest.java"), content);
+
+        HttpURLConnection c = open("LargeTest.java", "Accept-Encoding", "gzip");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("gzip", c.getHeaderField("Content-Encoding"));
+        assertEquals("text/plain; charset=utf-8", c.getHeaderField("Content-Type"));
+        assertArrayEquals(content, gunzip(body(c)));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        HttpURLConnection c = open("report.json", "Range", "bytes=0-13", "Accept-Encoding", "gzip");
+        assertEquals(206, c.getResponseCode());
+        assertEquals("bytes 0-13/" + report.length, c.getHeaderField("Content-Range"));
+        assertNull(c.getHeaderField("Content-Encoding"));
+        assertEquals("{\"testCases\":[", new String(body(c), StandardCharsets.UTF_8));
+
+        c = open("report.json", "Range", "bytes=-2");
+        assertEquals(206, c.getResponseCode());
+        assertEquals("]}", new String(body(c), StandardCharsets.UTF_8));
+
+        c = open("report.json", "Range", "bytes=" + (report.length - 3) + "-");
+        assertEquals("}]}", new String(body(c), StandardCharsets.UTF_8));
+
+        c = open("report.json", "Range", "bytes=" + report.length + "-");
+        assertEquals(416, c.getResponseCode());
+        assertEquals("bytes */" + report.length, c.getHeaderField("Content-Range"));
+
+        // ignored
+        assertEquals(200, open("report.json", "Range", "bytes=0-1,5-6").getResponseCode());
+        assertEquals(200, open("report.json", "Range", "bytes=0-1", "If-Range", "\"old\"").getResponseCode());
+        c = open("report.json");
+        String etag = c.getHeaderField("ETag");
+        assertEquals(206, open("report.json", "Range", "bytes=0-1", "If-Range", etag).getResponseCode());
+    }
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new long[]{0, 9}, WebReportServer.parseRange("bytes=0-9", 100));
+        assertArrayEquals(new long[]{90, 99}, WebReportServer.parseRange("bytes=90-200", 100));
+        assertArrayEquals(new long[]{0, 99}, WebReportServer.parseRange("bytes=-200", 100));
+        assertEquals(0, WebReportServer.parseRange("bytes=100-", 100).length);
+        assertEquals(0, WebReportServer.parseRange("bytes=-0", 100).length);
+        assertNull(WebReportServer.parseRange("bytes=9-0", 100));
+        assertNull(WebReportServer.parseRange("bytes=a-b", 100));
+        assertNull(WebReportServer.parseRange("items=0-9", 100));
+    }
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        int clients = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<byte[]>> downloads = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                downloads.add(executor.submit(() -> body(open("report.json"))));
+            }
+            for (Future<byte[]> f : downloads) {
+                assertArrayEquals(report, f.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}